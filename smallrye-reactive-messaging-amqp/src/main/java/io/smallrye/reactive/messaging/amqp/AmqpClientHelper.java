@@ -32,6 +32,27 @@ public class AmqpClientHelper {
         return client;
     }
 
+    /**
+     * Computes the key identifying the connection settings of a channel. Channels sharing their connection share it
+     * with the channels having the same key.
+     *
+     * @param config the channel configuration
+     * @return the key
+     */
+    static String getConnectionKey(AmqpConnectorCommonConfiguration config) {
+        Optional<String> clientOptionsName = config.getClientOptionsName();
+        if (clientOptionsName.isPresent()) {
+            return "bean:" + clientOptionsName.get();
+        }
+        String containerId = config.getContainerId()
+                .orElseGet(() -> config.config.getOptionalValue("containerId", String.class).orElse(null));
+        return String.join("|", config.getHost(), Integer.toString(config.getPort()),
+                config.getUsername().orElse(""), config.getPassword().orElse(""),
+                Boolean.toString(config.getUseSsl()), String.valueOf(containerId),
+                Integer.toString(config.getReconnectAttempts()), Integer.toString(config.getReconnectInterval()),
+                Integer.toString(config.getConnectTimeout()));
+    }
+
     static AmqpClient createClientFromClientOptionsBean(Vertx vertx, Instance<AmqpClientOptions> instance,
             String optionsBeanName) {
         Instance<AmqpClientOptions> options = instance.select(NamedLiteral.of(optionsBeanName));
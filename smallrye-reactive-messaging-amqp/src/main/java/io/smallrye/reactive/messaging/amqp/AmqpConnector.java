@@ -31,8 +31,10 @@ import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
 import io.smallrye.reactive.messaging.amqp.fault.*;
 import io.smallrye.reactive.messaging.annotations.ConnectorAttribute;
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
 import io.smallrye.reactive.messaging.connectors.ExecutionHolder;
 import io.smallrye.reactive.messaging.health.HealthReport;
 import io.smallrye.reactive.messaging.health.HealthReporter;
@@ -59,15 +61,21 @@ import io.vertx.mutiny.core.Vertx;
 @ConnectorAttribute(name = "address", direction = INCOMING_AND_OUTGOING, description = "The AMQP address. If not set, the channel name is used", type = "string")
 @ConnectorAttribute(name = "link-name", direction = INCOMING_AND_OUTGOING, description = "The name of the link. If not set, the channel name is used.", type = "string")
 @ConnectorAttribute(name = "client-options-name", direction = INCOMING_AND_OUTGOING, description = "The name of the AMQP Client Option bean used to customize the AMQP client configuration", type = "string", alias = "amqp-client-options-name")
+@ConnectorAttribute(name = "shared-connection", direction = INCOMING_AND_OUTGOING, description = "Whether the channel shares its AMQP connection with the other channels using the same connection settings (host, port, credentials, SSL, container id, reconnection and client options bean). Each channel uses its own link on the shared connection", type = "boolean", alias = "amqp-shared-connection", defaultValue = "false")
+@ConnectorAttribute(name = "shared-connection.pool-size", direction = INCOMING_AND_OUTGOING, description = "The number of connections shared by the channels using the same connection settings. The channels are assigned to the connections in a round-robin fashion", type = "int", alias = "amqp-shared-connection.pool-size", defaultValue = "1")
 
 @ConnectorAttribute(name = "broadcast", direction = INCOMING, description = "Whether the received AMQP messages must be dispatched to multiple _subscribers_", type = "boolean", defaultValue = "false")
 @ConnectorAttribute(name = "durable", direction = INCOMING, description = "Whether AMQP subscription is durable", type = "boolean", defaultValue = "true")
 @ConnectorAttribute(name = "auto-acknowledgement", direction = INCOMING, description = "Whether the received AMQP messages must be acknowledged when received", type = "boolean", defaultValue = "false")
 @ConnectorAttribute(name = "failure-strategy", type = "string", direction = INCOMING, description = "Specify the failure strategy to apply when a message produced from an AMQP message is nacked. Accepted values are `fail` (default), `accept`, `release`, `reject`, `modified-failed`, `modified-failed-undeliverable-here`", defaultValue = "fail")
+@ConnectorAttribute(name = "prefetch", type = "int", direction = INCOMING, description = "The number of messages the broker can send ahead of the downstream demand (link credit). Received messages are buffered, and a credit is granted back each time a message is dispatched downstream. If not set, the AMQP client default (1000) is used")
+@ConnectorAttribute(name = "ack-timeout", type = "long", direction = INCOMING, description = "The maximum time in milliseconds between the reception of an AMQP message and its acknowledgement. If not set, the acknowledgement deadlines are not tracked")
+@ConnectorAttribute(name = "ack-timeout.action", type = "string", direction = INCOMING, description = "The action executed when a message is not acknowledged before `ack-timeout`. Accepted values are `log` (default, only logs a warning), `nack` (nacks the message, applying the `failure-strategy`) and `fail` (marks the channel as not alive while it has overdue messages)", defaultValue = "log")
 
 @ConnectorAttribute(name = "durable", direction = OUTGOING, description = "Whether sent AMQP messages are marked durable", type = "boolean", defaultValue = "false")
 @ConnectorAttribute(name = "ttl", direction = OUTGOING, description = "The time-to-live of the send AMQP messages. 0 to disable the TTL", type = "long", defaultValue = "0")
-@ConnectorAttribute(name = "credit-retrieval-period", direction = OUTGOING, description = "The period (in milliseconds) between two attempts to retrieve the credits granted by the broker. This time is used when the sender run out of credits.", type = "int", defaultValue = "2000")
+@ConnectorAttribute(name = "credit-retrieval-period", direction = OUTGOING, description = "The period (in milliseconds) between two attempts to retrieve the credits granted by the broker, when the sender ran out of credits. The credits are retrieved as soon as the broker grants them, this period is only a safety net.", type = "int", defaultValue = "2000")
+@ConnectorAttribute(name = "pre-settled", direction = OUTGOING, description = "Whether the messages are sent without waiting for the broker to accept them (at-most-once). The messages are acknowledged as soon as they are written to the link. Suited to telemetry-style channels tolerating message loss.", type = "boolean", defaultValue = "false")
 @ConnectorAttribute(name = "use-anonymous-sender", direction = OUTGOING, description = "Whether or not the connector should use an anonymous sender.", type = "boolean", defaultValue = "true")
 
 public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnectorFactory, HealthReporter {
@@ -82,6 +90,7 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
 
     private final List<AmqpClient> clients = new CopyOnWriteArrayList<>();
     private final List<AmqpCreditBasedSender> processors = new CopyOnWriteArrayList<>();
+    private final Map<String, SharedConnections> sharedConnections = new ConcurrentHashMap<>();
 
     private final Map<String, Boolean> opened = new ConcurrentHashMap<>();
 
@@ -96,9 +105,12 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private Multi<? extends Message<?>> getStreamOfMessages(AmqpReceiver receiver,
             ConnectionHolder holder,
+            String channel,
             String address,
-            AmqpFailureHandler onNack) {
+            AmqpFailureHandler onNack,
+            AckDeadlines deadlines) {
         log.receiverListeningAddress(address);
+        DispositionBatcher dispositions = new DispositionBatcher(holder.getContext());
 
         // The processor is used to inject AMQP Connection failure in the stream and trigger a retry.
         BroadcastProcessor processor = BroadcastProcessor.create();
@@ -106,13 +118,23 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
             log.receiverError(t);
             processor.onError(t);
         });
-        holder.onFailure(processor::onError);
+        holder.onFailure(channel, processor::onError);
 
         return Multi.createFrom().deferred(
                 () -> {
-                    Multi<? extends Message<?>> stream = receiver.toMulti()
-                            .map(m -> new AmqpMessage<>(m, holder.getContext(), onNack));
-                    return Multi.createBy().merging().streams(stream, processor);
+                    // The messages are fetched from the receiver according to the downstream demand, so the credits
+                    // granted to the broker are bounded by the prefetch window (`receiver.toMulti()` would request
+                    // everything)
+                    receiver.pause();
+                    Multi<? extends Message<?>> stream = Multi
+                            .createFrom().<io.vertx.mutiny.amqp.AmqpMessage> emitter(emitter -> {
+                                receiver.handler(emitter::emit);
+                                receiver.endHandler(x -> emitter.complete());
+                            }, BackPressureStrategy.BUFFER)
+                            .onRequest().invoke(receiver::fetch)
+                            .map(m -> new AmqpMessage<>(m.getDelegate(), holder.getContext(), onNack, dispositions)
+                                    .track(deadlines));
+                    return Multi.createBy().merging().withRequests(1).streams(stream, processor);
                 });
     }
 
@@ -127,19 +149,24 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
         boolean durable = ic.getDurable();
         boolean autoAck = ic.getAutoAcknowledgement();
 
-        AmqpClient client = AmqpClientHelper.createClient(this, ic, clientOptions);
         String link = ic.getLinkName().orElseGet(ic::getChannel);
-        ConnectionHolder holder = new ConnectionHolder(client, ic, getVertx());
+        ConnectionHolder holder = getConnectionHolder(ic);
 
         AmqpFailureHandler onNack = createFailureHandler(ic);
+        AckDeadlines deadlines = ic.getAckTimeout()
+                .map(timeout -> executionHolder.ackDeadlines(ic.getChannel(), timeout, ic.getAckTimeoutAction()))
+                .orElse(null);
+
+        AmqpReceiverOptions options = new AmqpReceiverOptions()
+                .setAutoAcknowledgement(autoAck)
+                .setDurable(durable)
+                .setLinkName(link);
+        ic.getPrefetch().ifPresent(options::setMaxBufferedMessages);
 
         Multi<? extends Message<?>> multi = holder.getOrEstablishConnection()
-                .onItem().transformToUni(connection -> connection.createReceiver(address, new AmqpReceiverOptions()
-                        .setAutoAcknowledgement(autoAck)
-                        .setDurable(durable)
-                        .setLinkName(link)))
+                .onItem().transformToUni(connection -> connection.createReceiver(address, options))
                 .onItem().invoke(r -> opened.put(ic.getChannel(), true))
-                .onItem().transformToMulti(r -> getStreamOfMessages(r, holder, address, onNack));
+                .onItem().transformToMulti(r -> getStreamOfMessages(r, holder, ic.getChannel(), address, onNack, deadlines));
 
         Integer interval = ic.getReconnectInterval();
         Integer attempts = ic.getReconnectAttempts();
@@ -168,9 +195,8 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
         opened.put(oc.getChannel(), false);
 
         AtomicReference<AmqpSender> sender = new AtomicReference<>();
-        AmqpClient client = AmqpClientHelper.createClient(this, oc, clientOptions);
         String link = oc.getLinkName().orElseGet(oc::getChannel);
-        ConnectionHolder holder = new ConnectionHolder(client, oc, getVertx());
+        ConnectionHolder holder = getConnectionHolder(oc);
 
         Uni<AmqpSender> getSender = Uni.createFrom().item(sender.get())
                 .onItem().ifNull().switchTo(() -> {
@@ -223,6 +249,41 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
         processors.forEach(AmqpCreditBasedSender::cancel);
         clients.forEach(c -> c.close().subscribeAsCompletionStage());
         clients.clear();
+        sharedConnections.clear();
+    }
+
+    private ConnectionHolder getConnectionHolder(AmqpConnectorCommonConfiguration config) {
+        if (!config.getSharedConnection()) {
+            AmqpClient client = AmqpClientHelper.createClient(this, config, clientOptions);
+            return new ConnectionHolder(client, config, getVertx());
+        }
+        SharedConnections shared = sharedConnections.computeIfAbsent(AmqpClientHelper.getConnectionKey(config),
+                k -> new SharedConnections(config.getSharedConnectionPoolSize()));
+        return shared.next(config);
+    }
+
+    /**
+     * The connections shared by the channels using the same connection settings.
+     */
+    private class SharedConnections {
+        private final ConnectionHolder[] holders;
+        private int next;
+
+        private SharedConnections(int size) {
+            this.holders = new ConnectionHolder[Math.max(size, 1)];
+        }
+
+        synchronized ConnectionHolder next(AmqpConnectorCommonConfiguration config) {
+            int index = next;
+            next = (next + 1) % holders.length;
+            if (holders[index] == null) {
+                AmqpClient client = AmqpClientHelper.createClient(AmqpConnector.this, config, clientOptions);
+                holders[index] = new ConnectionHolder(client, config, getVertx());
+            }
+            log.sharedConnection(config.getChannel(), index, config.getClientOptionsName()
+                    .orElseGet(() -> config.getHost() + ":" + config.getPort()));
+            return holders[index];
+        }
     }
 
     public Vertx getVertx() {
@@ -274,7 +335,14 @@ public class AmqpConnector implements IncomingConnectorFactory, OutgoingConnecto
 
     @Override
     public HealthReport getLiveness() {
-        return getHealth();
+        HealthReport.HealthReportBuilder builder = HealthReport.builder();
+        for (Map.Entry<String, Boolean> entry : opened.entrySet()) {
+            // Channels with overdue messages are not alive when the ack timeout action is `fail`
+            boolean ok = entry.getValue() && executionHolder.getAckDeadlines(entry.getKey())
+                    .map(AckDeadlines::isHealthy).orElse(true);
+            builder.add(entry.getKey(), ok);
+        }
+        return builder.build();
     }
 
     public void reportFailure(String channel, Throwable reason) {
@@ -17,7 +17,6 @@ import org.reactivestreams.Subscription;
 
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.helpers.Subscriptions;
-import io.smallrye.mutiny.tuples.Tuple2;
 import io.vertx.amqp.impl.AmqpMessageImpl;
 import io.vertx.mutiny.amqp.AmqpSender;
 
@@ -32,10 +31,21 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
     private final AtomicReference<Subscription> upstream = new AtomicReference<>();
     private final AtomicReference<Subscriber<? super Message<?>>> downstream = new AtomicReference<>();
     private final AtomicBoolean once = new AtomicBoolean();
-    private final boolean durable;
-    private final long ttl;
+    private final AmqpMessageConverter.Template template;
     private final boolean useAnonymousSender;
     private final String configuredAddress;
+    private final boolean preSettled;
+
+    /**
+     * The sender used while it is connected, to avoid retrieving it for each message.
+     */
+    private volatile AmqpSender sender;
+
+    /**
+     * Whether the sender ran out of credits, only accessed from the context having created the AMQP connection.
+     */
+    private boolean waitingForCredits;
+    private long creditTimer = -1;
 
     public AmqpCreditBasedSender(AmqpConnector connector, ConnectionHolder holder,
             AmqpConnectorOutgoingConfiguration configuration, Uni<AmqpSender> retrieveSender) {
@@ -43,10 +53,10 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
         this.holder = holder;
         this.retrieveSender = retrieveSender;
         this.configuration = configuration;
-        this.durable = configuration.getDurable();
-        this.ttl = configuration.getTtl();
+        this.template = new AmqpMessageConverter.Template(configuration.getDurable(), configuration.getTtl());
         this.useAnonymousSender = configuration.getUseAnonymousSender();
         this.configuredAddress = configuration.getAddress().orElseGet(configuration::getChannel);
+        this.preSettled = configuration.getPreSettled();
     }
 
     @Override
@@ -63,16 +73,32 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
 
     private Uni<AmqpSender> getSenderAndCredits() {
         return retrieveSender
+                .onItem().invoke(this::cache)
                 .onItem().call(sender -> {
                     CompletableFuture<Void> future = new CompletableFuture<>();
                     holder.getContext().runOnContext(x -> {
-                        setCreditsAndRequest(sender);
+                        if (setCreditsAndRequest(sender) == 0L) {
+                            waitForCredits();
+                        }
                         future.complete(null);
                     });
                     return Uni.createFrom().completionStage(future);
                 });
     }
 
+    /**
+     * Keeps a reference on the sender, used while it is connected.
+     * The credits granted by the broker to this sender are notified using its drain handler.
+     *
+     * @param sender the sender
+     */
+    private void cache(AmqpSender sender) {
+        if (this.sender != sender) {
+            this.sender = sender;
+            sender.drainHandler(x -> onCreditsGranted(sender));
+        }
+    }
+
     @Override
     public void onSubscribe(Subscription subscription) {
         if (this.upstream.compareAndSet(null, subscription)) {
@@ -114,39 +140,77 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
 
         Subscriber<? super Message<?>> subscriber = this.downstream.get();
 
-        retrieveSender
-                .onItem().transformToUni(
-                        sender -> send(sender, message, durable, ttl, configuredAddress, useAnonymousSender, configuration)
-                                .onItem().transform(m -> Tuple2.of(sender, m)))
-                .subscribe().with(
-                        tuple -> {
-                            subscriber.onNext(tuple.getItem2());
-                            if (requested.decrementAndGet() == 0) { // no more credit, request more
-                                onNoMoreCredit(tuple.getItem1());
-                            }
-                        },
-                        subscriber::onError);
+        AmqpSender current = sender;
+        Uni<Message<?>> uni;
+        if (current != null && !current.getDelegate().connection().isDisconnected()) {
+            // Fast path, use the cached sender
+            uni = send(current, message, configuredAddress, useAnonymousSender, configuration);
+        } else {
+            uni = retrieveSender
+                    .onItem().invoke(this::cache)
+                    .onItem().transformToUni(
+                            s -> send(s, message, configuredAddress, useAnonymousSender, configuration));
+        }
+        uni.subscribe().with(
+                m -> {
+                    subscriber.onNext(m);
+                    if (requested.decrementAndGet() == 0) { // no more credit, request more
+                        onNoMoreCredit();
+                    }
+                },
+                subscriber::onError);
     }
 
-    private void onNoMoreCredit(AmqpSender sender) {
+    private void onNoMoreCredit() {
         log.noMoreCreditsForChannel(configuration.getChannel());
         holder.getContext().runOnContext(x -> {
             if (isCancelled()) {
                 return;
             }
-            long c = setCreditsAndRequest(sender);
-            if (c == 0L) { // still no credits, schedule a periodic retry
-                holder.getVertx().setPeriodic(configuration.getCreditRetrievalPeriod(), id -> {
-                    if (setCreditsAndRequest(sender) != 0L || isCancelled()) {
-                        // Got our new credits or the application has been terminated,
-                        // we cancel the periodic task.
-                        holder.getVertx().cancelTimer(id);
-                    }
-                });
+            if (setCreditsAndRequest(sender) == 0L) {
+                waitForCredits();
             }
         });
     }
 
+    /**
+     * Waits for the broker to grant credits, which is notified by the drain handler of the sender.
+     * In case the notification is missed (for example, if the sender has been replaced), the credits are also checked
+     * periodically.
+     * Must be called on the context having created the AMQP connection.
+     */
+    private void waitForCredits() {
+        waitingForCredits = true;
+        if (creditTimer == -1) {
+            creditTimer = holder.getVertx().setTimer(configuration.getCreditRetrievalPeriod(), id -> {
+                creditTimer = -1;
+                if (waitingForCredits && !isCancelled()) {
+                    onCreditsGranted(sender);
+                }
+            });
+        }
+    }
+
+    /**
+     * Called on the context having created the AMQP connection when the broker grants credits to the sender.
+     *
+     * @param granted the sender having received the credits
+     */
+    private void onCreditsGranted(AmqpSender granted) {
+        if (!waitingForCredits || granted == null || granted != sender || isCancelled()) {
+            return;
+        }
+        if (setCreditsAndRequest(granted) != 0L) {
+            waitingForCredits = false;
+            if (creditTimer != -1) {
+                holder.getVertx().cancelTimer(creditTimer);
+                creditTimer = -1;
+            }
+        } else if (creditTimer == -1) {
+            waitForCredits();
+        }
+    }
+
     private boolean isCancelled() {
         Subscription subscription = upstream.get();
         return subscription == Subscriptions.CANCELLED || subscription == null;
@@ -189,7 +253,7 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
         }
     }
 
-    private Uni<Message<?>> send(AmqpSender sender, Message<?> msg, boolean durable, long ttl, String configuredAddress,
+    private Uni<Message<?>> send(AmqpSender sender, Message<?> msg, String configuredAddress,
             boolean isAnonymousSender, AmqpConnectorCommonConfiguration configuration) {
         int retryAttempts = configuration.getReconnectAttempts();
         int retryInterval = configuration.getReconnectInterval();
@@ -206,7 +270,7 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
             AmqpMessageImpl vertxMessage = new AmqpMessageImpl(message);
             amqp = new io.vertx.mutiny.amqp.AmqpMessage(vertxMessage);
         } else {
-            amqp = AmqpMessageConverter.convertToAmqpMessage(msg, durable, ttl);
+            amqp = AmqpMessageConverter.convertToAmqpMessage(msg, template);
         }
 
         String actualAddress = getActualAddress(msg, amqp, configuredAddress, isAnonymousSender);
@@ -220,6 +284,12 @@ public class AmqpCreditBasedSender implements Processor<Message<?>, Message<?>>,
         }
 
         log.sendingMessageToAddress(actualAddress);
+        if (preSettled) {
+            // At-most-once, the message is acknowledged without waiting for the disposition of the broker
+            sender.send(amqp);
+            return Uni.createFrom().completionStage(msg.ack())
+                    .onItem().transform(x -> msg);
+        }
         return sender.sendWithAck(amqp)
                 .onFailure().retry().withBackOff(ofSeconds(1), ofSeconds(retryInterval)).atMost(retryAttempts)
                 .onItemOrFailure().transformToUni((success, failure) -> {
@@ -1,6 +1,5 @@
 package io.smallrye.reactive.messaging.amqp;
 
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 import org.apache.qpid.proton.amqp.Binary;
@@ -10,6 +9,7 @@ import org.apache.qpid.proton.message.MessageError;
 import org.eclipse.microprofile.reactive.messaging.Metadata;
 
 import io.smallrye.reactive.messaging.amqp.fault.AmqpFailureHandler;
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.core.Context;
 import io.vertx.mutiny.core.buffer.Buffer;
@@ -22,6 +22,8 @@ public class AmqpMessage<T> implements org.eclipse.microprofile.reactive.messagi
     protected final IncomingAmqpMetadata amqpMetadata;
     private final Context context;
     protected final AmqpFailureHandler onNack;
+    private final DispositionBatcher dispositions;
+    private volatile AckDeadlines.Deadline deadline;
 
     @Deprecated
     public static <T> AmqpMessageBuilder<T> builder() {
@@ -33,28 +35,54 @@ public class AmqpMessage<T> implements org.eclipse.microprofile.reactive.messagi
     }
 
     public AmqpMessage(io.vertx.amqp.AmqpMessage msg, Context context, AmqpFailureHandler onNack) {
+        this(msg, context, onNack, null);
+    }
+
+    AmqpMessage(io.vertx.amqp.AmqpMessage msg, Context context, AmqpFailureHandler onNack,
+            DispositionBatcher dispositions) {
         this.message = msg;
+        this.dispositions = dispositions;
         this.context = context;
         this.amqpMetadata = new IncomingAmqpMetadata(this.message);
         this.metadata = Metadata.of(amqpMetadata);
         this.onNack = onNack;
     }
 
+    /**
+     * Starts tracking the acknowledgement deadline of the message.
+     *
+     * @param deadlines the deadlines of the channel, {@code null} if the channel does not track them
+     * @return this message
+     */
+    AmqpMessage<T> track(AckDeadlines deadlines) {
+        if (deadlines != null) {
+            this.deadline = deadlines.track(this);
+        }
+        return this;
+    }
+
+    private void completeDeadline() {
+        AckDeadlines.Deadline current = deadline;
+        if (current != null) {
+            current.complete();
+        }
+    }
+
     @Override
     public CompletionStage<Void> ack() {
+        completeDeadline();
         // We must switch to the context having created the message.
         // This context is passed when this instance of message is created.
         // It's more a Vert.x AMQP client issue which should ensure calling `accepted` on the right context.
-        CompletableFuture<Void> future = new CompletableFuture<>();
-        this.context.runOnContext(x -> {
-            this.message.accepted();
-            future.complete(null);
-        });
-        return future;
+        if (dispositions != null) {
+            return dispositions.accept(this.message);
+        }
+        return ConnectionHolder.runOnContext(context, this.message::accepted);
     }
 
     @Override
     public CompletionStage<Void> nack(Throwable reason) {
+        completeDeadline();
         return onNack.handle(this, context, reason);
     }
 
@@ -8,14 +8,18 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.UnsignedByte;
+import org.apache.qpid.proton.amqp.UnsignedInteger;
 import org.apache.qpid.proton.amqp.messaging.AmqpValue;
 import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
 import org.apache.qpid.proton.amqp.messaging.Data;
 import org.apache.qpid.proton.amqp.messaging.DeliveryAnnotations;
 import org.apache.qpid.proton.amqp.messaging.Footer;
+import org.apache.qpid.proton.amqp.messaging.Header;
 import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
+import io.netty.buffer.ByteBuf;
 import io.vertx.amqp.impl.AmqpMessageImpl;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
@@ -32,6 +36,10 @@ public class AmqpMessageConverter {
     }
 
     static io.vertx.mutiny.amqp.AmqpMessage convertToAmqpMessage(Message<?> message, boolean durable, long ttl) {
+        return convertToAmqpMessage(message, new Template(durable, ttl));
+    }
+
+    static io.vertx.mutiny.amqp.AmqpMessage convertToAmqpMessage(Message<?> message, Template template) {
         Object payload = message.getPayload();
         OutgoingAmqpMetadata metadata = message.getMetadata(OutgoingAmqpMetadata.class)
                 .orElse(new OutgoingAmqpMetadata());
@@ -39,19 +47,7 @@ public class AmqpMessageConverter {
         org.apache.qpid.proton.message.Message output = org.apache.qpid.proton.message.Message.Factory.create();
 
         // Header
-        if (metadata.isDurable()) {
-            output.setDurable(true);
-        } else {
-            output.setDurable(durable);
-        }
-
-        output.setPriority(metadata.getPriority());
-
-        if (metadata.getTtl() > 0) {
-            output.setTtl(metadata.getTtl());
-        } else if (ttl > 0) {
-            output.setTtl(ttl);
-        }
+        output.setHeader(template.header(metadata));
 
         // Annotations
         DeliveryAnnotations deliveryAnnotations = metadata.getDeliveryAnnotations();
@@ -87,26 +83,24 @@ public class AmqpMessageConverter {
             output.setBody(new AmqpValue(payload));
 
         } else if (payload instanceof Buffer) {
-            output.setBody(new Data(new Binary(((Buffer) payload).getBytes())));
+            output.setBody(new Data(wrap(((Buffer) payload).getDelegate())));
             if (output.getContentType() == null) {
                 output.setContentType(BINARY_CONTENT_TYPE);
             }
         } else if (payload instanceof io.vertx.core.buffer.Buffer) {
-            output.setBody(new Data(new Binary(((io.vertx.core.buffer.Buffer) payload).getBytes())));
+            output.setBody(new Data(wrap((io.vertx.core.buffer.Buffer) payload)));
             if (output.getContentType() == null) {
                 output.setContentType(BINARY_CONTENT_TYPE);
             }
         } else if (payload instanceof Instant) {
             output.setBody(new AmqpValue(Date.from((Instant) payload)));
         } else if (payload instanceof JsonArray) {
-            byte[] bytes = ((JsonArray) payload).toBuffer().getBytes();
-            output.setBody(new Data(new Binary(bytes)));
+            output.setBody(new Data(wrap(((JsonArray) payload).toBuffer())));
             if (output.getContentType() == null) {
                 output.setContentType(JSON_CONTENT_TYPE);
             }
         } else if (payload instanceof JsonObject) {
-            byte[] bytes = ((JsonObject) payload).toBuffer().getBytes();
-            output.setBody(new Data(new Binary(bytes)));
+            output.setBody(new Data(wrap(((JsonObject) payload).toBuffer())));
             if (output.getContentType() == null) {
                 output.setContentType(JSON_CONTENT_TYPE);
             }
@@ -119,8 +113,7 @@ public class AmqpMessageConverter {
             // This branch must be after the JSON Object and JSON Array checks
             output.setBody(new AmqpValue(payload));
         } else {
-            byte[] bytes = Json.encodeToBuffer(payload).getBytes();
-            output.setBody(new Data(new Binary(bytes)));
+            output.setBody(new Data(wrap(Json.encodeToBuffer(payload))));
             if (output.getContentType() == null) {
                 output.setContentType(JSON_CONTENT_TYPE);
             }
@@ -135,6 +128,58 @@ public class AmqpMessageConverter {
         return new AmqpMessage(new AmqpMessageImpl(output));
     }
 
+    /**
+     * Creates a binary sharing the content of the given buffer, instead of copying it.
+     * The buffer must not be modified until the message is sent.
+     */
+    static Binary wrap(io.vertx.core.buffer.Buffer buffer) {
+        ByteBuf buf = buffer.getByteBuf();
+        if (buf.hasArray()) {
+            return new Binary(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+        }
+        return new Binary(buffer.getBytes());
+    }
+
+    /**
+     * The static part of the messages sent by a channel, built once per channel.
+     * <p>
+     * The header of the messages which do not override the durability, priority and time-to-live of the channel is
+     * shared. Proton only reads it when encoding the messages.
+     */
+    static final class Template {
+        private static final short DEFAULT_PRIORITY = 4;
+
+        private final boolean durable;
+        private final long ttl;
+        private final Header header;
+
+        Template(boolean durable, long ttl) {
+            this.durable = durable;
+            this.ttl = ttl;
+            this.header = createHeader(durable, DEFAULT_PRIORITY, ttl);
+        }
+
+        Header header(OutgoingAmqpMetadata metadata) {
+            boolean actualDurable = metadata.isDurable() || durable;
+            long actualTtl = metadata.getTtl() > 0 ? metadata.getTtl() : ttl;
+            short priority = metadata.getPriority();
+            if (actualDurable == durable && actualTtl == ttl && priority == DEFAULT_PRIORITY) {
+                return header;
+            }
+            return createHeader(actualDurable, priority, actualTtl);
+        }
+
+        private static Header createHeader(boolean durable, short priority, long ttl) {
+            Header header = new Header();
+            header.setDurable(durable);
+            header.setPriority(UnsignedByte.valueOf((byte) priority));
+            if (ttl > 0) {
+                header.setTtl(UnsignedInteger.valueOf(ttl));
+            }
+            return header;
+        }
+    }
+
     private static final List<Class<?>> PRIMITIVES = Arrays.asList(
             Boolean.class,
             Byte.class,
@@ -4,8 +4,10 @@ import static io.smallrye.reactive.messaging.amqp.i18n.AMQPExceptions.ex;
 import static io.smallrye.reactive.messaging.amqp.i18n.AMQPLogging.log;
 import static java.time.Duration.ofSeconds;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -15,6 +17,10 @@ import io.vertx.mutiny.amqp.AmqpConnection;
 import io.vertx.mutiny.core.Context;
 import io.vertx.mutiny.core.Vertx;
 
+/**
+ * Holds the AMQP connection used by one channel or, when the connection is shared, by all the channels configured with
+ * the same connection settings. Each channel creates its own link on the connection.
+ */
 public class ConnectionHolder {
 
     private final AmqpClient client;
@@ -22,7 +28,8 @@ public class ConnectionHolder {
     private final AtomicReference<CurrentConnection> holder = new AtomicReference<>();
 
     private final Vertx vertx;
-    private Consumer<Throwable> callback;
+    private final Map<String, Consumer<Throwable>> callbacks = new ConcurrentHashMap<>();
+    private Uni<AmqpConnection> connecting;
 
     public ConnectionHolder(AmqpClient client,
             AmqpConnectorCommonConfiguration configuration,
@@ -55,8 +62,15 @@ public class ConnectionHolder {
         }
     }
 
-    public synchronized void onFailure(Consumer<Throwable> callback) {
-        this.callback = callback;
+    /**
+     * Registers the callback notified when the connection fails, replacing the callback previously registered by the
+     * given channel. All the channels using the connection are notified, so they recover their links together.
+     *
+     * @param channel the channel
+     * @param callback the callback
+     */
+    public void onFailure(String channel, Consumer<Throwable> callback) {
+        callbacks.put(channel, callback);
     }
 
     public Uni<AmqpConnection> getOrEstablishConnection() {
@@ -70,9 +84,6 @@ public class ConnectionHolder {
         })
                 .onItem().ifNull().switchTo(() -> {
                     // we don't have a connection, try to connect.
-                    Integer retryInterval = configuration.getReconnectInterval();
-                    Integer retryAttempts = configuration.getReconnectAttempts();
-
                     CurrentConnection reference = holder.get();
 
                     if (reference != null && reference.connection != null && !reference.connection.isDisconnected()) {
@@ -80,47 +91,61 @@ public class ConnectionHolder {
                         return Uni.createFrom().item(connection);
                     }
 
-                    return client.connect()
-                            .onSubscribe().invoke(s -> log.establishingConnection())
-                            .onItem().transform(conn -> {
-                                log.connectionEstablished();
-                                holder.set(new CurrentConnection(conn, Vertx.currentContext()));
-                                conn
-                                        .exceptionHandler(t -> {
-                                            holder.set(null);
-                                            log.connectionFailure(t);
-
-                                            // The callback failure allows propagating the failure downstream,
-                                            // as we are disconnected from the flow.
-                                            Consumer<Throwable> c;
-                                            synchronized (this) {
-                                                c = callback;
-                                            }
-                                            if (c != null) {
-                                                c.accept(t);
-                                            }
-                                        });
-                                // handle the case we are already disconnected.
-                                if (conn.isDisconnected() || holder.get() == null) {
-                                    // Throwing the exception would trigger a retry.
-                                    holder.set(null);
-                                    throw ex.illegalStateConnectionDisconnected();
-                                }
-                                return conn;
-                            })
-                            .onFailure()
-                            .invoke(log::unableToConnectToBroker)
-                            .onFailure().retry().withBackOff(ofSeconds(1), ofSeconds(retryInterval)).atMost(retryAttempts)
-                            .onFailure().invoke(t -> {
+                    return connect();
+                });
+    }
+
+    /**
+     * Connects to the broker. Concurrent calls, from the channels sharing the connection, share the same attempt.
+     */
+    private synchronized Uni<AmqpConnection> connect() {
+        if (connecting != null) {
+            return connecting;
+        }
+
+        Integer retryInterval = configuration.getReconnectInterval();
+        Integer retryAttempts = configuration.getReconnectAttempts();
+        connecting = client.connect()
+                .onSubscribe().invoke(s -> log.establishingConnection())
+                .onItem().transform(conn -> {
+                    log.connectionEstablished();
+                    holder.set(new CurrentConnection(conn, Vertx.currentContext()));
+                    conn
+                            .exceptionHandler(t -> {
                                 holder.set(null);
-                                log.unableToRecoverFromConnectionDisruption(t);
+                                log.connectionFailure(t);
+
+                                // The callback failure allows propagating the failure downstream,
+                                // as we are disconnected from the flow.
+                                callbacks.values().forEach(c -> c.accept(t));
                             });
-                });
+                    // handle the case we are already disconnected.
+                    if (conn.isDisconnected() || holder.get() == null) {
+                        // Throwing the exception would trigger a retry.
+                        holder.set(null);
+                        throw ex.illegalStateConnectionDisconnected();
+                    }
+                    return conn;
+                })
+                .onFailure()
+                .invoke(log::unableToConnectToBroker)
+                .onFailure().retry().withBackOff(ofSeconds(1), ofSeconds(retryInterval)).atMost(retryAttempts)
+                .onFailure().invoke(t -> {
+                    holder.set(null);
+                    log.unableToRecoverFromConnectionDisruption(t);
+                })
+                .onItemOrFailure().invoke((c, f) -> {
+                    synchronized (this) {
+                        connecting = null;
+                    }
+                })
+                .memoize().indefinitely();
+        return connecting;
     }
 
     public static CompletionStage<Void> runOnContext(Context context, Runnable runnable) {
         CompletableFuture<Void> future = new CompletableFuture<>();
-        if (Vertx.currentContext() == context) {
+        if (isOnContext(context)) {
             runnable.run();
             future.complete(null);
         } else {
@@ -134,7 +159,7 @@ public class ConnectionHolder {
 
     public static CompletionStage<Void> runOnContextAndReportFailure(Context context, Throwable reason, Runnable runnable) {
         CompletableFuture<Void> future = new CompletableFuture<>();
-        if (Vertx.currentContext() == context) {
+        if (isOnContext(context)) {
             runnable.run();
             future.completeExceptionally(reason);
         } else {
@@ -145,4 +170,11 @@ public class ConnectionHolder {
         }
         return future;
     }
+
+    /**
+     * The Mutiny {@code Vertx.currentContext()} creates a new wrapper on each call, so the delegates are compared.
+     */
+    static boolean isOnContext(Context context) {
+        return io.vertx.core.Vertx.currentContext() == context.getDelegate();
+    }
 }
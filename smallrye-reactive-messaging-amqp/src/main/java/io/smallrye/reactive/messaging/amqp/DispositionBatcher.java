@@ -0,0 +1,62 @@
+package io.smallrye.reactive.messaging.amqp;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.vertx.amqp.AmqpMessage;
+import io.vertx.mutiny.core.Context;
+
+/**
+ * Sends the {@code accepted} dispositions of the messages received by a receiver.
+ * <p>
+ * Dispositions must be sent from the context of the connection. When the acknowledgement happens on this context, the
+ * disposition is sent directly. Otherwise, the messages are queued, and a single task drains the queue on the context.
+ * So, when messages are acknowledged in a burst from another thread (a worker, or a processing thread pool), the
+ * dispositions are sent in a single event loop task instead of one task per message.
+ */
+class DispositionBatcher {
+
+    private final Context context;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    DispositionBatcher(Context context) {
+        this.context = context;
+    }
+
+    CompletionStage<Void> accept(AmqpMessage message) {
+        if (ConnectionHolder.isOnContext(context)) {
+            message.accepted();
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        queue.add(new Pending(message, future));
+        if (scheduled.compareAndSet(false, true)) {
+            context.runOnContext(x -> drain());
+        }
+        return future;
+    }
+
+    private void drain() {
+        // Reset the flag first, so messages queued while draining are either drained now or trigger a new task
+        scheduled.set(false);
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.message.accepted();
+            pending.future.complete(null);
+        }
+    }
+
+    private static final class Pending {
+        private final AmqpMessage message;
+        private final CompletableFuture<Void> future;
+
+        private Pending(AmqpMessage message, CompletableFuture<Void> future) {
+            this.message = message;
+            this.future = future;
+        }
+    }
+}
@@ -127,4 +127,8 @@ public interface AMQPLogging extends BasicLogger {
     @LogMessage(level = Logger.Level.WARN)
     @Message(id = 16227, value = "A message sent to channel `%s` has been nacked, ignoring the message and marking the AMQP message as modified with `delivery-failed` and `undeliverable-here`")
     void nackedModifiedFailedMessageAndUndeliverableHere(String channel);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 16228, value = "Channel `%s` uses the shared AMQP connection %d to %s")
+    void sharedConnection(String channel, int index, String target);
 }
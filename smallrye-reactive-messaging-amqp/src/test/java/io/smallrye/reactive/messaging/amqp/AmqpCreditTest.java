@@ -1,34 +1,45 @@
 package io.smallrye.reactive.messaging.amqp;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.amqp.messaging.AmqpValue;
 import org.apache.qpid.proton.amqp.messaging.Section;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.messaging.spi.ConnectorFactory;
+import org.eclipse.microprofile.reactive.streams.operators.PublisherBuilder;
 import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import io.smallrye.mutiny.Multi;
 import io.vertx.core.Vertx;
+import io.vertx.proton.ProtonHelper;
 
 public class AmqpCreditTest extends AmqpTestBase {
 
     private AmqpConnector provider;
     private MockServer server;
+    private ExecutorService executor;
 
     @AfterEach
     public void cleanup() {
@@ -39,6 +50,10 @@ public class AmqpCreditTest extends AmqpTestBase {
         if (server != null) {
             server.close();
         }
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
     }
 
     @Test
@@ -63,13 +78,118 @@ public class AmqpCreditTest extends AmqpTestBase {
         assertThat(payloadsReceived).containsAll(expectedPayloads);
     }
 
+    @Test
+    @Timeout(30)
+    public void testCreditsGrantedLaterAreUsedWithoutPolling() throws Exception {
+        int msgCount = 1000;
+        CountDownLatch msgsReceived = new CountDownLatch(msgCount);
+        List<Object> payloadsReceived = new CopyOnWriteArrayList<>();
+
+        // The credits are granted 10 ms after the previous batch has been used up
+        server = setupMockServer(msgCount, msgsReceived, payloadsReceived, executionHolder.vertx().getDelegate(), 10);
+
+        SubscriberBuilder<? extends Message<?>, Void> sink = createProviderAndSink(UUID.randomUUID().toString(),
+                server.actualPort(), 60000);
+        //noinspection unchecked
+        Multi.createFrom().range(0, msgCount)
+                .map(Message::of)
+                .subscribe((Subscriber<? super Message<Integer>>) sink.build());
+
+        // With a 60s retrieval period, polling the credits would not complete the 10 batches in time
+        assertThat(msgsReceived.await(20, TimeUnit.SECONDS))
+                .withFailMessage("Sent %s msgs but %s remain outstanding", msgCount, msgsReceived.getCount()).isTrue();
+        assertThat(payloadsReceived).hasSize(msgCount);
+    }
+
+    @Test
+    @Timeout(30)
+    public void testReceiverCreditsFollowTheDownstreamDemand() throws Exception {
+        int msgCount = 100;
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger maxCredits = new AtomicInteger();
+        List<Integer> accepted = new CopyOnWriteArrayList<>();
+        server = setupMockServerSendingMessages(msgCount, sent, maxCredits, accepted);
+
+        PublisherBuilder<? extends Message<?>> source = createProviderAndSource(UUID.randomUUID().toString(),
+                server.actualPort(), 10);
+        List<Message<?>> received = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+        source.buildRs().subscribe(new Subscriber<Message<?>>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+                s.request(5);
+            }
+
+            @Override
+            public void onNext(Message<?> message) {
+                received.add(message);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                // Ignored
+            }
+
+            @Override
+            public void onComplete() {
+                // Ignored
+            }
+        });
+
+        // 10 messages are prefetched, and a credit is granted back for each message dispatched downstream: the 5
+        // requested ones, and possibly one more buffered by the stream merging the connection failures
+        await().until(() -> received.size() == 5);
+        await().until(() -> sent.get() >= 15);
+        Thread.sleep(200);
+        assertThat(sent.get()).isBetween(15, 16);
+        assertThat(received).hasSize(5);
+        assertThat(maxCredits).hasValue(10);
+
+        // Acknowledge from another thread, the dispositions are sent from the connection context
+        executor = Executors.newSingleThreadExecutor();
+        received.forEach(m -> executor.execute(m::ack));
+        await().until(() -> accepted.size() == 5);
+
+        subscription.get().request(msgCount);
+        await().until(() -> received.size() == msgCount);
+        received.stream().skip(5).forEach(m -> executor.execute(m::ack));
+        await().until(() -> accepted.size() == msgCount);
+        assertThat(accepted).containsExactlyInAnyOrderElementsOf(
+                IntStream.range(0, msgCount).boxed().collect(Collectors.toList()));
+        assertThat(maxCredits).hasValue(10);
+    }
+
+    private PublisherBuilder<? extends Message<?>> createProviderAndSource(String topic, int port, int prefetch) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConnectorFactory.CHANNEL_NAME_ATTRIBUTE, topic);
+        config.put("address", topic);
+        config.put("name", "the name");
+        config.put("host", "localhost");
+        config.put("port", port);
+        config.put("prefetch", prefetch);
+
+        this.provider = new AmqpConnector();
+        provider.setup(executionHolder);
+
+        return provider.getPublisherBuilder(new MapBasedConfig(config));
+    }
+
     private SubscriberBuilder<? extends Message<?>, Void> createProviderAndSink(String topic, int port) {
+        return createProviderAndSink(topic, port, -1);
+    }
+
+    private SubscriberBuilder<? extends Message<?>, Void> createProviderAndSink(String topic, int port,
+            int creditRetrievalPeriod) {
         Map<String, Object> config = new HashMap<>();
         config.put(ConnectorFactory.CHANNEL_NAME_ATTRIBUTE, topic);
         config.put("address", topic);
         config.put("name", "the name");
         config.put("host", "localhost");
         config.put("port", port);
+        if (creditRetrievalPeriod > 0) {
+            config.put("credit-retrieval-period", creditRetrievalPeriod);
+        }
 
         this.provider = new AmqpConnector();
         provider.setup(executionHolder);
@@ -79,6 +199,11 @@ public class AmqpCreditTest extends AmqpTestBase {
 
     private MockServer setupMockServer(int msgCount, CountDownLatch latch, List<Object> payloads, Vertx vertx)
             throws Exception {
+        return setupMockServer(msgCount, latch, payloads, vertx, 0);
+    }
+
+    private MockServer setupMockServer(int msgCount, CountDownLatch latch, List<Object> payloads, Vertx vertx,
+            long creditDelay) throws Exception {
         assertThat(msgCount % 10 == 0).isTrue();
         int creditBatch = msgCount / 10;
 
@@ -109,7 +234,11 @@ public class AmqpCreditTest extends AmqpTestBase {
 
                     // Previous credit batch used up, give more
                     if (serverReceiver.getCredit() <= 0) {
-                        serverReceiver.flow(creditBatch);
+                        if (creditDelay > 0) {
+                            vertx.setTimer(creditDelay, id -> serverReceiver.flow(creditBatch));
+                        } else {
+                            serverReceiver.flow(creditBatch);
+                        }
                     }
                 });
 
@@ -119,4 +248,36 @@ public class AmqpCreditTest extends AmqpTestBase {
             });
         });
     }
+
+    private MockServer setupMockServerSendingMessages(int msgCount, AtomicInteger sent, AtomicInteger maxCredits,
+            List<Integer> accepted) throws Exception {
+        return new MockServer(executionHolder.vertx().getDelegate(), serverConnection -> {
+            serverConnection.openHandler(serverSender -> {
+                serverConnection.closeHandler(x -> serverConnection.close());
+                serverConnection.open();
+            });
+
+            serverConnection.sessionOpenHandler(serverSession -> {
+                serverSession.closeHandler(x -> serverSession.close());
+                serverSession.open();
+            });
+
+            serverConnection.senderOpenHandler(serverSender -> {
+                serverSender.setSource(serverSender.getRemoteSource());
+                // Send as many messages as the credits granted by the receiver allow
+                serverSender.sendQueueDrainHandler(s -> {
+                    maxCredits.accumulateAndGet(s.getCredit(), Math::max);
+                    while (!s.sendQueueFull() && sent.get() < msgCount) {
+                        int index = sent.getAndIncrement();
+                        s.send(ProtonHelper.message(Integer.toString(index)), delivery -> {
+                            if (delivery.getRemoteState() instanceof Accepted) {
+                                accepted.add(index);
+                            }
+                        });
+                    }
+                });
+                serverSender.open();
+            });
+        });
+    }
 }
@@ -0,0 +1,79 @@
+package io.smallrye.reactive.messaging.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.message.Message;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.core.buffer.Buffer;
+
+public class AmqpMessageConverterTest {
+
+    @Test
+    public void testHeaderSharedByTheMessagesUsingTheChannelDefaults() {
+        AmqpMessageConverter.Template template = new AmqpMessageConverter.Template(true, 1000);
+
+        Message first = convert(org.eclipse.microprofile.reactive.messaging.Message.of("a"), template);
+        Message second = convert(org.eclipse.microprofile.reactive.messaging.Message.of("b"), template);
+        assertThat(first.getHeader()).isSameAs(second.getHeader());
+        assertThat(first.isDurable()).isTrue();
+        assertThat(first.getTtl()).isEqualTo(1000);
+        assertThat(first.getPriority()).isEqualTo((short) 4);
+
+        // Overriding the header in the metadata creates a dedicated header
+        Message third = convert(org.eclipse.microprofile.reactive.messaging.Message.of("c")
+                .addMetadata(OutgoingAmqpMetadata.builder().withPriority((short) 7).withTtl(50).build()), template);
+        assertThat(third.getHeader()).isNotSameAs(first.getHeader());
+        assertThat(third.isDurable()).isTrue();
+        assertThat(third.getTtl()).isEqualTo(50);
+        assertThat(third.getPriority()).isEqualTo((short) 7);
+        assertThat(first.getTtl()).isEqualTo(1000);
+        assertThat(first.getPriority()).isEqualTo((short) 4);
+
+        Message fourth = convert(org.eclipse.microprofile.reactive.messaging.Message.of("d"),
+                new AmqpMessageConverter.Template(false, 0));
+        assertThat(fourth.isDurable()).isFalse();
+        assertThat(fourth.getTtl()).isZero();
+    }
+
+    @Test
+    public void testBufferPayloadsAreNotCopied() {
+        Buffer buffer = Buffer.buffer("--hello--").slice(2, 7);
+
+        Message message = convert(org.eclipse.microprofile.reactive.messaging.Message.of(buffer),
+                new AmqpMessageConverter.Template(false, 0));
+        Binary binary = ((Data) message.getBody()).getValue();
+        assertThat(binary.getArray()).isSameAs(buffer.getDelegate().getByteBuf().array());
+        assertThat(binary.getLength()).isEqualTo(5);
+        assertThat(new String(binary.getArray(), binary.getArrayOffset(), binary.getLength())).isEqualTo("hello");
+        assertThat(message.getContentType()).isEqualTo("application/octet-stream");
+
+        // The encoded message only contains the slice
+        byte[] encoded = new byte[1024];
+        int length = message.encode(encoded, 0, encoded.length);
+        Message decoded = Message.Factory.create();
+        decoded.decode(encoded, 0, length);
+        assertThat(((Data) decoded.getBody()).getValue()).isEqualTo(new Binary("hello".getBytes()));
+    }
+
+    @Test
+    public void testJsonPayload() {
+        JsonObject json = new JsonObject().put("name", "amqp").put("version", 1);
+
+        Message message = convert(org.eclipse.microprofile.reactive.messaging.Message.of(json),
+                new AmqpMessageConverter.Template(false, 0));
+        Binary binary = ((Data) message.getBody()).getValue();
+        assertThat(new JsonObject(Buffer.buffer(binary.getArray()).getDelegate()
+                .slice(binary.getArrayOffset(), binary.getArrayOffset() + binary.getLength())))
+                        .isEqualTo(json);
+        assertThat(message.getContentType()).isEqualTo("application/json");
+    }
+
+    private Message convert(org.eclipse.microprofile.reactive.messaging.Message<?> message,
+            AmqpMessageConverter.Template template) {
+        return AmqpMessageConverter.convertToAmqpMessage(message, template).getDelegate().unwrap();
+    }
+}
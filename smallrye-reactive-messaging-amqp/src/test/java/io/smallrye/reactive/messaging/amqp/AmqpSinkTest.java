@@ -5,6 +5,7 @@ import static org.awaitility.Awaitility.await;
 import static org.hamcrest.core.Is.is;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +69,39 @@ public class AmqpSinkTest extends AmqpBrokerTestBase {
         assertThat(expected).hasValue(10);
     }
 
+    @Test
+    public void testSinkUsingPreSettledMessages() {
+        String topic = UUID.randomUUID().toString();
+        AtomicInteger expected = new AtomicInteger(0);
+        usage.consumeIntegers(topic,
+                v -> expected.getAndIncrement());
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConnectorFactory.CHANNEL_NAME_ATTRIBUTE, topic);
+        config.put("address", topic);
+        config.put("host", host);
+        config.put("durable", false);
+        config.put("port", port);
+        config.put("username", username);
+        config.put("password", password);
+        config.put("pre-settled", true);
+        this.provider = new AmqpConnector();
+        provider.setup(executionHolder);
+        SubscriberBuilder<? extends Message<?>, Void> sink = this.provider.getSubscriberBuilder(new MapBasedConfig(config));
+
+        AtomicInteger acked = new AtomicInteger();
+        //noinspection unchecked
+        Multi.createFrom().range(0, 10)
+                .map(i -> Message.of(i, () -> {
+                    acked.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                }))
+                .subscribe((Subscriber<? super Message<Integer>>) sink.build());
+
+        await().until(() -> expected.get() == 10);
+        assertThat(acked).hasValue(10);
+    }
+
     @Test
     public void testSinkUsingIntegerUsingNonAnonymousSender() {
         String topic = UUID.randomUUID().toString();
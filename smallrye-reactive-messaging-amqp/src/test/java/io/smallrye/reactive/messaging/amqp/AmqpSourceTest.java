@@ -5,6 +5,7 @@ import static org.awaitility.Awaitility.await;
 import static org.eclipse.microprofile.reactive.messaging.spi.ConnectorFactory.CHANNEL_NAME_ATTRIBUTE;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -92,6 +93,61 @@ public class AmqpSourceTest extends AmqpBrokerTestBase {
                         .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
     }
 
+    @Test
+    public void testSourcesSharingTheConnection() {
+        provider = new AmqpConnector();
+        provider.setup(executionHolder);
+
+        String topic1 = UUID.randomUUID().toString();
+        String topic2 = UUID.randomUUID().toString();
+        List<Message<Integer>> messages1 = new CopyOnWriteArrayList<>();
+        List<Message<Integer>> messages2 = new CopyOnWriteArrayList<>();
+        AtomicBoolean opened = new AtomicBoolean();
+        for (String topic : Arrays.asList(topic1, topic2)) {
+            Map<String, Object> config = getConfig(topic);
+            config.put("shared-connection", true);
+            provider.getPublisherBuilder(new MapBasedConfig(config)).buildRs()
+                    .subscribe(createSubscriber(topic.equals(topic1) ? messages1 : messages2, opened));
+        }
+
+        // Both channels use their own link on the same connection
+        assertThat(provider.getClients()).hasSize(1);
+        await().until(() -> isAmqpConnectorReady(provider));
+
+        AtomicInteger counter1 = new AtomicInteger();
+        AtomicInteger counter2 = new AtomicInteger(10);
+        new Thread(() -> usage.produceTenIntegers(topic1, counter1::getAndIncrement)).start();
+        new Thread(() -> usage.produceTenIntegers(topic2, counter2::getAndIncrement)).start();
+
+        await().atMost(2, TimeUnit.MINUTES).until(() -> messages1.size() >= 10 && messages2.size() >= 10);
+        assertThat(messages1.stream().map(Message::getPayload).collect(Collectors.toList()))
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(messages2.stream().map(Message::getPayload).collect(Collectors.toList()))
+                .containsExactly(10, 11, 12, 13, 14, 15, 16, 17, 18, 19);
+    }
+
+    @Test
+    public void testSharedConnectionPool() {
+        provider = new AmqpConnector();
+        provider.setup(executionHolder);
+
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> config = getConfig(UUID.randomUUID().toString());
+            config.put("shared-connection", true);
+            config.put("shared-connection.pool-size", 2);
+            provider.getPublisherBuilder(new MapBasedConfig(config));
+        }
+        assertThat(provider.getClients()).hasSize(2);
+
+        // Channels using other connection settings, or not sharing their connection, get their own client
+        Map<String, Object> config = getConfig(UUID.randomUUID().toString());
+        config.put("shared-connection", true);
+        config.put("username", "someone-else");
+        provider.getPublisherBuilder(new MapBasedConfig(config));
+        provider.getPublisherBuilder(new MapBasedConfig(getConfig(UUID.randomUUID().toString())));
+        assertThat(provider.getClients()).hasSize(4);
+    }
+
     @Test
     public void testSourceUsingChannelName() {
         String topic = UUID.randomUUID().toString();
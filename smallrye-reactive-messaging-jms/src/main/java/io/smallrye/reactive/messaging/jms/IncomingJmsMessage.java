@@ -4,26 +4,43 @@ import static io.smallrye.reactive.messaging.jms.i18n.JmsExceptions.ex;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.json.bind.Jsonb;
 
 import org.eclipse.microprofile.reactive.messaging.Metadata;
 
+import io.smallrye.reactive.messaging.jms.impl.ClassResolver;
+
 public class IncomingJmsMessage<T> implements org.eclipse.microprofile.reactive.messaging.Message<T> {
     private final Message delegate;
-    private final Executor executor;
+    private final JmsAcknowledger acknowledger;
     private final Class<T> clazz;
-    private final Jsonb json;
+    private final JmsPayloadCodec codec;
     private final IncomingJmsMessageMetadata jmsMetadata;
     private final Metadata metadata;
-
-    IncomingJmsMessage(Message message, Executor executor, Jsonb json) {
+    private final Consumer<Message> onCompletion;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    // The decoded payload, set once `decoded` is true
+    private T payload;
+    private volatile boolean decoded;
+
+    /**
+     * @param acknowledger the acknowledger of the session which received the message
+     * @param classes the resolver loading the class of the payload
+     * @param codec the codec decoding the payloads which are not strings or primitive types
+     * @param onCompletion called once when the message is acknowledged or nacked, {@code null} if not needed
+     */
+    IncomingJmsMessage(Message message, JmsAcknowledger acknowledger, ClassResolver classes, JmsPayloadCodec codec,
+            Consumer<Message> onCompletion) {
         this.delegate = message;
-        this.json = json;
-        this.executor = executor;
+        this.onCompletion = onCompletion;
+        this.codec = codec;
+        this.acknowledger = acknowledger;
         String cn = null;
         try {
             cn = message.getStringProperty("_classname");
@@ -34,7 +51,7 @@ public class IncomingJmsMessage<T> implements org.eclipse.microprofile.reactive.
             // ignore it
         }
         try {
-            this.clazz = cn != null ? load(cn) : null;
+            this.clazz = cn != null ? load(classes, cn) : null;
         } catch (ClassNotFoundException e) {
             throw ex.illegalStateUnableToLoadClass(e);
         }
@@ -44,32 +61,48 @@ public class IncomingJmsMessage<T> implements org.eclipse.microprofile.reactive.
     }
 
     @SuppressWarnings("unchecked")
-    private Class<T> load(String cn) throws ClassNotFoundException {
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        if (loader != null) {
-            try {
-                return (Class<T>) loader.loadClass(cn);
-            } catch (ClassNotFoundException e) {
-                // Will try with the current class classloader
-            }
-        }
-        return (Class<T>) IncomingJmsMessage.class.getClassLoader().loadClass(cn);
+    private static <T> Class<T> load(ClassResolver classes, String cn) throws ClassNotFoundException {
+        return (Class<T>) classes.load(cn);
     }
 
+    /**
+     * Decodes the payload on the first call, the subsequent calls return the same instance.
+     */
     @Override
-    @SuppressWarnings("unchecked")
     public T getPayload() {
+        if (!decoded) {
+            payload = decode();
+            decoded = true;
+        }
+        return payload;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T decode() {
         try {
-            if (clazz != null) {
-                return convert(delegate.getBody(String.class));
-            } else {
+            if (clazz == null) {
                 return (T) delegate.getBody(Object.class);
             }
+            if (isStringOrPrimitive(clazz)) {
+                return convert(delegate.getBody(String.class));
+            }
+            return codec.decode(delegate, clazz);
         } catch (JMSException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    private static boolean isStringOrPrimitive(Class<?> c) {
+        return c.equals(String.class)
+                || c.equals(Integer.class)
+                || c.equals(Long.class)
+                || c.equals(Double.class)
+                || c.equals(Float.class)
+                || c.equals(Boolean.class)
+                || c.equals(Short.class)
+                || c.equals(Byte.class);
+    }
+
     @SuppressWarnings("unchecked")
     private T convert(String value) {
         if (clazz.equals(Integer.class)) {
@@ -93,23 +126,39 @@ public class IncomingJmsMessage<T> implements org.eclipse.microprofile.reactive.
         if (clazz.equals(Byte.class)) {
             return (T) Byte.valueOf(value);
         }
-        if (clazz.equals(String.class)) {
-            return (T) value;
+        return (T) value;
+    }
+
+    @Override
+    public CompletionStage<Void> ack() {
+        CompletionStage<Void> future = acknowledger.acknowledge(delegate);
+        if (onCompletion == null) {
+            return future;
         }
+        return future.whenComplete((x, f) -> complete());
+    }
 
-        return json.fromJson(value, clazz);
+    @Override
+    public CompletionStage<Void> nack(Throwable reason) {
+        // JMS has no negative acknowledgement, nacking the message only releases its group
+        complete();
+        return CompletableFuture.completedFuture(null);
+    }
 
+    @Override
+    public Supplier<CompletionStage<Void>> getAck() {
+        return this::ack;
     }
 
     @Override
-    public CompletionStage<Void> ack() {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                delegate.acknowledge();
-            } catch (JMSException e) {
-                throw new IllegalArgumentException();
-            }
-        }, executor);
+    public Function<Throwable, CompletionStage<Void>> getNack() {
+        return this::nack;
+    }
+
+    private void complete() {
+        if (onCompletion != null && completed.compareAndSet(false, true)) {
+            onCompletion.accept(delegate);
+        }
     }
 
     @Override
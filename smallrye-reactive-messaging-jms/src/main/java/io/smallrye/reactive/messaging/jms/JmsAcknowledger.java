@@ -0,0 +1,175 @@
+package io.smallrye.reactive.messaging.jms;
+
+import static io.smallrye.reactive.messaging.jms.i18n.JmsExceptions.ex;
+import static io.smallrye.reactive.messaging.jms.i18n.JmsLogging.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Acknowledges the messages received by a JMS session.
+ * <p>
+ * Only {@code CLIENT_ACKNOWLEDGE} sessions require an explicit acknowledgement, the other session modes acknowledge
+ * the messages on receipt, so their acknowledgements complete immediately. In {@code CLIENT_ACKNOWLEDGE} mode,
+ * acknowledging a message acknowledges all the messages consumed by the session, so the acknowledgements are batched:
+ * the session is acknowledged once {@code batchSize} messages have been acknowledged, or {@code batchTimeout} ms after
+ * the first pending acknowledgement. The stage returned for each message completes when the session has been
+ * acknowledged, or immediately in {@code lazy} mode, in which case messages may be redelivered after a failure (like
+ * with {@code DUPS_OK_ACKNOWLEDGE}).
+ * <p>
+ * As JMS acknowledgement is blocking, the session is acknowledged on the executor of the connector.
+ * <p>
+ * Once closed, the session cannot be acknowledged anymore: the acknowledgements fail, or are only logged in
+ * {@code lazy} mode.
+ */
+class JmsAcknowledger {
+
+    private static final CompletableFuture<Void> ACKNOWLEDGED = CompletableFuture.completedFuture(null);
+
+    private final boolean clientAcknowledge;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final boolean lazy;
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by `this`
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduled;
+    private boolean closed;
+
+    /**
+     * @param sessionMode the mode of the session
+     * @param batchSize the number of acknowledgements triggering the acknowledgement of the session
+     * @param batchTimeout the max delay in ms before acknowledging the session, once a message has been acknowledged
+     * @param lazy whether the acknowledgements complete before the session is acknowledged
+     * @param executor the executor running the blocking acknowledgements
+     * @param timer the timer used to flush the batches, only used if {@code batchSize} is greater than 1
+     */
+    JmsAcknowledger(int sessionMode, int batchSize, long batchTimeout, boolean lazy, Executor executor,
+            ScheduledExecutorService timer) {
+        this.clientAcknowledge = sessionMode == JMSContext.CLIENT_ACKNOWLEDGE;
+        this.batchSize = Math.max(batchSize, 1);
+        this.batchTimeout = batchTimeout;
+        this.lazy = lazy;
+        this.executor = executor;
+        this.timer = timer;
+    }
+
+    CompletionStage<Void> acknowledge(Message message) {
+        if (!clientAcknowledge) {
+            return ACKNOWLEDGED;
+        }
+        CompletableFuture<Void> future = lazy ? null : new CompletableFuture<>();
+        List<Pending> batch = null;
+        boolean rejected;
+        synchronized (this) {
+            rejected = closed;
+            if (!rejected) {
+                pending.add(new Pending(message, future));
+                if (pending.size() >= batchSize) {
+                    batch = take();
+                } else if (pending.size() == 1) {
+                    scheduled = timer.schedule(this::onTimeout, batchTimeout, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        if (rejected) {
+            failed(Collections.singletonList(new Pending(message, future)), ex.illegalStateAcknowledgerClosed());
+        } else if (batch != null) {
+            flush(batch);
+        }
+        return lazy ? ACKNOWLEDGED : future;
+    }
+
+    /**
+     * Acknowledges the pending messages on the caller thread, before closing the session.
+     */
+    void close() {
+        List<Pending> batch;
+        synchronized (this) {
+            closed = true;
+            batch = take();
+        }
+        if (!batch.isEmpty()) {
+            acknowledge(batch);
+        }
+    }
+
+    private void onTimeout() {
+        List<Pending> batch;
+        synchronized (this) {
+            batch = take();
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    // Must be called while holding the lock
+    private List<Pending> take() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            executor.execute(() -> acknowledge(batch));
+        } catch (RejectedExecutionException e) {
+            failed(batch, e);
+        }
+    }
+
+    private void acknowledge(List<Pending> batch) {
+        try {
+            // Acknowledging a message acknowledges all the messages consumed by the session
+            batch.get(batch.size() - 1).message.acknowledge();
+        } catch (JMSException | RuntimeException e) {
+            failed(batch, e);
+            return;
+        }
+        for (Pending p : batch) {
+            if (p.future != null) {
+                p.future.complete(null);
+            }
+        }
+    }
+
+    private void failed(List<Pending> batch, Exception cause) {
+        if (lazy) {
+            log.unableToAcknowledge(batch.size(), cause);
+            return;
+        }
+        IllegalStateException failure = ex.illegalStateUnableToAcknowledge(cause);
+        for (Pending p : batch) {
+            p.future.completeExceptionally(failure);
+        }
+    }
+
+    private static final class Pending {
+        private final Message message;
+        private final CompletableFuture<Void> future;
+
+        private Pending(Message message, CompletableFuture<Void> future) {
+            this.message = message;
+            this.future = future;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
 
 import io.smallrye.reactive.messaging.annotations.ConnectorAttribute;
 import io.smallrye.reactive.messaging.annotations.ConnectorAttribute.Direction;
+import io.smallrye.reactive.messaging.jms.impl.JsonbPayloadCodec;
 
 @ApplicationScoped
 @Connector(JmsConnector.CONNECTOR_NAME)
@@ -46,7 +47,13 @@ import io.smallrye.reactive.messaging.annotations.ConnectorAttribute.Direction;
 @ConnectorAttribute(name = "no-local", description = "Enable or disable local delivery", direction = Direction.INCOMING, type = "boolean", defaultValue = "false")
 @ConnectorAttribute(name = "broadcast", description = "Whether or not the JMS message should be dispatched to multiple consumers", direction = Direction.INCOMING, type = "boolean", defaultValue = "false")
 @ConnectorAttribute(name = "durable", description = "Set to `true` to use a durable subscription", direction = Direction.INCOMING, type = "boolean", defaultValue = "false")
+@ConnectorAttribute(name = "payload-codec", description = "The name of the `io.smallrye.reactive.messaging.jms.JmsPayloadCodec` bean (qualified with `@Named`) converting the payloads which are not strings, primitive types or byte arrays. If not set, the payloads are mapped to JSON using JSON-B", direction = Direction.INCOMING_AND_OUTGOING, type = "String")
 @ConnectorAttribute(name = "destination-type", description = "The type of destination. It can be either `queue` or `topic`", direction = Direction.INCOMING_AND_OUTGOING, type = "string", defaultValue = "queue")
+@ConnectorAttribute(name = "consumers", description = "The number of concurrent consumers receiving the messages of the queue. Each consumer uses its own session, created from the connection of the channel. Only supported for non-durable queues", direction = Direction.INCOMING, type = "int", defaultValue = "1")
+@ConnectorAttribute(name = "group-ordering", description = "Whether the messages sharing the same `JMSXGroupID` are dispatched one at a time, in the order they have been received: a message is dispatched once the previous message of its group has been acknowledged or nacked. Useful with multiple `consumers`", direction = Direction.INCOMING, type = "boolean", defaultValue = "false")
+@ConnectorAttribute(name = "ack-batch-size", description = "The number of acknowledged messages after which the session is acknowledged, acknowledging all the messages it has consumed. Only used with the `CLIENT_ACKNOWLEDGE` session mode", direction = Direction.INCOMING, type = "int", defaultValue = "1")
+@ConnectorAttribute(name = "ack-batch-timeout", description = "The max delay (in ms) before acknowledging the session once a message has been acknowledged, when `ack-batch-size` is greater than 1", direction = Direction.INCOMING, type = "long", defaultValue = "100")
+@ConnectorAttribute(name = "ack-lazy", description = "Whether the acknowledgement of a message completes before the session is acknowledged, like with the `DUPS_OK_ACKNOWLEDGE` session mode. Messages may be redelivered if the session is not acknowledged. Only used with the `CLIENT_ACKNOWLEDGE` session mode", direction = Direction.INCOMING, type = "boolean", defaultValue = "false")
 
 @ConnectorAttribute(name = "disable-message-id", description = "Omit the message id in the outbound JMS message", direction = Direction.OUTGOING, type = "boolean")
 @ConnectorAttribute(name = "disable-message-timestamp", description = "Omit the message timestamp in the outbound JMS message", direction = Direction.OUTGOING, type = "boolean")
@@ -57,6 +64,10 @@ import io.smallrye.reactive.messaging.annotations.ConnectorAttribute.Direction;
 @ConnectorAttribute(name = "priority", description = "The JMS Message priority", direction = Direction.OUTGOING, type = "int")
 @ConnectorAttribute(name = "reply-to", description = "The reply to destination if any", direction = Direction.OUTGOING, type = "string")
 @ConnectorAttribute(name = "reply-to-destination-type", description = "The type of destination for the response. It can be either `queue` or `topic`", direction = Direction.OUTGOING, type = "string", defaultValue = "queue")
+@ConnectorAttribute(name = "async-send", description = "Whether the messages are sent using the JMS 2.0 asynchronous send. The messages are acknowledged once the JMS server confirms the send. Not supported with the `SESSION_TRANSACTED` session mode", direction = Direction.OUTGOING, type = "boolean", defaultValue = "false")
+@ConnectorAttribute(name = "max-inflight-messages", description = "The max number of asynchronous sends waiting for the confirmation of the JMS server, when `async-send` is enabled", direction = Direction.OUTGOING, type = "int", defaultValue = "256")
+@ConnectorAttribute(name = "transaction-batch-size", description = "With the `SESSION_TRANSACTED` session mode, the number of messages sent before committing the session. The messages are acknowledged once the transaction is committed", direction = Direction.OUTGOING, type = "int", defaultValue = "1")
+@ConnectorAttribute(name = "transaction-batch-timeout", description = "With the `SESSION_TRANSACTED` session mode, the max delay (in ms) before committing the session once a message has been sent, when `transaction-batch-size` is greater than 1", direction = Direction.OUTGOING, type = "long", defaultValue = "100")
 public class JmsConnector implements IncomingConnectorFactory, OutgoingConnectorFactory {
 
     /**
@@ -82,6 +93,9 @@ public class JmsConnector implements IncomingConnectorFactory, OutgoingConnector
     @Inject
     Instance<Jsonb> jsonb;
 
+    @Inject
+    Instance<JmsPayloadCodec> codecs;
+
     @Inject
     @ConfigProperty(name = "smallrye.jms.threads.max-pool-size", defaultValue = DEFAULT_MAX_POOL_SIZE)
     int maxPoolSize;
@@ -92,7 +106,9 @@ public class JmsConnector implements IncomingConnectorFactory, OutgoingConnector
 
     private ExecutorService executor;
     private Jsonb json;
+    private JmsPayloadCodec defaultCodec;
     private final List<JmsSource> sources = new CopyOnWriteArrayList<>();
+    private final List<JmsSink> sinks = new CopyOnWriteArrayList<>();
     private final List<JMSContext> contexts = new CopyOnWriteArrayList<>();
 
     @PostConstruct
@@ -103,12 +119,14 @@ public class JmsConnector implements IncomingConnectorFactory, OutgoingConnector
         } else {
             this.json = jsonb.get();
         }
+        this.defaultCodec = new JsonbPayloadCodec(json);
 
     }
 
     @PreDestroy
     public void cleanup() {
         sources.forEach(JmsSource::close);
+        sinks.forEach(JmsSink::close);
         contexts.forEach(JMSContext::close);
         this.executor.shutdown();
     }
@@ -118,7 +136,7 @@ public class JmsConnector implements IncomingConnectorFactory, OutgoingConnector
         JmsConnectorIncomingConfiguration ic = new JmsConnectorIncomingConfiguration(config);
         JMSContext context = createJmsContext(ic);
         contexts.add(context);
-        JmsSource source = new JmsSource(context, ic, json, executor);
+        JmsSource source = new JmsSource(context, ic, getCodec(ic), executor);
         sources.add(source);
         return source.getSource();
     }
@@ -139,7 +157,21 @@ public class JmsConnector implements IncomingConnectorFactory, OutgoingConnector
         JmsConnectorOutgoingConfiguration oc = new JmsConnectorOutgoingConfiguration(config);
         JMSContext context = createJmsContext(oc);
         contexts.add(context);
-        return new JmsSink(context, oc, json, executor).getSink();
+        JmsSink sink = new JmsSink(context, oc, getCodec(oc), executor);
+        sinks.add(sink);
+        return sink.getSink();
+    }
+
+    private JmsPayloadCodec getCodec(JmsConnectorCommonConfiguration config) {
+        String name = config.getPayloadCodec().orElse(null);
+        if (name == null) {
+            return defaultCodec;
+        }
+        Instance<JmsPayloadCodec> codec = codecs.select(NamedLiteral.of(name));
+        if (codec.isUnsatisfied()) {
+            throw ex.illegalStateCannotFindNamedCodec(name);
+        }
+        return codec.get();
     }
 
     private ConnectionFactory pickTheFactory(String factoryName) {
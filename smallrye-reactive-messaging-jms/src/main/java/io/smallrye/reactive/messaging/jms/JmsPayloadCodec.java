@@ -0,0 +1,41 @@
+package io.smallrye.reactive.messaging.jms;
+
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Converts the payloads which are not mapped directly to a JMS message body.
+ * <p>
+ * Strings, primitive types and byte arrays are written as {@code TextMessage} and {@code BytesMessage} by the
+ * connector. The other objects are encoded using the codec of the channel, and decoded using the class set in the
+ * {@code _classname} property (or the {@code JMSType}) of the received messages. By default, the objects are mapped to
+ * JSON using JSON-B. Other codecs are exposed as CDI beans qualified with {@code @Named}, and selected using the
+ * {@code payload-codec} attribute of the channel.
+ * <p>
+ * Codecs may use any type of JMS message, for example a binary codec can write the encoded object in a
+ * {@code BytesMessage}. Codecs must be thread-safe.
+ */
+public interface JmsPayloadCodec {
+
+    /**
+     * Creates the JMS message containing the given payload.
+     *
+     * @param context the JMS context used to create the message
+     * @param payload the payload, not {@code null}
+     * @return the JMS message
+     * @throws JMSException if the message cannot be created
+     */
+    Message encode(JMSContext context, Object payload) throws JMSException;
+
+    /**
+     * Reads the payload of the given message.
+     *
+     * @param message the received JMS message
+     * @param type the type of the payload
+     * @param <T> the type of the payload
+     * @return the payload
+     * @throws JMSException if the body of the message cannot be read
+     */
+    <T> T decode(Message message, Class<T> type) throws JMSException;
+}
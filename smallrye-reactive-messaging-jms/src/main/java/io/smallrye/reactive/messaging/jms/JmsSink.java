@@ -3,17 +3,25 @@ package io.smallrye.reactive.messaging.jms;
 import static io.smallrye.reactive.messaging.jms.i18n.JmsExceptions.ex;
 import static io.smallrye.reactive.messaging.jms.i18n.JmsLogging.log;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.jms.BytesMessage;
+import javax.jms.CompletionListener;
 import javax.jms.DeliveryMode;
 import javax.jms.Destination;
 import javax.jms.JMSContext;
 import javax.jms.JMSException;
 import javax.jms.JMSProducer;
-import javax.json.bind.Jsonb;
 
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
@@ -22,48 +30,73 @@ import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
 class JmsSink {
 
     private final JMSProducer producer;
+    // Applies the configured delivery settings to a producer
+    private final Consumer<JMSProducer> settings;
     private final Destination destination;
     private final SubscriberBuilder<Message<?>, Void> sink;
     private final JMSContext context;
-    private final Jsonb json;
+    private final JmsPayloadCodec codec;
     private final Executor executor;
+    // The number of pending asynchronous sends, null if the sends are synchronous
+    private final Semaphore window;
+    private final Transaction transaction;
 
-    JmsSink(JMSContext context, JmsConnectorOutgoingConfiguration config, Jsonb jsonb, Executor executor) {
+    JmsSink(JMSContext context, JmsConnectorOutgoingConfiguration config, JmsPayloadCodec codec, Executor executor) {
         String name = config.getDestination().orElseGet(config::getChannel);
 
         this.destination = getDestination(context, name, config.getDestinationType());
         this.context = context;
-        this.json = jsonb;
+        this.codec = codec;
         this.executor = executor;
 
-        producer = context.createProducer();
-        config.getDeliveryDelay().ifPresent(producer::setDeliveryDelay);
-        config.getDeliveryMode().ifPresent(v -> {
+        boolean transacted = context.getSessionMode() == JMSContext.SESSION_TRANSACTED;
+        if (config.getAsyncSend()) {
+            if (transacted) {
+                throw ex.illegalArgumentAsyncSendWithTransactedSession(config.getChannel());
+            }
+            this.window = new Semaphore(config.getMaxInflightMessages());
+        } else {
+            this.window = null;
+        }
+        this.transaction = transacted
+                ? new Transaction(config.getTransactionBatchSize(), config.getTransactionBatchTimeout())
+                : null;
+
+        Integer deliveryMode = config.getDeliveryMode().map(v -> {
             if (v.equalsIgnoreCase("persistent")) {
-                producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+                return DeliveryMode.PERSISTENT;
             } else if (v.equalsIgnoreCase("non_persistent")) {
-                producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+                return DeliveryMode.NON_PERSISTENT;
             } else {
                 throw ex.illegalArgumentInvalidDeliveryMode(v);
             }
-        });
-        config.getDisableMessageId().ifPresent(producer::setDisableMessageID);
-        config.getDisableMessageTimestamp().ifPresent(producer::setDisableMessageTimestamp);
-        config.getCorrelationId().ifPresent(producer::setJMSCorrelationID);
-        config.getTtl().ifPresent(producer::setTimeToLive);
-        config.getPriority().ifPresent(producer::setPriority);
-        config.getReplyTo().ifPresent(rt -> {
+        }).orElse(null);
+        Destination replyTo = config.getReplyTo().map(rt -> {
             String replyToDestinationType = config.getReplyToDestinationType();
-            Destination replyToDestination;
             if (replyToDestinationType.equalsIgnoreCase("topic")) {
-                replyToDestination = context.createTopic(rt);
+                return context.createTopic(rt);
             } else if (replyToDestinationType.equalsIgnoreCase("queue")) {
-                replyToDestination = context.createQueue(rt);
+                return context.createQueue(rt);
             } else {
                 throw ex.illegalArgumentInvalidDestinationType(replyToDestinationType);
             }
-            producer.setJMSReplyTo(replyToDestination);
-        });
+        }).orElse(null);
+        settings = p -> {
+            config.getDeliveryDelay().ifPresent(p::setDeliveryDelay);
+            if (deliveryMode != null) {
+                p.setDeliveryMode(deliveryMode);
+            }
+            config.getDisableMessageId().ifPresent(p::setDisableMessageID);
+            config.getDisableMessageTimestamp().ifPresent(p::setDisableMessageTimestamp);
+            config.getCorrelationId().ifPresent(p::setJMSCorrelationID);
+            config.getTtl().ifPresent(p::setTimeToLive);
+            config.getPriority().ifPresent(p::setPriority);
+            if (replyTo != null) {
+                p.setJMSReplyTo(replyTo);
+            }
+        };
+        producer = context.createProducer();
+        settings.accept(producer);
 
         sink = ReactiveStreams.<Message<?>> builder()
                 .flatMapCompletionStage(m -> {
@@ -83,7 +116,7 @@ class JmsSink {
 
         // If the payload is a JMS Message, send it as it is, ignoring metadata.
         if (payload instanceof javax.jms.Message) {
-            return dispatch(message, () -> producer.send(destination, (javax.jms.Message) payload));
+            return dispatch(message, p -> p.send(destination, (javax.jms.Message) payload));
         }
 
         javax.jms.Message outgoing;
@@ -96,7 +129,7 @@ class JmsSink {
             o.writeBytes((byte[]) payload);
             outgoing = o;
         } else {
-            outgoing = context.createTextMessage(json.toJson(payload));
+            outgoing = codec.encode(context, payload);
             outgoing.setJMSType(payload.getClass().getName());
             outgoing.setStringProperty("_classname", payload.getClass().getName());
         }
@@ -141,7 +174,7 @@ class JmsSink {
             actualDestination = this.destination;
         }
 
-        return dispatch(message, () -> producer.send(actualDestination, outgoing));
+        return dispatch(message, p -> p.send(actualDestination, outgoing));
     }
 
     private boolean isPrimitiveBoxed(Class<?> c) {
@@ -155,12 +188,62 @@ class JmsSink {
                 || c.equals(Long.class);
     }
 
-    private CompletionStage<Message<?>> dispatch(Message<?> incoming, Runnable action) {
-        return CompletableFuture.runAsync(action, executor)
+    private CompletionStage<Message<?>> dispatch(Message<?> incoming, Consumer<JMSProducer> action) {
+        if (transaction != null) {
+            // The message is acknowledged once the transaction is committed
+            return CompletableFuture.runAsync(() -> transaction.send(incoming, action), executor)
+                    .thenApply(x -> incoming);
+        }
+        if (window != null) {
+            // The message is acknowledged once the broker confirms the send
+            return CompletableFuture.runAsync(() -> sendAsync(incoming, action), executor)
+                    .thenApply(x -> incoming);
+        }
+        return CompletableFuture.runAsync(() -> action.accept(producer), executor)
                 .thenCompose(x -> incoming.ack())
                 .thenApply(x -> incoming);
     }
 
+    private void sendAsync(Message<?> incoming, Consumer<JMSProducer> action) {
+        try {
+            // Blocks the worker thread while the window is full
+            window.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        // Each message gets its own producer, so its completion listener cannot be replaced by the send of another
+        // message before this send has registered it
+        JMSProducer async = context.createProducer();
+        settings.accept(async);
+        async.setAsync(new CompletionListener() {
+            @Override
+            public void onCompletion(javax.jms.Message message) {
+                window.release();
+                incoming.ack();
+            }
+
+            @Override
+            public void onException(javax.jms.Message message, Exception exception) {
+                window.release();
+                log.unableToSend(exception);
+                incoming.nack(exception);
+            }
+        });
+        try {
+            action.accept(async);
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+    }
+
+    void close() {
+        if (transaction != null) {
+            transaction.close();
+        }
+    }
+
     private Destination getDestination(JMSContext context, String name, String type) {
         switch (type.toLowerCase()) {
             case "queue":
@@ -177,4 +260,88 @@ class JmsSink {
         return sink;
     }
 
+    /**
+     * Sends the messages in a transacted session, committing the session once {@code size} messages have been sent,
+     * or {@code timeout} ms after the first message of the transaction. The messages are acknowledged once the
+     * transaction is committed, or nacked if the commit fails.
+     */
+    private class Transaction {
+
+        private final int size;
+        private final long timeout;
+        private final ScheduledExecutorService timer;
+
+        // Guarded by `this`, which also serializes the use of the session
+        private List<Message<?>> pending = new ArrayList<>();
+        private ScheduledFuture<?> scheduled;
+
+        private Transaction(int size, long timeout) {
+            this.size = Math.max(size, 1);
+            this.timeout = timeout;
+            this.timer = this.size > 1 ? Executors.newSingleThreadScheduledExecutor() : null;
+        }
+
+        synchronized void send(Message<?> incoming, Consumer<JMSProducer> action) {
+            try {
+                action.accept(producer);
+            } catch (RuntimeException e) {
+                rollback(incoming, e);
+                throw e;
+            }
+            pending.add(incoming);
+            if (pending.size() >= size) {
+                commit();
+            } else if (pending.size() == 1) {
+                scheduled = timer.schedule(this::commit, timeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void commit() {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Message<?>> batch = pending;
+            pending = new ArrayList<>();
+            try {
+                context.commit();
+            } catch (RuntimeException e) {
+                log.unableToCommit(batch.size(), e);
+                batch.forEach(m -> m.nack(e));
+                return;
+            }
+            batch.forEach(Message::ack);
+        }
+
+        /**
+         * Rolls back the transaction after a failed send: the messages already sent in the transaction are discarded,
+         * so they are nacked with the failed message.
+         */
+        private void rollback(Message<?> failed, RuntimeException failure) {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+            List<Message<?>> batch = pending;
+            pending = new ArrayList<>();
+            batch.add(failed);
+            log.rollingBackTransaction(batch.size(), failure);
+            try {
+                context.rollback();
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+            batch.forEach(m -> m.nack(failure));
+        }
+
+        void close() {
+            if (timer != null) {
+                timer.shutdown();
+            }
+            commit();
+        }
+    }
 }
@@ -3,19 +3,30 @@ package io.smallrye.reactive.messaging.jms;
 import static io.smallrye.reactive.messaging.jms.i18n.JmsExceptions.ex;
 import static io.smallrye.reactive.messaging.jms.i18n.JmsLogging.log;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import javax.jms.Destination;
 import javax.jms.IllegalStateRuntimeException;
 import javax.jms.JMSConsumer;
 import javax.jms.JMSContext;
+import javax.jms.JMSException;
 import javax.jms.Message;
+import javax.jms.Queue;
 import javax.jms.Topic;
-import javax.json.bind.Jsonb;
 
 import org.eclipse.microprofile.reactive.streams.operators.PublisherBuilder;
 import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
@@ -25,6 +36,7 @@ import org.reactivestreams.Subscription;
 
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.helpers.Subscriptions;
+import io.smallrye.reactive.messaging.jms.impl.ClassResolver;
 
 class JmsSource {
 
@@ -32,7 +44,12 @@ class JmsSource {
 
     private final JmsPublisher publisher;
 
-    JmsSource(JMSContext context, JmsConnectorIncomingConfiguration config, Jsonb json, Executor executor) {
+    private final List<JmsAcknowledger> acknowledgers = new ArrayList<>();
+
+    private final ScheduledExecutorService timer;
+
+    JmsSource(JMSContext context, JmsConnectorIncomingConfiguration config, JmsPayloadCodec codec,
+            Executor executor) {
         String name = config.getDestination().orElseGet(config::getChannel);
         String selector = config.getSelector().orElse(null);
         boolean nolocal = config.getNoLocal();
@@ -41,29 +58,60 @@ class JmsSource {
 
         Destination destination = getDestination(context, name, config);
 
-        JMSConsumer consumer;
+        int count = config.getConsumers();
+        if (count < 1 || (count > 1 && (durable || !(destination instanceof Queue)))) {
+            throw ex.illegalArgumentInvalidConsumers(config.getChannel(), count);
+        }
+
+        List<JMSConsumer> consumers = new ArrayList<>();
+        List<JMSContext> sessions = new ArrayList<>();
         if (durable) {
             if (!(destination instanceof Topic)) {
                 throw ex.illegalArgumentInvalidDestination();
             }
-            consumer = context.createDurableConsumer((Topic) destination, name, selector, nolocal);
+            consumers.add(context.createDurableConsumer((Topic) destination, name, selector, nolocal));
         } else {
-            consumer = context.createConsumer(destination, selector, nolocal);
+            consumers.add(context.createConsumer(destination, selector, nolocal));
+        }
+        // Additional consumers use their own session, sharing the connection of the channel
+        for (int i = 1; i < count; i++) {
+            JMSContext session = context.createContext(context.getSessionMode());
+            sessions.add(session);
+            consumers.add(session.createConsumer(destination, selector, nolocal));
+        }
+
+        // Each session is acknowledged independently
+        int mode = context.getSessionMode();
+        int batchSize = config.getAckBatchSize();
+        timer = mode == JMSContext.CLIENT_ACKNOWLEDGE && batchSize > 1 ? Executors.newSingleThreadScheduledExecutor()
+                : null;
+        for (int i = 0; i < count; i++) {
+            acknowledgers.add(new JmsAcknowledger(mode, batchSize, config.getAckBatchTimeout(), config.getAckLazy(),
+                    executor, timer));
         }
 
-        publisher = new JmsPublisher(consumer);
+        publisher = new JmsPublisher(consumers, sessions, acknowledgers, config.getGroupOrdering());
+        Consumer<Message> onCompletion = config.getGroupOrdering() ? publisher::completed : null;
+        ClassResolver classes = new ClassResolver();
 
         if (!broadcast) {
-            source = ReactiveStreams.fromPublisher(publisher).map(m -> new IncomingJmsMessage<>(m, executor, json));
+            source = ReactiveStreams.fromPublisher(publisher)
+                    .map(r -> new IncomingJmsMessage<>(r.message, r.acknowledger, classes, codec, onCompletion));
         } else {
             source = ReactiveStreams.fromPublisher(
                     Multi.createFrom().publisher(publisher)
-                            .map(m -> new IncomingJmsMessage<>(m, executor, json))
+                            .map(r -> new IncomingJmsMessage<>(r.message, r.acknowledger, classes, codec, onCompletion))
                             .broadcast().toAllSubscribers());
         }
     }
 
     void close() {
+        // Acknowledge the pending batches before closing the sessions. The acknowledgers are closed before the timer,
+        // so a late acknowledgement does not schedule a flush on the stopped timer.
+        acknowledgers.forEach(JmsAcknowledger::close);
+        if (timer != null) {
+            timer.shutdown();
+        }
         publisher.close();
     }
 
@@ -86,31 +134,56 @@ class JmsSource {
         return source;
     }
 
+    /**
+     * Publishes the messages received by the consumers of the channel.
+     * <p>
+     * Each request is handled by the first available consumer, so the demand is distributed across the consumers.
+     * Consumers are not thread-safe, so a consumer is only used by one thread at a time. The messages received
+     * concurrently are dispatched downstream one at a time.
+     * <p>
+     * With group ordering, a message having a {@code JMSXGroupID} is held back while the previous message of its group
+     * has not been acknowledged or nacked.
+     */
     @SuppressWarnings("PublisherImplementation")
-    private static class JmsPublisher implements Publisher<Message>, Subscription {
+    private static class JmsPublisher implements Publisher<Received>, Subscription {
 
         private final AtomicLong requests = new AtomicLong();
-        private final AtomicReference<Subscriber<? super Message>> downstream = new AtomicReference<>();
-        private final JMSConsumer consumer;
+        private final AtomicReference<Subscriber<? super Received>> downstream = new AtomicReference<>();
+        private final List<JMSConsumer> consumers;
+        private final List<JMSContext> sessions;
+        private final List<JmsAcknowledger> acknowledgers;
+        // The indexes of the idle consumers
+        private final BlockingQueue<Integer> available = new LinkedBlockingQueue<>();
         private final ExecutorService executor;
+        private final boolean groupOrdering;
+        // The messages held back for each group having a message in flight, guarded by `this`
+        private final Map<String, Deque<Received>> groups = new HashMap<>();
         private boolean unbounded;
 
-        private JmsPublisher(JMSConsumer consumer) {
-            this.consumer = consumer;
-            this.executor = Executors.newSingleThreadExecutor();
+        private JmsPublisher(List<JMSConsumer> consumers, List<JMSContext> sessions,
+                List<JmsAcknowledger> acknowledgers, boolean groupOrdering) {
+            this.consumers = consumers;
+            this.sessions = sessions;
+            this.acknowledgers = acknowledgers;
+            for (int i = 0; i < consumers.size(); i++) {
+                available.add(i);
+            }
+            this.executor = Executors.newFixedThreadPool(consumers.size());
+            this.groupOrdering = groupOrdering;
         }
 
         void close() {
-            Subscriber<? super Message> subscriber = downstream.getAndSet(null);
+            Subscriber<? super Received> subscriber = downstream.getAndSet(null);
             if (subscriber != null) {
                 subscriber.onComplete();
             }
-            consumer.close();
+            consumers.forEach(JMSConsumer::close);
+            sessions.forEach(JMSContext::close);
             executor.shutdown();
         }
 
         @Override
-        public void subscribe(Subscriber<? super Message> s) {
+        public void subscribe(Subscriber<? super Received> s) {
             if (downstream.compareAndSet(null, s)) {
                 s.onSubscribe(this);
             } else {
@@ -137,22 +210,76 @@ class JmsSource {
         private void enqueue(long n) {
             for (int i = 0; i < n; i++) {
                 executor.execute(() -> {
+                    // There are as many threads as consumers, so a consumer is always available
+                    Integer index = available.poll();
                     try {
-                        Message message = consumer.receive();
+                        Message message = consumers.get(index).receive();
                         if (message != null) { // null means closed.
                             requests.decrementAndGet();
-                            downstream.get().onNext(message);
+                            dispatch(new Received(message, acknowledgers.get(index)));
                         }
                     } catch (IllegalStateRuntimeException e) {
                         log.clientClosed();
+                    } finally {
+                        available.add(index);
                     }
-
                 });
             }
         }
 
         private void startUnboundedReception() {
-            consumer.setMessageListener(m -> downstream.get().onNext(m));
+            for (int i = 0; i < consumers.size(); i++) {
+                JmsAcknowledger acknowledger = acknowledgers.get(i);
+                consumers.get(i).setMessageListener(m -> dispatch(new Received(m, acknowledger)));
+            }
+        }
+
+        private synchronized void dispatch(Received received) {
+            if (groupOrdering) {
+                String group = getGroup(received.message);
+                if (group != null) {
+                    Deque<Received> held = groups.get(group);
+                    if (held != null) {
+                        held.add(received);
+                        return;
+                    }
+                    groups.put(group, new ArrayDeque<>());
+                }
+            }
+            emit(received);
+        }
+
+        /**
+         * Called when a message has been acknowledged or nacked, dispatches the next message of its group.
+         *
+         * @param message the message
+         */
+        synchronized void completed(Message message) {
+            String group = getGroup(message);
+            Deque<Received> held = group == null ? null : groups.get(group);
+            if (held != null) {
+                Received next = held.poll();
+                if (next == null) {
+                    groups.remove(group);
+                } else {
+                    emit(next);
+                }
+            }
+        }
+
+        private void emit(Received received) {
+            Subscriber<? super Received> subscriber = downstream.get();
+            if (subscriber != null) {
+                subscriber.onNext(received);
+            }
+        }
+
+        private static String getGroup(Message message) {
+            try {
+                return message.getStringProperty("JMSXGroupID");
+            } catch (JMSException e) {
+                return null;
+            }
         }
 
         @Override
@@ -179,4 +306,17 @@ class JmsSource {
             }
         }
     }
+
+    /**
+     * A received message, and the acknowledger of the session which received it.
+     */
+    private static final class Received {
+        private final Message message;
+        private final JmsAcknowledger acknowledger;
+
+        private Received(Message message, JmsAcknowledger acknowledger) {
+            this.message = message;
+            this.acknowledger = acknowledger;
+        }
+    }
 }
@@ -56,4 +56,19 @@ public interface JmsExceptions {
     @Message(id = 15613, value = "There is already a subscriber")
     IllegalStateException illegalStateAlreadySubscriber();
 
+    @Message(id = 15614, value = "Invalid number of consumers for channel `%s`: %d, multiple consumers are only supported for non-durable queues")
+    IllegalArgumentException illegalArgumentInvalidConsumers(String channel, int consumers);
+
+    @Message(id = 15615, value = "Unable to acknowledge the JMS messages")
+    IllegalStateException illegalStateUnableToAcknowledge(@Cause Throwable cause);
+
+    @Message(id = 15616, value = "Invalid configuration for channel `%s`, asynchronous sends are not supported with the `SESSION_TRANSACTED` session mode")
+    IllegalArgumentException illegalArgumentAsyncSendWithTransactedSession(String channel);
+
+    @Message(id = 15617, value = "Cannot find a io.smallrye.reactive.messaging.jms.JmsPayloadCodec bean named %s")
+    IllegalStateException illegalStateCannotFindNamedCodec(String name);
+
+    @Message(id = 15618, value = "Unable to acknowledge the JMS message, the channel has been closed")
+    IllegalStateException illegalStateAcknowledgerClosed();
+
 }
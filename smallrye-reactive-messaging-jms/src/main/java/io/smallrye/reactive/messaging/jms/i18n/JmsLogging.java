@@ -31,4 +31,16 @@ public interface JmsLogging extends BasicLogger {
     @LogMessage(level = Logger.Level.WARN)
     @Message(id = 15803, value = "Unable to receive JMS messages - client has been closed")
     void clientClosed();
-}
\ No newline at end of file
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 15804, value = "Unable to acknowledge the JMS session, %d acknowledged message(s) may be redelivered")
+    void unableToAcknowledge(int count, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 15805, value = "Unable to commit the JMS transaction, %d message(s) have not been sent")
+    void unableToCommit(int count, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 15806, value = "Unable to send a message, rolling back the JMS transaction, %d message(s) have not been sent")
+    void rollingBackTransaction(int count, @Cause Throwable t);
+}
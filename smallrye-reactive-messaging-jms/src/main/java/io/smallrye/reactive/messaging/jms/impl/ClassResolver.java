@@ -0,0 +1,54 @@
+package io.smallrye.reactive.messaging.jms.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the classes of the received payloads, using the TCCL and then the class loader of the connector.
+ * <p>
+ * The loaded classes are cached, as most channels only receive a few types of payload. The cache is bounded: it is
+ * cleared when it reaches its max size, so channels receiving many types still work, without retaining classes.
+ */
+public final class ClassResolver {
+
+    private static final int MAX_SIZE = 256;
+
+    private final Map<String, Class<?>> cache = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public ClassResolver() {
+        this(MAX_SIZE);
+    }
+
+    ClassResolver(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Class<?> load(String name) throws ClassNotFoundException {
+        Class<?> clazz = cache.get(name);
+        if (clazz == null) {
+            clazz = doLoad(name);
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+            cache.put(name, clazz);
+        }
+        return clazz;
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private Class<?> doLoad(String name) throws ClassNotFoundException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader != null) {
+            try {
+                return loader.loadClass(name);
+            } catch (ClassNotFoundException e) {
+                // Will try with the current class classloader
+            }
+        }
+        return ClassResolver.class.getClassLoader().loadClass(name);
+    }
+}
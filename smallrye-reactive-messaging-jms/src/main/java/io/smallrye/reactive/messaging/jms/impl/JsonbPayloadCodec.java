@@ -0,0 +1,37 @@
+package io.smallrye.reactive.messaging.jms.impl;
+
+import java.io.ByteArrayInputStream;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.json.bind.Jsonb;
+
+import io.smallrye.reactive.messaging.jms.JmsPayloadCodec;
+
+/**
+ * The default {@link JmsPayloadCodec}, writing the payloads as JSON in {@code TextMessage}s.
+ * Messages are decoded from {@code TextMessage}s, and from {@code BytesMessage}s without intermediate string.
+ */
+public final class JsonbPayloadCodec implements JmsPayloadCodec {
+
+    private final Jsonb json;
+
+    public JsonbPayloadCodec(Jsonb json) {
+        this.json = json;
+    }
+
+    @Override
+    public Message encode(JMSContext context, Object payload) {
+        return context.createTextMessage(json.toJson(payload));
+    }
+
+    @Override
+    public <T> T decode(Message message, Class<T> type) throws JMSException {
+        if (message instanceof BytesMessage) {
+            return json.fromJson(new ByteArrayInputStream(message.getBody(byte[].class)), type);
+        }
+        return json.fromJson(message.getBody(String.class), type);
+    }
+}
@@ -0,0 +1,41 @@
+package io.smallrye.reactive.messaging.jms;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Named;
+import javax.jms.BytesMessage;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+@ApplicationScoped
+@Named("binary")
+public class BinaryPersonCodec implements JmsPayloadCodec {
+
+    private final AtomicInteger decoded = new AtomicInteger();
+
+    @Override
+    public Message encode(JMSContext context, Object payload) throws JMSException {
+        Person person = (Person) payload;
+        byte[] name = person.getName().getBytes(StandardCharsets.UTF_8);
+        BytesMessage message = context.createBytesMessage();
+        message.writeBytes(ByteBuffer.allocate(4 + name.length).putInt(person.getAge()).put(name).array());
+        return message;
+    }
+
+    @Override
+    public <T> T decode(Message message, Class<T> type) throws JMSException {
+        ByteBuffer buffer = ByteBuffer.wrap(message.getBody(byte[].class));
+        int age = buffer.getInt();
+        String name = StandardCharsets.UTF_8.decode(buffer).toString();
+        decoded.incrementAndGet();
+        return type.cast(new Person(name, age));
+    }
+
+    int decoded() {
+        return decoded.get();
+    }
+}
@@ -104,6 +104,36 @@ public class JmsConnectorTest extends JmsTestBase {
         assertThat(bean.list()).isNotEmpty();
     }
 
+    @Test
+    public void testWithPersonAndCustomCodec() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("mp.messaging.outgoing.queue-one.connector", JmsConnector.CONNECTOR_NAME);
+        map.put("mp.messaging.outgoing.queue-one.payload-codec", "binary");
+        map.put("mp.messaging.incoming.jms.connector", JmsConnector.CONNECTOR_NAME);
+        map.put("mp.messaging.incoming.jms.destination", "queue-one");
+        map.put("mp.messaging.incoming.jms.payload-codec", "binary");
+        MapBasedConfig config = new MapBasedConfig(map);
+        addConfig(config);
+        WeldContainer container = deploy(PersonConsumerBean.class, PersonProducerBean.class, BinaryPersonCodec.class);
+
+        PersonConsumerBean bean = container.select(PersonConsumerBean.class).get();
+        await().until(() -> bean.list().size() == 3);
+        assertThat(bean.list()).extracting(Person::getName).containsExactly("bob", "tom", "phil");
+        assertThat(container.select(BinaryPersonCodec.class).get().decoded()).isEqualTo(3);
+    }
+
+    @Test(expected = DeploymentException.class)
+    public void testWithMissingCodec() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("mp.messaging.outgoing.queue-one.connector", JmsConnector.CONNECTOR_NAME);
+        map.put("mp.messaging.outgoing.queue-one.payload-codec", "missing");
+        map.put("mp.messaging.incoming.jms.connector", JmsConnector.CONNECTOR_NAME);
+        map.put("mp.messaging.incoming.jms.destination", "queue-one");
+        MapBasedConfig config = new MapBasedConfig(map);
+        addConfig(config);
+        deploy(PersonConsumerBean.class, PersonProducerBean.class);
+    }
+
     @Test(expected = DeploymentException.class)
     public void testInvalidSessionMode() {
         Map<String, Object> map = new HashMap<>();
@@ -1,6 +1,7 @@
 package io.smallrye.reactive.messaging.jms;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 
 import java.util.Collections;
@@ -11,6 +12,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.jms.DeliveryMode;
 import javax.jms.Destination;
@@ -24,12 +27,15 @@ import javax.json.bind.JsonbBuilder;
 
 import org.apache.activemq.artemis.jms.client.ActiveMQJMSConnectionFactory;
 import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
 import org.eclipse.microprofile.reactive.streams.operators.CompletionSubscriber;
+import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import io.smallrye.mutiny.helpers.Subscriptions;
+import io.smallrye.reactive.messaging.jms.impl.JsonbPayloadCodec;
 import io.smallrye.reactive.messaging.jms.support.JmsTestBase;
 import io.smallrye.reactive.messaging.jms.support.MapBasedConfig;
 
@@ -38,6 +44,7 @@ public class JmsSinkTest extends JmsTestBase {
     private JMSContext jms;
     private ActiveMQJMSConnectionFactory factory;
     private Jsonb json;
+    private JmsPayloadCodec codec;
     private ExecutorService executor;
     private CompletionSubscriber<org.eclipse.microprofile.reactive.messaging.Message<?>, Void> subscriber;
 
@@ -48,6 +55,7 @@ public class JmsSinkTest extends JmsTestBase {
                 null, null);
         jms = factory.createContext();
         json = JsonbBuilder.create();
+        codec = new JsonbPayloadCodec(json);
         executor = Executors.newFixedThreadPool(3);
     }
 
@@ -65,7 +73,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("destination", "queue-one")
                 .put("channel-name", "jms")
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -85,7 +93,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("destination-type", "topic")
                 .put("channel-name", "jms")
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client1 = new MyJmsClient(jms.createTopic("my-topic"));
         MyJmsClient client2 = new MyJmsClient(jms.createTopic("my-topic"));
         subscriber = sink.getSink().build();
@@ -110,7 +118,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
 
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -136,7 +144,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
 
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -162,7 +170,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
 
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -186,7 +194,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
 
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -211,7 +219,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
 
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -236,7 +244,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
 
                 .build();
-        new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
     }
 
     @Test
@@ -246,7 +254,7 @@ public class JmsSinkTest extends JmsTestBase {
                 .put("channel-name", "jms")
                 .put("ttl", 10000L)
                 .build();
-        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), json, executor);
+        JmsSink sink = new JmsSink(jms, new JmsConnectorOutgoingConfiguration(config), codec, executor);
         MyJmsClient client = new MyJmsClient(jms.createQueue("queue-one"));
         subscriber = sink.getSink().build();
         subscriber.onSubscribe(new Subscriptions.EmptySubscription());
@@ -277,6 +285,148 @@ public class JmsSinkTest extends JmsTestBase {
 
     }
 
+    @Test
+    public void testAsyncSend() {
+        MapBasedConfig config = new MapBasedConfig.Builder()
+                .put("destination", "queue-async")
+                .put("channel-name", "jms")
+                .put("async-send", true)
+                .put("max-inflight-messages", 2)
+                .build();
+        // The send confirmations require a confirmation window
+        ActiveMQJMSConnectionFactory confirming = new ActiveMQJMSConnectionFactory("tcp://localhost:61616", null, null);
+        confirming.setConfirmationWindowSize(1024 * 1024);
+        JMSContext context = confirming.createContext();
+        JmsSink sink = new JmsSink(context, new JmsConnectorOutgoingConfiguration(config), codec, executor);
+        MyJmsClient client = new MyJmsClient(jms.createQueue("queue-async"));
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        ReactiveStreams.fromIterable(createMessages(10, acked)).to(sink.getSink()).run();
+
+        await().until(() -> client.messages.size() == 10);
+        await().until(() -> acked.size() == 10);
+        assertThat(acked).containsExactlyInAnyOrderElementsOf(
+                IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+        context.close();
+        confirming.close();
+    }
+
+    @Test
+    public void testTransactedBatch() throws JMSException {
+        JMSContext context = factory.createContext(JMSContext.SESSION_TRANSACTED);
+        MapBasedConfig config = new MapBasedConfig.Builder()
+                .put("destination", "queue-transacted")
+                .put("channel-name", "jms")
+                .put("transaction-batch-size", 5)
+                .put("transaction-batch-timeout", 60000L)
+                .build();
+        JmsSink sink = new JmsSink(context, new JmsConnectorOutgoingConfiguration(config), codec, executor);
+        MyJmsClient client = new MyJmsClient(jms.createQueue("queue-transacted"));
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        List<Message<?>> messages = createMessages(8, acked);
+        ReactiveStreams.fromIterable(messages).to(sink.getSink()).run();
+
+        // The first 5 messages are committed, the others wait for the next commit
+        await().until(() -> client.messages.size() == 5);
+        await().pollDelay(200, TimeUnit.MILLISECONDS).until(() -> client.messages.size() == 5);
+        assertThat(acked).containsExactly(0, 1, 2, 3, 4);
+        assertThat(client.messages.get(4).getBody(String.class)).isEqualTo("4");
+
+        // Closing the sink commits the pending messages
+        sink.close();
+        await().until(() -> client.messages.size() == 8);
+        assertThat(acked).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        context.close();
+    }
+
+    @Test
+    public void testTransactionTimeout() {
+        JMSContext context = factory.createContext(JMSContext.SESSION_TRANSACTED);
+        MapBasedConfig config = new MapBasedConfig.Builder()
+                .put("destination", "queue-transacted-timeout")
+                .put("channel-name", "jms")
+                .put("transaction-batch-size", 10)
+                .put("transaction-batch-timeout", 100L)
+                .build();
+        JmsSink sink = new JmsSink(context, new JmsConnectorOutgoingConfiguration(config), codec, executor);
+        MyJmsClient client = new MyJmsClient(jms.createQueue("queue-transacted-timeout"));
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        ReactiveStreams.fromIterable(createMessages(3, acked)).to(sink.getSink()).run();
+
+        await().until(() -> client.messages.size() == 3);
+        assertThat(acked).containsExactly(0, 1, 2);
+        sink.close();
+        context.close();
+    }
+
+    @Test
+    public void testFailedSendRollsBackTheTransaction() {
+        JMSContext context = factory.createContext(JMSContext.SESSION_TRANSACTED);
+        MapBasedConfig config = new MapBasedConfig.Builder()
+                .put("destination", "queue-transacted-rollback")
+                .put("channel-name", "jms")
+                .put("transaction-batch-size", 10)
+                .put("transaction-batch-timeout", 60000L)
+                .build();
+        JmsSink sink = new JmsSink(context, new JmsConnectorOutgoingConfiguration(config), codec, executor);
+        MyJmsClient client = new MyJmsClient(jms.createQueue("queue-transacted-rollback"));
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        List<Integer> nacked = new CopyOnWriteArrayList<>();
+        List<Message<?>> messages = createMessages(3, acked, nacked);
+        // The broker rejects the destinations it has not created
+        Destination foreign = new Destination() {
+        };
+        messages.add(Message.of(3, Metadata.of(OutgoingJmsMessageMetadata.builder().withDestination(foreign).build()),
+                () -> {
+                    acked.add(3);
+                    return CompletableFuture.completedFuture(null);
+                }, t -> {
+                    nacked.add(3);
+                    return CompletableFuture.completedFuture(null);
+                }));
+        ReactiveStreams.fromIterable(messages).to(sink.getSink()).run();
+
+        // The messages sent in the transaction are discarded
+        await().until(() -> nacked.size() == 4);
+        assertThat(nacked).containsExactly(0, 1, 2, 3);
+        assertThat(acked).isEmpty();
+        sink.close();
+        await().pollDelay(200, TimeUnit.MILLISECONDS).until(() -> client.messages.isEmpty());
+        context.close();
+    }
+
+    @Test
+    public void testAsyncSendWithTransactedSession() {
+        JMSContext context = factory.createContext(JMSContext.SESSION_TRANSACTED);
+        MapBasedConfig config = new MapBasedConfig.Builder()
+                .put("channel-name", "jms")
+                .put("async-send", true)
+                .build();
+        assertThatThrownBy(() -> new JmsSink(context, new JmsConnectorOutgoingConfiguration(config), codec, executor))
+                .isInstanceOf(IllegalArgumentException.class);
+        context.close();
+    }
+
+    private List<Message<?>> createMessages(int count, List<Integer> acked) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Message.of(i, () -> {
+                    acked.add(i);
+                    return CompletableFuture.completedFuture(null);
+                }))
+                .collect(Collectors.toList());
+    }
+
+    private List<Message<?>> createMessages(int count, List<Integer> acked, List<Integer> nacked) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Message.of(i, () -> {
+                    acked.add(i);
+                    return CompletableFuture.completedFuture(null);
+                }, t -> {
+                    nacked.add(i);
+                    return CompletableFuture.completedFuture(null);
+                }))
+                .collect(Collectors.toList());
+    }
+
     private class MyJmsClient {
 
         private final List<javax.jms.Message> messages = new CopyOnWriteArrayList<>();
@@ -1,26 +1,33 @@
 package io.smallrye.reactive.messaging.jms;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSContext;
 import javax.jms.JMSException;
 import javax.jms.JMSProducer;
 import javax.jms.Queue;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
 
 import org.apache.activemq.artemis.jms.client.ActiveMQJMSConnectionFactory;
 import org.eclipse.microprofile.reactive.streams.operators.PublisherBuilder;
@@ -32,6 +39,7 @@ import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
+import io.smallrye.reactive.messaging.jms.impl.JsonbPayloadCodec;
 import io.smallrye.reactive.messaging.jms.support.JmsTestBase;
 import io.smallrye.reactive.messaging.jms.support.MapBasedConfig;
 
@@ -240,6 +248,254 @@ public class JmsSourceTest extends JmsTestBase {
                 .containsAll(IntStream.of(49).boxed().collect(Collectors.toList()));
     }
 
+    @Test
+    public void testMultipleConsumers() {
+        JmsSource source = new JmsSource(jms,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-consumers").put("consumers", 3).build()),
+                null, Runnable::run);
+        Publisher<IncomingJmsMessage<?>> publisher = source.getSource().buildRs();
+
+        List<IncomingJmsMessage<?>> list = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> upstream = new AtomicReference<>();
+        publisher.subscribe(createSubscriber(list, upstream));
+        await().untilAtomic(upstream, is(notNullValue()));
+        upstream.get().request(20);
+
+        new Thread(() -> {
+            JMSContext context = factory.createContext();
+            JMSProducer producer = context.createProducer();
+            Queue q = context.createQueue("queue-consumers");
+            for (int i = 0; i < 100; i++) {
+                producer.send(q, i);
+            }
+        }).start();
+
+        await().until(() -> list.size() == 20);
+        upstream.get().request(80);
+        await().until(() -> list.size() == 100);
+        assertThat(list.stream().map(r -> (Integer) r.getPayload()).collect(Collectors.toList()))
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+        source.close();
+    }
+
+    @Test
+    public void testGroupOrdering() throws JMSException {
+        JmsSource source = new JmsSource(jms,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-groups").put("consumers", 2).put("group-ordering", true).build()),
+                null, Runnable::run);
+        Publisher<IncomingJmsMessage<?>> publisher = source.getSource().buildRs();
+
+        List<IncomingJmsMessage<?>> list = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> upstream = new AtomicReference<>();
+        publisher.subscribe(createSubscriber(list, upstream));
+        await().untilAtomic(upstream, is(notNullValue()));
+        upstream.get().request(Long.MAX_VALUE);
+
+        JMSProducer producer = jms.createProducer();
+        Queue q = jms.createQueue("queue-groups");
+        for (int i = 0; i < 6; i++) {
+            TextMessage message = jms.createTextMessage(Integer.toString(i));
+            message.setStringProperty("JMSXGroupID", i % 2 == 0 ? "even" : "odd");
+            producer.send(q, message);
+        }
+
+        // A single message per group is dispatched until it is acknowledged
+        await().until(() -> list.size() == 2);
+        await().pollDelay(200, TimeUnit.MILLISECONDS).until(() -> list.size() == 2);
+        assertThat(list.stream().map(m -> (String) m.getPayload()).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("0", "1");
+
+        for (int i = 0; i < 6; i++) {
+            IncomingJmsMessage<?> message = list.get(i);
+            if (i % 2 == 0) {
+                message.ack().toCompletableFuture().join();
+            } else {
+                message.nack(new Exception("boom")).toCompletableFuture().join();
+            }
+            int expected = Math.min(i + 3, 6);
+            await().until(() -> list.size() == expected);
+        }
+        List<String> even = list.stream().map(m -> (String) m.getPayload())
+                .filter(p -> Integer.parseInt(p) % 2 == 0).collect(Collectors.toList());
+        assertThat(even).containsExactly("0", "2", "4");
+        source.close();
+    }
+
+    @Test
+    public void testMultipleConsumersOnTopic() {
+        assertThatThrownBy(() -> new JmsSource(jms,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "topic").put("destination-type", "topic").put("consumers", 2).build()),
+                null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testBatchedAcknowledgement() {
+        JMSContext context = factory.createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+        JmsSource source = new JmsSource(context,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-batch").put("ack-batch-size", 5).put("ack-batch-timeout", 60000L)
+                        .build()),
+                null, Runnable::run);
+        List<IncomingJmsMessage<?>> list = receive(source, "queue-batch", 5);
+
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            acks.add(list.get(i).ack().toCompletableFuture());
+        }
+        assertThat(acks).noneMatch(CompletableFuture::isDone);
+        // The fifth acknowledgement acknowledges the session, and completes the whole batch
+        acks.add(list.get(4).ack().toCompletableFuture());
+        assertThat(acks).allMatch(f -> f.isDone() && !f.isCompletedExceptionally());
+
+        source.close();
+        context.close();
+        assertThat(redelivered("queue-batch")).isNull();
+    }
+
+    @Test
+    public void testBatchTimeout() {
+        JMSContext context = factory.createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+        JmsSource source = new JmsSource(context,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-batch-timeout").put("ack-batch-size", 10)
+                        .put("ack-batch-timeout", 100L).build()),
+                null, Runnable::run);
+        List<IncomingJmsMessage<?>> list = receive(source, "queue-batch-timeout", 3);
+
+        List<CompletableFuture<Void>> acks = list.stream().map(m -> m.ack().toCompletableFuture())
+                .collect(Collectors.toList());
+        assertThat(acks).noneMatch(CompletableFuture::isDone);
+        await().until(() -> acks.stream().allMatch(CompletableFuture::isDone));
+
+        source.close();
+        context.close();
+        assertThat(redelivered("queue-batch-timeout")).isNull();
+    }
+
+    @Test
+    public void testAcknowledgementAfterClose() {
+        JMSContext context = factory.createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+        JmsSource source = new JmsSource(context,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-ack-closed").put("ack-batch-size", 10)
+                        .put("ack-batch-timeout", 60000L).build()),
+                null, Runnable::run);
+        List<IncomingJmsMessage<?>> list = receive(source, "queue-ack-closed", 2);
+        CompletableFuture<Void> first = list.get(0).ack().toCompletableFuture();
+
+        // Closing the source acknowledges the pending batch, the later acknowledgements fail
+        source.close();
+        assertThat(first).isCompleted();
+        CompletableFuture<Void> late = list.get(1).ack().toCompletableFuture();
+        assertThat(late).isCompletedExceptionally();
+        context.close();
+    }
+
+    @Test
+    public void testLazyAcknowledgement() {
+        JMSContext context = factory.createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+        JmsSource source = new JmsSource(context,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-lazy").put("ack-batch-size", 10).put("ack-lazy", true).build()),
+                null, Runnable::run);
+        List<IncomingJmsMessage<?>> list = receive(source, "queue-lazy", 3);
+
+        // The acknowledgements complete before the session is acknowledged
+        assertThat(list.stream().map(m -> m.ack().toCompletableFuture()))
+                .allMatch(CompletableFuture::isDone);
+        // Closing the source acknowledges the pending batch
+        source.close();
+        context.close();
+        assertThat(redelivered("queue-lazy")).isNull();
+    }
+
+    @Test
+    public void testPayloadDecodedOnce() throws JMSException {
+        Jsonb json = JsonbBuilder.create();
+        JmsSource source = new JmsSource(jms,
+                new JmsConnectorIncomingConfiguration(new MapBasedConfig.Builder()
+                        .put("channel-name", "queue-codec").build()),
+                new JsonbPayloadCodec(json), null);
+        Publisher<IncomingJmsMessage<?>> publisher = source.getSource().buildRs();
+        List<IncomingJmsMessage<?>> list = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> upstream = new AtomicReference<>();
+        publisher.subscribe(createSubscriber(list, upstream));
+        await().untilAtomic(upstream, is(notNullValue()));
+        upstream.get().request(2);
+
+        JMSProducer producer = jms.createProducer();
+        Queue q = jms.createQueue("queue-codec");
+        TextMessage text = jms.createTextMessage(json.toJson(new Person("bob", 20)));
+        text.setStringProperty("_classname", Person.class.getName());
+        producer.send(q, text);
+        // The JSON-B codec also reads JSON from the bytes messages
+        BytesMessage bytes = jms.createBytesMessage();
+        bytes.writeBytes(json.toJson(new Person("tom", 18)).getBytes(StandardCharsets.UTF_8));
+        bytes.setJMSType(Person.class.getName());
+        producer.send(q, bytes);
+
+        await().until(() -> list.size() == 2);
+        Person bob = (Person) list.get(0).getPayload();
+        assertThat(bob.getName()).isEqualTo("bob");
+        assertThat(list.get(0).getPayload()).isSameAs(bob);
+        Person tom = (Person) list.get(1).getPayload();
+        assertThat(tom.getName()).isEqualTo("tom");
+        assertThat(tom.getAge()).isEqualTo(18);
+        source.close();
+    }
+
+    private List<IncomingJmsMessage<?>> receive(JmsSource source, String queue, int count) {
+        Publisher<IncomingJmsMessage<?>> publisher = source.getSource().buildRs();
+        List<IncomingJmsMessage<?>> list = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> upstream = new AtomicReference<>();
+        publisher.subscribe(createSubscriber(list, upstream));
+        await().untilAtomic(upstream, is(notNullValue()));
+        upstream.get().request(count);
+
+        JMSProducer producer = jms.createProducer();
+        Queue q = jms.createQueue(queue);
+        for (int i = 0; i < count; i++) {
+            producer.send(q, i);
+        }
+        await().until(() -> list.size() == count);
+        return list;
+    }
+
+    private Object redelivered(String queue) {
+        try (JMSContext context = factory.createContext(JMSContext.CLIENT_ACKNOWLEDGE)) {
+            return context.createConsumer(context.createQueue(queue)).receive(500);
+        }
+    }
+
+    private Subscriber<IncomingJmsMessage<?>> createSubscriber(List<IncomingJmsMessage<?>> list,
+            AtomicReference<Subscription> upstream) {
+        //noinspection SubscriberImplementation
+        return new Subscriber<IncomingJmsMessage<?>>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                upstream.set(s);
+            }
+
+            @Override
+            public void onNext(IncomingJmsMessage<?> incomingJmsMessage) {
+                list.add(incomingJmsMessage);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // ignored
+            }
+
+            @Override
+            public void onComplete() {
+                // ignored
+            }
+        };
+    }
+
     private WeldContainer prepare() {
         Map<String, Object> map = new HashMap<>();
         map.put("mp.messaging.incoming.jms.connector", JmsConnector.CONNECTOR_NAME);
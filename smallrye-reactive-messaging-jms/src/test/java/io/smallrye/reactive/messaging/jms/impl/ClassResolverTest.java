@@ -0,0 +1,34 @@
+package io.smallrye.reactive.messaging.jms.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+public class ClassResolverTest {
+
+    @Test
+    public void testCache() throws ClassNotFoundException {
+        ClassResolver resolver = new ClassResolver();
+        assertThat(resolver.load(String.class.getName())).isEqualTo(String.class);
+        assertThat(resolver.load(String.class.getName())).isEqualTo(String.class);
+        assertThat(resolver.load(ClassResolverTest.class.getName())).isEqualTo(ClassResolverTest.class);
+        assertThat(resolver.size()).isEqualTo(2);
+
+        assertThatThrownBy(() -> resolver.load("org.acme.Missing")).isInstanceOf(ClassNotFoundException.class);
+        assertThat(resolver.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCacheIsBounded() throws ClassNotFoundException {
+        ClassResolver resolver = new ClassResolver(2);
+        resolver.load(String.class.getName());
+        resolver.load(Integer.class.getName());
+        assertThat(resolver.size()).isEqualTo(2);
+        // The cache is cleared when it is full
+        assertThat(resolver.load(Long.class.getName())).isEqualTo(Long.class);
+        assertThat(resolver.size()).isEqualTo(1);
+        assertThat(resolver.load(String.class.getName())).isEqualTo(String.class);
+        assertThat(resolver.size()).isEqualTo(2);
+    }
+}
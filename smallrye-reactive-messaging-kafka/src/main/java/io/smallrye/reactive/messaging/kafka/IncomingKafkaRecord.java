@@ -6,6 +6,8 @@ import java.util.concurrent.CompletionStage;
 import java.util.function.Supplier;
 
 import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.messaging.Metadata;
 
 import io.grpc.Context;
@@ -14,6 +16,7 @@ import io.smallrye.reactive.messaging.TracingMetadata;
 import io.smallrye.reactive.messaging.ce.CloudEventMetadata;
 import io.smallrye.reactive.messaging.kafka.commit.KafkaCommitHandler;
 import io.smallrye.reactive.messaging.kafka.fault.KafkaFailureHandler;
+import io.smallrye.reactive.messaging.kafka.impl.DeferredPayload;
 import io.smallrye.reactive.messaging.kafka.impl.ce.KafkaCloudEventHelper;
 import io.smallrye.reactive.messaging.kafka.tracing.HeaderExtractAdapter;
 import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
@@ -25,19 +28,88 @@ public class IncomingKafkaRecord<K, T> implements KafkaRecord<K, T> {
     private final KafkaCommitHandler commitHandler;
     private final KafkaFailureHandler onNack;
     private final T payload;
+    private final DeferredPayload<T> deferredPayload;
 
     public IncomingKafkaRecord(KafkaConsumerRecord<K, T> record,
             KafkaCommitHandler commitHandler,
             KafkaFailureHandler onNack,
             boolean cloudEventEnabled,
             boolean tracingEnabled) {
+        this(record, commitHandler, onNack, cloudEventEnabled, tracingEnabled, null);
+    }
+
+    /**
+     * Creates a new incoming Kafka record.
+     *
+     * @param record the consumed record
+     * @param commitHandler the commit handler
+     * @param onNack the failure handler
+     * @param cloudEventEnabled whether the Cloud Event support is enabled
+     * @param tracingEnabled whether tracing is enabled
+     * @param valueDeserializer if not {@code null}, the record value is the raw {@code byte[]} received from the broker,
+     *        and this deserializer is used to deserialize it on first access to the payload.
+     */
+    public IncomingKafkaRecord(KafkaConsumerRecord<K, T> record,
+            KafkaCommitHandler commitHandler,
+            KafkaFailureHandler onNack,
+            boolean cloudEventEnabled,
+            boolean tracingEnabled,
+            Deserializer<T> valueDeserializer) {
+        this(record, commitHandler, onNack, cloudEventEnabled, tracingEnabled, valueDeserializer, null);
+    }
+
+    /**
+     * Creates a new incoming Kafka record.
+     *
+     * @param record the consumed record
+     * @param commitHandler the commit handler
+     * @param onNack the failure handler
+     * @param cloudEventEnabled whether the Cloud Event support is enabled
+     * @param tracingEnabled whether tracing is enabled
+     * @param valueDeserializer if not {@code null}, the record value is the raw {@code byte[]} received from the broker,
+     *        and this deserializer is used to deserialize it on first access to the payload.
+     * @param consumerGroupId the group id of the consumer which received the record, may be {@code null}
+     */
+    public IncomingKafkaRecord(KafkaConsumerRecord<K, T> record,
+            KafkaCommitHandler commitHandler,
+            KafkaFailureHandler onNack,
+            boolean cloudEventEnabled,
+            boolean tracingEnabled,
+            Deserializer<T> valueDeserializer,
+            String consumerGroupId) {
+        this(record, commitHandler, onNack, cloudEventEnabled, tracingEnabled, valueDeserializer, consumerGroupId,
+                false);
+    }
+
+    /**
+     * Creates a new incoming Kafka record.
+     *
+     * @param record the consumed record
+     * @param commitHandler the commit handler
+     * @param onNack the failure handler
+     * @param cloudEventEnabled whether the Cloud Event support is enabled
+     * @param tracingEnabled whether tracing is enabled
+     * @param valueDeserializer if not {@code null}, the record value is the raw {@code byte[]} received from the broker,
+     *        and this deserializer is used to deserialize it on first access to the payload.
+     * @param consumerGroupId the group id of the consumer which received the record, may be {@code null}
+     * @param committedByConsumer whether the consumer commits the offset of the record itself
+     */
+    public IncomingKafkaRecord(KafkaConsumerRecord<K, T> record,
+            KafkaCommitHandler commitHandler,
+            KafkaFailureHandler onNack,
+            boolean cloudEventEnabled,
+            boolean tracingEnabled,
+            Deserializer<T> valueDeserializer,
+            String consumerGroupId,
+            boolean committedByConsumer) {
         this.commitHandler = commitHandler;
-        this.kafkaMetadata = new IncomingKafkaRecordMetadata<>(record);
+        this.kafkaMetadata = new IncomingKafkaRecordMetadata<>(record, consumerGroupId, committedByConsumer);
 
         ArrayList<Object> meta = new ArrayList<>();
         meta.add(this.kafkaMetadata);
         T payload = null;
         boolean payloadSet = false;
+        DeferredPayload<T> deferred = null;
         if (cloudEventEnabled) {
             // Cloud Event detection
             KafkaCloudEventHelper.CloudEventMode mode = KafkaCloudEventHelper.getCloudEventMode(record);
@@ -49,7 +121,8 @@ public class IncomingKafkaRecord<K, T> implements KafkaRecord<K, T> {
                             .createFromStructuredCloudEvent(record);
                     meta.add(event);
                     payloadSet = true;
-                    payload = event.getData();
+                    // The data is only decoded when the payload is accessed
+                    deferred = new DeferredPayload<>(event::getData);
                     break;
                 case BINARY:
                     meta.add(KafkaCloudEventHelper.createFromBinaryCloudEvent(record));
@@ -71,18 +144,50 @@ public class IncomingKafkaRecord<K, T> implements KafkaRecord<K, T> {
 
         this.metadata = Metadata.from(meta);
         this.onNack = onNack;
-        if (payload == null && !payloadSet) {
+        if (payload == null && !payloadSet && valueDeserializer != null) {
+            this.payload = null;
+            this.deferredPayload = new DeferredPayload<>(record.topic(), record.getDelegate().record().headers(),
+                    (byte[]) record.value(), valueDeserializer);
+        } else if (payload == null && !payloadSet) {
             this.payload = record.value();
+            this.deferredPayload = null;
         } else {
             this.payload = payload;
+            this.deferredPayload = deferred;
         }
     }
 
+    private IncomingKafkaRecord(IncomingKafkaRecord<K, T> origin, Metadata metadata) {
+        this.metadata = metadata;
+        this.kafkaMetadata = origin.kafkaMetadata;
+        this.commitHandler = origin.commitHandler;
+        this.onNack = origin.onNack;
+        this.payload = origin.payload;
+        this.deferredPayload = origin.deferredPayload;
+    }
+
     @Override
     public T getPayload() {
+        if (deferredPayload != null) {
+            return deferredPayload.get();
+        }
         return payload;
     }
 
+    /**
+     * When the channel uses {@code lazy-deserialization}, returns the raw value of the record if the payload has not
+     * been accessed yet.
+     *
+     * @return the raw value, {@code null} if the payload has already been deserialized or if the channel does not use
+     *         lazy deserialization.
+     */
+    public byte[] getUndecodedPayload() {
+        if (deferredPayload != null && !deferredPayload.isDecoded()) {
+            return deferredPayload.getRaw();
+        }
+        return null;
+    }
+
     @Override
     public K getKey() {
         return kafkaMetadata.getKey();
@@ -132,6 +237,24 @@ public class IncomingKafkaRecord<K, T> implements KafkaRecord<K, T> {
         return onNack.handle(this, reason);
     }
 
+    @Override
+    public Message<T> withMetadata(Iterable<Object> metadata) {
+        if (deferredPayload == null) {
+            return KafkaRecord.super.withMetadata(metadata);
+        }
+        // Keep the payload deferred
+        return new IncomingKafkaRecord<>(this, Metadata.from(metadata));
+    }
+
+    @Override
+    public Message<T> withMetadata(Metadata metadata) {
+        if (deferredPayload == null) {
+            return KafkaRecord.super.withMetadata(metadata);
+        }
+        // Keep the payload deferred
+        return new IncomingKafkaRecord<>(this, Metadata.from(metadata));
+    }
+
     public synchronized void injectTracingMetadata(TracingMetadata tracingMetadata) {
         metadata = metadata.with(tracingMetadata);
     }
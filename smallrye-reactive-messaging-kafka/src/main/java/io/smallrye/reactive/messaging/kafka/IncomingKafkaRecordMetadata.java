@@ -18,9 +18,35 @@ public class IncomingKafkaRecordMetadata<K, T> implements KafkaMessageMetadata<K
     private final TimestampType timestampType;
     private final long offset;
     private final KafkaConsumerRecord<K, T> record;
+    private final String consumerGroupId;
+    private final boolean committedByConsumer;
 
     public IncomingKafkaRecordMetadata(KafkaConsumerRecord<K, T> record) {
+        this(record, null);
+    }
+
+    /**
+     * Creates the metadata of a consumed record.
+     *
+     * @param record the consumed record
+     * @param consumerGroupId the group id of the consumer which received the record, may be {@code null}
+     */
+    public IncomingKafkaRecordMetadata(KafkaConsumerRecord<K, T> record, String consumerGroupId) {
+        this(record, consumerGroupId, false);
+    }
+
+    /**
+     * Creates the metadata of a consumed record.
+     *
+     * @param record the consumed record
+     * @param consumerGroupId the group id of the consumer which received the record, may be {@code null}
+     * @param committedByConsumer whether the consumer commits the offset of the record itself
+     */
+    public IncomingKafkaRecordMetadata(KafkaConsumerRecord<K, T> record, String consumerGroupId,
+            boolean committedByConsumer) {
         this.record = record;
+        this.consumerGroupId = consumerGroupId;
+        this.committedByConsumer = committedByConsumer;
         this.recordKey = record.key();
         this.topic = record.topic();
         this.partition = record.partition();
@@ -70,4 +96,19 @@ public class IncomingKafkaRecordMetadata<K, T> implements KafkaMessageMetadata<K
     public KafkaConsumerRecord<K, T> getRecord() {
         return record;
     }
+
+    /**
+     * @return the group id of the consumer which received the record, {@code null} if unknown
+     */
+    public String getConsumerGroupId() {
+        return consumerGroupId;
+    }
+
+    /**
+     * @return whether the consumer which received the record commits its offset itself, using its commit strategy or
+     *         the Kafka auto-commit, {@code false} if the offset is left to the application or unknown
+     */
+    public boolean isCommittedByConsumer() {
+        return committedByConsumer;
+    }
 }
@@ -2,10 +2,16 @@ package io.smallrye.reactive.messaging.kafka;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.literal.NamedLiteral;
 import javax.inject.Inject;
 
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.producer.Producer;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+import io.smallrye.reactive.messaging.kafka.commit.CheckpointStore;
 
 @ApplicationScoped
 public class KafkaCDIEvents {
@@ -15,6 +21,13 @@ public class KafkaCDIEvents {
     @Inject
     Event<Producer<?, ?>> producerEvent;
 
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.BASE)
+    Instance<MetricRegistry> metricRegistry;
+
+    @Inject
+    Instance<CheckpointStore> checkpointStores;
+
     public Event<Consumer<?, ?>> consumer() {
         return consumerEvent;
     }
@@ -23,6 +36,31 @@ public class KafkaCDIEvents {
         return producerEvent;
     }
 
+    /**
+     * @return the metric registry used to expose the connector metrics, {@code null} if not available
+     */
+    public MetricRegistry metricRegistry() {
+        if (metricRegistry == null || !metricRegistry.isResolvable()) {
+            return null;
+        }
+        return metricRegistry.get();
+    }
+
+    /**
+     * @param name the name of the store, set using {@code @Named}
+     * @return the matching checkpoint store, {@code null} if not found or ambiguous
+     */
+    public CheckpointStore checkpointStore(String name) {
+        if (checkpointStores == null) {
+            return null;
+        }
+        Instance<CheckpointStore> matching = checkpointStores.select(NamedLiteral.of(name));
+        if (!matching.isResolvable()) {
+            return null;
+        }
+        return matching.get();
+    }
+
     public KafkaCDIEvents() {
     }
 }
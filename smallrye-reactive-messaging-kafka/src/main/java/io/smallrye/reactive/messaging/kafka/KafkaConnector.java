@@ -1,5 +1,6 @@
 package io.smallrye.reactive.messaging.kafka;
 
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
 
 import java.util.ArrayList;
@@ -9,6 +10,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.annotation.PostConstruct;
@@ -18,11 +20,16 @@ import javax.enterprise.context.BeforeDestroyed;
 import javax.enterprise.event.Observes;
 import javax.enterprise.event.Reception;
 import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.InjectionPoint;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.messaging.spi.Connector;
 import org.eclipse.microprofile.reactive.messaging.spi.IncomingConnectorFactory;
@@ -41,8 +48,13 @@ import io.smallrye.reactive.messaging.connectors.ExecutionHolder;
 import io.smallrye.reactive.messaging.health.HealthReport;
 import io.smallrye.reactive.messaging.health.HealthReporter;
 import io.smallrye.reactive.messaging.kafka.commit.KafkaThrottledLatestProcessedCommit;
+import io.smallrye.reactive.messaging.kafka.impl.ChannelMetrics;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaConsumerAutoscaler;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaPollLoopSource;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSharedConsumer;
 import io.smallrye.reactive.messaging.kafka.impl.KafkaSink;
 import io.smallrye.reactive.messaging.kafka.impl.KafkaSource;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaTableImpl;
 import io.vertx.mutiny.core.Vertx;
 
 @ApplicationScoped
@@ -51,7 +63,8 @@ import io.vertx.mutiny.core.Vertx;
 @ConnectorAttribute(name = "topic", type = "string", direction = Direction.INCOMING_AND_OUTGOING, description = "The consumed / populated Kafka topic. If neither this property nor the `topics` properties are set, the channel name is used")
 @ConnectorAttribute(name = "health-enabled", type = "boolean", direction = Direction.INCOMING_AND_OUTGOING, description = "Whether health reporting is enabled (default) or disabled", defaultValue = "true")
 @ConnectorAttribute(name = "health-readiness-enabled", type = "boolean", direction = Direction.INCOMING_AND_OUTGOING, description = "Whether readiness health reporting is enabled (default) or disabled", defaultValue = "true")
-@ConnectorAttribute(name = "health-readiness-timeout", type = "long", direction = Direction.INCOMING_AND_OUTGOING, description = "During the readiness health check, the connector connects to the broker and retrieves the list of topics. This attribute specifies the maximum duration (in ms) for the retrieval. If exceeded, the channel is considered not-ready.", defaultValue = "2000")
+@ConnectorAttribute(name = "health-readiness-timeout", type = "long", direction = Direction.INCOMING_AND_OUTGOING, description = "For the readiness health check, the connector periodically connects to the broker and retrieves the list of topics. This attribute specifies the maximum duration (in ms) for the retrieval. If the list has not been retrieved recently, the channel is considered not-ready.", defaultValue = "2000")
+@ConnectorAttribute(name = "health-readiness-refresh-interval", type = "long", direction = Direction.INCOMING_AND_OUTGOING, description = "The interval (in ms) between two retrievals of the list of topics used by the readiness health check. The list is shared by all the channels connecting to the same cluster, and considered outdated after 3 intervals.", defaultValue = "5000")
 @ConnectorAttribute(name = "tracing-enabled", type = "boolean", direction = Direction.INCOMING_AND_OUTGOING, description = "Whether tracing is enabled (default) or disabled", defaultValue = "true")
 @ConnectorAttribute(name = "topics", type = "string", direction = Direction.INCOMING, description = "A comma-separating list of topics to be consumed. Cannot be used with the `topic` or `pattern` properties")
 @ConnectorAttribute(name = "pattern", type = "boolean", direction = Direction.INCOMING, description = "Indicate that the `topic` property is a regular expression. Must be used with the `topic` property. Cannot be used with the `topics` property", defaultValue = "false")
@@ -65,15 +78,38 @@ import io.vertx.mutiny.core.Vertx;
 @ConnectorAttribute(name = "retry-max-wait", type = "int", direction = Direction.INCOMING, description = "The max delay (in seconds) between 2 reconnects", defaultValue = "30")
 @ConnectorAttribute(name = "broadcast", type = "boolean", direction = Direction.INCOMING, description = "Whether the Kafka records should be dispatched to multiple consumer", defaultValue = "false")
 @ConnectorAttribute(name = "auto.offset.reset", type = "string", direction = Direction.INCOMING, description = "What to do when there is no initial offset in Kafka.Accepted values are earliest, latest and none", defaultValue = "latest")
-@ConnectorAttribute(name = "failure-strategy", type = "string", direction = Direction.INCOMING, description = "Specify the failure strategy to apply when a message produced from a record is acknowledged negatively (nack). Values can be `fail` (default), `ignore`, or `dead-letter-queue`", defaultValue = "fail")
-@ConnectorAttribute(name = "commit-strategy", type = "string", direction = Direction.INCOMING, description = "Specify the commit strategy to apply when a message produced from a record is acknowledged. Values can be `latest`, `ignore` or `throttled`. If `enable.auto.commit` is true then the default is `ignore` otherwise it is `throttled`")
+@ConnectorAttribute(name = "failure-strategy", type = "string", direction = Direction.INCOMING, description = "Specify the failure strategy to apply when a message produced from a record is acknowledged negatively (nack). Values can be `fail` (default), `ignore`, `dead-letter-queue` or `delayed-retry-topic`", defaultValue = "fail")
+@ConnectorAttribute(name = "commit-strategy", type = "string", direction = Direction.INCOMING, description = "Specify the commit strategy to apply when a message produced from a record is acknowledged. Values can be `latest`, `ignore`, `throttled` or `checkpoint`. If `enable.auto.commit` is true then the default is `ignore` otherwise it is `throttled`")
+@ConnectorAttribute(name = "checkpoint.store", type = "string", direction = Direction.INCOMING, description = "While using the `checkpoint` commit-strategy, the name (`@Named`) of the `io.smallrye.reactive.messaging.kafka.commit.CheckpointStore` bean storing the offsets. If not set, the offsets are stored in local memory-mapped files")
+@ConnectorAttribute(name = "checkpoint.directory", type = "string", direction = Direction.INCOMING, description = "While using the `checkpoint` commit-strategy without `checkpoint.store`, the directory containing the memory-mapped files storing the offsets", defaultValue = "checkpoints")
 @ConnectorAttribute(name = "throttled.unprocessed-record-max-age.ms", type = "int", direction = Direction.INCOMING, description = "While using the `throttled` commit-strategy, specify the max age in milliseconds that an unprocessed message can be before the connector is marked as unhealthy.", defaultValue = "60000")
 @ConnectorAttribute(name = "dead-letter-queue.topic", type = "string", direction = Direction.INCOMING, description = "When the `failure-strategy` is set to `dead-letter-queue` indicates on which topic the record is sent. Defaults is `dead-letter-topic-$channel`")
 @ConnectorAttribute(name = "dead-letter-queue.key.serializer", type = "string", direction = Direction.INCOMING, description = "When the `failure-strategy` is set to `dead-letter-queue` indicates the key serializer to use. If not set the serializer associated to the key deserializer is used")
 @ConnectorAttribute(name = "dead-letter-queue.value.serializer", type = "string", direction = Direction.INCOMING, description = "When the `failure-strategy` is set to `dead-letter-queue` indicates the value serializer to use. If not set the serializer associated to the value deserializer is used")
+@ConnectorAttribute(name = "delayed-retry-topic.delays", type = "string", direction = Direction.INCOMING, description = "When the `failure-strategy` is set to `delayed-retry-topic` indicates the comma-separated list of delays (in ms), one per retry topic. A nacked record is sent to the next retry topic, and processed again once the associated delay has elapsed. Once all the retries are exhausted, the record is sent to the dead letter topic (`dead-letter-queue.topic`)", defaultValue = "10000,60000,600000")
+@ConnectorAttribute(name = "delayed-retry-topic.topics", type = "string", direction = Direction.INCOMING, description = "When the `failure-strategy` is set to `delayed-retry-topic` indicates the comma-separated list of retry topics, one per delay. Defaults to `delayed-retry-topic-$channel-$delay`")
 @ConnectorAttribute(name = "partitions", type = "int", direction = Direction.INCOMING, description = "The number of partitions to be consumed concurrently. The connector creates the specified amount of Kafka consumers. It should match the number of partition of the targeted topic", defaultValue = "1")
 @ConnectorAttribute(name = "cloud-events", type = "boolean", direction = Direction.INCOMING, description = "Enables (default) or disables the Cloud Event support. If enabled, the connector analyzes the incoming records and try to create Cloud Event metadata.", defaultValue = "true")
 @ConnectorAttribute(name = "consumer-rebalance-listener.name", type = "string", direction = Direction.INCOMING, description = "The name set in `javax.inject.Named` of a bean that implements `io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener`. If set the listener will be applied to the consumer.")
+@ConnectorAttribute(name = "partition-metrics-enabled", type = "boolean", direction = Direction.INCOMING, description = "Whether the committed offset, last received offset, lag, number of unacknowledged records and acknowledgement latency of each consumed partition are tracked, and exposed as metrics and in the readiness health check", defaultValue = "false")
+@ConnectorAttribute(name = "partition-metrics-interval", type = "int", direction = Direction.INCOMING, description = "The interval in milliseconds between two retrievals of the committed and log end offsets of the consumed partitions, when `partition-metrics-enabled` is set", defaultValue = "5000")
+@ConnectorAttribute(name = "table", type = "boolean", direction = Direction.INCOMING, description = "Whether the topic is materialized as a `KafkaTable` (for each key, the latest value) injectable using `@Channel`, instead of being consumed as a stream. The channel does not emit messages in this mode", defaultValue = "false")
+@ConnectorAttribute(name = "shared-consumer", type = "string", direction = Direction.INCOMING, description = "The name of a consumer shared with other incoming channels. The channels using the same shared consumer are served by a single Kafka consumer, configured with the configuration of the first channel, and subscribed to the topics of all the channels. Records are dispatched to the channels according to their topic")
+@ConnectorAttribute(name = "shared-consumer.header", type = "string", direction = Direction.INCOMING, description = "When `shared-consumer` is set, the name of a record header containing the name of the channel receiving the record. If not set, records are dispatched according to their topic. Only the value configured on the first channel is used")
+@ConnectorAttribute(name = "shared-consumer.buffer-size", type = "int", direction = Direction.INCOMING, description = "When `shared-consumer` is set, the number of records buffered for the channel before pausing the partitions feeding it", defaultValue = "128")
+@ConnectorAttribute(name = "lazy-deserialization", type = "boolean", direction = Direction.INCOMING, description = "Whether the record values are consumed as raw bytes and deserialized using the configured `value.deserializer` only when the message payload is accessed for the first time. Records whose payload has never been accessed are written as-is, without re-serialization, by the Kafka outgoing channels.", defaultValue = "false")
+@ConnectorAttribute(name = "dedicated-poll-thread", type = "boolean", direction = Direction.INCOMING, description = "Whether the records are polled by the Apache Kafka consumer from a dedicated thread, and emitted from that thread, instead of using the Vert.x Kafka client. The offsets are committed, and the partitions paused, from the poll thread", defaultValue = "false")
+@ConnectorAttribute(name = "dedicated-poll-thread.buffer-size", type = "int", direction = Direction.INCOMING, description = "When `dedicated-poll-thread` is enabled, the number of polled records waiting for downstream demand above which the assigned partitions are paused", defaultValue = "1024")
+@ConnectorAttribute(name = "autoscaling", type = "boolean", direction = Direction.INCOMING, description = "Whether the number of consumers of the channel adapts to the lag of the consumer group, between `autoscaling.min-consumers` and `autoscaling.max-consumers`. Cannot be combined with `partitions` or `dedicated-poll-thread`", defaultValue = "false")
+@ConnectorAttribute(name = "autoscaling.min-consumers", type = "int", direction = Direction.INCOMING, description = "When `autoscaling` is enabled, the minimum (and initial) number of consumers", defaultValue = "1")
+@ConnectorAttribute(name = "autoscaling.max-consumers", type = "int", direction = Direction.INCOMING, description = "When `autoscaling` is enabled, the maximum number of consumers. Defaults to the number of partitions of the consumed topics, which is never exceeded")
+@ConnectorAttribute(name = "autoscaling.interval", type = "long", direction = Direction.INCOMING, description = "When `autoscaling` is enabled, the interval in milliseconds between two evaluations of the lag of the consumer group", defaultValue = "10000")
+@ConnectorAttribute(name = "autoscaling.scale-up-lag", type = "long", direction = Direction.INCOMING, description = "When `autoscaling` is enabled, the lag per consumer above which a consumer is added, unless the lag is decreasing", defaultValue = "1000")
+@ConnectorAttribute(name = "autoscaling.scale-down-lag", type = "long", direction = Direction.INCOMING, description = "When `autoscaling` is enabled, the lag per consumer below which a consumer is removed. Must be lower than `autoscaling.scale-up-lag`", defaultValue = "100")
+@ConnectorAttribute(name = "autoscaling.stabilization-window", type = "int", direction = Direction.INCOMING, description = "When `autoscaling` is enabled, the number of consecutive evaluations leading to the same decision before a consumer is added or removed", defaultValue = "3")
+@ConnectorAttribute(name = "filter.headers", type = "string", direction = Direction.INCOMING, description = "A comma-separated list of header conditions the records must satisfy to be dispatched. `name` requires the header to be present, `name=value` requires the header to have this UTF-8 value. Records not matching the `filter.*` conditions are acknowledged without being dispatched")
+@ConnectorAttribute(name = "filter.key-prefix", type = "string", direction = Direction.INCOMING, description = "The prefix of the (UTF-8) record key the records must have to be dispatched. Records without key are not dispatched")
+@ConnectorAttribute(name = "filter.topics", type = "string", direction = Direction.INCOMING, description = "A comma-separated list of topics the records must come from to be dispatched, useful when consuming topics using a `pattern`")
 
 @ConnectorAttribute(name = "key.serializer", type = "string", direction = Direction.OUTGOING, description = "The serializer classname used to serialize the record's key", defaultValue = "org.apache.kafka.common.serialization.StringSerializer")
 @ConnectorAttribute(name = "value.serializer", type = "string", direction = Direction.OUTGOING, description = "The serializer classname used to serialize the payload", mandatory = true)
@@ -83,7 +119,13 @@ import io.vertx.mutiny.core.Vertx;
 @ConnectorAttribute(name = "key", type = "string", direction = Direction.OUTGOING, description = "A key to used when writing the record")
 @ConnectorAttribute(name = "partition", type = "int", direction = Direction.OUTGOING, description = "The target partition id. -1 to let the client determine the partition", defaultValue = "-1")
 @ConnectorAttribute(name = "waitForWriteCompletion", type = "boolean", direction = Direction.OUTGOING, description = "Whether the client waits for Kafka to acknowledge the written record before acknowledging the message", defaultValue = "true")
-@ConnectorAttribute(name = "max-inflight-messages", type = "long", direction = Direction.OUTGOING, description = "The maximum number of messages to be written to Kafka concurrently. It limits the number of messages waiting to be written and acknowledged by the broker. You can set this attribute to `0` remove the limit", defaultValue = "1024")
+@ConnectorAttribute(name = "max-inflight-messages", type = "long", direction = Direction.OUTGOING, description = "The maximum number of messages to be written to Kafka concurrently, per producer instance. It limits the number of messages waiting to be written and acknowledged by the broker. You can set this attribute to `0` remove the limit", defaultValue = "1024")
+@ConnectorAttribute(name = "adaptive-inflight", type = "boolean", direction = Direction.OUTGOING, description = "Whether the number of in-flight messages adapts to the send latency, between `adaptive-inflight.min` and `max-inflight-messages`", defaultValue = "false")
+@ConnectorAttribute(name = "adaptive-inflight.min", type = "long", direction = Direction.OUTGOING, description = "The minimum (and initial) number of in-flight messages when `adaptive-inflight` is enabled", defaultValue = "16")
+@ConnectorAttribute(name = "adaptive-inflight.latency-tolerance", type = "double", direction = Direction.OUTGOING, description = "When `adaptive-inflight` is enabled, the ratio between the send latency and the lowest observed send latency above which the number of in-flight messages is reduced", defaultValue = "2.0")
+@ConnectorAttribute(name = "producer-instances", type = "int", direction = Direction.OUTGOING, description = "The number of Kafka producers used to write the records of the channel. Records are distributed among the producers using their partition or key, so records with the same partition or key are always written by the same producer", defaultValue = "1")
+@ConnectorAttribute(name = "transaction-batch-size", type = "int", direction = Direction.OUTGOING, description = "When `transactional.id` is set, the maximum number of messages written in a single transaction", defaultValue = "100")
+@ConnectorAttribute(name = "transaction-batch-timeout", type = "long", direction = Direction.OUTGOING, description = "When `transactional.id` is set, the maximum time in milliseconds a message waits for its batch to be complete before the transaction is committed", defaultValue = "100")
 @ConnectorAttribute(name = "cloud-events", type = "boolean", direction = Direction.OUTGOING, description = "Enables (default) or disables the Cloud Event support. If enabled, the connector sends the outgoing messages as Cloud Event if the message to be sent includes Cloud Event Metadata.", defaultValue = "true")
 @ConnectorAttribute(name = "cloud-events-source", type = "string", direction = Direction.OUTGOING, description = "Configure the default `source` attribute of the outgoing Cloud Event. Requires `cloud-events` to be set to `true`. This value is used if the message does not configure the `source` attribute itself", alias = "cloud-events-default-source")
 @ConnectorAttribute(name = "cloud-events-type", type = "string", direction = Direction.OUTGOING, description = "Configure the default `type` attribute of the outgoing Cloud Event. Requires `cloud-events` to be set to `true`. This value is used if the message does not configure the `type` attribute itself", alias = "cloud-events-default-type")
@@ -109,6 +151,10 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
 
     private final List<KafkaSource<?, ?>> sources = new CopyOnWriteArrayList<>();
     private final List<KafkaSink> sinks = new CopyOnWriteArrayList<>();
+    private final Map<String, KafkaTableImpl<?, ?>> tables = new ConcurrentHashMap<>();
+    private final Map<String, KafkaSharedConsumer> sharedConsumers = new ConcurrentHashMap<>();
+    private final List<KafkaPollLoopSource<?, ?>> pollLoopSources = new CopyOnWriteArrayList<>();
+    private final List<KafkaConsumerAutoscaler<?, ?>> autoscalers = new CopyOnWriteArrayList<>();
 
     @Inject
     @Named("default-kafka-broker")
@@ -118,8 +164,11 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
 
     public void terminate(
             @Observes(notifyObserver = Reception.IF_EXISTS) @Priority(50) @BeforeDestroyed(ApplicationScoped.class) Object event) {
+        autoscalers.forEach(KafkaConsumerAutoscaler::close);
         sources.forEach(KafkaSource::closeQuietly);
+        pollLoopSources.forEach(KafkaPollLoopSource::closeQuietly);
         sinks.forEach(KafkaSink::closeQuietly);
+        tables.values().forEach(KafkaTableImpl::closeQuietly);
         KafkaThrottledLatestProcessedCommit.clearCache();
     }
 
@@ -140,11 +189,61 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
             throw new IllegalArgumentException("`partitions` must be greater than 0");
         }
 
-        String group = ic.getGroupId().orElseGet(() -> {
-            String s = UUID.randomUUID().toString();
-            log.noGroupId(s);
-            return s;
-        });
+        if (ic.getTable()) {
+            // The topic is materialized as a table, the channel does not emit messages
+            tables.computeIfAbsent(ic.getChannel(), KafkaTableImpl::new).start(vertx, ic);
+            return ReactiveStreams.fromPublisher(Multi.createFrom().nothing());
+        }
+
+        Optional<String> shared = ic.getSharedConsumer();
+        if (shared.isPresent()) {
+            // The source is created on first subscription, with the configuration of the first channel
+            KafkaSharedConsumer consumer = sharedConsumers.computeIfAbsent(shared.get(),
+                    name -> new KafkaSharedConsumer(name, sc -> {
+                        KafkaSource<Object, Object> source = new KafkaSource<>(vertx, getGroupId(sc), sc,
+                                consumerRebalanceListeners, kafkaCDIEvents, -1);
+                        sources.add(source);
+                        return source;
+                    }));
+            Multi<IncomingKafkaRecord<Object, Object>> multi = consumer.register(ic);
+            if (ic.getBroadcast()) {
+                return ReactiveStreams.fromPublisher(multi.broadcast().toAllSubscribers());
+            }
+            return ReactiveStreams.fromPublisher(multi);
+        }
+
+        String group = getGroupId(ic);
+
+        if (ic.getAutoscaling()) {
+            // The consumers are created and closed by the autoscaler
+            KafkaConsumerAutoscaler<Object, Object> autoscaler = new KafkaConsumerAutoscaler<>(group, ic, i -> {
+                KafkaSource<Object, Object> source = new KafkaSource<>(vertx, group, ic, consumerRebalanceListeners,
+                        kafkaCDIEvents, i);
+                sources.add(source);
+                return source;
+            }, sources::remove, new ChannelMetrics(kafkaCDIEvents.metricRegistry(), new Tag("channel", ic.getChannel())));
+            autoscalers.add(autoscaler);
+            if (ic.getBroadcast()) {
+                return ReactiveStreams.fromPublisher(autoscaler.getStream().broadcast().toAllSubscribers());
+            }
+            return ReactiveStreams.fromPublisher(autoscaler.getStream());
+        }
+
+        if (ic.getDedicatedPollThread()) {
+            // The records are polled from a dedicated thread, one per consumer (`partitions` is the number of consumers)
+            List<Publisher<IncomingKafkaRecord<Object, Object>>> streams = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                KafkaPollLoopSource<Object, Object> source = new KafkaPollLoopSource<>(vertx, group, ic,
+                        kafkaCDIEvents, partitions == 1 ? -1 : i);
+                pollLoopSources.add(source);
+                streams.add(source.getStream());
+            }
+            Multi<IncomingKafkaRecord<Object, Object>> multi = Multi.createBy().merging().streams(streams);
+            if (ic.getBroadcast()) {
+                return ReactiveStreams.fromPublisher(multi.broadcast().toAllSubscribers());
+            }
+            return ReactiveStreams.fromPublisher(multi);
+        }
 
         if (partitions == 1) {
             KafkaSource<Object, Object> source = new KafkaSource<>(vertx, group, ic, consumerRebalanceListeners,
@@ -177,6 +276,14 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
         }
     }
 
+    private String getGroupId(KafkaConnectorIncomingConfiguration ic) {
+        return ic.getGroupId().orElseGet(() -> {
+            String s = UUID.randomUUID().toString();
+            log.noGroupId(s);
+            return s;
+        });
+    }
+
     @Override
     public SubscriberBuilder<? extends Message<?>, Void> getSubscriberBuilder(Config config) {
         Config c = config;
@@ -189,6 +296,46 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
         return sink.getSink();
     }
 
+    /**
+     * Produces the {@link KafkaTable} materialized by the channel named in the {@link Channel} qualifier.
+     * The channel must be configured with the {@code table} attribute set to {@code true}, the table may be injected
+     * before the channel is started.
+     *
+     * @param injectionPoint the injection point
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the table
+     */
+    @SuppressWarnings("unchecked")
+    @Produces
+    @Channel("") // Channel name is ignored during type-safe resolution
+    <K, V> KafkaTable<K, V> produceTable(InjectionPoint injectionPoint) {
+        String name = injectionPoint.getQualifiers().stream()
+                .filter(q -> q.annotationType().equals(Channel.class))
+                .map(q -> ((Channel) q).value())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unable to find the @Channel qualifier on " + injectionPoint));
+        KafkaTableImpl<?, ?> table = tables.get(name);
+        if (table == null) {
+            if (!isTable(name)) {
+                throw ex.injectionTableChannelNotConfigured(name);
+            }
+            table = tables.computeIfAbsent(name, KafkaTableImpl::new);
+        }
+        return (KafkaTable<K, V>) table;
+    }
+
+    private static boolean isTable(String channel) {
+        Config config = ConfigProvider.getConfig();
+        String prefix = INCOMING_PREFIX + channel + ".";
+        boolean kafka = config.getOptionalValue(prefix + CONNECTOR_ATTRIBUTE, String.class)
+                .filter(CONNECTOR_NAME::equals)
+                .isPresent();
+        return kafka && config.getOptionalValue(prefix + "table", Boolean.class)
+                .orElseGet(() -> config.getOptionalValue(CONNECTOR_PREFIX + CONNECTOR_NAME + ".table", Boolean.class)
+                        .orElse(false));
+    }
+
     private Config merge(Config passedCfg, Map<String, Object> defaultKafkaCfg) {
         return new Config() {
             @SuppressWarnings("unchecked")
@@ -230,7 +377,7 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
     @Override
     public HealthReport getReadiness() {
         HealthReport.HealthReportBuilder builder = HealthReport.builder();
-        if (sources.isEmpty() && sinks.isEmpty()) {
+        if (sources.isEmpty() && pollLoopSources.isEmpty() && sinks.isEmpty() && tables.isEmpty()) {
             return builder.add("kafka-connector", false).build();
         }
 
@@ -238,10 +385,18 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
             source.isReady(builder);
         }
 
+        for (KafkaPollLoopSource<?, ?> source : pollLoopSources) {
+            source.isReady(builder);
+        }
+
         for (KafkaSink sink : sinks) {
             sink.isReady(builder);
         }
 
+        for (KafkaTableImpl<?, ?> table : tables.values()) {
+            table.isReady(builder);
+        }
+
         return builder.build();
 
     }
@@ -249,7 +404,7 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
     @Override
     public HealthReport getLiveness() {
         HealthReport.HealthReportBuilder builder = HealthReport.builder();
-        if (sources.isEmpty() && sinks.isEmpty()) {
+        if (sources.isEmpty() && pollLoopSources.isEmpty() && sinks.isEmpty() && tables.isEmpty()) {
             return builder.add("kafka-connector", false).build();
         }
 
@@ -257,10 +412,18 @@ public class KafkaConnector implements IncomingConnectorFactory, OutgoingConnect
             source.isAlive(builder);
         }
 
+        for (KafkaPollLoopSource<?, ?> source : pollLoopSources) {
+            source.isAlive(builder);
+        }
+
         for (KafkaSink sink : sinks) {
             sink.isAlive(builder);
         }
 
+        for (KafkaTableImpl<?, ?> table : tables.values()) {
+            table.isAlive(builder);
+        }
+
         return builder.build();
     }
 }
@@ -0,0 +1,58 @@
+package io.smallrye.reactive.messaging.kafka;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A local, read-only, view of a (compacted) Kafka topic: for each key, the value of the latest record.
+ * <p>
+ * The table is materialized by an incoming channel configured with the {@code table} attribute set to {@code true}.
+ * All the partitions of the topic are read from the beginning, and the table is kept up to date as new records are
+ * written to the topic. Records with a {@code null} value (tombstones) remove the key from the table.
+ * <p>
+ * Inject it using {@code @Inject @Channel("my-channel") KafkaTable<K, V> table}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public interface KafkaTable<K, V> {
+
+    /**
+     * @return the name of the channel materializing the table
+     */
+    String getChannel();
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key the key, must not be {@code null}
+     * @return the value, {@code null} if the key is not in the table
+     */
+    V get(K key);
+
+    /**
+     * @param key the key, must not be {@code null}
+     * @return whether the table contains the given key
+     */
+    boolean containsKey(K key);
+
+    /**
+     * @return the number of keys in the table
+     */
+    int size();
+
+    /**
+     * @return an unmodifiable, live, view of the table
+     */
+    Map<K, V> asMap();
+
+    /**
+     * @return whether all the records written to the topic before the start of the channel have been read
+     */
+    boolean isBootstrapped();
+
+    /**
+     * @return a completion stage completed when the table is bootstrapped
+     */
+    CompletionStage<Void> bootstrapped();
+}
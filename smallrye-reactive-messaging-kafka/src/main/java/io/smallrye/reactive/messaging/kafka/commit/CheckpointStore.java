@@ -0,0 +1,48 @@
+package io.smallrye.reactive.messaging.kafka.commit;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Stores the offsets of the records processed by a consumer group outside of Kafka, for example in the database
+ * written by the application.
+ * <p>
+ * Used by the {@code checkpoint} commit strategy: the offsets are loaded when partitions are assigned, the consumer is
+ * positioned on them, and the offsets of the processed records are stored periodically. The offsets are never
+ * committed to the Kafka group coordinator.
+ * <p>
+ * Implementations are exposed as CDI beans, and selected using the {@code checkpoint.store} attribute matching their
+ * {@code @Named} qualifier. Without this attribute, the {@link FileCheckpointStore} is used.
+ * <p>
+ * The offsets are the offsets of the next records to consume, as committed to Kafka. Methods may be called from
+ * different threads, and may block.
+ */
+public interface CheckpointStore {
+
+    /**
+     * Loads the offsets of the given partitions.
+     *
+     * @param groupId the consumer group
+     * @param partitions the assigned partitions
+     * @return the stored offsets, partitions without stored offset are omitted and consumed from their committed
+     *         position (or according to {@code auto.offset.reset})
+     */
+    Map<TopicPartition, Long> load(String groupId, Collection<TopicPartition> partitions);
+
+    /**
+     * Stores the offsets of the processed records.
+     *
+     * @param groupId the consumer group
+     * @param offsets the offsets to store, for each partition the offset of the next record to consume
+     */
+    void store(String groupId, Map<TopicPartition, Long> offsets);
+
+    /**
+     * Releases the resources of the store. Only called on stores created by the connector.
+     */
+    default void close() {
+        // Do nothing by default.
+    }
+}
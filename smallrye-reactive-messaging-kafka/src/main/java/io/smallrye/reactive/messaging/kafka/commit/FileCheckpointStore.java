@@ -0,0 +1,142 @@
+package io.smallrye.reactive.messaging.kafka.commit;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * A {@link CheckpointStore} keeping the offsets in local memory-mapped files, one file per consumer group and
+ * partition: {@code <directory>/<group>/<topic>-<partition>.checkpoint}.
+ * <p>
+ * Each file contains two slots, written alternately. A slot contains a sequence number, the offset and a checksum,
+ * and the valid slot with the highest sequence number is read. So a slot which has not been fully written is
+ * ignored, and the previous checkpoint is used instead. The files are flushed to the storage after each batch of
+ * offsets.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    static final int SLOT_SIZE = 3 * Long.BYTES;
+    static final int SIZE = 2 * SLOT_SIZE;
+
+    private final Path directory;
+    private final Map<String, Checkpoint> checkpoints = new HashMap<>();
+
+    public FileCheckpointStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public synchronized Map<TopicPartition, Long> load(String groupId, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            if (Files.exists(path(groupId, partition))) {
+                Checkpoint checkpoint = checkpoint(groupId, partition);
+                // The file may have been written by another instance
+                checkpoint.read();
+                if (checkpoint.sequence > 0) {
+                    offsets.put(partition, checkpoint.offset);
+                }
+            }
+        }
+        return offsets;
+    }
+
+    @Override
+    public synchronized void store(String groupId, Map<TopicPartition, Long> offsets) {
+        List<MappedByteBuffer> written = new ArrayList<>(offsets.size());
+        for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+            Checkpoint checkpoint = checkpoint(groupId, entry.getKey());
+            checkpoint.write(entry.getValue());
+            written.add(checkpoint.buffer);
+        }
+        for (MappedByteBuffer buffer : written) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        checkpoints.values().forEach(c -> c.buffer.force());
+        checkpoints.clear();
+    }
+
+    private Checkpoint checkpoint(String groupId, TopicPartition partition) {
+        Path path = path(groupId, partition);
+        return checkpoints.computeIfAbsent(path.toString(), k -> {
+            try {
+                Files.createDirectories(path.getParent());
+                // The mapping remains valid once the channel is closed
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    return new Checkpoint(channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE));
+                }
+            } catch (IOException e) {
+                throw ex.illegalStateUnableToAccessCheckpoint(path.toString(), e);
+            }
+        });
+    }
+
+    private Path path(String groupId, TopicPartition partition) {
+        // Group ids are arbitrary strings, topic names are valid file names
+        return directory.resolve(groupId.replaceAll("[^a-zA-Z0-9._-]", "_"))
+                .resolve(partition.topic() + "-" + partition.partition() + ".checkpoint");
+    }
+
+    static long checksum(long sequence, long offset) {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = ByteBuffer.allocate(2 * Long.BYTES).putLong(sequence).putLong(offset);
+        crc.update(bytes.array(), 0, bytes.capacity());
+        return crc.getValue();
+    }
+
+    /**
+     * The checkpoint of a partition, the latest valid slot of the file.
+     */
+    private static class Checkpoint {
+        private final MappedByteBuffer buffer;
+        /**
+         * The sequence number of the latest valid slot, 0 if none.
+         */
+        private long sequence;
+        private long offset;
+
+        Checkpoint(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            read();
+        }
+
+        void read() {
+            sequence = 0;
+            for (int slot = 0; slot < 2; slot++) {
+                int position = slot * SLOT_SIZE;
+                long s = buffer.getLong(position);
+                long o = buffer.getLong(position + Long.BYTES);
+                if (s > sequence && checksum(s, o) == buffer.getLong(position + 2 * Long.BYTES)) {
+                    sequence = s;
+                    offset = o;
+                }
+            }
+        }
+
+        void write(long offset) {
+            // Never overwrite the latest valid slot
+            long next = sequence + 1;
+            int position = (int) (next % 2) * SLOT_SIZE;
+            buffer.putLong(position, next);
+            buffer.putLong(position + Long.BYTES, offset);
+            buffer.putLong(position + 2 * Long.BYTES, checksum(next, offset));
+            this.sequence = next;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package io.smallrye.reactive.messaging.kafka.commit;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+
+/**
+ * Stores the offsets in a {@link CheckpointStore} instead of committing them to Kafka.
+ * <p>
+ * When partitions are assigned, the stored offsets are loaded and the consumer seeks to them. Like the
+ * {@code throttled} strategy, it keeps track of the received records and periodically, as defined by
+ * {@code auto.commit.interval.ms} (default: 5000), stores the offset following the latest record acknowledged in
+ * sequence. The offsets of revoked partitions are stored before the partitions are released.
+ * <p>
+ * This strategy guarantees at-least-once delivery even if the channel performs asynchronous processing. The
+ * store being written from a worker thread, it can be implemented on top of a blocking API (JDBC...).
+ * <p>
+ * To use set `commit-strategy` to `checkpoint`.
+ */
+public class KafkaCheckpointCommit extends ContextHolder implements KafkaCommitHandler {
+
+    private final String groupId;
+    private final String channel;
+    private final KafkaConsumer<?, ?> consumer;
+    private final CheckpointStore store;
+    private final boolean closeStore;
+    private final int interval;
+
+    /**
+     * The offsets of the received records, for each assigned partition.
+     * This map must always be accessed from the same thread (Vert.x context).
+     */
+    private final Map<TopicPartition, OffsetTracker> trackers = new HashMap<>();
+    private long timerId = -1;
+    private boolean closed;
+
+    public KafkaCheckpointCommit(Vertx vertx, KafkaConnectorIncomingConfiguration configuration,
+            KafkaConsumer<?, ?> consumer, String groupId, CheckpointStore store, boolean closeStore) {
+        super(vertx, configuration.config()
+                .getOptionalValue(ConsumerConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, Integer.class).orElse(60000));
+        this.groupId = groupId;
+        this.channel = configuration.getChannel();
+        this.consumer = consumer;
+        this.store = store;
+        this.closeStore = closeStore;
+        this.interval = configuration.config()
+                .getOptionalValue(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, Integer.class)
+                .orElse(5000);
+        log.settingCommitInterval(groupId, interval);
+    }
+
+    /**
+     * New partitions are assigned, the consumer is positioned on the stored offsets.
+     * This method is called from the Kafka poll thread.
+     *
+     * @param partitions the assigned partitions
+     */
+    @Override
+    public void partitionsAssigned(Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Map<org.apache.kafka.common.TopicPartition, Long> offsets = store.load(groupId, unwrap(partitions));
+        for (Map.Entry<org.apache.kafka.common.TopicPartition, Long> entry : offsets.entrySet()) {
+            log.seekingToCheckpoint(entry.getKey().toString(), channel, entry.getValue());
+            consumer.getDelegate().unwrap().seek(entry.getKey(), entry.getValue());
+        }
+        runOnContext(() -> {
+            // The records received before a previous revocation will be received again
+            partitions.forEach(trackers::remove);
+            if (timerId < 0 && !closed) {
+                scheduleFlush();
+            }
+        });
+    }
+
+    /**
+     * The offsets of the revoked partitions are stored before the partitions are released.
+     * This method is called from the Kafka poll thread.
+     *
+     * @param partitions the revoked partitions
+     */
+    @Override
+    public void partitionsRevoked(Collection<TopicPartition> partitions) {
+        Map<org.apache.kafka.common.TopicPartition, Long> offsets = runOnContextAndAwait(() -> {
+            Map<org.apache.kafka.common.TopicPartition, Long> result = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                OffsetTracker tracker = trackers.remove(partition);
+                if (tracker != null) {
+                    tracker.collect(partition, result, new HashMap<>());
+                }
+            }
+            return result;
+        });
+        if (!offsets.isEmpty()) {
+            store.store(groupId, offsets);
+        }
+    }
+
+    /**
+     * Received a new record from Kafka.
+     * This method is called from a Vert.x event loop.
+     *
+     * @param record the record
+     * @param <K> the key
+     * @param <V> the value
+     * @return the record
+     */
+    @Override
+    public <K, V> IncomingKafkaRecord<K, V> received(IncomingKafkaRecord<K, V> record) {
+        received(new TopicPartition(record.getTopic(), record.getPartition()), record.getOffset());
+        return record;
+    }
+
+    private void received(TopicPartition partition, long offset) {
+        trackers.computeIfAbsent(partition, tp -> new OffsetTracker())
+                .received(offset);
+    }
+
+    @Override
+    public <K, V> CompletionStage<Void> handle(IncomingKafkaRecord<K, V> record) {
+        return processed(new TopicPartition(record.getTopic(), record.getPartition()), record.getOffset());
+    }
+
+    @Override
+    public CompletionStage<Void> discarded(String topic, int partition, long offset) {
+        TopicPartition tp = new TopicPartition(topic, partition);
+        received(tp, offset);
+        return processed(tp, offset);
+    }
+
+    private CompletionStage<Void> processed(TopicPartition partition, long offset) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        runOnContext(() -> {
+            OffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                tracker.processed(offset);
+            } else {
+                // The partition has been revoked, the record will be received again
+                log.messageAckedForRevokedTopicPartition(offset, groupId, partition.toString());
+            }
+            future.complete(null);
+        });
+        return future;
+    }
+
+    /**
+     * Must be called from the event loop.
+     */
+    private void scheduleFlush() {
+        timerId = vertx.setTimer(interval, x -> flush());
+    }
+
+    /**
+     * Stores the offsets from a worker thread, and schedules the next flush.
+     * Always called from the event loop.
+     */
+    private void flush() {
+        Map<OffsetTracker, Long> collected = new HashMap<>();
+        Map<org.apache.kafka.common.TopicPartition, Long> offsets = collect(collected);
+        if (offsets.isEmpty()) {
+            scheduleFlush();
+            return;
+        }
+        vertx.getDelegate().<Void> executeBlocking(p -> {
+            store.store(groupId, offsets);
+            p.complete();
+        }, true, ar -> {
+            if (ar.failed()) {
+                // The offsets are not marked as stored, they are collected again by the next flush
+                log.unableToStoreCheckpoint(offsets.toString(), channel, ar.cause());
+            }
+            runOnContext(() -> {
+                if (ar.succeeded()) {
+                    collected.forEach(OffsetTracker::stored);
+                }
+                if (!closed) {
+                    scheduleFlush();
+                }
+            });
+        });
+    }
+
+    /**
+     * Must be called from the event loop.
+     *
+     * @param collected the trackers having an offset to store, with this offset
+     * @return the offsets to store, for the partitions having processed records since the last successful store
+     */
+    private Map<org.apache.kafka.common.TopicPartition, Long> collect(Map<OffsetTracker, Long> collected) {
+        Map<org.apache.kafka.common.TopicPartition, Long> offsets = new HashMap<>();
+        for (Map.Entry<TopicPartition, OffsetTracker> entry : trackers.entrySet()) {
+            entry.getValue().collect(entry.getKey(), offsets, collected);
+        }
+        return offsets;
+    }
+
+    @Override
+    public void terminate() {
+        Map<org.apache.kafka.common.TopicPartition, Long> offsets = runOnContextAndAwait(() -> {
+            closed = true;
+            if (timerId != -1) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+            Map<org.apache.kafka.common.TopicPartition, Long> result = collect(new HashMap<>());
+            trackers.clear();
+            return result;
+        });
+        try {
+            if (!offsets.isEmpty()) {
+                store.store(groupId, offsets);
+            }
+        } finally {
+            if (closeStore) {
+                store.close();
+            }
+        }
+    }
+
+    private static Collection<org.apache.kafka.common.TopicPartition> unwrap(Collection<TopicPartition> partitions) {
+        List<org.apache.kafka.common.TopicPartition> result = new ArrayList<>(partitions.size());
+        for (TopicPartition partition : partitions) {
+            result.add(new org.apache.kafka.common.TopicPartition(partition.getTopic(), partition.getPartition()));
+        }
+        return result;
+    }
+
+    /**
+     * Tracks the records of a partition, to find the latest record acknowledged in sequence.
+     */
+    private static class OffsetTracker {
+        private final Deque<Long> received = new ArrayDeque<>();
+        private final Set<Long> processed = new HashSet<>();
+        private long committable = -1;
+        private long stored = -1;
+
+        void received(long offset) {
+            received.addLast(offset);
+        }
+
+        void processed(long offset) {
+            processed.add(offset);
+            // Move forward while the oldest received records are acknowledged
+            while (!received.isEmpty() && processed.remove(received.peekFirst())) {
+                committable = received.removeFirst() + 1;
+            }
+        }
+
+        void collect(TopicPartition partition, Map<org.apache.kafka.common.TopicPartition, Long> offsets,
+                Map<OffsetTracker, Long> collected) {
+            if (committable > stored) {
+                offsets.put(new org.apache.kafka.common.TopicPartition(partition.getTopic(), partition.getPartition()),
+                        committable);
+                collected.put(this, committable);
+            }
+        }
+
+        void stored(long offset) {
+            stored = Math.max(stored, offset);
+        }
+    }
+}
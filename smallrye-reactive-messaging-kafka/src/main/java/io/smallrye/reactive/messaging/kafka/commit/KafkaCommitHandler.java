@@ -3,6 +3,7 @@ package io.smallrye.reactive.messaging.kafka.commit;
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
@@ -13,7 +14,8 @@ public interface KafkaCommitHandler {
     enum Strategy {
         LATEST,
         IGNORE,
-        THROTTLED;
+        THROTTLED,
+        CHECKPOINT;
 
         public static KafkaCommitHandler.Strategy from(String s) {
             if (s.equalsIgnoreCase("latest")) {
@@ -25,6 +27,9 @@ public interface KafkaCommitHandler {
             if (s.equalsIgnoreCase("throttled")) {
                 return THROTTLED;
             }
+            if (s.equalsIgnoreCase("checkpoint")) {
+                return CHECKPOINT;
+            }
             throw ex.illegalArgumentUnknownCommitStrategy(s);
         }
 
@@ -48,4 +53,19 @@ public interface KafkaCommitHandler {
 
     <K, V> CompletionStage<Void> handle(IncomingKafkaRecord<K, V> record);
 
+    /**
+     * Acknowledges a record discarded before the creation of its message, for example by the record filter.
+     * It is equivalent to receiving and acknowledging the record, without creating the message.
+     * This method is called from a Vert.x event loop, like {@link #received(IncomingKafkaRecord)}.
+     *
+     * @param topic the topic of the record
+     * @param partition the partition of the record
+     * @param offset the offset of the record
+     * @return a completion stage indicating when the acknowledgement has been handled
+     */
+    default CompletionStage<Void> discarded(String topic, int partition, long offset) {
+        // Nothing is committed by default.
+        return CompletableFuture.completedFuture(null);
+    }
+
 }
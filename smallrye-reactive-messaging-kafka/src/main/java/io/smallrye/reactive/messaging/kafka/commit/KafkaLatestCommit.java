@@ -45,15 +45,24 @@ public class KafkaLatestCommit extends ContextHolder implements KafkaCommitHandl
 
     @Override
     public <K, V> CompletionStage<Void> handle(IncomingKafkaRecord<K, V> record) {
+        return commit(record.getTopic(), record.getPartition(), record.getOffset());
+    }
+
+    @Override
+    public CompletionStage<Void> discarded(String topic, int partition, long offset) {
+        return commit(topic, partition, offset);
+    }
+
+    private CompletionStage<Void> commit(String topic, int partition, long offset) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         runOnContext(() -> {
             Map<TopicPartition, OffsetAndMetadata> map = new HashMap<>();
-            TopicPartition key = new TopicPartition(record.getTopic(), record.getPartition());
+            TopicPartition key = new TopicPartition(topic, partition);
             Long last = offsets.get(key);
             // Verify that the latest committed offset before this one.
-            if (last == null || last < record.getOffset() + 1) {
-                offsets.put(key, record.getOffset() + 1);
-                map.put(key, new OffsetAndMetadata(record.getOffset() + 1, null));
+            if (last == null || last < offset + 1) {
+                offsets.put(key, offset + 1);
+                map.put(key, new OffsetAndMetadata(offset + 1, null));
 
                 consumer.commit(map, ar -> {
                     if (ar.failed()) {
@@ -39,7 +39,7 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
 
     private static final Map<String, Map<Integer, TopicPartition>> TOPIC_PARTITIONS_CACHE = new ConcurrentHashMap<>();
 
-    private final Map<TopicPartition, OffsetStore> offsetStores = new HashMap<>();
+    private final Map<TopicPartition, OffsetStore> offsetStores = new ConcurrentHashMap<>();
 
     private final String groupId;
     private final KafkaConsumer<?, ?> consumer;
@@ -94,9 +94,13 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
     }
 
     private <K, V> TopicPartition getTopicPartition(IncomingKafkaRecord<K, V> record) {
+        return getTopicPartition(record.getTopic(), record.getPartition());
+    }
+
+    private static TopicPartition getTopicPartition(String topic, int partition) {
         return TOPIC_PARTITIONS_CACHE
-                .computeIfAbsent(record.getTopic(), topic -> new ConcurrentHashMap<>())
-                .computeIfAbsent(record.getPartition(), partition -> new TopicPartition(record.getTopic(), partition));
+                .computeIfAbsent(topic, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(partition, p -> new TopicPartition(topic, p));
     }
 
     /**
@@ -209,17 +213,18 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
      */
     @Override
     public <K, V> IncomingKafkaRecord<K, V> received(IncomingKafkaRecord<K, V> record) {
-        TopicPartition recordsTopicPartition = getTopicPartition(record);
+        received(getTopicPartition(record), record.getOffset());
+        return record;
+    }
 
+    private void received(TopicPartition recordsTopicPartition, long offset) {
         offsetStores
                 .computeIfAbsent(recordsTopicPartition, k -> new OffsetStore(k, unprocessedRecordMaxAge))
-                .received(record.getOffset());
+                .received(offset);
 
         if (timerId < 0) {
             startFlushAndCheckHealthTimer();
         }
-
-        return record;
     }
 
     /**
@@ -252,11 +257,21 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
      */
     @Override
     public <K, V> CompletionStage<Void> handle(final IncomingKafkaRecord<K, V> record) {
+        return processed(getTopicPartition(record), record.getOffset());
+    }
+
+    @Override
+    public CompletionStage<Void> discarded(String topic, int partition, long offset) {
+        TopicPartition topicPartition = getTopicPartition(topic, partition);
+        received(topicPartition, offset);
+        return processed(topicPartition, offset);
+    }
+
+    private CompletionStage<Void> processed(TopicPartition topicPartition, long offset) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         // Be sure to run on the right context. The context has been store during the message reception
         // or partition assignment.
         runOnContext(() -> {
-            TopicPartition topicPartition = getTopicPartition(record);
             OffsetStore store = offsetStores
                     .get(topicPartition);
 
@@ -266,9 +281,9 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
              * do but ignore the message. There likely will be a duplicate consumption.
              */
             if (store != null) {
-                store.processed(record.getOffset());
+                store.processed(offset);
             } else {
-                log.messageAckedForRevokedTopicPartition(record.getOffset(), groupId, topicPartition.toString());
+                log.messageAckedForRevokedTopicPartition(offset, groupId, topicPartition.toString());
             }
             future.complete(null);
         });
@@ -276,6 +291,19 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
 
     }
 
+    /**
+     * Gets the number of records received from the given partition and not yet acknowledged.
+     * This method can be called from any thread.
+     *
+     * @param topic the topic
+     * @param partition the partition
+     * @return the number of unacknowledged records, 0 if the partition is not handled by this consumer
+     */
+    public long getUnacknowledgedRecords(String topic, int partition) {
+        OffsetStore store = offsetStores.get(new TopicPartition(topic, partition));
+        return store == null ? 0 : store.unacknowledged;
+    }
+
     /**
      * Always called from the event loop.
      *
@@ -330,6 +358,8 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
         private final Set<Long> processedOffsets = new HashSet<>();
         private final int unprocessedRecordMaxAge;
         private long unProcessedTotal = 0L;
+        // Only written from the event loop
+        private volatile long unacknowledged = 0L;
 
         OffsetStore(TopicPartition topicPartition, int unprocessedRecordMaxAge) {
             this.topicPartition = topicPartition;
@@ -339,11 +369,13 @@ public class KafkaThrottledLatestProcessedCommit extends ContextHolder implement
         void received(long offset) {
             this.receivedOffsets.offer(OffsetReceivedAt.received(offset));
             unProcessedTotal++;
+            unacknowledged++;
         }
 
         void processed(long offset) {
-            if (!this.receivedOffsets.isEmpty() && this.receivedOffsets.peek().getOffset() <= offset) {
-                processedOffsets.add(offset);
+            if (!this.receivedOffsets.isEmpty() && this.receivedOffsets.peek().getOffset() <= offset
+                    && processedOffsets.add(offset)) {
+                unacknowledged--;
             }
         }
 
@@ -72,7 +72,7 @@ public class KafkaDeadLetterQueue implements KafkaFailureHandler {
 
     }
 
-    private static String getMirrorSerializer(String deserializer) {
+    static String getMirrorSerializer(String deserializer) {
         if (deserializer == null) {
             return StringSerializer.class.getName();
         } else {
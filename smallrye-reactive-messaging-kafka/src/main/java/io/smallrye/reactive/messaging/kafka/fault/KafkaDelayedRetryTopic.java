@@ -0,0 +1,323 @@
+package io.smallrye.reactive.messaging.kafka.fault;
+
+import static io.smallrye.reactive.messaging.kafka.fault.KafkaDeadLetterQueue.*;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+import static org.apache.kafka.clients.CommonClientConfigs.CLIENT_ID_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.common.header.Header;
+
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaCDIEvents;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.impl.ConfigurationCleaner;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSource;
+import io.vertx.core.AsyncResult;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.mutiny.kafka.client.producer.KafkaProducer;
+import io.vertx.mutiny.kafka.client.producer.KafkaProducerRecord;
+
+/**
+ * Failure strategy routing nacked records through a chain of retry topics, each with its own delay, before sending
+ * them to the dead letter topic.
+ * <p>
+ * The retry topics are consumed by the channel itself. A record read from a retry topic before its due time is not
+ * dispatched: the partition is paused and rewound to the record, and resumed once the delay has elapsed. So, waiting
+ * records never block the consumption of the other partitions.
+ * <p>
+ * To use set `failure-strategy` to `delayed-retry-topic`.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class KafkaDelayedRetryTopic implements KafkaFailureHandler {
+
+    public static final String DELAYED_RETRY_COUNT = "delayed-retry-count";
+    public static final String DELAYED_RETRY_DUE = "delayed-retry-due";
+    public static final String DELAYED_RETRY_REASON = "delayed-retry-reason";
+    public static final String DELAYED_RETRY_CAUSE = "delayed-retry-cause";
+    public static final String DELAYED_RETRY_TOPIC = "delayed-retry-original-topic";
+    public static final String DELAYED_RETRY_PARTITION = "delayed-retry-original-partition";
+    public static final String DELAYED_RETRY_OFFSET = "delayed-retry-original-offset";
+
+    private final String channel;
+    private final Vertx vertx;
+    private final KafkaConsumer<?, ?> consumer;
+    private final KafkaProducer producer;
+    private final List<String> retryTopics;
+    private final List<Long> delays;
+    private final String deadLetterTopic;
+    private final KafkaSource<?, ?> source;
+
+    /**
+     * Retry topic partitions waiting for a record to be due.
+     * Until this record is received again, the other records from the partition are discarded, as they have been
+     * fetched before the partition was rewound. The entries are dropped when the partition is assigned or revoked,
+     * so a timer only resumes the partition if its entry is still the current one.
+     */
+    private final Map<TopicPartition, Waiting> waiting = new ConcurrentHashMap<>();
+
+    public KafkaDelayedRetryTopic(String channel, Vertx vertx, KafkaConsumer<?, ?> consumer, KafkaProducer producer,
+            List<String> retryTopics, List<Long> delays, String deadLetterTopic, KafkaSource<?, ?> source) {
+        this.channel = channel;
+        this.vertx = vertx;
+        this.consumer = consumer;
+        this.producer = producer;
+        this.retryTopics = retryTopics;
+        this.delays = delays;
+        this.deadLetterTopic = deadLetterTopic;
+        this.source = source;
+    }
+
+    public static KafkaFailureHandler create(Vertx vertx, KafkaConsumer<?, ?> consumer,
+            Map<String, String> kafkaConfiguration, KafkaConnectorIncomingConfiguration conf, KafkaSource<?, ?> source,
+            KafkaCDIEvents kafkaCDIEvents) {
+        Map<String, String> producerConfig = new HashMap<>(kafkaConfiguration);
+        String keyDeserializer = producerConfig.remove(KEY_DESERIALIZER_CLASS_CONFIG);
+        String valueDeserializer = producerConfig.remove(VALUE_DESERIALIZER_CLASS_CONFIG);
+        producerConfig.put(KEY_SERIALIZER_CLASS_CONFIG,
+                conf.getDeadLetterQueueKeySerializer().orElse(getMirrorSerializer(keyDeserializer)));
+        producerConfig.put(VALUE_SERIALIZER_CLASS_CONFIG,
+                conf.getDeadLetterQueueValueSerializer().orElse(getMirrorSerializer(valueDeserializer)));
+        producerConfig.put(CLIENT_ID_CONFIG, "kafka-delayed-retry-topic-producer-" + conf.getChannel());
+
+        ConfigurationCleaner.cleanupProducerConfiguration(producerConfig);
+        String deadQueueTopic = conf.getDeadLetterQueueTopic().orElse("dead-letter-topic-" + conf.getChannel());
+        List<Long> delays = getDelays(conf);
+        List<String> retryTopics = getRetryTopics(conf);
+
+        log.delayedRetryTopicConfig(retryTopics, delays, deadQueueTopic);
+
+        KafkaProducer<Object, Object> producer = io.vertx.mutiny.kafka.client.producer.KafkaProducer
+                .create(vertx, producerConfig);
+
+        // fire producer event (e.g. bind metrics)
+        kafkaCDIEvents.producer().fire(producer.getDelegate().unwrap());
+
+        return new KafkaDelayedRetryTopic(conf.getChannel(), vertx, consumer, producer, retryTopics, delays,
+                deadQueueTopic, source);
+    }
+
+    /**
+     * Gets the retry topics configured for the channel. These topics must be consumed by the channel.
+     *
+     * @param conf the channel configuration
+     * @return the list of retry topics, in the retry order
+     */
+    public static List<String> getRetryTopics(KafkaConnectorIncomingConfiguration conf) {
+        List<Long> delays = getDelays(conf);
+        List<String> topics = new ArrayList<>();
+        Optional<String> configured = conf.getDelayedRetryTopicTopics();
+        if (configured.isPresent()) {
+            for (String topic : configured.get().split(",")) {
+                topics.add(topic.trim());
+            }
+            if (topics.size() != delays.size()) {
+                throw ex.illegalArgumentInvalidDelayedRetryTopicConfiguration(conf.getChannel(),
+                        "`delayed-retry-topic.topics` and `delayed-retry-topic.delays` must have the same size");
+            }
+        } else {
+            for (Long delay : delays) {
+                topics.add("delayed-retry-topic-" + conf.getChannel() + "-" + delay);
+            }
+        }
+        return topics;
+    }
+
+    private static List<Long> getDelays(KafkaConnectorIncomingConfiguration conf) {
+        List<Long> delays = new ArrayList<>();
+        for (String delay : conf.getDelayedRetryTopicDelays().split(",")) {
+            try {
+                long value = Long.parseLong(delay.trim());
+                if (value <= 0) {
+                    throw ex.illegalArgumentInvalidDelayedRetryTopicConfiguration(conf.getChannel(),
+                            "the delays must be strictly positive");
+                }
+                delays.add(value);
+            } catch (NumberFormatException e) {
+                throw ex.illegalArgumentInvalidDelayedRetryTopicConfiguration(conf.getChannel(),
+                        "invalid delay: " + delay);
+            }
+        }
+        return delays;
+    }
+
+    private String getThrowableMessage(Throwable throwable) {
+        String text = throwable.getMessage();
+        if (text == null) {
+            text = throwable.toString();
+        }
+        return text;
+    }
+
+    @Override
+    public <K, V> CompletionStage<Void> handle(IncomingKafkaRecord<K, V> record, Throwable reason) {
+        int attempt = getHeaderAsInt(record, DELAYED_RETRY_COUNT, 0) + 1;
+        KafkaProducerRecord<K, V> next;
+        if (attempt > retryTopics.size()) {
+            next = KafkaProducerRecord.create(deadLetterTopic, record.getKey(), record.getPayload());
+            next.addHeader(DEAD_LETTER_REASON, getThrowableMessage(reason));
+            if (reason.getCause() != null) {
+                next.addHeader(DEAD_LETTER_CAUSE, getThrowableMessage(reason.getCause()));
+            }
+            next.addHeader(DEAD_LETTER_TOPIC, getOriginalTopic(record));
+            next.addHeader(DEAD_LETTER_PARTITION, getHeader(record, DELAYED_RETRY_PARTITION,
+                    Integer.toString(record.getPartition())));
+            next.addHeader(DEAD_LETTER_OFFSET, getHeader(record, DELAYED_RETRY_OFFSET,
+                    Long.toString(record.getOffset())));
+            log.messageNackedDeadLetter(channel, deadLetterTopic);
+        } else {
+            String topic = retryTopics.get(attempt - 1);
+            long due = System.currentTimeMillis() + delays.get(attempt - 1);
+            next = KafkaProducerRecord.create(topic, record.getKey(), record.getPayload());
+            next.addHeader(DELAYED_RETRY_COUNT, Integer.toString(attempt));
+            next.addHeader(DELAYED_RETRY_DUE, Long.toString(due));
+            next.addHeader(DELAYED_RETRY_REASON, getThrowableMessage(reason));
+            if (reason.getCause() != null) {
+                next.addHeader(DELAYED_RETRY_CAUSE, getThrowableMessage(reason.getCause()));
+            }
+            next.addHeader(DELAYED_RETRY_TOPIC, getOriginalTopic(record));
+            next.addHeader(DELAYED_RETRY_PARTITION, getHeader(record, DELAYED_RETRY_PARTITION,
+                    Integer.toString(record.getPartition())));
+            next.addHeader(DELAYED_RETRY_OFFSET, getHeader(record, DELAYED_RETRY_OFFSET,
+                    Long.toString(record.getOffset())));
+            log.messageNackedDelayedRetry(channel, topic, attempt);
+        }
+        return producer.send(next)
+                .onFailure().invoke(t -> source.reportFailure((Throwable) t, true))
+                .onItem().ignore().andContinueWithNull()
+                .subscribeAsCompletionStage()
+                .thenCompose(m -> record.ack());
+    }
+
+    /**
+     * Checks whether a received record can be dispatched.
+     * Records from the main topics are always dispatched. Records from a retry topic are dispatched once they are due.
+     * Otherwise, the partition is paused, rewound to the record, and resumed when the record is due.
+     * This method is called from the event loop.
+     *
+     * @param record the received record
+     * @return {@code true} if the record can be dispatched, {@code false} if it must be discarded.
+     */
+    public boolean isDue(KafkaConsumerRecord<?, ?> record) {
+        if (!retryTopics.contains(record.topic())) {
+            return true;
+        }
+        TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+        Waiting current = waiting.get(tp);
+        if (current != null) {
+            if (record.offset() > current.offset) {
+                // Fetched before the partition was rewound, will be received again.
+                return false;
+            }
+            // The awaited record
+            waiting.remove(tp, current);
+        }
+
+        long remaining = getDue(record) - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return true;
+        }
+
+        Waiting entry = new Waiting(record.offset());
+        waiting.put(tp, entry);
+        io.vertx.kafka.client.consumer.KafkaConsumer<?, ?> delegate = consumer.getDelegate();
+        delegate.pause(tp, ar -> onRewindFailure(tp, entry, ar));
+        delegate.seek(tp, record.offset(), ar -> onRewindFailure(tp, entry, ar));
+        entry.timer = vertx.setTimer(remaining, x -> {
+            if (waiting.get(tp) == entry) {
+                delegate.resume(tp, ar -> onRewindFailure(tp, entry, ar));
+            }
+        });
+        return false;
+    }
+
+    /**
+     * Fails the channel if the partition could not be paused, rewound or resumed, as it would stay paused, or skip
+     * records. Failures happening after the partition has been assigned or revoked are ignored.
+     */
+    private void onRewindFailure(TopicPartition tp, Waiting entry, AsyncResult<Void> ar) {
+        if (ar.failed() && waiting.remove(tp, entry)) {
+            vertx.cancelTimer(entry.timer);
+            log.unableToRewindDelayedRetryPartition(tp.toString(), channel, ar.cause());
+            source.reportFailure(ar.cause(), true);
+        }
+    }
+
+    @Override
+    public void partitionsAssigned(Collection<TopicPartition> partitions) {
+        forget(partitions);
+    }
+
+    @Override
+    public void partitionsRevoked(Collection<TopicPartition> partitions) {
+        forget(partitions);
+    }
+
+    private void forget(Collection<TopicPartition> partitions) {
+        for (TopicPartition tp : partitions) {
+            Waiting entry = waiting.remove(tp);
+            if (entry != null) {
+                vertx.cancelTimer(entry.timer);
+            }
+        }
+    }
+
+    private static long getDue(KafkaConsumerRecord<?, ?> record) {
+        for (io.vertx.mutiny.kafka.client.producer.KafkaHeader header : record.headers()) {
+            if (header.key().equals(DELAYED_RETRY_DUE)) {
+                try {
+                    return Long.parseLong(header.value().toString(StandardCharsets.UTF_8.name()));
+                } catch (NumberFormatException e) {
+                    return -1L;
+                }
+            }
+        }
+        return -1L;
+    }
+
+    private static String getOriginalTopic(IncomingKafkaRecord<?, ?> record) {
+        return getHeader(record, DELAYED_RETRY_TOPIC, record.getTopic());
+    }
+
+    private static String getHeader(IncomingKafkaRecord<?, ?> record, String key, String defaultValue) {
+        Header header = record.getHeaders().lastHeader(key);
+        if (header == null || header.value() == null) {
+            return defaultValue;
+        }
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static int getHeaderAsInt(IncomingKafkaRecord<?, ?> record, String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getHeader(record, key, Integer.toString(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public void terminate() {
+        forget(new ArrayList<>(waiting.keySet()));
+        producer.closeAndAwait();
+    }
+
+    private static final class Waiting {
+        private final long offset;
+        private volatile long timer = -1;
+
+        private Waiting(long offset) {
+            this.offset = offset;
+        }
+    }
+}
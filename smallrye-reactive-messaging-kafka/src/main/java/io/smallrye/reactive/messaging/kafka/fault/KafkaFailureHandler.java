@@ -2,16 +2,19 @@ package io.smallrye.reactive.messaging.kafka.fault;
 
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
 
+import java.util.Collection;
 import java.util.concurrent.CompletionStage;
 
 import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.vertx.kafka.client.common.TopicPartition;
 
 public interface KafkaFailureHandler {
 
     enum Strategy {
         FAIL,
         IGNORE,
-        DEAD_LETTER_QUEUE;
+        DEAD_LETTER_QUEUE,
+        DELAYED_RETRY_TOPIC;
 
         public static Strategy from(String s) {
             if (s == null || s.equalsIgnoreCase("fail")) {
@@ -23,6 +26,9 @@ public interface KafkaFailureHandler {
             if (s.equalsIgnoreCase("dead-letter-queue")) {
                 return DEAD_LETTER_QUEUE;
             }
+            if (s.equalsIgnoreCase("delayed-retry-topic")) {
+                return DELAYED_RETRY_TOPIC;
+            }
             throw ex.illegalArgumentUnknownFailureStrategy(s);
         }
     }
@@ -33,4 +39,12 @@ public interface KafkaFailureHandler {
         // do nothing by default
     }
 
+    default void partitionsAssigned(Collection<TopicPartition> partitions) {
+        // do nothing by default
+    }
+
+    default void partitionsRevoked(Collection<TopicPartition> partitions) {
+        // do nothing by default
+    }
+
 }
@@ -1,6 +1,9 @@
 package io.smallrye.reactive.messaging.kafka.i18n;
 
+import javax.enterprise.inject.InjectionException;
+
 import org.jboss.logging.Messages;
+import org.jboss.logging.annotations.Cause;
 import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageBundle;
 
@@ -34,4 +37,43 @@ public interface KafkaExceptions {
     @Message(id = 18006, value = "Invalid commit strategy: %s")
     IllegalArgumentException illegalArgumentInvalidCommitStrategy(String strategy);
 
+    @Message(id = 18007, value = "Invalid delayed retry topic configuration for channel `%s`: %s")
+    IllegalArgumentException illegalArgumentInvalidDelayedRetryTopicConfiguration(String channel, String reason);
+
+    @Message(id = 18008, value = "Invalid number of producer instances for channel `%s`: %d, it must be strictly positive")
+    IllegalArgumentException illegalArgumentInvalidProducerInstances(String channel, int instances);
+
+    @Message(id = 18009, value = "Invalid adaptive in-flight configuration for channel `%s`: %s")
+    IllegalArgumentException illegalArgumentInvalidAdaptiveInflight(String channel, String reason);
+
+    @Message(id = 18010, value = "Invalid transactional configuration for channel `%s`: %s")
+    IllegalArgumentException illegalArgumentInvalidTransactionalConfiguration(String channel, String reason);
+
+    @Message(id = 18011, value = "The shared consumer `%s` is already started, the channel `%s` cannot use it")
+    IllegalStateException illegalStateSharedConsumerAlreadyStarted(String sharedConsumer, String channel);
+
+    @Message(id = 18012, value = "Invalid configuration for channel `%s`: `%s` is not supported with the dedicated poll thread")
+    IllegalArgumentException illegalArgumentUnsupportedWithDedicatedPollThread(String channel, String attribute);
+
+    @Message(id = 18013, value = "Invalid autoscaling configuration for channel `%s`: %s")
+    IllegalArgumentException illegalArgumentInvalidAutoscaling(String channel, String reason);
+
+    @Message(id = 18014, value = "Invalid configuration for channel `%s`: `%s` contains an invalid condition: `%s`")
+    IllegalArgumentException illegalArgumentInvalidFilter(String channel, String attribute, String condition);
+
+    @Message(id = 18015, value = "Unable to find the checkpoint store `%s` for channel `%s`")
+    IllegalArgumentException illegalArgumentCheckpointStoreNotFound(String name, String channel);
+
+    @Message(id = 18016, value = "Unable to access the checkpoint file `%s`")
+    IllegalStateException illegalStateUnableToAccessCheckpoint(String path, @Cause Throwable cause);
+
+    @Message(id = 18017, value = "The topic `%s` materialized by channel `%s` has no partition, check that the topic exists")
+    IllegalStateException illegalStateTableTopicWithoutPartition(String topic, String channel);
+
+    @Message(id = 18018, value = "The record consumed by group `%s` cannot be written by the transactional channel `%s`: the incoming channel must use `commit-strategy=ignore` and `enable.auto.commit=false`, otherwise its offsets are committed outside of the transactions")
+    IllegalStateException illegalStateRecordCommittedOutsideTransaction(String group, String channel);
+
+    @Message(id = 18019, value = "Unable to inject the Kafka table of channel `%s`: the channel must be an incoming channel of the Kafka connector with the `table` attribute set to `true`")
+    InjectionException injectionTableChannelNotConfigured(String channel);
+
 }
@@ -1,5 +1,6 @@
 package io.smallrye.reactive.messaging.kafka.i18n;
 
+import java.util.List;
 import java.util.Set;
 
 import org.jboss.logging.BasicLogger;
@@ -177,4 +178,100 @@ public interface KafkaLogging extends BasicLogger {
     @LogMessage(level = Logger.Level.INFO)
     @Message(id = 18240, value = "'%s' commit strategy used for channel '%s'")
     void commitStrategyForChannel(String strategy, String channel);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18241, value = "Delayed retry topics configured with: topics: `%s`, delays: `%s`, dead letter topic: `%s`")
+    void delayedRetryTopicConfig(List<String> topics, List<Long> delays, String deadLetterTopic);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18242, value = "A message sent to channel `%s` has been nacked, sending the record to the retry topic %s (attempt %d)")
+    void messageNackedDelayedRetry(String channel, String topic, int attempt);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18243, value = "Materializing topic `%s` as a table for channel `%s`")
+    void materializingTable(String topic, String channel);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18244, value = "Table materialized by channel `%s` bootstrapped with %d keys")
+    void tableBootstrapped(String channel, int size);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 18245, value = "Unable to materialize the table of channel `%s`")
+    void unableToMaterializeTable(String channel, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18246, value = "Transaction committed on channel `%s` with %d messages")
+    void transactionCommitted(String channel, int count);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 18247, value = "Aborting the transaction of channel `%s`, %d messages are nacked")
+    void transactionAborted(String channel, int count, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 18248, value = "The transactional producer of channel `%s` cannot be used anymore")
+    void transactionalProducerFailure(String channel, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18249, value = "Channel `%s` uses the shared consumer `%s`")
+    void channelUsingSharedConsumer(String channel, String sharedConsumer);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18250, value = "The record from topic-partition '%s-%d' at offset %d does not match any channel of the shared consumer `%s`, acknowledging it")
+    void recordNotMatchingSharedConsumerChannel(String topic, int partition, long offset, String sharedConsumer);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18251, value = "Pausing partition %s of the shared consumer `%s`, the buffer of channel `%s` is full")
+    void pausingSharedConsumerPartition(String partition, String sharedConsumer, String channel);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18252, value = "Resuming partitions %s of the shared consumer `%s`, the buffer of channel `%s` has been drained")
+    void resumingSharedConsumerPartitions(String partitions, String sharedConsumer, String channel);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18253, value = "Starting the dedicated poll thread of channel `%s`")
+    void startingPollLoop(String channel);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18254, value = "Pausing the partitions of channel `%s`, %d records are waiting for downstream demand")
+    void pausingPollLoop(String channel, int buffered);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18255, value = "Resuming the partitions of channel `%s`")
+    void resumingPollLoop(String channel);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 18256, value = "Unable to commit the offsets %s of channel `%s`")
+    void unableToCommitPollLoopOffsets(String offsets, String channel, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 18257, value = "The dedicated poll thread of channel `%s` has failed")
+    void pollLoopFailure(String channel, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18258, value = "Scaling up channel `%s` from %d to %d consumers (lag: %d records, throughput: %.1f records/s)")
+    void scalingUpConsumers(String channel, int from, int to, long lag, double throughput);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 18259, value = "Scaling down channel `%s` from %d to %d consumers (lag: %d records, throughput: %.1f records/s)")
+    void scalingDownConsumers(String channel, int from, int to, long lag, double throughput);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 18260, value = "Unable to retrieve the lag of the consumer group of channel `%s`")
+    void unableToRetrieveAutoscalingLag(String channel, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 18261, value = "Seeking partition %s of channel `%s` to the checkpoint %d")
+    void seekingToCheckpoint(String partition, String channel, long offset);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 18262, value = "Unable to store the checkpoints %s of channel `%s`")
+    void unableToStoreCheckpoint(String offsets, String channel, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 18263, value = "The transactional channel `%s` nacks a message: %s")
+    void transactionalSinkRejectedMessage(String channel, String reason);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 18264, value = "Unable to rewind the delayed retry topic partition %s of channel `%s`")
+    void unableToRewindDelayedRetryPartition(String partition, String channel, @Cause Throwable t);
 }
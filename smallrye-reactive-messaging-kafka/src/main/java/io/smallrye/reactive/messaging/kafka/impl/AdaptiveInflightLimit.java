@@ -0,0 +1,78 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+/**
+ * An adaptive limit of in-flight messages, using an additive-increase / multiplicative-decrease (AIMD) algorithm
+ * driven by the send latency (the time between the write of a record and its acknowledgement by the broker).
+ * <p>
+ * The limit grows by 1 every time a full window of messages (the current limit) is acknowledged without
+ * congestion. When a send latency exceeds the no-load latency multiplied by the tolerance, the limit is reduced by
+ * the backoff ratio, at most once per window. The no-load latency is the lowest observed latency, slowly drifting
+ * upward to follow the changes of the environment.
+ */
+class AdaptiveInflightLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final long min;
+    private final long max;
+    private final double tolerance;
+
+    private double limit;
+    private long noLoadLatency = Long.MAX_VALUE;
+    private long lastLatency;
+    private long samplesSinceDecrease;
+    private long samplesSinceIncrease;
+
+    /**
+     * @param initial the initial limit
+     * @param min the minimum limit
+     * @param max the maximum limit
+     * @param tolerance the latency increase factor considered as a congestion
+     */
+    AdaptiveInflightLimit(long initial, long min, long max, double tolerance) {
+        this.min = min;
+        this.max = max;
+        this.tolerance = tolerance;
+        this.limit = Math.max(min, Math.min(max, initial));
+    }
+
+    /**
+     * Records the latency of an acknowledged message, and updates the limit.
+     *
+     * @param latency the send latency in nanoseconds
+     */
+    synchronized void onSample(long latency) {
+        lastLatency = latency;
+        samplesSinceDecrease++;
+        if (latency < noLoadLatency) {
+            noLoadLatency = latency;
+        } else {
+            // Slowly follow the latency to not stay stuck on an exceptionally low value.
+            noLoadLatency += (latency - noLoadLatency) / 1000;
+        }
+
+        if (latency > noLoadLatency * tolerance) {
+            if (samplesSinceDecrease >= limit) {
+                limit = Math.max(min, limit * BACKOFF_RATIO);
+                samplesSinceDecrease = 0;
+            }
+        } else if (++samplesSinceIncrease >= limit) {
+            limit = Math.min(max, limit + 1);
+            samplesSinceIncrease = 0;
+        }
+    }
+
+    /**
+     * @return the current limit
+     */
+    synchronized long get() {
+        return (long) limit;
+    }
+
+    /**
+     * @return the latency of the last acknowledged message, in nanoseconds
+     */
+    synchronized long getLastLatency() {
+        return lastLatency;
+    }
+}
@@ -0,0 +1,212 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * Registers the metrics of a channel in the metric registry, if available, and unregisters them on close.
+ * Without metric registry, this class does nothing.
+ * <p>
+ * Several objects can register the same metric, for example the consumers of a channel when a partition moves from
+ * one consumer to another during a rebalance, in any order. The registrations are counted, and the metric is only
+ * unregistered when all the objects having registered it have removed it. A gauge reports the value of the last
+ * registration still active.
+ */
+public class ChannelMetrics {
+
+    /**
+     * The registrations of each metric, per registry. Guarded by itself.
+     */
+    private static final Map<MetricRegistry, Map<MetricID, List<Registration>>> REGISTRATIONS = new IdentityHashMap<>();
+
+    private final MetricRegistry registry;
+    private final Tag[] tags;
+    private final Map<MetricID, Registration> registered = new ConcurrentHashMap<>();
+
+    public ChannelMetrics(MetricRegistry registry, Tag... tags) {
+        this.registry = registry;
+        this.tags = tags;
+    }
+
+    /**
+     * Registers a gauge.
+     *
+     * @param name the metric name
+     * @param description the metric description
+     * @param unit the unit, see {@link org.eclipse.microprofile.metrics.MetricUnits}
+     * @param supplier the supplier of the value, must be thread-safe
+     * @param extraTags tags added to the channel tags
+     */
+    public void gauge(String name, String description, String unit, Supplier<? extends Number> supplier,
+            Tag... extraTags) {
+        if (registry == null) {
+            return;
+        }
+        Tag[] actualTags = concat(extraTags);
+        MetricID id = new MetricID(name, actualTags);
+        Metadata metadata = Metadata.builder()
+                .withName(name)
+                .withDescription(description)
+                .withType(MetricType.GAUGE)
+                .withUnit(unit)
+                .build();
+        Registration registration = new Registration(supplier);
+        synchronized (REGISTRATIONS) {
+            List<Registration> registrations = registrations(id);
+            if (registrations.isEmpty()) {
+                Gauge<Number> gauge = () -> current(registrations);
+                try {
+                    registry.register(metadata, gauge, actualTags);
+                } catch (IllegalArgumentException e) {
+                    // Already registered by another component, keep the existing gauge
+                    cleanup(id, registrations);
+                    return;
+                }
+            }
+            registrations.add(registration);
+        }
+        replace(id, registration);
+    }
+
+    /**
+     * Gets or creates a histogram.
+     *
+     * @param name the metric name
+     * @param description the metric description
+     * @param unit the unit, see {@link org.eclipse.microprofile.metrics.MetricUnits}
+     * @param extraTags tags added to the channel tags
+     * @return the consumer recording values in the histogram, a no-op consumer without metric registry
+     */
+    public LongConsumer histogram(String name, String description, String unit, Tag... extraTags) {
+        if (registry == null) {
+            return value -> {
+            };
+        }
+        Tag[] actualTags = concat(extraTags);
+        MetricID id = new MetricID(name, actualTags);
+        Metadata metadata = Metadata.builder()
+                .withName(name)
+                .withDescription(description)
+                .withType(MetricType.HISTOGRAM)
+                .withUnit(unit)
+                .build();
+        Registration registration = new Registration(null);
+        Histogram histogram;
+        synchronized (REGISTRATIONS) {
+            histogram = registry.histogram(metadata, actualTags);
+            registrations(id).add(registration);
+        }
+        replace(id, registration);
+        return histogram::update;
+    }
+
+    /**
+     * Unregisters the metrics registered by this object having the given tags.
+     *
+     * @param extraTags the tags, in addition to the channel tags
+     */
+    public void remove(Tag... extraTags) {
+        if (registry == null) {
+            return;
+        }
+        List<Tag> expected = Arrays.asList(extraTags);
+        for (Map.Entry<MetricID, Registration> entry : registered.entrySet()) {
+            if (entry.getKey().getTagsAsList().containsAll(expected)
+                    && registered.remove(entry.getKey(), entry.getValue())) {
+                release(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Unregisters all the metrics registered by this object.
+     */
+    public void close() {
+        if (registry == null) {
+            return;
+        }
+        for (MetricID id : new ArrayList<>(registered.keySet())) {
+            Registration registration = registered.remove(id);
+            if (registration != null) {
+                release(id, registration);
+            }
+        }
+    }
+
+    private void replace(MetricID id, Registration registration) {
+        Registration previous = registered.put(id, registration);
+        if (previous != null) {
+            release(id, previous);
+        }
+    }
+
+    // Must be called while holding the lock
+    private List<Registration> registrations(MetricID id) {
+        return REGISTRATIONS.computeIfAbsent(registry, r -> new HashMap<>())
+                .computeIfAbsent(id, k -> new CopyOnWriteArrayList<>());
+    }
+
+    private void release(MetricID id, Registration registration) {
+        synchronized (REGISTRATIONS) {
+            Map<MetricID, List<Registration>> metrics = REGISTRATIONS.get(registry);
+            List<Registration> registrations = metrics == null ? null : metrics.get(id);
+            if (registrations != null && registrations.remove(registration) && registrations.isEmpty()) {
+                registry.remove(id);
+                cleanup(id, registrations);
+            }
+        }
+    }
+
+    // Must be called while holding the lock
+    private void cleanup(MetricID id, List<Registration> registrations) {
+        Map<MetricID, List<Registration>> metrics = REGISTRATIONS.get(registry);
+        if (metrics != null && registrations.isEmpty()) {
+            metrics.remove(id);
+            if (metrics.isEmpty()) {
+                REGISTRATIONS.remove(registry);
+            }
+        }
+    }
+
+    private static Number current(List<Registration> registrations) {
+        Object[] actual = registrations.toArray();
+        if (actual.length == 0) {
+            return null;
+        }
+        return ((Registration) actual[actual.length - 1]).supplier.get();
+    }
+
+    private Tag[] concat(Tag[] extraTags) {
+        if (extraTags.length == 0) {
+            return tags;
+        }
+        Tag[] result = new Tag[tags.length + extraTags.length];
+        System.arraycopy(tags, 0, result, 0, tags.length);
+        System.arraycopy(extraTags, 0, result, tags.length, extraTags.length);
+        return result;
+    }
+
+    private static final class Registration {
+        private final Supplier<? extends Number> supplier;
+
+        private Registration(Supplier<? extends Number> supplier) {
+            this.supplier = supplier;
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class ConfigurationCleaner {
             "health-enabled",
             "health-readiness-enabled",
             "health-readiness-timeout",
+            "health-readiness-refresh-interval",
 
             "tracing-enabled",
             "cloud-events");
@@ -25,6 +26,12 @@ public class ConfigurationCleaner {
             "partition",
             "waitForWriteCompletion",
             "max-inflight-messages",
+            "producer-instances",
+            "adaptive-inflight",
+            "adaptive-inflight.min",
+            "adaptive-inflight.latency-tolerance",
+            "transaction-batch-size",
+            "transaction-batch-timeout",
             "cloud-events-source",
             "cloud-events-type",
             "cloud-events-subject",
@@ -53,8 +60,31 @@ public class ConfigurationCleaner {
             "dead-letter-queue.topic",
             "dead-letter-queue.key.serializer",
             "dead-letter-queue.value.serializer",
+            "delayed-retry-topic.delays",
+            "delayed-retry-topic.topics",
             "partitions",
             "consumer-rebalance-listener.name",
+            "lazy-deserialization",
+            "partition-metrics-enabled",
+            "partition-metrics-interval",
+            "table",
+            "shared-consumer",
+            "shared-consumer.header",
+            "shared-consumer.buffer-size",
+            "dedicated-poll-thread",
+            "dedicated-poll-thread.buffer-size",
+            "autoscaling",
+            "autoscaling.min-consumers",
+            "autoscaling.max-consumers",
+            "autoscaling.interval",
+            "autoscaling.scale-up-lag",
+            "autoscaling.scale-down-lag",
+            "autoscaling.stabilization-window",
+            "filter.headers",
+            "filter.key-prefix",
+            "filter.topics",
+            "checkpoint.store",
+            "checkpoint.directory",
 
             // Remove most common attributes, may have been configured from the default config
             "key.serializer",
@@ -0,0 +1,68 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import java.util.function.Supplier;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Holds the raw value of a Kafka record consumed with {@code lazy-deserialization} enabled.
+ * The value is deserialized using the configured {@code value.deserializer} on first access, and the result is
+ * cached. Until then, the raw bytes can be forwarded as-is.
+ * <p>
+ * It is also used to lazily decode the data of structured Cloud Events. In this case, there are no raw bytes to forward.
+ *
+ * @param <T> the type of the deserialized value
+ */
+public class DeferredPayload<T> {
+
+    private final byte[] raw;
+    private final Supplier<T> decoder;
+
+    private volatile boolean decoded;
+    private T value;
+
+    public DeferredPayload(String topic, Headers headers, byte[] raw, Deserializer<T> deserializer) {
+        this.raw = raw;
+        this.decoder = () -> raw == null ? null : deserializer.deserialize(topic, headers, raw);
+    }
+
+    /**
+     * Creates a deferred payload without raw value.
+     *
+     * @param decoder computes the value on first access
+     */
+    public DeferredPayload(Supplier<T> decoder) {
+        this.raw = null;
+        this.decoder = decoder;
+    }
+
+    /**
+     * @return the deserialized value, deserializing it if not already done.
+     */
+    public T get() {
+        if (!decoded) {
+            synchronized (this) {
+                if (!decoded) {
+                    value = decoder.get();
+                    decoded = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return whether the value has already been deserialized.
+     */
+    public boolean isDecoded() {
+        return decoded;
+    }
+
+    /**
+     * @return the raw value, as received from the broker, {@code null} if the payload has been created from a decoder.
+     */
+    public byte[] getRaw() {
+        return raw;
+    }
+}
@@ -0,0 +1,182 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.admin.KafkaAdminClient;
+
+/**
+ * Topic metadata of a Kafka cluster, shared by all the channels connecting to this cluster.
+ * <p>
+ * A single admin client is created per cluster (identified by the admin configuration of the channels). The list of
+ * topics is retrieved asynchronously when the metadata is created, and then refreshed periodically in the background.
+ * So, the creation of the channels and the readiness health checks never wait for the cluster.
+ * <p>
+ * Instances are reference counted: each channel acquires the metadata of its cluster, and releases it on close.
+ * The admin client is closed when the last channel releases it.
+ */
+public class KafkaClusterMetadata {
+
+    private static final Map<ClusterKey, KafkaClusterMetadata> CLUSTERS = new HashMap<>();
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final ClusterKey key;
+    private final KafkaAdminClient admin;
+    private final Vertx vertx;
+    private final long interval;
+    private final Duration timeout;
+    private final long timerId;
+
+    private int references;
+
+    private final AtomicReference<Set<String>> topics = new AtomicReference<>(Collections.emptySet());
+    private volatile long lastRefresh = -1;
+    private volatile Throwable lastFailure;
+
+    private KafkaClusterMetadata(Vertx vertx, ClusterKey key, long interval, long timeout) {
+        this.vertx = vertx;
+        this.key = key;
+        this.interval = interval;
+        this.timeout = Duration.ofMillis(timeout);
+        Map<String, String> configuration = new HashMap<>(key.configuration);
+        configuration.put(AdminClientConfig.CLIENT_ID_CONFIG, "kafka-admin-shared-" + COUNTER.incrementAndGet());
+        this.admin = KafkaAdminClient.create(vertx, configuration);
+        refresh();
+        this.timerId = vertx.setPeriodic(interval, x -> refresh());
+    }
+
+    /**
+     * Gets the metadata of the cluster targeted by the given configuration, creating it if needed.
+     * The returned object must be released using {@link #release()}.
+     *
+     * @param vertx the Vert.x instance
+     * @param kafkaConfiguration the Kafka configuration of the channel
+     * @param interval the refresh interval in milliseconds, only used when the metadata is created
+     * @param timeout the timeout of the admin requests in milliseconds, only used when the metadata is created
+     * @return the cluster metadata
+     */
+    public static KafkaClusterMetadata acquire(Vertx vertx, Map<String, ?> kafkaConfiguration, long interval,
+            long timeout) {
+        Map<String, String> configuration = new HashMap<>();
+        for (Map.Entry<String, ?> entry : kafkaConfiguration.entrySet()) {
+            if (AdminClientConfig.configNames().contains(entry.getKey())
+                    && !AdminClientConfig.CLIENT_ID_CONFIG.equals(entry.getKey())) {
+                configuration.put(entry.getKey(), entry.getValue().toString());
+            }
+        }
+        ClusterKey key = new ClusterKey(vertx, configuration);
+        synchronized (CLUSTERS) {
+            KafkaClusterMetadata metadata = CLUSTERS.computeIfAbsent(key,
+                    k -> new KafkaClusterMetadata(vertx, k, interval, timeout));
+            metadata.references++;
+            return metadata;
+        }
+    }
+
+    /**
+     * Releases this metadata. The admin client is closed when the metadata is no longer used.
+     */
+    public void release() {
+        synchronized (CLUSTERS) {
+            if (--references > 0) {
+                return;
+            }
+            CLUSTERS.remove(key);
+        }
+        vertx.cancelTimer(timerId);
+        admin.closeAndAwait(timeout.toMillis());
+    }
+
+    private void refresh() {
+        admin.listTopics()
+                .ifNoItem().after(timeout).fail()
+                .subscribe().with(this::onTopics, failure -> lastFailure = failure);
+    }
+
+    /**
+     * Records that the given topic exists, for example because a record has been received from it, so the readiness
+     * checks do not wait for the next refresh to find it.
+     *
+     * @param topic the topic name
+     */
+    public void topicExists(String topic) {
+        Set<String> current = topics.get();
+        while (!current.contains(topic)) {
+            Set<String> updated = new HashSet<>(current);
+            updated.add(topic);
+            if (topics.compareAndSet(current, updated)) {
+                return;
+            }
+            current = topics.get();
+        }
+    }
+
+    private void onTopics(Set<String> names) {
+        topics.set(names);
+        lastRefresh = System.currentTimeMillis();
+        lastFailure = null;
+    }
+
+    /**
+     * @return whether the topic list has been retrieved recently (within 3 refresh intervals)
+     */
+    public boolean isAvailable() {
+        return lastRefresh > 0 && System.currentTimeMillis() - lastRefresh <= 3 * interval;
+    }
+
+    /**
+     * @return the last retrieved list of topics
+     */
+    public Set<String> getTopics() {
+        return topics.get();
+    }
+
+    /**
+     * @return the failure of the last refresh, {@code null} if the last refresh succeeded
+     */
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * @return the shared admin client
+     */
+    public KafkaAdminClient getAdmin() {
+        return admin;
+    }
+
+    /**
+     * Identifies a cluster: the admin configuration (without client id) and the Vert.x instance used by the channel.
+     */
+    private static final class ClusterKey {
+        private final io.vertx.core.Vertx vertx;
+        private final Map<String, String> configuration;
+
+        private ClusterKey(Vertx vertx, Map<String, String> configuration) {
+            this.vertx = vertx.getDelegate();
+            this.configuration = configuration;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClusterKey)) {
+                return false;
+            }
+            ClusterKey that = (ClusterKey) o;
+            return vertx == that.vertx && configuration.equals(that.configuration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(vertx), configuration);
+        }
+    }
+}
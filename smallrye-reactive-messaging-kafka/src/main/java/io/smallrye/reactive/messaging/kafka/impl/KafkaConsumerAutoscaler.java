@@ -0,0 +1,340 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.eclipse.microprofile.metrics.MetricUnits;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.UnicastProcessor;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+
+/**
+ * Adapts the number of Kafka consumers of a channel to the lag of its consumer group.
+ * <p>
+ * The channel starts with {@code autoscaling.min-consumers} consumers. Every {@code autoscaling.interval}, the lag of
+ * the consumer group (the difference between the end offsets and the committed offsets of the partitions) and the
+ * processing throughput (the progression of the committed offsets) are retrieved using a probe consumer, which does
+ * not join the group. A consumer is added when the lag per consumer exceeds {@code autoscaling.scale-up-lag} and the
+ * lag is not decreasing, and a consumer is removed when the lag per consumer goes below
+ * {@code autoscaling.scale-down-lag}. A decision is only applied once it has been taken for
+ * {@code autoscaling.stabilization-window} consecutive evaluations, and the window restarts after each scaling, so the
+ * number of consumers does not oscillate. The number of consumers never exceeds the number of partitions.
+ * <p>
+ * Each consumer is a {@link KafkaSource} whose stream is merged in the channel stream. Removing a consumer completes its
+ * stream and closes it, its partitions are then re-assigned to the remaining consumers. The records of the removed
+ * consumer which have not been committed are consumed again by the new owner of the partitions.
+ */
+public class KafkaConsumerAutoscaler<K, V> {
+
+    /**
+     * The maximum number of consumers merged concurrently.
+     */
+    private static final int MAX_CONCURRENCY = 256;
+    // Emitted by the stop signal of a lane to complete the stream of its consumer
+    private static final Object STOP = new Object();
+
+    private final String channel;
+    private final Set<String> topics;
+    private final Consumer<?, ?> probe;
+    private final IntFunction<KafkaSource<K, V>> factory;
+    private final java.util.function.Consumer<KafkaSource<K, V>> onRemoved;
+    private final ChannelMetrics metrics;
+    private final int minConsumers;
+    private final int configuredMaxConsumers;
+    private final long interval;
+    private final long scaleUpLag;
+    private final long scaleDownLag;
+    private final int window;
+    private final Multi<IncomingKafkaRecord<K, V>> stream;
+    private final UnicastProcessor<Multi<IncomingKafkaRecord<K, V>>> lanes = UnicastProcessor.create();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong scaleUps = new AtomicLong();
+    private final AtomicLong scaleDowns = new AtomicLong();
+
+    private volatile long lag = -1;
+    private volatile double throughput;
+    private volatile int maxConsumers;
+
+    // Guarded by this
+    private final Deque<Lane> active = new ArrayDeque<>();
+    private int index;
+    private boolean started;
+    private boolean closed;
+    private long previousLag = -1;
+    private int upVotes;
+    private int downVotes;
+
+    // Only accessed from the scheduler thread
+    private long previousCommitted = -1;
+    private long previousTime;
+
+    public KafkaConsumerAutoscaler(String consumerGroup, KafkaConnectorIncomingConfiguration config,
+            IntFunction<KafkaSource<K, V>> factory, java.util.function.Consumer<KafkaSource<K, V>> onRemoved,
+            ChannelMetrics metrics) {
+        this(config, createProbe(consumerGroup, config), factory, onRemoved, metrics);
+    }
+
+    KafkaConsumerAutoscaler(KafkaConnectorIncomingConfiguration config, Consumer<?, ?> probe,
+            IntFunction<KafkaSource<K, V>> factory, java.util.function.Consumer<KafkaSource<K, V>> onRemoved,
+            ChannelMetrics metrics) {
+        this.channel = config.getChannel();
+        this.probe = probe;
+        this.factory = factory;
+        this.onRemoved = onRemoved;
+        this.metrics = metrics;
+        this.minConsumers = config.getAutoscalingMinConsumers();
+        this.configuredMaxConsumers = config.getAutoscalingMaxConsumers().orElse(Integer.MAX_VALUE);
+        this.interval = config.getAutoscalingInterval();
+        this.scaleUpLag = config.getAutoscalingScaleUpLag();
+        this.scaleDownLag = config.getAutoscalingScaleDownLag();
+        this.window = config.getAutoscalingStabilizationWindow();
+        validate(config);
+        this.topics = KafkaSource.getTopics(config);
+        this.maxConsumers = Math.min(configuredMaxConsumers, MAX_CONCURRENCY);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kafka-autoscaler-" + channel);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        metrics.gauge("mp.messaging.kafka.autoscaling.consumers", "The number of consumers of the channel",
+                MetricUnits.NONE, this::getConsumers);
+        metrics.gauge("mp.messaging.kafka.autoscaling.lag",
+                "The lag of the consumer group of the channel, as observed by the last evaluation",
+                MetricUnits.NONE, () -> lag);
+        metrics.gauge("mp.messaging.kafka.autoscaling.throughput",
+                "The number of records committed per second, as observed by the last evaluation",
+                MetricUnits.PER_SECOND, () -> throughput);
+        metrics.gauge("mp.messaging.kafka.autoscaling.scale-ups", "The number of consumers added by the autoscaler",
+                MetricUnits.NONE, scaleUps::get);
+        metrics.gauge("mp.messaging.kafka.autoscaling.scale-downs",
+                "The number of consumers removed by the autoscaler", MetricUnits.NONE, scaleDowns::get);
+
+        this.stream = lanes
+                .onItem().transformToMulti(m -> m).merge(MAX_CONCURRENCY)
+                .onSubscribe().invoke(s -> start());
+    }
+
+    private void validate(KafkaConnectorIncomingConfiguration config) {
+        if (config.getPattern()) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel, "`pattern` is not supported");
+        }
+        // The number of consumers is managed by the autoscaler
+        if (config.getPartitions() != 1) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel,
+                    "`partitions` is not supported, use `autoscaling.min-consumers` and `autoscaling.max-consumers`");
+        }
+        if (config.getDedicatedPollThread()) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel, "`dedicated-poll-thread` is not supported");
+        }
+        if (minConsumers < 1) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel, "`autoscaling.min-consumers` must be at least 1");
+        }
+        if (configuredMaxConsumers < minConsumers) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel,
+                    "`autoscaling.max-consumers` must be greater than or equal to `autoscaling.min-consumers`");
+        }
+        if (interval <= 0 || window < 1) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel,
+                    "`autoscaling.interval` and `autoscaling.stabilization-window` must be strictly positive");
+        }
+        if (scaleDownLag >= scaleUpLag) {
+            throw ex.illegalArgumentInvalidAutoscaling(channel,
+                    "`autoscaling.scale-down-lag` must be lower than `autoscaling.scale-up-lag`");
+        }
+    }
+
+    private static Consumer<?, ?> createProbe(String consumerGroup, KafkaConnectorIncomingConfiguration config) {
+        Map<String, String> configuration = KafkaSource.getConsumerConfiguration(config, consumerGroup, -1);
+        // The probe only reads the offsets, it never subscribes, so it does not join the group
+        configuration.put(ConsumerConfig.CLIENT_ID_CONFIG, "kafka-consumer-" + config.getChannel() + "-autoscaler");
+        configuration.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        ConfigurationCleaner.cleanupConsumerConfiguration(configuration);
+        return new KafkaConsumer<>(new HashMap<>(configuration));
+    }
+
+    public Multi<IncomingKafkaRecord<K, V>> getStream() {
+        return stream;
+    }
+
+    private synchronized void start() {
+        if (started || closed) {
+            return;
+        }
+        started = true;
+        for (int i = 0; i < minConsumers; i++) {
+            addConsumer();
+        }
+        scheduler.scheduleWithFixedDelay(this::evaluate, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retrieves the lag of the consumer group, and scales the consumers accordingly.
+     * Called from the scheduler thread.
+     */
+    void evaluate() {
+        try {
+            Set<TopicPartition> partitions = new HashSet<>();
+            for (String topic : topics) {
+                List<PartitionInfo> infos = probe.partitionsFor(topic);
+                if (infos != null) {
+                    infos.forEach(i -> partitions.add(new TopicPartition(i.topic(), i.partition())));
+                }
+            }
+            if (partitions.isEmpty()) {
+                return;
+            }
+            maxConsumers = Math.max(minConsumers, Math.min(configuredMaxConsumers,
+                    Math.min(partitions.size(), MAX_CONCURRENCY)));
+
+            Map<TopicPartition, Long> end = probe.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = probe.committed(partitions);
+            Set<TopicPartition> notCommitted = new HashSet<>();
+            for (TopicPartition partition : partitions) {
+                if (committed.get(partition) == null) {
+                    notCommitted.add(partition);
+                }
+            }
+            // Without committed offset, the whole partition is considered as lag
+            Map<TopicPartition, Long> beginning = notCommitted.isEmpty() ? Collections.emptyMap()
+                    : probe.beginningOffsets(notCommitted);
+
+            long totalLag = 0;
+            long totalCommitted = 0;
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                long position = offset != null ? offset.offset() : beginning.getOrDefault(partition, 0L);
+                totalLag += Math.max(0, end.getOrDefault(partition, position) - position);
+                totalCommitted += position;
+            }
+
+            long now = System.nanoTime();
+            if (previousCommitted >= 0 && now > previousTime) {
+                throughput = Math.max(0, totalCommitted - previousCommitted) * 1_000_000_000.0 / (now - previousTime);
+            }
+            previousCommitted = totalCommitted;
+            previousTime = now;
+            lag = totalLag;
+
+            decide(totalLag);
+        } catch (Exception e) {
+            log.unableToRetrieveAutoscalingLag(channel, e);
+        }
+    }
+
+    /**
+     * Applies the scaling rules for the given lag.
+     *
+     * @param totalLag the lag of the consumer group
+     */
+    synchronized void decide(long totalLag) {
+        if (closed) {
+            return;
+        }
+        int current = active.size();
+        long lagPerConsumer = totalLag / Math.max(1, current);
+        // The lag is decreasing, the current consumers are catching up
+        boolean catchingUp = previousLag >= 0 && totalLag < previousLag;
+        previousLag = totalLag;
+
+        if (current < maxConsumers && lagPerConsumer > scaleUpLag && !catchingUp) {
+            upVotes++;
+            downVotes = 0;
+        } else if (current > minConsumers && lagPerConsumer < scaleDownLag) {
+            downVotes++;
+            upVotes = 0;
+        } else {
+            upVotes = 0;
+            downVotes = 0;
+        }
+
+        if (upVotes >= window) {
+            upVotes = 0;
+            log.scalingUpConsumers(channel, current, current + 1, totalLag, throughput);
+            addConsumer();
+            scaleUps.incrementAndGet();
+        } else if (downVotes >= window) {
+            downVotes = 0;
+            log.scalingDownConsumers(channel, current, current - 1, totalLag, throughput);
+            removeConsumer();
+            scaleDowns.incrementAndGet();
+        }
+    }
+
+    private void addConsumer() {
+        KafkaSource<K, V> source = factory.apply(index++);
+        UnicastProcessor<Object> stop = UnicastProcessor.create();
+        active.push(new Lane(source, stop));
+        // The stream of the consumer completes once the stop signal is received
+        Multi<Object> records = source.getStream().onItem().transform(r -> r);
+        Multi<Object> signals = Multi.createBy().merging().streams(records, stop);
+        lanes.onNext(signals
+                .transform().byTakingItemsWhile(item -> item != STOP)
+                .onItem().transform(this::cast));
+    }
+
+    @SuppressWarnings("unchecked")
+    private IncomingKafkaRecord<K, V> cast(Object item) {
+        return (IncomingKafkaRecord<K, V>) item;
+    }
+
+    private void removeConsumer() {
+        Lane lane = active.pop();
+        // Completes the stream of the consumer, before closing it
+        lane.stop.onNext(STOP);
+        lane.stop.onComplete();
+        lane.source.closeQuietly();
+        onRemoved.accept(lane.source);
+    }
+
+    /**
+     * @return the current number of consumers
+     */
+    public synchronized int getConsumers() {
+        return active.size();
+    }
+
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            probe.close();
+        } catch (Throwable e) {
+            log.exceptionOnClose(e);
+        }
+        metrics.close();
+    }
+
+    private class Lane {
+        private final KafkaSource<K, V> source;
+        private final UnicastProcessor<Object> stop;
+
+        private Lane(KafkaSource<K, V> source, UnicastProcessor<Object> stop) {
+            this.source = source;
+            this.stop = stop;
+        }
+    }
+}
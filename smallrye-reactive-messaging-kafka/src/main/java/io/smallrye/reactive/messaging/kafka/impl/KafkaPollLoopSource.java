@@ -0,0 +1,630 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.Subscriptions;
+import io.smallrye.reactive.messaging.health.HealthReport;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaCDIEvents;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.commit.KafkaCommitHandler;
+import io.smallrye.reactive.messaging.kafka.commit.KafkaIgnoreCommit;
+import io.smallrye.reactive.messaging.kafka.commit.KafkaThrottledLatestProcessedCommit.TooManyMessagesWithoutAckException;
+import io.smallrye.reactive.messaging.kafka.fault.KafkaFailureHandler;
+import io.smallrye.reactive.messaging.kafka.fault.KafkaIgnoreFailure;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
+
+/**
+ * An alternative to {@link KafkaSource} consuming the records using the Apache Kafka consumer directly, from a
+ * dedicated poll thread, instead of the Vert.x Kafka client.
+ * <p>
+ * The records returned by a poll are emitted from the poll thread, without being dispatched to a Vert.x context. The
+ * records exceeding the downstream demand are buffered and, once the buffer is full, the assigned partitions are paused
+ * until the buffer is drained. The consumer keeps polling while paused, so it stays in the consumer group.
+ * <p>
+ * The consumer is only used from the poll thread: the acknowledgements are queued, and the offsets are committed by the
+ * poll loop between two polls. Depending on the commit strategy, the committed offset is the latest acknowledged offset
+ * ({@code latest}, committed after each poll) or the offset of the latest record for which all the previous records
+ * have been acknowledged ({@code throttled}, committed every {@code auto.commit.interval.ms}). With the
+ * {@code throttled} strategy, the channel is reported as not alive once a record has been waiting for its
+ * acknowledgement for more than {@code throttled.unprocessed-record-max-age.ms}.
+ */
+public class KafkaPollLoopSource<K, V> {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private final String channel;
+    private final String consumerGroup;
+    private final String threadName;
+    private final Consumer<K, V> consumer;
+    private final Set<String> topics;
+    private final Pattern pattern;
+    private final KafkaCommitHandler.Strategy commitStrategy;
+    private final boolean committedByConsumer;
+    private final long commitInterval;
+    private final int unprocessedRecordMaxAge;
+    private final int bufferSize;
+    private final KafkaRecordFilter filter;
+    private final boolean isCloudEventEnabled;
+    private final boolean isTracingEnabled;
+    private final boolean isHealthEnabled;
+    private final boolean isReadinessEnabled;
+    private final KafkaClusterMetadata cluster;
+    private final KafkaCommitHandler commitHandler;
+    private final KafkaFailureHandler failureHandler;
+    private final List<Throwable> failures = new ArrayList<>();
+    private final Multi<IncomingKafkaRecord<K, V>> stream;
+
+    private final Queue<IncomingKafkaRecord<?, ?>> acknowledged = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Subscriber<? super IncomingKafkaRecord<K, V>> downstream;
+    private volatile Thread thread;
+    private volatile boolean waitingForDemand;
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+    /**
+     * When the oldest record not acknowledged yet has been received, -1 if none (or not tracked).
+     */
+    private volatile long oldestPendingReceivedAt = -1;
+    private volatile Throwable fatal;
+
+    // Only accessed from the poll thread
+    private final Deque<ConsumerRecord<K, V>> buffer = new ArrayDeque<>();
+    private final Map<TopicPartition, OffsetTracker> offsets = new HashMap<>();
+    private boolean paused;
+    private long lastCommit = System.currentTimeMillis();
+
+    public KafkaPollLoopSource(Vertx vertx,
+            String consumerGroup,
+            KafkaConnectorIncomingConfiguration config,
+            KafkaCDIEvents kafkaCDIEvents, int index) {
+        this(vertx, consumerGroup, config, index, configuration -> {
+            KafkaConsumer<K, V> consumer = new KafkaConsumer<>(new HashMap<>(configuration));
+            // fire consumer event (e.g. bind metrics)
+            kafkaCDIEvents.consumer().fire(consumer);
+            return consumer;
+        });
+    }
+
+    KafkaPollLoopSource(Vertx vertx,
+            String consumerGroup,
+            KafkaConnectorIncomingConfiguration config,
+            int index,
+            Function<Map<String, String>, Consumer<K, V>> consumerFactory) {
+        this.channel = config.getChannel();
+        this.consumerGroup = consumerGroup;
+        validate(config);
+
+        topics = KafkaSource.getTopics(config);
+        if (config.getPattern()) {
+            pattern = Pattern.compile(config.getTopic()
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid Kafka incoming configuration for channel `"
+                            + channel + "`, `pattern` must be used with the `topic` attribute")));
+            log.configuredPattern(channel, pattern.toString());
+        } else {
+            log.configuredTopics(channel, topics);
+            pattern = null;
+        }
+
+        isCloudEventEnabled = config.getCloudEvents();
+        isTracingEnabled = config.getTracingEnabled();
+        isHealthEnabled = config.getHealthEnabled();
+        isReadinessEnabled = config.getHealthReadinessEnabled();
+        bufferSize = config.getDedicatedPollThreadBufferSize();
+        filter = KafkaRecordFilter.create(config);
+        threadName = "kafka-poll-loop-" + channel + (index == -1 ? "" : "-" + index);
+
+        Map<String, String> kafkaConfiguration = KafkaSource.getConsumerConfiguration(config, consumerGroup, index);
+        String strategy = KafkaSource.getCommitStrategy(config, kafkaConfiguration);
+        commitStrategy = KafkaCommitHandler.Strategy.from(strategy);
+        committedByConsumer = KafkaSource.isCommittedByConsumer(strategy, kafkaConfiguration);
+        commitInterval = Long.parseLong(kafkaConfiguration
+                .getOrDefault(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, "5000"));
+        unprocessedRecordMaxAge = commitStrategy == KafkaCommitHandler.Strategy.THROTTLED
+                ? config.getThrottledUnprocessedRecordMaxAgeMs()
+                : 0;
+        ConfigurationCleaner.cleanupConsumerConfiguration(kafkaConfiguration);
+
+        if (commitStrategy == KafkaCommitHandler.Strategy.CHECKPOINT) {
+            throw ex.illegalArgumentUnsupportedWithDedicatedPollThread(channel, "commit-strategy=checkpoint");
+        }
+        log.commitStrategyForChannel(commitStrategy.name().toLowerCase(), channel);
+        if (commitStrategy == KafkaCommitHandler.Strategy.IGNORE) {
+            commitHandler = new KafkaIgnoreCommit();
+        } else {
+            commitHandler = new PollLoopCommit();
+        }
+        if (KafkaFailureHandler.Strategy.from(config.getFailureStrategy()) == KafkaFailureHandler.Strategy.IGNORE) {
+            failureHandler = new KafkaIgnoreFailure(channel);
+        } else {
+            failureHandler = new PollLoopFailStop();
+        }
+
+        if (isHealthEnabled && isReadinessEnabled) {
+            // Do not retrieve the cluster metadata if the readiness health checks are disabled
+            this.cluster = KafkaClusterMetadata.acquire(vertx, kafkaConfiguration,
+                    config.getHealthReadinessRefreshInterval(), config.getHealthReadinessTimeout());
+        } else {
+            this.cluster = null;
+        }
+
+        this.consumer = consumerFactory.apply(kafkaConfiguration);
+        Publisher<IncomingKafkaRecord<K, V>> publisher = this::subscribe;
+        this.stream = Multi.createFrom().publisher(publisher);
+    }
+
+    private void validate(KafkaConnectorIncomingConfiguration config) {
+        if (config.getLazyDeserialization()) {
+            throw ex.illegalArgumentUnsupportedWithDedicatedPollThread(channel, "lazy-deserialization");
+        }
+        if (config.getPartitionMetricsEnabled()) {
+            throw ex.illegalArgumentUnsupportedWithDedicatedPollThread(channel, "partition-metrics-enabled");
+        }
+        if (config.getConsumerRebalanceListenerName().isPresent()) {
+            throw ex.illegalArgumentUnsupportedWithDedicatedPollThread(channel, "consumer-rebalance-listener.name");
+        }
+        KafkaFailureHandler.Strategy strategy = KafkaFailureHandler.Strategy.from(config.getFailureStrategy());
+        if (strategy != KafkaFailureHandler.Strategy.FAIL && strategy != KafkaFailureHandler.Strategy.IGNORE) {
+            throw ex.illegalArgumentUnsupportedWithDedicatedPollThread(channel,
+                    "failure-strategy=" + config.getFailureStrategy());
+        }
+    }
+
+    public Multi<IncomingKafkaRecord<K, V>> getStream() {
+        return stream;
+    }
+
+    private void subscribe(Subscriber<? super IncomingKafkaRecord<K, V>> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            Subscriptions.fail(subscriber, new IllegalStateException(
+                    "The channel `" + channel + "` only supports a single subscriber"));
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    reportFailure(Subscriptions.getInvalidRequestException(), true);
+                    return;
+                }
+                Subscriptions.add(requested, n);
+                if (waitingForDemand) {
+                    // Interrupt the current poll, so the buffered records are emitted immediately
+                    consumer.wakeup();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                closed = true;
+                consumer.wakeup();
+            }
+        });
+
+        if (!closed) {
+            log.startingPollLoop(channel);
+            Thread t = new Thread(this::run, threadName);
+            t.setDaemon(true);
+            thread = t;
+            t.start();
+        }
+    }
+
+    /**
+     * The poll loop, executed on the dedicated thread.
+     */
+    private void run() {
+        try {
+            ConsumerRebalanceListener listener = new PollLoopRebalanceListener();
+            if (pattern != null) {
+                consumer.subscribe(pattern, listener);
+            } else {
+                consumer.subscribe(topics, listener);
+            }
+
+            while (!closed && fatal == null) {
+                emit();
+                applyBackPressure();
+                commit(false);
+                try {
+                    ConsumerRecords<K, V> records = consumer.poll(POLL_TIMEOUT);
+                    for (ConsumerRecord<K, V> record : records) {
+                        boolean dispatched = filter == null || filter.test(record);
+                        if (commitStrategy != KafkaCommitHandler.Strategy.IGNORE) {
+                            OffsetTracker tracker = offsets.computeIfAbsent(
+                                    new TopicPartition(record.topic(), record.partition()),
+                                    tp -> new OffsetTracker(commitStrategy == KafkaCommitHandler.Strategy.THROTTLED));
+                            tracker.received(record.offset());
+                            if (!dispatched) {
+                                // Discarded records are acknowledged right away
+                                tracker.acknowledged(record.offset());
+                            }
+                        }
+                        if (dispatched) {
+                            buffer.add(record);
+                        }
+                    }
+                } catch (WakeupException e) {
+                    // Woken up by a request, a cancellation or a failure, the loop condition decides.
+                }
+            }
+
+            if (fatal == null) {
+                commit(true);
+            }
+        } catch (Throwable t) {
+            if (!closed) {
+                log.pollLoopFailure(channel, t);
+                reportFailure(t, true);
+            }
+        } finally {
+            try {
+                consumer.close();
+            } catch (Throwable e) {
+                log.exceptionOnClose(e);
+            }
+            Throwable failure = fatal;
+            if (failure != null && !closed) {
+                downstream.onError(failure);
+            } else if (failure == null && !cancelled) {
+                downstream.onComplete();
+            }
+        }
+    }
+
+    /**
+     * Emits the buffered records, as long as the downstream requests them.
+     */
+    private void emit() {
+        while (!buffer.isEmpty() && !closed && fatal == null) {
+            long r = requested.get();
+            if (r == 0) {
+                waitingForDemand = true;
+                // Re-check, the demand may have changed concurrently before the flag is set
+                if (requested.get() == 0) {
+                    return;
+                }
+            }
+            waitingForDemand = false;
+            ConsumerRecord<K, V> record = buffer.poll();
+            if (r != Long.MAX_VALUE) {
+                requested.decrementAndGet();
+            }
+            IncomingKafkaRecord<K, V> message = new IncomingKafkaRecord<>(
+                    new KafkaConsumerRecord<>(new KafkaConsumerRecordImpl<>(record)), commitHandler, failureHandler,
+                    isCloudEventEnabled, isTracingEnabled, null, consumerGroup, committedByConsumer);
+            if (isTracingEnabled) {
+                KafkaSource.trace(message);
+            }
+            if (cluster != null) {
+                cluster.topicExists(record.topic());
+            }
+            downstream.onNext(message);
+        }
+        waitingForDemand = false;
+    }
+
+    /**
+     * Pauses all the assigned partitions when the buffer is full, and resumes them once half of it has been emitted.
+     */
+    private void applyBackPressure() {
+        if (!paused && buffer.size() >= bufferSize) {
+            log.pausingPollLoop(channel, buffer.size());
+            consumer.pause(consumer.assignment());
+            paused = true;
+        } else if (paused && buffer.size() <= bufferSize / 2) {
+            log.resumingPollLoop(channel);
+            consumer.resume(consumer.paused());
+            paused = false;
+        }
+    }
+
+    /**
+     * Applies the queued acknowledgements, and commits the resulting offsets.
+     *
+     * @param sync whether the offsets are committed synchronously, regardless of the commit interval
+     */
+    private void commit(boolean sync) {
+        applyAcknowledgements();
+        if (unprocessedRecordMaxAge > 0) {
+            oldestPendingReceivedAt = getOldestPendingReceivedAt();
+        }
+        if (commitStrategy == KafkaCommitHandler.Strategy.IGNORE) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!sync && commitStrategy == KafkaCommitHandler.Strategy.THROTTLED && now - lastCommit < commitInterval) {
+            return;
+        }
+        lastCommit = now;
+        Map<TopicPartition, OffsetAndMetadata> toCommit = getCommittableOffsets(offsets.keySet());
+        if (toCommit.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            try {
+                consumer.commitSync(toCommit);
+            } catch (KafkaException e) {
+                log.unableToCommitPollLoopOffsets(toCommit.toString(), channel, e);
+            }
+        } else {
+            consumer.commitAsync(toCommit, (committed, failure) -> {
+                if (failure != null) {
+                    log.unableToCommitPollLoopOffsets(committed.toString(), channel, failure);
+                }
+            });
+        }
+    }
+
+    private void applyAcknowledgements() {
+        IncomingKafkaRecord<?, ?> record;
+        while ((record = acknowledged.poll()) != null) {
+            OffsetTracker tracker = offsets.get(new TopicPartition(record.getTopic(), record.getPartition()));
+            // The partition may have been revoked in the meantime
+            if (tracker != null) {
+                tracker.acknowledged(record.getOffset());
+            }
+        }
+    }
+
+    private long getOldestPendingReceivedAt() {
+        long oldest = -1;
+        for (OffsetTracker tracker : offsets.values()) {
+            long receivedAt = tracker.getOldestPendingReceivedAt();
+            if (receivedAt != -1 && (oldest == -1 || receivedAt < oldest)) {
+                oldest = receivedAt;
+            }
+        }
+        return oldest;
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> getCommittableOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetTracker tracker = offsets.get(partition);
+            if (tracker != null && tracker.committable > tracker.committed) {
+                result.put(partition, new OffsetAndMetadata(tracker.committable));
+                tracker.committed = tracker.committable;
+            }
+        }
+        return result;
+    }
+
+    public synchronized void reportFailure(Throwable failure, boolean fatal) {
+        log.failureReported(topics, failure);
+        // Don't keep all the failures, there are only there for reporting.
+        if (failures.size() == 10) {
+            failures.remove(0);
+        }
+        failures.add(failure);
+
+        if (fatal && this.fatal == null) {
+            this.fatal = failure;
+            consumer.wakeup();
+        }
+    }
+
+    public void closeQuietly() {
+        closed = true;
+        Thread t = thread;
+        try {
+            if (t == null) {
+                // The poll loop has never been started
+                consumer.close();
+            } else {
+                consumer.wakeup();
+                t.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            log.exceptionOnClose(e);
+        }
+        if (cluster != null) {
+            try {
+                this.cluster.release();
+            } catch (Throwable e) {
+                log.exceptionOnClose(e);
+            }
+        }
+    }
+
+    public void isAlive(HealthReport.HealthReportBuilder builder) {
+        if (isHealthEnabled) {
+            List<Throwable> actualFailures;
+            synchronized (this) {
+                actualFailures = new ArrayList<>(failures);
+            }
+            long receivedAt = oldestPendingReceivedAt;
+            if (!actualFailures.isEmpty()) {
+                builder.add(channel, false,
+                        actualFailures.stream().map(Throwable::getMessage).collect(Collectors.joining()));
+            } else if (unprocessedRecordMaxAge > 0 && receivedAt != -1
+                    && System.currentTimeMillis() - receivedAt > unprocessedRecordMaxAge) {
+                builder.add(channel, false, new TooManyMessagesWithoutAckException().getMessage());
+            } else {
+                builder.add(channel, true);
+            }
+        }
+
+        // If health is disable do not add anything to the builder.
+    }
+
+    public void isReady(HealthReport.HealthReportBuilder builder) {
+        // The topics are retrieved from the cluster metadata cache, this method does not block.
+        if (isHealthEnabled && isReadinessEnabled) {
+            if (!cluster.isAvailable()) {
+                builder.add(channel, false, "No response from broker for channel "
+                        + channel + " : " + cluster.getLastFailure());
+            } else {
+                Set<String> existingTopics = cluster.getTopics();
+                if (pattern == null && existingTopics.containsAll(topics)) {
+                    builder.add(channel, true);
+                } else if (pattern != null) {
+                    // Check that at least one topic matches
+                    boolean ok = existingTopics.stream()
+                            .anyMatch(s -> pattern.matcher(s).matches());
+                    if (ok) {
+                        builder.add(channel, true);
+                    } else {
+                        builder.add(channel, false,
+                                "Unable to find a topic matching the given pattern: " + pattern);
+                    }
+                } else {
+                    String missing = topics.stream().filter(s -> !existingTopics.contains(s))
+                            .collect(Collectors.joining());
+                    builder.add(channel, false, "Unable to find topic(s): " + missing);
+                }
+            }
+        }
+
+        // If health is disable do not add anything to the builder.
+    }
+
+    /**
+     * Called on the poll thread, from {@link Consumer#poll(Duration)}.
+     */
+    private class PollLoopRebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            // Commit what has been processed before losing the partitions
+            applyAcknowledgements();
+            if (commitStrategy != KafkaCommitHandler.Strategy.IGNORE) {
+                Map<TopicPartition, OffsetAndMetadata> toCommit = getCommittableOffsets(partitions);
+                if (!toCommit.isEmpty()) {
+                    try {
+                        consumer.commitSync(toCommit);
+                    } catch (KafkaException e) {
+                        log.unableToCommitPollLoopOffsets(toCommit.toString(), channel, e);
+                    }
+                }
+            }
+            partitions.forEach(offsets::remove);
+            // The buffered records will be consumed by the new owner of the partitions
+            buffer.removeIf(r -> partitions.contains(new TopicPartition(r.topic(), r.partition())));
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            for (TopicPartition partition : partitions) {
+                offsets.putIfAbsent(partition, new OffsetTracker(commitStrategy == KafkaCommitHandler.Strategy.THROTTLED));
+            }
+            if (paused) {
+                consumer.pause(partitions);
+            }
+        }
+    }
+
+    /**
+     * Queues the acknowledged records, their offsets are committed by the poll loop.
+     */
+    private class PollLoopCommit implements KafkaCommitHandler {
+        @Override
+        public <K1, V1> CompletionStage<Void> handle(IncomingKafkaRecord<K1, V1> record) {
+            acknowledged.add(record);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Reports the failure, which stops the poll loop and fails the stream.
+     */
+    private class PollLoopFailStop implements KafkaFailureHandler {
+        @Override
+        public <K1, V1> CompletionStage<Void> handle(IncomingKafkaRecord<K1, V1> record, Throwable reason) {
+            // We don't commit, we just fail and stop the client.
+            log.messageNackedFailStop(channel);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(reason);
+            reportFailure(reason, true);
+            return future;
+        }
+    }
+
+    /**
+     * Tracks the offsets of a partition. Only accessed from the poll thread.
+     */
+    private static class OffsetTracker {
+        private final boolean ordered;
+        private final Deque<Long> received = new ArrayDeque<>();
+        private final Deque<Long> receivedAt = new ArrayDeque<>();
+        private final Set<Long> acknowledged = new HashSet<>();
+        private long committable = -1;
+        private long committed = -1;
+
+        private OffsetTracker(boolean ordered) {
+            this.ordered = ordered;
+        }
+
+        void received(long offset) {
+            if (ordered) {
+                received.addLast(offset);
+                receivedAt.addLast(System.currentTimeMillis());
+            }
+        }
+
+        void acknowledged(long offset) {
+            if (!ordered) {
+                committable = Math.max(committable, offset + 1);
+                return;
+            }
+            acknowledged.add(offset);
+            // Move forward while the oldest received records are acknowledged
+            while (!received.isEmpty() && acknowledged.remove(received.peekFirst())) {
+                committable = received.removeFirst() + 1;
+                receivedAt.removeFirst();
+            }
+        }
+
+        /**
+         * @return when the oldest record not acknowledged yet has been received, -1 if none
+         */
+        long getOldestPendingReceivedAt() {
+            Long first = receivedAt.peekFirst();
+            return first == null ? -1 : first;
+        }
+    }
+
+    /**
+     * For testing purpose only
+     *
+     * @return the underlying consumer.
+     */
+    Consumer<K, V> getConsumer() {
+        return consumer;
+    }
+}
@@ -0,0 +1,139 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+
+/**
+ * Selects the records dispatched by an incoming channel, using the {@code filter.*} attributes.
+ * <p>
+ * The conditions are evaluated on the consumed record, before the message is created and before the value is
+ * deserialized when {@code lazy-deserialization} is enabled. A record is dispatched only if it matches all the
+ * configured conditions. Other records are acknowledged by the source without being dispatched.
+ */
+public class KafkaRecordFilter implements Predicate<ConsumerRecord<?, ?>> {
+
+    private final Set<String> topics;
+    private final String keyPrefix;
+    private final byte[] keyPrefixBytes;
+    private final List<HeaderCondition> headers;
+
+    private KafkaRecordFilter(Set<String> topics, String keyPrefix, List<HeaderCondition> headers) {
+        this.topics = topics;
+        this.keyPrefix = keyPrefix;
+        this.keyPrefixBytes = keyPrefix == null ? null : keyPrefix.getBytes(StandardCharsets.UTF_8);
+        this.headers = headers;
+    }
+
+    /**
+     * Creates the filter of an incoming channel.
+     *
+     * @param config the channel configuration
+     * @return the filter, {@code null} if the channel does not configure any filter
+     */
+    public static KafkaRecordFilter create(KafkaConnectorIncomingConfiguration config) {
+        Optional<String> headers = config.getFilterHeaders();
+        Optional<String> keyPrefix = config.getFilterKeyPrefix();
+        Optional<String> topics = config.getFilterTopics();
+        if (!headers.isPresent() && !keyPrefix.isPresent() && !topics.isPresent()) {
+            return null;
+        }
+
+        List<HeaderCondition> conditions = new ArrayList<>();
+        headers.ifPresent(h -> {
+            for (String condition : split(h)) {
+                int index = condition.indexOf('=');
+                String name = index == -1 ? condition : condition.substring(0, index).trim();
+                if (name.isEmpty()) {
+                    throw ex.illegalArgumentInvalidFilter(config.getChannel(), "filter.headers", condition);
+                }
+                String value = index == -1 ? null : condition.substring(index + 1).trim();
+                conditions.add(new HeaderCondition(name, value));
+            }
+        });
+        Set<String> allowed = topics.map(t -> new HashSet<>(split(t))).orElse(null);
+        return new KafkaRecordFilter(allowed, keyPrefix.orElse(null), conditions);
+    }
+
+    private static List<String> split(String value) {
+        List<String> result = new ArrayList<>();
+        for (String s : value.split(",")) {
+            String trimmed = s.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param record the consumed record
+     * @return {@code true} if the record must be dispatched, {@code false} if it must be acknowledged and discarded
+     */
+    @Override
+    public boolean test(ConsumerRecord<?, ?> record) {
+        if (topics != null && !topics.contains(record.topic())) {
+            return false;
+        }
+        if (keyPrefix != null && !hasKeyPrefix(record.key())) {
+            return false;
+        }
+        for (HeaderCondition condition : headers) {
+            if (!condition.test(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasKeyPrefix(Object key) {
+        if (key == null) {
+            return false;
+        }
+        if (key instanceof byte[]) {
+            return startsWith((byte[]) key, keyPrefixBytes);
+        }
+        return key.toString().startsWith(keyPrefix);
+    }
+
+    private static boolean startsWith(byte[] value, byte[] prefix) {
+        if (value.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (value[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Requires a header to be present, and if a value is set, to have this (UTF-8) value.
+     */
+    private static class HeaderCondition {
+        private final String name;
+        private final byte[] value;
+
+        private HeaderCondition(String name, String value) {
+            this.name = name;
+            this.value = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        boolean test(ConsumerRecord<?, ?> record) {
+            for (Header header : record.headers().headers(name)) {
+                if (value == null || Arrays.equals(value, header.value())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
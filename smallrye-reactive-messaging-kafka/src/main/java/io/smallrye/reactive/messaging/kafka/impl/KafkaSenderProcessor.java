@@ -2,6 +2,7 @@ package io.smallrye.reactive.messaging.kafka.impl;
 
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
@@ -19,13 +20,29 @@ class KafkaSenderProcessor
     private final long inflights;
     private final boolean waitForCompletion;
     private final Function<Message<?>, Uni<Void>> send;
+    private final AdaptiveInflightLimit adaptiveLimit;
+    /**
+     * With an adaptive limit, the number of messages requested from upstream and not yet sent and acknowledged.
+     */
+    private final AtomicLong outstanding = new AtomicLong();
     private final AtomicReference<Subscription> subscription = new AtomicReference<>();
     private final AtomicReference<Subscriber<? super Message<?>>> downstream = new AtomicReference<>();
 
     public KafkaSenderProcessor(long inflights, boolean waitForCompletion, Function<Message<?>, Uni<Void>> send) {
+        this(inflights, waitForCompletion, send, null);
+    }
+
+    /**
+     * Creates a processor adapting the number of in-flight messages to the send latency.
+     * With an adaptive limit, messages are requested from upstream when the in-flight messages are acknowledged,
+     * even if {@code waitForCompletion} is {@code false}.
+     */
+    KafkaSenderProcessor(long inflights, boolean waitForCompletion, Function<Message<?>, Uni<Void>> send,
+            AdaptiveInflightLimit adaptiveLimit) {
         this.inflights = inflights;
         this.waitForCompletion = waitForCompletion;
         this.send = send;
+        this.adaptiveLimit = adaptiveLimit;
     }
 
     @Override
@@ -57,7 +74,20 @@ class KafkaSenderProcessor
 
     @Override
     public void onNext(Message<?> message) {
-        if (waitForCompletion) {
+        if (adaptiveLimit != null) {
+            // The limit is updated by the producers, with the latency of the broker
+            send.apply(message)
+                    .subscribe().with(x -> {
+                        if (waitForCompletion) {
+                            forward(message);
+                        }
+                        outstanding.decrementAndGet();
+                        refill();
+                    }, this::onError);
+            if (!waitForCompletion) {
+                forward(message);
+            }
+        } else if (waitForCompletion) {
             send.apply(message)
                     .subscribe().with(
                             x -> requestNext(message),
@@ -75,7 +105,31 @@ class KafkaSenderProcessor
         if (l != Long.MAX_VALUE) {
             throw ex.illegalStateConsumeWithoutBackPressure();
         }
-        subscription.get().request(inflights);
+        if (adaptiveLimit != null) {
+            refill();
+        } else {
+            subscription.get().request(inflights);
+        }
+    }
+
+    /**
+     * Requests messages from upstream until the number of outstanding messages reaches the current limit.
+     */
+    private void refill() {
+        long limit = adaptiveLimit.get();
+        while (true) {
+            long current = outstanding.get();
+            if (current >= limit) {
+                return;
+            }
+            if (outstanding.compareAndSet(current, limit)) {
+                Subscription up = this.subscription.get();
+                if (up != null) {
+                    up.request(limit - current);
+                }
+                return;
+            }
+        }
     }
 
     @Override
@@ -86,11 +140,15 @@ class KafkaSenderProcessor
         }
     }
 
-    private void requestNext(Message<?> message) {
+    private void forward(Message<?> message) {
         Subscriber<? super Message<?>> down = downstream.get();
         if (down != null) {
             down.onNext(message);
         }
+    }
+
+    private void requestNext(Message<?> message) {
+        forward(message);
         Subscription up = this.subscription.get();
         if (up != null && inflights != Long.MAX_VALUE) {
             up.request(1);
@@ -0,0 +1,433 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.header.Header;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.Subscriptions;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.vertx.kafka.client.common.TopicPartition;
+
+/**
+ * A Kafka consumer shared by several incoming channels.
+ * <p>
+ * The channels declaring the same {@code shared-consumer} are served by a single {@link KafkaSource}, configured with
+ * the configuration of the first channel, and subscribed to the topics (or patterns) of all the channels. Records are
+ * dispatched to the channel declaring their topic, or, if {@code shared-consumer.header} is set, to the channel named
+ * by the value of this header. As there is a single consumer, the offsets of all the channels are committed by the
+ * same commit handler.
+ * <p>
+ * Each channel has its own buffer, so a slow channel does not block the others: when the buffer of a channel reaches
+ * {@code shared-consumer.buffer-size} records, the partitions feeding this channel are paused, and resumed once the
+ * buffer is half drained.
+ * <p>
+ * The consumer is created on the first subscription, once all the channels have been registered.
+ */
+public class KafkaSharedConsumer {
+
+    private final String name;
+    private final Function<KafkaConnectorIncomingConfiguration, KafkaSource<Object, Object>> factory;
+    private final List<Member> members = new CopyOnWriteArrayList<>();
+    /**
+     * The channels which paused each partition. Guarded by this.
+     */
+    private final Map<TopicPartition, Set<Member>> pausedBy = new HashMap<>();
+
+    private KafkaConnectorIncomingConfiguration first;
+    private String header;
+    private volatile KafkaSource<Object, Object> source;
+    private volatile Throwable failure;
+    private volatile boolean completed;
+
+    /**
+     * Creates a new shared consumer.
+     *
+     * @param name the name of the shared consumer
+     * @param factory creates the source from the shared configuration
+     */
+    public KafkaSharedConsumer(String name,
+            Function<KafkaConnectorIncomingConfiguration, KafkaSource<Object, Object>> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * Registers a channel.
+     *
+     * @param config the channel configuration
+     * @return the stream of records dispatched to the channel
+     */
+    public synchronized Multi<IncomingKafkaRecord<Object, Object>> register(KafkaConnectorIncomingConfiguration config) {
+        if (source != null) {
+            throw ex.illegalStateSharedConsumerAlreadyStarted(name, config.getChannel());
+        }
+        if (first == null) {
+            first = config;
+            header = config.getSharedConsumerHeader().orElse(null);
+        }
+        Member member = new Member(config);
+        members.add(member);
+        log.channelUsingSharedConsumer(config.getChannel(), name);
+        return Multi.createFrom().publisher(member);
+    }
+
+    private synchronized void start() {
+        if (source != null) {
+            return;
+        }
+        source = factory.apply(new KafkaConnectorIncomingConfiguration(new SharedConfig(first.config(), overrides())));
+        source.getStream()
+                .subscribe().with(this::dispatch, this::onFailure, this::onCompletion);
+    }
+
+    /**
+     * Computes the subscription of the shared consumer: the union of the topics of the channels, or, if one of the
+     * channels uses a pattern, a pattern matching the topics and patterns of all the channels.
+     */
+    private Map<String, String> overrides() {
+        Map<String, String> overrides = new HashMap<>();
+        overrides.put("channel-name", name);
+        if (members.stream().anyMatch(m -> m.pattern != null)) {
+            String pattern = members.stream()
+                    .flatMap(m -> m.pattern != null ? Stream.of("(?:" + m.pattern.pattern() + ")")
+                            : m.topics.stream().map(Pattern::quote))
+                    .collect(Collectors.joining("|"));
+            overrides.put("topic", pattern);
+            overrides.put("pattern", "true");
+        } else {
+            overrides.put("topics", members.stream().flatMap(m -> m.topics.stream()).distinct()
+                    .collect(Collectors.joining(",")));
+            overrides.put("pattern", "false");
+        }
+        return overrides;
+    }
+
+    private void dispatch(IncomingKafkaRecord<Object, Object> record) {
+        Member target = route(record);
+        if (target == null) {
+            log.recordNotMatchingSharedConsumerChannel(record.getTopic(), record.getPartition(), record.getOffset(),
+                    name);
+            record.ack();
+            return;
+        }
+        target.offer(record);
+    }
+
+    private Member route(IncomingKafkaRecord<?, ?> record) {
+        if (header != null) {
+            Header h = record.getHeaders().lastHeader(header);
+            if (h == null || h.value() == null) {
+                return null;
+            }
+            String channel = new String(h.value(), StandardCharsets.UTF_8);
+            for (Member member : members) {
+                if (member.channel.equals(channel)) {
+                    return member;
+                }
+            }
+            return null;
+        }
+        for (Member member : members) {
+            if (member.accepts(record.getTopic())) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private void onFailure(Throwable t) {
+        failure = t;
+        members.forEach(Member::drain);
+    }
+
+    private void onCompletion() {
+        completed = true;
+        members.forEach(Member::drain);
+    }
+
+    private synchronized void pause(Member member, TopicPartition tp) {
+        Set<Member> set = pausedBy.computeIfAbsent(tp, x -> new HashSet<>());
+        if (set.isEmpty()) {
+            log.pausingSharedConsumerPartition(tp.toString(), name, member.channel);
+            source.getConsumer().getDelegate().pause(Collections.singleton(tp));
+        }
+        set.add(member);
+    }
+
+    private synchronized void resume(Member member) {
+        Set<TopicPartition> toResume = new HashSet<>();
+        for (Iterator<Map.Entry<TopicPartition, Set<Member>>> it = pausedBy.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<TopicPartition, Set<Member>> entry = it.next();
+            if (entry.getValue().remove(member) && entry.getValue().isEmpty()) {
+                toResume.add(entry.getKey());
+                it.remove();
+            }
+        }
+        if (!toResume.isEmpty()) {
+            log.resumingSharedConsumerPartitions(toResume.toString(), name, member.channel);
+            source.getConsumer().getDelegate().resume(toResume);
+        }
+    }
+
+    /**
+     * @return the source, {@code null} if not started yet
+     */
+    public KafkaSource<Object, Object> getSource() {
+        return source;
+    }
+
+    /**
+     * @param channel the channel name
+     * @return the number of records buffered for the given channel
+     */
+    public int getBufferedRecords(String channel) {
+        return members.stream().filter(m -> m.channel.equals(channel)).mapToInt(Member::buffered).sum();
+    }
+
+    /**
+     * A channel served by the shared consumer. Only one subscriber at a time is supported.
+     */
+    private class Member implements Publisher<IncomingKafkaRecord<Object, Object>> {
+        private final String channel;
+        private final Set<String> topics;
+        private final Pattern pattern;
+        private final int bufferSize;
+
+        // Guarded by this
+        private final Deque<IncomingKafkaRecord<Object, Object>> buffer = new ArrayDeque<>();
+        private Subscriber<? super IncomingKafkaRecord<Object, Object>> subscriber;
+        private long requested;
+        private boolean emitting;
+        private boolean paused;
+
+        Member(KafkaConnectorIncomingConfiguration config) {
+            this.channel = config.getChannel();
+            this.bufferSize = config.getSharedConsumerBufferSize();
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("`shared-consumer.buffer-size` must be strictly positive for "
+                        + "channel `" + channel + "`");
+            }
+            String list = config.getTopics().orElse(null);
+            String topic = config.getTopic().orElse(null);
+            if (config.getPattern()) {
+                this.pattern = Pattern.compile(topic == null ? channel : topic);
+                this.topics = Collections.emptySet();
+            } else {
+                this.pattern = null;
+                if (list != null) {
+                    this.topics = Arrays.stream(list.split(",")).map(String::trim).collect(Collectors.toSet());
+                } else {
+                    this.topics = Collections.singleton(topic == null ? channel : topic);
+                }
+            }
+        }
+
+        boolean accepts(String topic) {
+            return pattern != null ? pattern.matcher(topic).matches() : topics.contains(topic);
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super IncomingKafkaRecord<Object, Object>> s) {
+            synchronized (this) {
+                if (subscriber != null) {
+                    Subscriptions.fail(s, new IllegalStateException("The channel `" + channel
+                            + "` of the shared consumer `" + name + "` only supports a single subscriber"));
+                    return;
+                }
+                subscriber = s;
+                requested = 0;
+            }
+            s.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n <= 0) {
+                        s.onError(Subscriptions.getInvalidRequestException());
+                        return;
+                    }
+                    synchronized (Member.this) {
+                        if (subscriber != s) {
+                            return;
+                        }
+                        requested = Subscriptions.add(requested, n);
+                    }
+                    drain();
+                }
+
+                @Override
+                public void cancel() {
+                    synchronized (Member.this) {
+                        if (subscriber == s) {
+                            subscriber = null;
+                        }
+                    }
+                }
+            });
+            start();
+            drain();
+        }
+
+        void offer(IncomingKafkaRecord<Object, Object> record) {
+            boolean full;
+            synchronized (this) {
+                buffer.add(record);
+                full = buffer.size() >= bufferSize;
+                if (full) {
+                    paused = true;
+                }
+            }
+            if (full) {
+                pause(this, new TopicPartition(record.getTopic(), record.getPartition()));
+            }
+            drain();
+        }
+
+        synchronized int buffered() {
+            return buffer.size();
+        }
+
+        void drain() {
+            boolean resume = false;
+            synchronized (this) {
+                if (emitting) {
+                    return;
+                }
+                emitting = true;
+            }
+            try {
+                while (true) {
+                    Subscriber<? super IncomingKafkaRecord<Object, Object>> s;
+                    IncomingKafkaRecord<Object, Object> next = null;
+                    Throwable error = null;
+                    boolean complete = false;
+                    synchronized (this) {
+                        s = subscriber;
+                        if (s == null) {
+                            emitting = false;
+                            break;
+                        }
+                        if (requested > 0 && !buffer.isEmpty()) {
+                            next = buffer.poll();
+                            if (requested != Long.MAX_VALUE) {
+                                requested--;
+                            }
+                            if (paused && buffer.size() <= bufferSize / 2) {
+                                paused = false;
+                                resume = true;
+                            }
+                        } else if (buffer.isEmpty() && (failure != null || completed)) {
+                            error = failure;
+                            complete = true;
+                            subscriber = null;
+                        } else {
+                            emitting = false;
+                            break;
+                        }
+                    }
+                    if (next != null) {
+                        s.onNext(next);
+                    } else if (complete) {
+                        if (error != null) {
+                            s.onError(error);
+                        } else {
+                            s.onComplete();
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    emitting = false;
+                }
+                throw e;
+            }
+            if (resume) {
+                resume(this);
+            }
+        }
+    }
+
+    /**
+     * The configuration of the shared consumer: the configuration of the first channel, with the given overrides.
+     */
+    private static class SharedConfig implements Config {
+        private final Config delegate;
+        private final Map<String, String> overrides;
+
+        SharedConfig(Config delegate, Map<String, String> overrides) {
+            this.delegate = delegate;
+            this.overrides = overrides;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T convert(String value, Class<T> propertyType) {
+            if (propertyType == Boolean.class || propertyType == Boolean.TYPE) {
+                return (T) Boolean.valueOf(value);
+            }
+            if (propertyType == Integer.class || propertyType == Integer.TYPE) {
+                return (T) Integer.valueOf(value);
+            }
+            if (propertyType == Double.class || propertyType == Double.TYPE) {
+                return (T) Double.valueOf(value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        public <T> T getValue(String propertyName, Class<T> propertyType) {
+            if (overrides.containsKey(propertyName)) {
+                return convert(overrides.get(propertyName), propertyType);
+            }
+            if (isRemoved(propertyName)) {
+                throw new NoSuchElementException(propertyName);
+            }
+            return delegate.getValue(propertyName, propertyType);
+        }
+
+        @Override
+        public <T> Optional<T> getOptionalValue(String propertyName, Class<T> propertyType) {
+            if (overrides.containsKey(propertyName)) {
+                return Optional.of(convert(overrides.get(propertyName), propertyType));
+            }
+            if (isRemoved(propertyName)) {
+                return Optional.empty();
+            }
+            return delegate.getOptionalValue(propertyName, propertyType);
+        }
+
+        /**
+         * The topic related attributes of the first channel are replaced by the shared subscription.
+         */
+        private boolean isRemoved(String propertyName) {
+            return propertyName.equals("topic") || propertyName.equals("topics");
+        }
+
+        @Override
+        public Iterable<String> getPropertyNames() {
+            Set<String> names = new HashSet<>();
+            delegate.getPropertyNames().forEach(names::add);
+            names.removeIf(this::isRemoved);
+            names.addAll(overrides.keySet());
+            return names;
+        }
+
+        @Override
+        public Iterable<ConfigSource> getConfigSources() {
+            return delegate.getConfigSources();
+        }
+    }
+}
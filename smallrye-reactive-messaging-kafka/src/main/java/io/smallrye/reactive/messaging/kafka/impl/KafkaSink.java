@@ -1,19 +1,26 @@
 package io.smallrye.reactive.messaging.kafka.impl;
 
 import static io.smallrye.reactive.messaging.kafka.KafkaConnector.TRACER;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
 
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
 import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
@@ -30,6 +37,7 @@ import io.smallrye.mutiny.subscription.UniEmitter;
 import io.smallrye.reactive.messaging.TracingMetadata;
 import io.smallrye.reactive.messaging.ce.OutgoingCloudEventMetadata;
 import io.smallrye.reactive.messaging.health.HealthReport;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
 import io.smallrye.reactive.messaging.kafka.KafkaCDIEvents;
 import io.smallrye.reactive.messaging.kafka.KafkaConnectorOutgoingConfiguration;
 import io.smallrye.reactive.messaging.kafka.OutgoingKafkaRecordMetadata;
@@ -40,40 +48,127 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.json.JsonObject;
 import io.vertx.kafka.client.producer.KafkaWriteStream;
 import io.vertx.mutiny.core.Vertx;
-import io.vertx.mutiny.kafka.admin.KafkaAdminClient;
 
 public class KafkaSink {
 
-    private final KafkaWriteStream<?, ?> stream;
+    private final List<ProducerShard> shards = new ArrayList<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
     private final int partition;
     private final String topic;
     private final String key;
     private final SubscriberBuilder<? extends Message<?>, Void> subscriber;
     private final long retries;
     private final KafkaConnectorOutgoingConfiguration configuration;
-    private final KafkaAdminClient admin;
+    private final KafkaClusterMetadata cluster;
     private final List<Throwable> failures = new ArrayList<>();
     private final KafkaSenderProcessor processor;
+    private final KafkaTransactionalSender transactionalSender;
     private final boolean writeAsBinaryCloudEvent;
     private final boolean writeCloudEvents;
     private final boolean mandatoryCloudEventAttributeSet;
     private final boolean isTracingEnabled;
+    private final ChannelMetrics metrics;
 
     public KafkaSink(Vertx vertx, KafkaConnectorOutgoingConfiguration config, KafkaCDIEvents kafkaCDIEvents) {
         JsonObject kafkaConfiguration = extractProducerConfiguration(config);
+        boolean transactional = kafkaConfiguration.containsKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        if (transactional) {
+            // Transactions require the idempotent producer, which requires acks=all
+            kafkaConfiguration.put(ProducerConfig.ACKS_CONFIG, "all");
+            if (config.getProducerInstances() != 1) {
+                throw ex.illegalArgumentInvalidTransactionalConfiguration(config.getChannel(),
+                        "`producer-instances` must be 1");
+            }
+            if (config.getAdaptiveInflight()) {
+                throw ex.illegalArgumentInvalidTransactionalConfiguration(config.getChannel(),
+                        "`adaptive-inflight` is not supported");
+            }
+            if (config.getTransactionBatchSize() <= 0 || config.getTransactionBatchTimeout() <= 0) {
+                throw ex.illegalArgumentInvalidTransactionalConfiguration(config.getChannel(),
+                        "`transaction-batch-size` and `transaction-batch-timeout` must be strictly positive");
+            }
+        }
 
         Map<String, Object> kafkaConfigurationMap = kafkaConfiguration.getMap();
-        stream = KafkaWriteStream.create(vertx.getDelegate(), kafkaConfigurationMap);
-        stream.exceptionHandler(e -> {
-            if (config.getTopic().isPresent()) {
-                log.unableToWrite(config.getChannel(), config.getTopic().get(), e);
-            } else {
-                log.unableToWrite(config.getChannel(), e);
+
+        long requests = config.getMaxInflightMessages();
+        if (requests <= 0) {
+            requests = Long.MAX_VALUE;
+        }
+
+        int instances = config.getProducerInstances();
+        if (instances <= 0) {
+            throw ex.illegalArgumentInvalidProducerInstances(config.getChannel(), instances);
+        }
+
+        // Each producer has its own in-flight limit
+        long channelRequests = requests == Long.MAX_VALUE ? requests : requests * instances;
+        metrics = new ChannelMetrics(kafkaCDIEvents.metricRegistry(), new Tag("channel", config.getChannel()));
+        AdaptiveInflightLimit limit = null;
+        if (config.getAdaptiveInflight()) {
+            if (channelRequests == Long.MAX_VALUE) {
+                throw ex.illegalArgumentInvalidAdaptiveInflight(config.getChannel(),
+                        "`max-inflight-messages` must be set");
+            }
+            long min = config.getAdaptiveInflightMin();
+            if (min <= 0 || min > channelRequests) {
+                throw ex.illegalArgumentInvalidAdaptiveInflight(config.getChannel(),
+                        "`adaptive-inflight.min` must be strictly positive and lower than `max-inflight-messages`");
+            }
+            limit = new AdaptiveInflightLimit(min, min, channelRequests,
+                    config.getAdaptiveInflightLatencyTolerance());
+            metrics.gauge("mp.messaging.kafka.inflight.limit",
+                    "The current limit of in-flight messages of the channel", MetricUnits.NONE, limit::get);
+            metrics.gauge("mp.messaging.kafka.send.latency",
+                    "The latency of the last record acknowledged by the broker, excluding the time spent waiting "
+                            + "for an in-flight slot",
+                    MetricUnits.NANOSECONDS, limit::getLastLatency);
+        }
+
+        for (int i = 0; i < instances; i++) {
+            Map<String, Object> shardConfiguration = kafkaConfigurationMap;
+            if (instances > 1) {
+                // Each producer needs its own client id, so metrics are reported per producer
+                shardConfiguration = new HashMap<>(kafkaConfigurationMap);
+                shardConfiguration.put(ProducerConfig.CLIENT_ID_CONFIG,
+                        kafkaConfigurationMap.get(ProducerConfig.CLIENT_ID_CONFIG) + "-" + i);
             }
-        });
+            // The value serializer is wrapped to write the value of records consumed with lazy deserialization as-is.
+            Serializer<?> keySerializer = createSerializer(shardConfiguration,
+                    ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, true);
+            Serializer<?> valueSerializer = new PassThroughSerializer(
+                    createSerializer(shardConfiguration, ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, false));
+            KafkaWriteStream<?, ?> stream = KafkaWriteStream.create(vertx.getDelegate(), shardConfiguration,
+                    keySerializer, valueSerializer);
+            stream.exceptionHandler(e -> {
+                if (config.getTopic().isPresent()) {
+                    log.unableToWrite(config.getChannel(), config.getTopic().get(), e);
+                } else {
+                    log.unableToWrite(config.getChannel(), e);
+                }
+            });
 
-        // fire producer event (e.g. bind metrics)
-        kafkaCDIEvents.producer().fire(stream.unwrap());
+            // fire producer event (e.g. bind metrics)
+            kafkaCDIEvents.producer().fire(stream.unwrap());
+
+            Tag shardTag = new Tag("shard", Integer.toString(i));
+            LongConsumer histogram = metrics.histogram("mp.messaging.kafka.producer.send.latency",
+                    "The time between the write of a record to the producer and its acknowledgement by the broker",
+                    MetricUnits.NANOSECONDS, shardTag);
+            AdaptiveInflightLimit adaptiveLimit = limit;
+            ProducerShard shard = new ProducerShard(i, stream, requests, adaptiveLimit == null ? histogram
+                    : latency -> {
+                        histogram.accept(latency);
+                        adaptiveLimit.onSample(latency);
+                    });
+            metrics.gauge("mp.messaging.kafka.producer.inflight",
+                    "The number of records written by the producer and not yet acknowledged by the broker",
+                    MetricUnits.NONE, shard::inflight, shardTag);
+            metrics.gauge("mp.messaging.kafka.producer.pending",
+                    "The number of records waiting for an in-flight slot of the producer", MetricUnits.NONE,
+                    shard::pending, shardTag);
+            shards.add(shard);
+        }
 
         partition = config.getPartition();
         retries = config.getRetries();
@@ -98,25 +193,41 @@ public class KafkaSink {
         }
 
         if (config.getHealthEnabled() && config.getHealthReadinessEnabled()) {
-            // Do not create the client if the readiness health checks are disabled
-            this.admin = KafkaAdminHelper.createAdminClient(vertx, kafkaConfigurationMap, config.getChannel());
+            // Do not retrieve the cluster metadata if the readiness health checks are disabled
+            this.cluster = KafkaClusterMetadata.acquire(vertx, kafkaConfigurationMap,
+                    config.getHealthReadinessRefreshInterval(), config.getHealthReadinessTimeout());
         } else {
-            this.admin = null;
+            this.cluster = null;
         }
 
-        long requests = config.getMaxInflightMessages();
-        if (requests <= 0) {
-            requests = Long.MAX_VALUE;
+        if (limit != null) {
+            processor = new KafkaSenderProcessor(channelRequests, waitForWriteCompletion, writeMessageToKafka(),
+                    limit);
+            transactionalSender = null;
+        } else if (transactional) {
+            // Messages are written in batches by the transactional sender, acknowledged on commit
+            processor = null;
+            transactionalSender = new KafkaTransactionalSender(vertx, config.getChannel(),
+                    shards.get(0).stream().unwrap(), config.getTransactionBatchSize(),
+                    config.getTransactionBatchTimeout(), this::toProducerRecord, f -> {
+                        log.unableToDispatch(f);
+                        reportFailure(f);
+                    });
+        } else {
+            processor = new KafkaSenderProcessor(channelRequests, waitForWriteCompletion, writeMessageToKafka());
+            transactionalSender = null;
+        }
+        if (transactionalSender != null) {
+            subscriber = ReactiveStreams.<Message<?>> builder().to(transactionalSender);
+        } else {
+            subscriber = ReactiveStreams.<Message<?>> builder()
+                    .via(processor)
+                    .onError(f -> {
+                        log.unableToDispatch(f);
+                        reportFailure(f);
+                    })
+                    .ignore();
         }
-        processor = new KafkaSenderProcessor(requests, waitForWriteCompletion,
-                writeMessageToKafka());
-        subscriber = ReactiveStreams.<Message<?>> builder()
-                .via(processor)
-                .onError(f -> {
-                    log.unableToDispatch(f);
-                    reportFailure(f);
-                })
-                .ignore();
     }
 
     private synchronized void reportFailure(Throwable failure) {
@@ -130,37 +241,12 @@ public class KafkaSink {
     private Function<Message<?>, Uni<Void>> writeMessageToKafka() {
         return message -> {
             try {
-                Optional<OutgoingKafkaRecordMetadata<?>> om = getOutgoingKafkaRecordMetadata(message);
-                OutgoingKafkaRecordMetadata<?> metadata = om.orElse(null);
-                String actualTopic = metadata == null || metadata.getTopic() == null ? this.topic : metadata.getTopic();
-
-                ProducerRecord<?, ?> record;
-                OutgoingCloudEventMetadata<?> ceMetadata = message.getMetadata(OutgoingCloudEventMetadata.class)
-                        .orElse(null);
-
-                // We encode the outbound record as Cloud Events if:
-                // - cloud events are enabled -> writeCloudEvents
-                // - the incoming message contains Cloud Event metadata (OutgoingCloudEventMetadata -> ceMetadata)
-                // - or if the message does not contain this metadata, the type and source are configured on the channel
-
-                if (writeCloudEvents && (ceMetadata != null || mandatoryCloudEventAttributeSet)) {
-                    if (writeAsBinaryCloudEvent) {
-                        record = KafkaCloudEventHelper.createBinaryRecord(message, actualTopic, metadata, ceMetadata,
-                                configuration);
-                    } else {
-                        record = KafkaCloudEventHelper
-                                .createStructuredRecord(message, actualTopic, metadata, ceMetadata,
-                                        configuration);
-                    }
-                } else {
-                    record = getProducerRecord(message, metadata, actualTopic);
-                }
-                log.sendingMessageToTopic(message, actualTopic);
+                ProducerRecord<?, ?> record = toProducerRecord(message);
+                String actualTopic = record.topic();
 
-                //noinspection unchecked,rawtypes
+                ProducerShard shard = selectShard(record);
                 Uni<Void> uni = Uni.createFrom()
-                        .emitter(
-                                e -> stream.send((ProducerRecord) record, ar -> handleWriteResult(ar, message, record, e)));
+                        .emitter(e -> shard.send(record, ar -> handleWriteResult(ar, message, record, e)));
 
                 if (this.retries > 0) {
                     uni = uni.onFailure().retry()
@@ -179,11 +265,88 @@ public class KafkaSink {
         };
     }
 
+    private ProducerRecord<?, ?> toProducerRecord(Message<?> message) {
+        Optional<OutgoingKafkaRecordMetadata<?>> om = getOutgoingKafkaRecordMetadata(message);
+        OutgoingKafkaRecordMetadata<?> metadata = om.orElse(null);
+        String actualTopic = metadata == null || metadata.getTopic() == null ? this.topic : metadata.getTopic();
+
+        ProducerRecord<?, ?> record;
+        OutgoingCloudEventMetadata<?> ceMetadata = message.getMetadata(OutgoingCloudEventMetadata.class)
+                .orElse(null);
+
+        // We encode the outbound record as Cloud Events if:
+        // - cloud events are enabled -> writeCloudEvents
+        // - the incoming message contains Cloud Event metadata (OutgoingCloudEventMetadata -> ceMetadata)
+        // - or if the message does not contain this metadata, the type and source are configured on the channel
+
+        if (writeCloudEvents && (ceMetadata != null || mandatoryCloudEventAttributeSet)) {
+            if (writeAsBinaryCloudEvent) {
+                record = KafkaCloudEventHelper.createBinaryRecord(message, actualTopic, metadata, ceMetadata,
+                        configuration);
+            } else {
+                record = KafkaCloudEventHelper
+                        .createStructuredRecord(message, actualTopic, metadata, ceMetadata,
+                                configuration);
+            }
+        } else {
+            record = getProducerRecord(message, metadata, actualTopic);
+        }
+        log.sendingMessageToTopic(message, actualTopic);
+        return record;
+    }
+
+    /**
+     * Selects the producer writing the given record.
+     * Records targeting the same partition, or having the same key, are always written by the same producer, so the
+     * ordering is preserved. Other records are distributed in a round-robin fashion.
+     */
+    private ProducerShard selectShard(ProducerRecord<?, ?> record) {
+        int size = shards.size();
+        if (size == 1) {
+            return shards.get(0);
+        }
+        int hash;
+        if (record.partition() != null) {
+            hash = record.partition();
+        } else if (record.key() instanceof byte[]) {
+            hash = Arrays.hashCode((byte[]) record.key());
+        } else if (record.key() != null) {
+            hash = record.key().hashCode();
+        } else {
+            hash = roundRobin.getAndIncrement();
+        }
+        return shards.get(Utils.toPositive(hash) % size);
+    }
+
+    /**
+     * @return the number of records sent and not yet acknowledged by the broker, per producer
+     */
+    public long[] getInflightRecordsPerProducer() {
+        return shards.stream().mapToLong(ProducerShard::inflight).toArray();
+    }
+
+    /**
+     * @return the number of records waiting for an in-flight slot, per producer
+     */
+    public int[] getPendingRecordsPerProducer() {
+        return shards.stream().mapToInt(ProducerShard::pending).toArray();
+    }
+
+    /**
+     * @return the send latency of the last record acknowledged by the broker, in nanoseconds, per producer
+     */
+    public long[] getSendLatencyPerProducer() {
+        return shards.stream().mapToLong(ProducerShard::lastLatency).toArray();
+    }
+
     private void handleWriteResult(AsyncResult<?> ar, Message<?> message, ProducerRecord<?, ?> record,
             UniEmitter<? super Void> emitter) {
         String actualTopic = record.topic();
         if (ar.succeeded()) {
             log.successfullyToTopic(message, actualTopic);
+            if (cluster != null) {
+                cluster.topicExists(actualTopic);
+            }
             message.ack().whenComplete((x, f) -> {
                 if (f != null) {
                     emitter.fail(f);
@@ -206,7 +369,8 @@ public class KafkaSink {
             String actualTopic) {
         int actualPartition = om == null || om.getPartition() <= -1 ? this.partition : om.getPartition();
 
-        Object actualKey = getKey(message, om, configuration);
+        Object payload = getPayload(message);
+        Object actualKey = getKey(payload, om);
 
         long actualTimestamp;
         if ((om == null) || (om.getTimestamp() == null)) {
@@ -217,7 +381,6 @@ public class KafkaSink {
 
         Headers kafkaHeaders = om == null || om.getHeaders() == null ? new RecordHeaders() : om.getHeaders();
         createOutgoingTrace(message, actualTopic, actualPartition, kafkaHeaders);
-        Object payload = message.getPayload();
         if (payload instanceof Record) {
             payload = ((Record) payload).value();
         }
@@ -231,10 +394,22 @@ public class KafkaSink {
                 kafkaHeaders);
     }
 
+    /**
+     * Gets the payload to write. If the message is a record consumed with lazy deserialization and its payload has
+     * never been accessed, the raw value is written as-is, without deserialization / re-serialization.
+     */
+    private Object getPayload(Message<?> message) {
+        if (message instanceof IncomingKafkaRecord) {
+            byte[] raw = ((IncomingKafkaRecord<?, ?>) message).getUndecodedPayload();
+            if (raw != null) {
+                return new PassThroughSerializer.Serialized(raw);
+            }
+        }
+        return message.getPayload();
+    }
+
     @SuppressWarnings({ "rawtypes" })
-    private Object getKey(Message<?> message,
-            OutgoingKafkaRecordMetadata<?> metadata,
-            KafkaConnectorOutgoingConfiguration configuration) {
+    private Object getKey(Object payload, OutgoingKafkaRecordMetadata<?> metadata) {
 
         // First, the message metadata
         if (metadata != null && metadata.getKey() != null) {
@@ -242,8 +417,8 @@ public class KafkaSink {
         }
 
         // Then, check if the message payload is a record
-        if (message.getPayload() instanceof Record) {
-            return ((Record) message.getPayload()).key();
+        if (payload instanceof Record) {
+            return ((Record) payload).key();
         }
 
         // Finally, check the configuration
@@ -318,6 +493,19 @@ public class KafkaSink {
         return ConfigurationCleaner.cleanupProducerConfiguration(kafkaConfiguration);
     }
 
+    private static Serializer<?> createSerializer(Map<String, Object> configuration, String key, boolean isKey) {
+        Object clazz = configuration.get(key);
+        try {
+            Serializer<?> serializer = clazz instanceof Class
+                    ? (Serializer<?>) Utils.newInstance((Class<?>) clazz)
+                    : Utils.newInstance(clazz.toString(), Serializer.class);
+            serializer.configure(configuration, isKey);
+            return serializer;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to load the serializer " + clazz, e);
+        }
+    }
+
     public SubscriberBuilder<? extends Message<?>, Void> getSink() {
         return subscriber;
     }
@@ -339,41 +527,55 @@ public class KafkaSink {
     }
 
     public void isReady(HealthReport.HealthReportBuilder builder) {
-        // This method must not be called from the event loop.
+        // The topics are retrieved from the cluster metadata cache, this method does not block.
         if (configuration.getHealthEnabled() && configuration.getHealthReadinessEnabled()) {
-            Set<String> topics;
-            try {
-                topics = admin.listTopics()
-                        .await().atMost(Duration.ofMillis(configuration.getHealthReadinessTimeout()));
-                if (topics.contains(topic)) {
-                    builder.add(configuration.getChannel(), true);
-                } else {
-                    builder.add(configuration.getChannel(), false, "Unable to find topic " + topic);
-                }
-            } catch (Exception failed) {
+            if (!cluster.isAvailable()) {
                 builder.add(configuration.getChannel(), false, "No response from broker for topic "
-                        + topic + " : " + failed);
+                        + topic + " : " + cluster.getLastFailure());
+            } else if (cluster.getTopics().contains(topic)) {
+                builder.add(configuration.getChannel(), true);
+            } else {
+                builder.add(configuration.getChannel(), false, "Unable to find topic " + topic);
             }
         }
 
         // If health is disable do not add anything to the builder.
     }
 
+    /**
+     * @return the number of committed transactions, -1 if the channel is not transactional
+     */
+    public long getCommittedTransactions() {
+        return transactionalSender == null ? -1 : transactionalSender.getCommittedTransactions();
+    }
+
+    /**
+     * @return the number of aborted transactions, -1 if the channel is not transactional
+     */
+    public long getAbortedTransactions() {
+        return transactionalSender == null ? -1 : transactionalSender.getAbortedTransactions();
+    }
+
     public void closeQuietly() {
         if (processor != null) {
             processor.cancel();
         }
-        CountDownLatch latch = new CountDownLatch(1);
-        try {
-            this.stream.close(ar -> {
-                if (ar.failed()) {
-                    log.errorWhileClosingWriteStream(ar.cause());
-                }
+        if (transactionalSender != null) {
+            transactionalSender.close();
+        }
+        CountDownLatch latch = new CountDownLatch(shards.size());
+        for (ProducerShard shard : shards) {
+            try {
+                shard.stream().close(ar -> {
+                    if (ar.failed()) {
+                        log.errorWhileClosingWriteStream(ar.cause());
+                    }
+                    latch.countDown();
+                });
+            } catch (Throwable e) {
+                log.errorWhileClosingWriteStream(e);
                 latch.countDown();
-            });
-        } catch (Throwable e) {
-            log.errorWhileClosingWriteStream(e);
-            latch.countDown();
+            }
         }
         try {
             latch.await();
@@ -381,9 +583,11 @@ public class KafkaSink {
             Thread.currentThread().interrupt();
         }
 
-        if (admin != null) {
-            admin.closeAndAwait();
+        if (cluster != null) {
+            cluster.release();
         }
+
+        metrics.close();
     }
 
 }
@@ -4,6 +4,7 @@ import static io.smallrye.reactive.messaging.kafka.KafkaConnector.TRACER;
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
 import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
 
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.*;
 import java.util.function.BiConsumer;
@@ -14,6 +15,10 @@ import javax.enterprise.inject.Instance;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.eclipse.microprofile.metrics.Tag;
 
 import io.grpc.Context;
 import io.opentelemetry.trace.Span;
@@ -29,12 +34,12 @@ import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
 import io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener;
 import io.smallrye.reactive.messaging.kafka.commit.*;
 import io.smallrye.reactive.messaging.kafka.fault.KafkaDeadLetterQueue;
+import io.smallrye.reactive.messaging.kafka.fault.KafkaDelayedRetryTopic;
 import io.smallrye.reactive.messaging.kafka.fault.KafkaFailStop;
 import io.smallrye.reactive.messaging.kafka.fault.KafkaFailureHandler;
 import io.smallrye.reactive.messaging.kafka.fault.KafkaIgnoreFailure;
 import io.vertx.core.AsyncResult;
 import io.vertx.mutiny.core.Vertx;
-import io.vertx.mutiny.kafka.admin.KafkaAdminClient;
 import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
 import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
 
@@ -44,7 +49,7 @@ public class KafkaSource<K, V> {
     private final KafkaFailureHandler failureHandler;
     private final KafkaCommitHandler commitHandler;
     private final KafkaConnectorIncomingConfiguration configuration;
-    private final KafkaAdminClient admin;
+    private final KafkaClusterMetadata cluster;
     private final List<Throwable> failures = new ArrayList<>();
     private final Set<String> topics;
     private final Pattern pattern;
@@ -53,6 +58,9 @@ public class KafkaSource<K, V> {
     private final boolean isReadinessEnabled;
     private final boolean isCloudEventEnabled;
     private final String channel;
+    private final Deserializer<V> valueDeserializer;
+    private final ChannelMetrics metrics;
+    private final PartitionMetrics partitionMetrics;
 
     public KafkaSource(Vertx vertx,
             String consumerGroup,
@@ -72,7 +80,6 @@ public class KafkaSource<K, V> {
             pattern = null;
         }
 
-        Map<String, String> kafkaConfiguration = new HashMap<>();
         this.configuration = config;
 
         isTracingEnabled = this.configuration.getTracingEnabled();
@@ -81,60 +88,56 @@ public class KafkaSource<K, V> {
         isCloudEventEnabled = this.configuration.getCloudEvents();
         channel = this.configuration.getChannel();
 
-        JsonHelper.asJsonObject(config.config())
-                .forEach(e -> kafkaConfiguration.put(e.getKey(), e.getValue().toString()));
-        kafkaConfiguration.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroup);
-
-        String servers = config.getBootstrapServers();
-        if (!kafkaConfiguration.containsKey(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG)) {
-            log.configServers(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
-            kafkaConfiguration.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
-        }
-
-        if (!kafkaConfiguration.containsKey(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG)) {
-            log.keyDeserializerOmitted();
-            kafkaConfiguration.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, config.getKeyDeserializer());
-        }
+        Map<String, String> kafkaConfiguration = getConsumerConfiguration(config, consumerGroup, index);
+        String commitStrategy = getCommitStrategy(config, kafkaConfiguration);
+        boolean committedByConsumer = isCommittedByConsumer(commitStrategy, kafkaConfiguration);
 
-        if (!kafkaConfiguration.containsKey(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG)) {
-            log.disableAutoCommit(config.getChannel());
-            kafkaConfiguration.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
-        }
+        ConfigurationCleaner.cleanupConsumerConfiguration(kafkaConfiguration);
 
-        if (!kafkaConfiguration.containsKey(ConsumerConfig.CLIENT_ID_CONFIG)) {
-            String name = "kafka-consumer-" + config.getChannel();
-            if (index != -1) {
-                name += "-" + index;
-            }
-            kafkaConfiguration.put(ConsumerConfig.CLIENT_ID_CONFIG, name);
+        Map<String, String> consumerConfiguration = kafkaConfiguration;
+        if (config.getLazyDeserialization()) {
+            // Records are consumed as raw bytes, and deserialized on first access to the payload
+            valueDeserializer = createValueDeserializer(kafkaConfiguration);
+            consumerConfiguration = new HashMap<>(kafkaConfiguration);
+            consumerConfiguration.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+                    ByteArrayDeserializer.class.getName());
+        } else {
+            valueDeserializer = null;
         }
 
-        String commitStrategy = config
-                .getCommitStrategy()
-                .orElse(Boolean.parseBoolean(kafkaConfiguration.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG))
-                        ? KafkaCommitHandler.Strategy.IGNORE.name()
-                        : KafkaCommitHandler.Strategy.THROTTLED.name());
-
-        ConfigurationCleaner.cleanupConsumerConfiguration(kafkaConfiguration);
-
-        final KafkaConsumer<K, V> kafkaConsumer = KafkaConsumer.create(vertx, kafkaConfiguration);
+        final KafkaConsumer<K, V> kafkaConsumer = KafkaConsumer.create(vertx, consumerConfiguration);
 
         // fire consumer event (e.g. bind metrics)
         kafkaCDIEvents.consumer().fire(kafkaConsumer.getDelegate().unwrap());
 
-        commitHandler = createCommitHandler(vertx, kafkaConsumer, consumerGroup, config, commitStrategy);
-        failureHandler = createFailureHandler(config, vertx, kafkaConfiguration, kafkaCDIEvents);
+        commitHandler = createCommitHandler(vertx, kafkaConsumer, consumerGroup, config, commitStrategy,
+                kafkaCDIEvents);
+        failureHandler = createFailureHandler(config, vertx, kafkaConsumer, kafkaConfiguration, kafkaCDIEvents);
+
+        KafkaCommitHandler recordCommitHandler = commitHandler;
+        if (config.getPartitionMetricsEnabled()) {
+            metrics = new ChannelMetrics(kafkaCDIEvents.metricRegistry(), new Tag("channel", channel));
+            partitionMetrics = new PartitionMetrics(vertx, kafkaConsumer, metrics, commitHandler,
+                    config.getPartitionMetricsInterval());
+            // Records the acknowledgement latency
+            recordCommitHandler = partitionMetrics.instrument(commitHandler);
+        } else {
+            metrics = null;
+            partitionMetrics = null;
+        }
+        KafkaCommitHandler handler = recordCommitHandler;
 
-        Map<String, Object> adminConfiguration = new HashMap<>(kafkaConfiguration);
         if (config.getHealthEnabled() && config.getHealthReadinessEnabled()) {
-            // Do not create the client if the readiness health checks are disabled
-            this.admin = KafkaAdminHelper.createAdminClient(vertx, adminConfiguration, config.getChannel());
+            // Do not retrieve the cluster metadata if the readiness health checks are disabled
+            this.cluster = KafkaClusterMetadata.acquire(vertx, kafkaConfiguration,
+                    config.getHealthReadinessRefreshInterval(), config.getHealthReadinessTimeout());
         } else {
-            this.admin = null;
+            this.cluster = null;
         }
         this.consumer = kafkaConsumer;
         ConsumerRebalanceListener listener = RebalanceListeners
-                .createRebalanceListener(config, consumerGroup, consumerRebalanceListeners, consumer, commitHandler);
+                .createRebalanceListener(config, consumerGroup, consumerRebalanceListeners, consumer, commitHandler,
+                        failureHandler);
         RebalanceListeners.inject(this.consumer, listener);
 
         Multi<KafkaConsumerRecord<K, V>> multi = consumer.toMulti()
@@ -165,6 +168,24 @@ public class KafkaSource<K, V> {
             }
         }
 
+        if (failureHandler instanceof KafkaDelayedRetryTopic) {
+            // Records from the retry topics are only dispatched once due
+            KafkaDelayedRetryTopic delayedRetryTopic = (KafkaDelayedRetryTopic) failureHandler;
+            multi = multi.filter(rec -> delayedRetryTopic.isDue(rec));
+        }
+
+        KafkaRecordFilter filter = KafkaRecordFilter.create(config);
+        if (filter != null) {
+            // Discarded records are acknowledged before creating the message
+            multi = multi.filter(rec -> {
+                if (filter.test(rec.getDelegate().record())) {
+                    return true;
+                }
+                commitHandler.discarded(rec.topic(), rec.partition(), rec.offset());
+                return false;
+            });
+        }
+
         Multi<IncomingKafkaRecord<K, V>> incomingMulti = multi
                 .onSubscribe().call(s -> {
                     this.consumer.exceptionHandler(t -> reportFailure(t, false));
@@ -188,8 +209,15 @@ public class KafkaSource<K, V> {
                 })
                 .map(rec -> commitHandler
                         .received(
-                                new IncomingKafkaRecord<>(rec, commitHandler, failureHandler, isCloudEventEnabled,
-                                        isTracingEnabled)));
+                                new IncomingKafkaRecord<>(rec, handler, failureHandler, isCloudEventEnabled,
+                                        isTracingEnabled, valueDeserializer, consumerGroup, committedByConsumer)));
+
+        if (cluster != null) {
+            incomingMulti = incomingMulti.onItem().invoke(rec -> cluster.topicExists(rec.getTopic()));
+        }
+        if (partitionMetrics != null) {
+            incomingMulti = incomingMulti.onItem().invoke(partitionMetrics::received);
+        }
 
         if (config.getTracingEnabled()) {
             incomingMulti = incomingMulti.onItem().invoke(this::incomingTrace);
@@ -199,7 +227,79 @@ public class KafkaSource<K, V> {
                 .onFailure().invoke(t -> reportFailure(t, false));
     }
 
-    private Set<String> getTopics(KafkaConnectorIncomingConfiguration config) {
+    /**
+     * Computes the Kafka consumer configuration of the channel, before cleanup of the connector attributes.
+     *
+     * @param config the channel configuration
+     * @param consumerGroup the consumer group
+     * @param index the index of the consumer, -1 if the channel uses a single consumer
+     * @return the configuration
+     */
+    static Map<String, String> getConsumerConfiguration(KafkaConnectorIncomingConfiguration config,
+            String consumerGroup, int index) {
+        Map<String, String> kafkaConfiguration = new HashMap<>();
+        JsonHelper.asJsonObject(config.config())
+                .forEach(e -> kafkaConfiguration.put(e.getKey(), e.getValue().toString()));
+        kafkaConfiguration.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroup);
+
+        String servers = config.getBootstrapServers();
+        if (!kafkaConfiguration.containsKey(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG)) {
+            log.configServers(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+            kafkaConfiguration.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+        }
+
+        if (!kafkaConfiguration.containsKey(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG)) {
+            log.keyDeserializerOmitted();
+            kafkaConfiguration.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, config.getKeyDeserializer());
+        }
+
+        if (!kafkaConfiguration.containsKey(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG)) {
+            log.disableAutoCommit(config.getChannel());
+            kafkaConfiguration.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        }
+
+        if (!kafkaConfiguration.containsKey(ConsumerConfig.CLIENT_ID_CONFIG)) {
+            String name = "kafka-consumer-" + config.getChannel();
+            if (index != -1) {
+                name += "-" + index;
+            }
+            kafkaConfiguration.put(ConsumerConfig.CLIENT_ID_CONFIG, name);
+        }
+        return kafkaConfiguration;
+    }
+
+    static String getCommitStrategy(KafkaConnectorIncomingConfiguration config,
+            Map<String, String> kafkaConfiguration) {
+        return config
+                .getCommitStrategy()
+                .orElse(Boolean.parseBoolean(kafkaConfiguration.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG))
+                        ? KafkaCommitHandler.Strategy.IGNORE.name()
+                        : KafkaCommitHandler.Strategy.THROTTLED.name());
+    }
+
+    /**
+     * @return whether the consumer commits the offsets itself, using the commit strategy or the Kafka auto-commit,
+     *         in which case the offsets cannot be committed by a transactional producer
+     */
+    static boolean isCommittedByConsumer(String commitStrategy, Map<String, String> kafkaConfiguration) {
+        return KafkaCommitHandler.Strategy.from(commitStrategy) != KafkaCommitHandler.Strategy.IGNORE
+                || Boolean.parseBoolean(kafkaConfiguration.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Deserializer<V> createValueDeserializer(Map<String, String> kafkaConfiguration) {
+        String clazz = kafkaConfiguration.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+        try {
+            Deserializer<V> deserializer = Utils.newInstance(clazz, Deserializer.class);
+            deserializer.configure(kafkaConfiguration, false);
+            return deserializer;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to load the value deserializer " + clazz
+                    + " for channel `" + channel + "`", e);
+        }
+    }
+
+    static Set<String> getTopics(KafkaConnectorIncomingConfiguration config) {
         String list = config.getTopics().orElse(null);
         String top = config.getTopic().orElse(null);
         String channel = config.getChannel();
@@ -215,14 +315,27 @@ public class KafkaSource<K, V> {
                     + "use `topics` and `pattern` at the same time");
         }
 
+        Set<String> result;
         if (list != null) {
             String[] strings = list.split(",");
-            return Arrays.stream(strings).map(String::trim).collect(Collectors.toSet());
+            result = Arrays.stream(strings).map(String::trim).collect(Collectors.toSet());
         } else if (top != null) {
-            return Collections.singleton(top);
+            result = Collections.singleton(top);
         } else {
-            return Collections.singleton(channel);
+            result = Collections.singleton(channel);
+        }
+
+        if (KafkaFailureHandler.Strategy
+                .from(config.getFailureStrategy()) == KafkaFailureHandler.Strategy.DELAYED_RETRY_TOPIC) {
+            if (isPattern) {
+                throw new IllegalArgumentException("The Kafka incoming configuration for channel `" + channel + "` cannot "
+                        + "use the `delayed-retry-topic` failure strategy and `pattern` at the same time");
+            }
+            // The retry topics are consumed by the channel
+            result = new HashSet<>(result);
+            result.addAll(KafkaDelayedRetryTopic.getRetryTopics(config));
         }
+        return result;
     }
 
     public synchronized void reportFailure(Throwable failure, boolean fatal) {
@@ -240,36 +353,40 @@ public class KafkaSource<K, V> {
 
     public void incomingTrace(IncomingKafkaRecord<K, V> kafkaRecord) {
         if (isTracingEnabled) {
-            TracingMetadata tracingMetadata = TracingMetadata.fromMessage(kafkaRecord).orElse(TracingMetadata.empty());
+            trace(kafkaRecord);
+        }
+    }
 
-            final Span.Builder spanBuilder = TRACER.spanBuilder(kafkaRecord.getTopic() + " receive")
-                    .setSpanKind(Span.Kind.CONSUMER);
+    static void trace(IncomingKafkaRecord<?, ?> kafkaRecord) {
+        TracingMetadata tracingMetadata = TracingMetadata.fromMessage(kafkaRecord).orElse(TracingMetadata.empty());
 
-            // Handle possible parent span
-            final Context parentSpanContext = tracingMetadata.getPreviousContext();
-            if (parentSpanContext != null) {
-                spanBuilder.setParent(parentSpanContext);
-            } else {
-                spanBuilder.setNoParent();
-            }
+        final Span.Builder spanBuilder = TRACER.spanBuilder(kafkaRecord.getTopic() + " receive")
+                .setSpanKind(Span.Kind.CONSUMER);
 
-            final Span span = spanBuilder.startSpan();
+        // Handle possible parent span
+        final Context parentSpanContext = tracingMetadata.getPreviousContext();
+        if (parentSpanContext != null) {
+            spanBuilder.setParent(parentSpanContext);
+        } else {
+            spanBuilder.setNoParent();
+        }
 
-            // Set Span attributes
-            span.setAttribute("partition", kafkaRecord.getPartition());
-            span.setAttribute("offset", kafkaRecord.getOffset());
-            span.setAttribute(SemanticAttributes.MESSAGING_SYSTEM, "kafka");
-            span.setAttribute(SemanticAttributes.MESSAGING_DESTINATION, kafkaRecord.getTopic());
-            span.setAttribute(SemanticAttributes.MESSAGING_DESTINATION_KIND, "topic");
+        final Span span = spanBuilder.startSpan();
 
-            kafkaRecord.injectTracingMetadata(tracingMetadata.withSpan(span));
+        // Set Span attributes
+        span.setAttribute("partition", kafkaRecord.getPartition());
+        span.setAttribute("offset", kafkaRecord.getOffset());
+        span.setAttribute(SemanticAttributes.MESSAGING_SYSTEM, "kafka");
+        span.setAttribute(SemanticAttributes.MESSAGING_DESTINATION, kafkaRecord.getTopic());
+        span.setAttribute(SemanticAttributes.MESSAGING_DESTINATION_KIND, "topic");
 
-            span.end();
-        }
+        kafkaRecord.injectTracingMetadata(tracingMetadata.withSpan(span));
+
+        span.end();
     }
 
     private KafkaFailureHandler createFailureHandler(KafkaConnectorIncomingConfiguration config, Vertx vertx,
-            Map<String, String> kafkaConfiguration, KafkaCDIEvents kafkaCDIEvents) {
+            KafkaConsumer<K, V> consumer, Map<String, String> kafkaConfiguration, KafkaCDIEvents kafkaCDIEvents) {
         String strategy = config.getFailureStrategy();
         KafkaFailureHandler.Strategy actualStrategy = KafkaFailureHandler.Strategy.from(strategy);
         switch (actualStrategy) {
@@ -279,6 +396,8 @@ public class KafkaSource<K, V> {
                 return new KafkaIgnoreFailure(config.getChannel());
             case DEAD_LETTER_QUEUE:
                 return KafkaDeadLetterQueue.create(vertx, kafkaConfiguration, config, this, kafkaCDIEvents);
+            case DELAYED_RETRY_TOPIC:
+                return KafkaDelayedRetryTopic.create(vertx, consumer, kafkaConfiguration, config, this, kafkaCDIEvents);
             default:
                 throw ex.illegalArgumentInvalidFailureStrategy(strategy);
         }
@@ -290,7 +409,8 @@ public class KafkaSource<K, V> {
             KafkaConsumer<K, V> consumer,
             String group,
             KafkaConnectorIncomingConfiguration config,
-            String strategy) {
+            String strategy,
+            KafkaCDIEvents kafkaCDIEvents) {
         KafkaCommitHandler.Strategy actualStrategy = KafkaCommitHandler.Strategy.from(strategy);
         switch (actualStrategy) {
             case LATEST:
@@ -302,6 +422,18 @@ public class KafkaSource<K, V> {
             case THROTTLED:
                 log.commitStrategyForChannel("throttled", config.getChannel());
                 return KafkaThrottledLatestProcessedCommit.create(vertx, consumer, group, config, this);
+            case CHECKPOINT:
+                log.commitStrategyForChannel("checkpoint", config.getChannel());
+                Optional<String> name = config.getCheckpointStore();
+                if (name.isPresent()) {
+                    CheckpointStore store = kafkaCDIEvents.checkpointStore(name.get());
+                    if (store == null) {
+                        throw ex.illegalArgumentCheckpointStoreNotFound(name.get(), config.getChannel());
+                    }
+                    return new KafkaCheckpointCommit(vertx, config, consumer, group, store, false);
+                }
+                return new KafkaCheckpointCommit(vertx, config, consumer, group,
+                        new FileCheckpointStore(Paths.get(config.getCheckpointDirectory())), true);
             default:
                 throw ex.illegalArgumentInvalidCommitStrategy(strategy);
         }
@@ -312,16 +444,23 @@ public class KafkaSource<K, V> {
     }
 
     public void closeQuietly() {
+        if (partitionMetrics != null) {
+            partitionMetrics.close();
+            metrics.close();
+        }
         try {
             this.commitHandler.terminate();
             this.failureHandler.terminate();
             this.consumer.closeAndAwait();
+            if (valueDeserializer != null) {
+                valueDeserializer.close();
+            }
         } catch (Throwable e) {
             log.exceptionOnClose(e);
         }
-        if (admin != null) {
+        if (cluster != null) {
             try {
-                this.admin.closeAndAwait();
+                this.cluster.release();
             } catch (Throwable e) {
                 log.exceptionOnClose(e);
             }
@@ -346,20 +485,21 @@ public class KafkaSource<K, V> {
     }
 
     public void isReady(HealthReport.HealthReportBuilder builder) {
-        // This method must not be called from the event loop.
+        // The topics are retrieved from the cluster metadata cache, this method does not block.
         if (isHealthEnabled && isReadinessEnabled) {
-            Set<String> existingTopics;
-            try {
-                existingTopics = admin.listTopics()
-                        .await().atMost(Duration.ofMillis(configuration.getHealthReadinessTimeout()));
+            if (!cluster.isAvailable()) {
+                builder.add(channel, false, "No response from broker for channel "
+                        + channel + " : " + cluster.getLastFailure());
+            } else {
+                Set<String> existingTopics = cluster.getTopics();
                 if (pattern == null && existingTopics.containsAll(topics)) {
-                    builder.add(channel, true);
+                    addReady(builder);
                 } else if (pattern != null) {
                     // Check that at least one topic matches
                     boolean ok = existingTopics.stream()
                             .anyMatch(s -> pattern.matcher(s).matches());
                     if (ok) {
-                        builder.add(channel, ok);
+                        addReady(builder);
                     } else {
                         builder.add(channel, false,
                                 "Unable to find a topic matching the given pattern: " + pattern);
@@ -369,15 +509,29 @@ public class KafkaSource<K, V> {
                             .collect(Collectors.joining());
                     builder.add(channel, false, "Unable to find topic(s): " + missing);
                 }
-            } catch (Exception failed) {
-                builder.add(channel, false, "No response from broker for channel "
-                        + channel + " : " + failed);
             }
         }
 
         // If health is disable do not add anything to the builder.
     }
 
+    private void addReady(HealthReport.HealthReportBuilder builder) {
+        if (partitionMetrics != null) {
+            builder.add(channel, true, partitionMetrics.summary());
+        } else {
+            builder.add(channel, true);
+        }
+    }
+
+    /**
+     * For testing purpose only
+     *
+     * @return the partition metrics, {@code null} if disabled.
+     */
+    public PartitionMetrics getPartitionMetrics() {
+        return partitionMetrics;
+    }
+
     /**
      * For testing purpose only
      *
@@ -0,0 +1,319 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+
+import io.smallrye.reactive.messaging.health.HealthReport;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.KafkaTable;
+import io.vertx.kafka.client.common.PartitionInfo;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.consumer.KafkaConsumer;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecords;
+import io.vertx.mutiny.core.Vertx;
+
+/**
+ * Materializes a (compacted) topic into an on-heap map.
+ * <p>
+ * The consumer is not part of a consumer group: all the partitions existing at startup are assigned, and read from
+ * the beginning. The table is bootstrapped once, for each partition, the position of the consumer has reached the end
+ * offset retrieved at startup. The position is used rather than the offset of the last record, as the last offsets of
+ * a partition may not be records: transaction markers, or records deleted by the compaction. The positions are
+ * checked after each batch of records, and periodically, as skipping these offsets may not produce any record.
+ * <p>
+ * The consumer failures are transient: the table is reported as not alive until records are received again, or no
+ * failure has been reported for {@link #FAILURE_EXPIRATION} milliseconds. Only the failures preventing the
+ * bootstrap are definitive.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class KafkaTableImpl<K, V> implements KafkaTable<K, V> {
+
+    private static final long BOOTSTRAP_CHECK_INTERVAL = 100;
+    private static final long FAILURE_EXPIRATION = 10_000;
+
+    private final String channel;
+    private final Map<K, V> store = new ConcurrentHashMap<>();
+    private final Map<K, V> view = Collections.unmodifiableMap(store);
+    private final CompletableFuture<Void> bootstrapped = new CompletableFuture<>();
+
+    /**
+     * Partitions not yet bootstrapped, associated with the end offset to reach.
+     * Only accessed from the consumer context.
+     */
+    private final Map<TopicPartition, Long> remaining = new HashMap<>();
+    /**
+     * Whether the positions are being retrieved.
+     * Only accessed from the consumer context.
+     */
+    private boolean checking;
+
+    private volatile Vertx vertx;
+    private volatile long timer = -1;
+    private volatile KafkaConsumer<K, V> consumer;
+    private volatile Throwable failure;
+    private volatile long failureTime;
+    private volatile Throwable fatal;
+
+    public KafkaTableImpl(String channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Starts the materialization of the table.
+     *
+     * @param vertx the Vert.x instance
+     * @param config the channel configuration
+     */
+    public void start(Vertx vertx, KafkaConnectorIncomingConfiguration config) {
+        Map<String, String> kafkaConfiguration = new HashMap<>();
+        JsonHelper.asJsonObject(config.config())
+                .forEach(e -> kafkaConfiguration.put(e.getKey(), e.getValue().toString()));
+        kafkaConfiguration.putIfAbsent(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
+        kafkaConfiguration.putIfAbsent(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, config.getKeyDeserializer());
+        kafkaConfiguration.putIfAbsent(ConsumerConfig.CLIENT_ID_CONFIG, "kafka-table-" + channel);
+        // The consumer does not belong to a group, and never commits
+        kafkaConfiguration.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        kafkaConfiguration.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        ConfigurationCleaner.cleanupConsumerConfiguration(kafkaConfiguration);
+
+        String topic = config.getTopic().orElse(channel);
+        log.materializingTable(topic, channel);
+        materialize(vertx, KafkaConsumer.create(vertx.getDelegate(), kafkaConfiguration), topic);
+    }
+
+    void materialize(Vertx vertx, KafkaConsumer<K, V> kafkaConsumer, String topic) {
+        this.vertx = vertx;
+        this.consumer = kafkaConsumer;
+        kafkaConsumer.exceptionHandler(this::fail);
+        // The records are applied by batch, so the positions are checked once the whole batch has been applied
+        kafkaConsumer.batchHandler(this::onRecords);
+        kafkaConsumer.partitionsFor(topic, partitions -> {
+            if (partitions.failed()) {
+                abort(partitions.cause());
+                return;
+            }
+            if (partitions.result().isEmpty()) {
+                abort(ex.illegalStateTableTopicWithoutPartition(topic, channel));
+                return;
+            }
+            Set<TopicPartition> assignment = partitions.result().stream()
+                    .map(PartitionInfo::getPartition)
+                    .map(p -> new TopicPartition(topic, p))
+                    .collect(Collectors.toSet());
+            kafkaConsumer.beginningOffsets(assignment, beginnings -> {
+                if (beginnings.failed()) {
+                    abort(beginnings.cause());
+                    return;
+                }
+                kafkaConsumer.endOffsets(assignment, ends -> {
+                    if (ends.failed()) {
+                        abort(ends.cause());
+                        return;
+                    }
+                    for (TopicPartition tp : assignment) {
+                        long end = ends.result().getOrDefault(tp, 0L);
+                        long beginning = beginnings.result().getOrDefault(tp, 0L);
+                        if (end > beginning) {
+                            remaining.put(tp, end);
+                        }
+                    }
+                    checkBootstrapped();
+                    kafkaConsumer.assign(assignment, assigned -> {
+                        if (assigned.failed()) {
+                            abort(assigned.cause());
+                            return;
+                        }
+                        kafkaConsumer.seekToBeginning(assignment, sought -> {
+                            if (sought.failed()) {
+                                abort(sought.cause());
+                                return;
+                            }
+                            // The records are only polled once the handler is set, so after the seek
+                            kafkaConsumer.handler(record -> {
+                                // Already applied by the batch handler
+                            });
+                            if (!remaining.isEmpty()) {
+                                timer = vertx.setPeriodic(BOOTSTRAP_CHECK_INTERVAL, x -> checkPositions());
+                            }
+                        });
+                    });
+                });
+            });
+        });
+    }
+
+    private void onRecords(KafkaConsumerRecords<K, V> records) {
+        // The consumer polls again
+        failure = null;
+        for (int i = 0; i < records.size(); i++) {
+            KafkaConsumerRecord<K, V> record = records.recordAt(i);
+            if (record.key() != null) {
+                if (record.value() == null) {
+                    store.remove(record.key());
+                } else {
+                    store.put(record.key(), record.value());
+                }
+            }
+        }
+        checkPositions();
+    }
+
+    private void checkPositions() {
+        if (checking || remaining.isEmpty()) {
+            return;
+        }
+        checking = true;
+        List<TopicPartition> partitions = new ArrayList<>(remaining.keySet());
+        AtomicInteger pending = new AtomicInteger(partitions.size());
+        for (TopicPartition tp : partitions) {
+            consumer.position(tp, position -> {
+                // A failed retrieval is retried by the next check
+                if (position.succeeded() && position.result() >= remaining.getOrDefault(tp, Long.MAX_VALUE)) {
+                    remaining.remove(tp);
+                }
+                if (pending.decrementAndGet() == 0) {
+                    checking = false;
+                    checkBootstrapped();
+                }
+            });
+        }
+    }
+
+    private void checkBootstrapped() {
+        if (remaining.isEmpty() && bootstrapped.complete(null)) {
+            cancelTimer();
+            log.tableBootstrapped(channel, store.size());
+        }
+    }
+
+    private void cancelTimer() {
+        long id = timer;
+        if (id != -1) {
+            vertx.cancelTimer(id);
+            timer = -1;
+        }
+    }
+
+    /**
+     * Reports a consumer failure, for example a failed poll. The consumer keeps polling.
+     */
+    private void fail(Throwable cause) {
+        log.unableToMaterializeTable(channel, cause);
+        failureTime = System.currentTimeMillis();
+        failure = cause;
+    }
+
+    /**
+     * Reports a failure preventing the table from ever being bootstrapped.
+     */
+    private void abort(Throwable cause) {
+        log.unableToMaterializeTable(channel, cause);
+        fatal = cause;
+        bootstrapped.completeExceptionally(cause);
+    }
+
+    /**
+     * @return the definitive failure, or the last transient failure if it has not expired, {@code null} otherwise
+     */
+    private Throwable getFailure() {
+        Throwable cause = fatal;
+        if (cause != null) {
+            return cause;
+        }
+        cause = failure;
+        if (cause != null && System.currentTimeMillis() - failureTime < FAILURE_EXPIRATION) {
+            return cause;
+        }
+        return null;
+    }
+
+    @Override
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public V get(K key) {
+        return store.get(key);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public Map<K, V> asMap() {
+        return view;
+    }
+
+    @Override
+    public boolean isBootstrapped() {
+        return bootstrapped.isDone() && !bootstrapped.isCompletedExceptionally();
+    }
+
+    @Override
+    public CompletionStage<Void> bootstrapped() {
+        return bootstrapped;
+    }
+
+    public void isReady(HealthReport.HealthReportBuilder builder) {
+        Throwable cause = getFailure();
+        if (isBootstrapped()) {
+            builder.add(channel, true);
+        } else if (consumer == null) {
+            builder.add(channel, false, "The channel is not configured to materialize a table");
+        } else if (cause != null) {
+            builder.add(channel, false, "Unable to materialize the table: " + cause.getMessage());
+        } else {
+            builder.add(channel, false, "The table is not bootstrapped yet");
+        }
+    }
+
+    public void isAlive(HealthReport.HealthReportBuilder builder) {
+        Throwable cause = getFailure();
+        if (cause != null) {
+            builder.add(channel, false, cause.getMessage());
+        } else {
+            builder.add(channel, true);
+        }
+    }
+
+    public void closeQuietly() {
+        KafkaConsumer<K, V> current = consumer;
+        if (current == null) {
+            return;
+        }
+        cancelTimer();
+        CountDownLatch latch = new CountDownLatch(1);
+        current.close(ar -> {
+            if (ar.failed()) {
+                log.exceptionOnClose(ar.cause());
+            }
+            latch.countDown();
+        });
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
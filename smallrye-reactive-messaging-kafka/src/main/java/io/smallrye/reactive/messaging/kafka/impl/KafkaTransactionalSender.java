@@ -0,0 +1,315 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaExceptions.ex;
+import static io.smallrye.reactive.messaging.kafka.i18n.KafkaLogging.log;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecordMetadata;
+import io.vertx.mutiny.core.Vertx;
+
+/**
+ * Writes messages using Kafka transactions.
+ * <p>
+ * Messages are grouped into batches of at most {@code batchSize} messages, or the messages received during
+ * {@code batchTimeout} milliseconds. Each batch is written in a single transaction, which also contains, for each
+ * consumer group, the offsets of the consumed records the messages originate from (retrieved from the
+ * {@link IncomingKafkaRecordMetadata}). So, the consumption of the incoming records and the production of the outgoing
+ * records are committed atomically.
+ * <p>
+ * Messages originating from a consumer committing its offsets itself (commit strategy other than {@code ignore}, or
+ * Kafka auto-commit enabled) are rejected: their offsets would be committed outside of the transactions, so the
+ * records could be lost if a transaction is aborted.
+ * <p>
+ * Transactions are executed one at a time on a dedicated thread, as the Kafka producer transactional methods are
+ * blocking. Messages are acknowledged once the transaction is committed, and nacked if it is aborted.
+ */
+class KafkaTransactionalSender implements Subscriber<Message<?>> {
+
+    private final String channel;
+    private final Producer<?, ?> producer;
+    private final Function<Message<?>, ProducerRecord<?, ?>> converter;
+    private final Consumer<Throwable> onFailure;
+    private final Vertx vertx;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final ExecutorService executor;
+
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong aborted = new AtomicLong();
+
+    // Guarded by this
+    private Subscription subscription;
+    private List<Message<?>> batch = new ArrayList<>();
+    private long timerId = -1;
+    private boolean inTransaction;
+    private boolean flushRequested;
+    private boolean done;
+    private boolean cancelled;
+
+    // Only accessed from the executor
+    private boolean initialized;
+
+    KafkaTransactionalSender(Vertx vertx, String channel, Producer<?, ?> producer, int batchSize, long batchTimeout,
+            Function<Message<?>, ProducerRecord<?, ?>> converter, Consumer<Throwable> onFailure) {
+        this.vertx = vertx;
+        this.channel = channel;
+        this.producer = producer;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        this.converter = converter;
+        this.onFailure = onFailure;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "kafka-transactions-" + channel);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized void onSubscribe(Subscription s) {
+        if (subscription != null || cancelled) {
+            s.cancel();
+            return;
+        }
+        subscription = s;
+        s.request(batchSize);
+    }
+
+    @Override
+    public void onNext(Message<?> message) {
+        IncomingKafkaRecordMetadata<?, ?> metadata = message.getMetadata(IncomingKafkaRecordMetadata.class)
+                .orElse(null);
+        if (metadata != null && metadata.getConsumerGroupId() != null && metadata.isCommittedByConsumer()) {
+            reject(message, ex.illegalStateRecordCommittedOutsideTransaction(metadata.getConsumerGroupId(), channel));
+        } else {
+            enqueue(message);
+        }
+    }
+
+    private void reject(Message<?> message, Throwable failure) {
+        log.transactionalSinkRejectedMessage(channel, failure.getMessage());
+        message.nack(failure);
+        synchronized (this) {
+            if (!done && !cancelled) {
+                subscription.request(1);
+            }
+        }
+    }
+
+    private synchronized void enqueue(Message<?> message) {
+        batch.add(message);
+        if (batch.size() >= batchSize) {
+            flush();
+        } else if (batch.size() == 1) {
+            timerId = vertx.setTimer(batchTimeout, x -> onTimeout());
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable failure) {
+        onFailure.accept(failure);
+        done = true;
+        flush();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        done = true;
+        flush();
+    }
+
+    private synchronized void onTimeout() {
+        timerId = -1;
+        flush();
+    }
+
+    /**
+     * Starts a transaction with the current batch. If a transaction is in progress, the batch is written once the
+     * current transaction completes.
+     */
+    private synchronized void flush() {
+        if (inTransaction) {
+            flushRequested = true;
+            return;
+        }
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+        if (batch.isEmpty() || cancelled) {
+            return;
+        }
+        List<Message<?>> messages = batch;
+        batch = new ArrayList<>();
+        inTransaction = true;
+        flushRequested = false;
+        executor.execute(() -> {
+            write(messages);
+            afterTransaction(messages.size());
+        });
+    }
+
+    private synchronized void afterTransaction(int count) {
+        inTransaction = false;
+        if (cancelled) {
+            return;
+        }
+        // Messages received during the transaction are either flushed now, or when their timer fires
+        if (flushRequested || batch.size() >= batchSize || (done && !batch.isEmpty())) {
+            flush();
+        }
+        if (!done) {
+            subscription.request(count);
+        }
+    }
+
+    /**
+     * Writes the given messages, and the offsets of the consumed records, in a transaction.
+     * Called from the executor thread.
+     */
+    private void write(List<Message<?>> messages) {
+        try {
+            if (!initialized) {
+                producer.initTransactions();
+                initialized = true;
+            }
+            producer.beginTransaction();
+        } catch (KafkaException e) {
+            fatal(messages, e);
+            return;
+        }
+
+        try {
+            Map<String, Map<TopicPartition, OffsetAndMetadata>> offsets = new HashMap<>();
+            for (Message<?> message : messages) {
+                send(converter.apply(message));
+                message.getMetadata(IncomingKafkaRecordMetadata.class).ifPresent(metadata -> {
+                    if (metadata.getConsumerGroupId() != null) {
+                        offsets.computeIfAbsent(metadata.getConsumerGroupId(), g -> new HashMap<>())
+                                .merge(new TopicPartition(metadata.getTopic(), metadata.getPartition()),
+                                        new OffsetAndMetadata(metadata.getOffset() + 1),
+                                        (a, b) -> a.offset() >= b.offset() ? a : b);
+                    }
+                });
+            }
+            for (Map.Entry<String, Map<TopicPartition, OffsetAndMetadata>> entry : offsets.entrySet()) {
+                producer.sendOffsetsToTransaction(entry.getValue(), entry.getKey());
+            }
+            // Commit flushes the pending records, and fails if one of them cannot be written
+            producer.commitTransaction();
+        } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+            fatal(messages, e);
+            return;
+        } catch (RuntimeException e) {
+            abort(messages, e);
+            return;
+        }
+
+        committed.incrementAndGet();
+        log.transactionCommitted(channel, messages.size());
+        CompletableFuture.allOf(messages.stream()
+                .map(m -> m.ack().toCompletableFuture())
+                .toArray(CompletableFuture[]::new))
+                .exceptionally(f -> {
+                    onFailure.accept(f);
+                    return null;
+                })
+                .join();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void send(ProducerRecord<?, ?> record) {
+        ((Producer) producer).send(record);
+    }
+
+    private void abort(List<Message<?>> messages, Throwable failure) {
+        log.transactionAborted(channel, messages.size(), failure);
+        aborted.incrementAndGet();
+        try {
+            producer.abortTransaction();
+        } catch (KafkaException e) {
+            fatal(messages, e);
+            return;
+        }
+        nack(messages, failure);
+    }
+
+    /**
+     * The producer cannot be used anymore (fenced by another instance, unauthorized...): nack the messages, report
+     * the failure, and stop consuming.
+     */
+    private void fatal(List<Message<?>> messages, Throwable failure) {
+        log.transactionalProducerFailure(channel, failure);
+        aborted.incrementAndGet();
+        onFailure.accept(failure);
+        cancel();
+        nack(messages, failure);
+    }
+
+    private void nack(List<Message<?>> messages, Throwable failure) {
+        CompletableFuture.allOf(messages.stream()
+                .map(m -> m.nack(failure).toCompletableFuture())
+                .toArray(CompletableFuture[]::new))
+                .exceptionally(f -> {
+                    onFailure.accept(f);
+                    return null;
+                })
+                .join();
+    }
+
+    /**
+     * @return the number of committed transactions
+     */
+    long getCommittedTransactions() {
+        return committed.get();
+    }
+
+    /**
+     * @return the number of aborted transactions
+     */
+    long getAbortedTransactions() {
+        return aborted.get();
+    }
+
+    void cancel() {
+        Subscription s;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            s = subscription;
+            if (timerId != -1) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+        }
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    void close() {
+        cancel();
+        executor.shutdown();
+    }
+}
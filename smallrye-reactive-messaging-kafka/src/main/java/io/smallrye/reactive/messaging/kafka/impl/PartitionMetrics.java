@@ -0,0 +1,223 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.commit.KafkaCommitHandler;
+import io.smallrye.reactive.messaging.kafka.commit.KafkaThrottledLatestProcessedCommit;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+
+/**
+ * Tracks, for each partition consumed by a {@link KafkaSource}, the committed offset, the last received offset, the
+ * lag (log end offset minus committed offset), the number of unacknowledged records (with the {@code throttled}
+ * commit strategy), and the latency between the record timestamp and its acknowledgement.
+ * <p>
+ * The committed and log end offsets are periodically retrieved from the broker.
+ * These values are exposed as metrics (if a metric registry is available) and in the readiness health report.
+ */
+public class PartitionMetrics {
+
+    private final Vertx vertx;
+    private final KafkaConsumer<?, ?> consumer;
+    private final ChannelMetrics metrics;
+    private final KafkaCommitHandler commitHandler;
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+    private final long timerId;
+
+    public PartitionMetrics(Vertx vertx, KafkaConsumer<?, ?> consumer, ChannelMetrics metrics,
+            KafkaCommitHandler commitHandler, long interval) {
+        this.vertx = vertx;
+        this.consumer = consumer;
+        this.metrics = metrics;
+        this.commitHandler = commitHandler;
+        this.timerId = vertx.setPeriodic(interval, x -> refresh());
+    }
+
+    /**
+     * Records the reception of a record.
+     * This method is called from the event loop.
+     *
+     * @param record the record
+     */
+    public void received(IncomingKafkaRecord<?, ?> record) {
+        get(record.getTopic(), record.getPartition()).lastReceivedOffset = record.getOffset();
+    }
+
+    /**
+     * Wraps the given commit handler to record the acknowledgement latency of each record.
+     *
+     * @param delegate the commit handler
+     * @return the wrapped commit handler, to be passed to the {@link IncomingKafkaRecord}
+     */
+    public KafkaCommitHandler instrument(KafkaCommitHandler delegate) {
+        return new KafkaCommitHandler() {
+            @Override
+            public <K, V> IncomingKafkaRecord<K, V> received(IncomingKafkaRecord<K, V> record) {
+                return delegate.received(record);
+            }
+
+            @Override
+            public void terminate() {
+                delegate.terminate();
+            }
+
+            @Override
+            public void partitionsAssigned(Collection<TopicPartition> partitions) {
+                delegate.partitionsAssigned(partitions);
+            }
+
+            @Override
+            public void partitionsRevoked(Collection<TopicPartition> partitions) {
+                delegate.partitionsRevoked(partitions);
+            }
+
+            @Override
+            public CompletionStage<Void> discarded(String topic, int partition, long offset) {
+                return delegate.discarded(topic, partition, offset);
+            }
+
+            @Override
+            public <K, V> CompletionStage<Void> handle(IncomingKafkaRecord<K, V> record) {
+                Instant timestamp = record.getTimestamp();
+                if (timestamp != null && timestamp.toEpochMilli() > 0) {
+                    get(record.getTopic(), record.getPartition())
+                            .acknowledged(System.currentTimeMillis() - timestamp.toEpochMilli());
+                }
+                return delegate.handle(record);
+            }
+        };
+    }
+
+    private PartitionState get(String topic, int partition) {
+        return partitions.computeIfAbsent(new TopicPartition(topic, partition), PartitionState::new);
+    }
+
+    /**
+     * Retrieves the assignment, and the committed and log end offsets of the assigned partitions.
+     * Partitions no longer assigned are forgotten.
+     */
+    private void refresh() {
+        io.vertx.kafka.client.consumer.KafkaConsumer<?, ?> delegate = consumer.getDelegate();
+        delegate.assignment(assignment -> {
+            if (assignment.failed()) {
+                return;
+            }
+            Set<TopicPartition> assigned = assignment.result();
+            for (TopicPartition tp : new HashSet<>(partitions.keySet())) {
+                if (!assigned.contains(tp)) {
+                    partitions.remove(tp).close();
+                }
+            }
+            if (assigned.isEmpty()) {
+                return;
+            }
+            delegate.endOffsets(assigned, ar -> {
+                if (ar.succeeded()) {
+                    ar.result().forEach((tp, offset) -> get(tp.getTopic(), tp.getPartition()).logEndOffset = offset);
+                }
+            });
+            for (TopicPartition tp : assigned) {
+                delegate.committed(tp, ar -> {
+                    if (ar.succeeded() && ar.result() != null) {
+                        get(tp.getTopic(), tp.getPartition()).committedOffset = ar.result().getOffset();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return a textual summary of the partition metrics, used in the health report
+     */
+    public String summary() {
+        return partitions.values().stream()
+                .sorted((a, b) -> a.tp.toString().compareTo(b.tp.toString()))
+                .map(PartitionState::toString)
+                .collect(Collectors.joining(", "));
+    }
+
+    public void close() {
+        vertx.cancelTimer(timerId);
+        partitions.values().forEach(PartitionState::close);
+        partitions.clear();
+    }
+
+    private class PartitionState {
+        private final TopicPartition tp;
+        private final Tag[] tags;
+        private final LongConsumer latencyHistogram;
+
+        volatile long committedOffset = -1;
+        volatile long lastReceivedOffset = -1;
+        volatile long logEndOffset = -1;
+        volatile long lastAckLatency = -1;
+
+        PartitionState(TopicPartition tp) {
+            this.tp = tp;
+            this.tags = new Tag[] {
+                    new Tag("topic", tp.getTopic()),
+                    new Tag("partition", Integer.toString(tp.getPartition()))
+            };
+            metrics.gauge("mp.messaging.kafka.partition.committed-offset",
+                    "The last committed offset of the partition", MetricUnits.NONE, () -> committedOffset, tags);
+            metrics.gauge("mp.messaging.kafka.partition.received-offset",
+                    "The offset of the last record received from the partition", MetricUnits.NONE,
+                    () -> lastReceivedOffset, tags);
+            metrics.gauge("mp.messaging.kafka.partition.lag",
+                    "The number of records between the committed offset and the end of the partition",
+                    MetricUnits.NONE, this::lag, tags);
+            metrics.gauge("mp.messaging.kafka.partition.unacknowledged",
+                    "The number of records received from the partition and not yet acknowledged", MetricUnits.NONE,
+                    this::unacknowledged, tags);
+            latencyHistogram = metrics.histogram("mp.messaging.kafka.partition.ack-latency",
+                    "The time between the record timestamp and its acknowledgement", MetricUnits.MILLISECONDS, tags);
+        }
+
+        long lag() {
+            if (logEndOffset < 0 || committedOffset < 0) {
+                return -1;
+            }
+            return Math.max(0, logEndOffset - committedOffset);
+        }
+
+        long unacknowledged() {
+            if (commitHandler instanceof KafkaThrottledLatestProcessedCommit) {
+                return ((KafkaThrottledLatestProcessedCommit) commitHandler)
+                        .getUnacknowledgedRecords(tp.getTopic(), tp.getPartition());
+            }
+            return -1;
+        }
+
+        void acknowledged(long latency) {
+            lastAckLatency = latency;
+            latencyHistogram.accept(latency);
+        }
+
+        void close() {
+            metrics.remove(tags);
+        }
+
+        @Override
+        public String toString() {
+            return tp.getTopic() + "-" + tp.getPartition()
+                    + " [committed=" + committedOffset
+                    + ", received=" + lastReceivedOffset
+                    + ", lag=" + lag()
+                    + ", unacknowledged=" + unacknowledged()
+                    + ", last-ack-latency=" + lastAckLatency + "ms]";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * A serializer wrapping the configured {@code value.serializer} of a sink.
+ * {@link Serialized} values, i.e. record values that have never been deserialized, are written as-is. Other values
+ * are delegated to the configured serializer.
+ */
+public class PassThroughSerializer implements Serializer<Object> {
+
+    private final Serializer<Object> delegate;
+
+    @SuppressWarnings("unchecked")
+    public PassThroughSerializer(Serializer<?> delegate) {
+        this.delegate = (Serializer<Object>) delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data instanceof Serialized) {
+            return ((Serialized) data).getBytes();
+        }
+        return delegate.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof Serialized) {
+            return ((Serialized) data).getBytes();
+        }
+        return delegate.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * A value that is already serialized.
+     */
+    public static final class Serialized {
+        private final byte[] bytes;
+
+        public Serialized(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.LongConsumer;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.kafka.client.producer.KafkaWriteStream;
+
+/**
+ * One of the producers used by a {@link KafkaSink}.
+ * <p>
+ * Each shard owns its Kafka producer (and so its sender thread and buffer pool), and limits the number of records
+ * sent concurrently. Records sent while the limit is reached are queued and sent when an in-flight record
+ * completes.
+ * <p>
+ * The send latency of a record is the time between its write to the producer and its acknowledgement by the broker.
+ * It does not include the time spent waiting for an in-flight slot.
+ */
+class ProducerShard {
+
+    private final int index;
+    private final KafkaWriteStream<?, ?> stream;
+    private final long maxInflight;
+    private final LongConsumer latencyListener;
+
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private long inflight;
+    private volatile long lastLatency = -1;
+
+    ProducerShard(int index, KafkaWriteStream<?, ?> stream, long maxInflight) {
+        this(index, stream, maxInflight, latency -> {
+        });
+    }
+
+    /**
+     * @param latencyListener called with the send latency, in nanoseconds, of each record acknowledged by the broker
+     */
+    ProducerShard(int index, KafkaWriteStream<?, ?> stream, long maxInflight, LongConsumer latencyListener) {
+        this.index = index;
+        this.stream = stream;
+        this.maxInflight = maxInflight;
+        this.latencyListener = latencyListener;
+    }
+
+    int index() {
+        return index;
+    }
+
+    KafkaWriteStream<?, ?> stream() {
+        return stream;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void send(ProducerRecord<?, ?> record, Handler<AsyncResult<RecordMetadata>> handler) {
+        Runnable task = () -> {
+            long start = System.nanoTime();
+            stream.send((ProducerRecord) record, ar -> {
+                if (ar.succeeded()) {
+                    long latency = System.nanoTime() - start;
+                    lastLatency = latency;
+                    latencyListener.accept(latency);
+                }
+                release();
+                handler.handle(ar);
+            });
+        };
+        synchronized (this) {
+            if (inflight >= maxInflight) {
+                waiting.add(task);
+                return;
+            }
+            inflight++;
+        }
+        task.run();
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                inflight--;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    /**
+     * @return the number of records sent by this shard and not yet acknowledged by the broker.
+     */
+    synchronized long inflight() {
+        return inflight;
+    }
+
+    /**
+     * @return the number of records waiting for an in-flight slot of this shard.
+     */
+    synchronized int pending() {
+        return waiting.size();
+    }
+
+    /**
+     * @return the send latency of the last record acknowledged by the broker, in nanoseconds, -1 if none
+     */
+    long lastLatency() {
+        return lastLatency;
+    }
+}
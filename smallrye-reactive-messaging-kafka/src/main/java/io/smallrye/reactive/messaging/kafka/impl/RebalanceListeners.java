@@ -16,6 +16,7 @@ import org.apache.kafka.common.TopicPartition;
 import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
 import io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener;
 import io.smallrye.reactive.messaging.kafka.commit.KafkaCommitHandler;
+import io.smallrye.reactive.messaging.kafka.fault.KafkaFailureHandler;
 import io.vertx.kafka.client.consumer.KafkaReadStream;
 import io.vertx.kafka.client.consumer.impl.KafkaReadStreamImpl;
 import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
@@ -27,7 +28,8 @@ public class RebalanceListeners {
             String consumerGroup,
             Instance<KafkaConsumerRebalanceListener> instances,
             KafkaConsumer<?, ?> consumer,
-            KafkaCommitHandler commitHandler) {
+            KafkaCommitHandler commitHandler,
+            KafkaFailureHandler failureHandler) {
         Optional<KafkaConsumerRebalanceListener> rebalanceListener = findMatchingListener(config, consumerGroup, instances);
 
         if (rebalanceListener.isPresent()) {
@@ -38,6 +40,7 @@ public class RebalanceListeners {
                     long demand = consumer.demand();
                     consumer.pause();
                     log.executingConsumerRevokedRebalanceListener(consumerGroup);
+                    failureHandler.partitionsRevoked(wrap(partitions));
 
                     try {
                         listener.onPartitionsRevoked(consumer.getDelegate().unwrap(), partitions);
@@ -56,6 +59,7 @@ public class RebalanceListeners {
                     consumer.pause();
                     Collection<io.vertx.kafka.client.common.TopicPartition> tps = wrap(partitions);
                     commitHandler.partitionsAssigned(tps);
+                    failureHandler.partitionsAssigned(tps);
                     try {
                         listener.onPartitionsAssigned(consumer.getDelegate().unwrap(), partitions);
                         log.executedConsumerAssignedRebalanceListener(consumerGroup);
@@ -75,6 +79,7 @@ public class RebalanceListeners {
                     long demand = consumer.demand();
                     consumer.pause();
                     try {
+                        failureHandler.partitionsRevoked(tps);
                         commitHandler.partitionsRevoked(tps);
                     } finally {
                         consumer.fetch(demand);
@@ -88,6 +93,7 @@ public class RebalanceListeners {
                     consumer.pause();
                     try {
                         commitHandler.partitionsAssigned(tps);
+                        failureHandler.partitionsAssigned(tps);
                     } finally {
                         consumer.fetch(demand);
                     }
@@ -4,16 +4,31 @@ import java.net.URI;
 import java.time.ZonedDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import io.smallrye.reactive.messaging.ce.IncomingCloudEventMetadata;
 import io.smallrye.reactive.messaging.kafka.IncomingKafkaCloudEventMetadata;
+import io.smallrye.reactive.messaging.kafka.impl.DeferredPayload;
 
 public class DefaultIncomingKafkaCloudEventMetadata<K, T> implements IncomingKafkaCloudEventMetadata<K, T> {
 
     private final IncomingCloudEventMetadata<T> delegate;
+    private final DeferredPayload<T> data;
 
     public DefaultIncomingKafkaCloudEventMetadata(IncomingCloudEventMetadata<T> delegate) {
         this.delegate = delegate;
+        this.data = null;
+    }
+
+    /**
+     * Creates a new instance whose data is decoded on first access.
+     *
+     * @param delegate the metadata, its data is ignored
+     * @param data decodes the data
+     */
+    public DefaultIncomingKafkaCloudEventMetadata(IncomingCloudEventMetadata<T> delegate, Supplier<T> data) {
+        this.delegate = delegate;
+        this.data = new DeferredPayload<>(data);
     }
 
     @Override
@@ -68,6 +83,9 @@ public class DefaultIncomingKafkaCloudEventMetadata<K, T> implements IncomingKaf
 
     @Override
     public T getData() {
+        if (data != null) {
+            return data.get();
+        }
         return delegate.getData();
     }
 }
@@ -12,6 +12,8 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoField;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
@@ -28,7 +30,6 @@ import io.smallrye.reactive.messaging.kafka.KafkaConnectorOutgoingConfiguration;
 import io.smallrye.reactive.messaging.kafka.OutgoingKafkaRecordMetadata;
 import io.smallrye.reactive.messaging.kafka.Record;
 import io.vertx.core.json.JsonObject;
-import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
 import io.vertx.mutiny.kafka.client.producer.KafkaHeader;
 
@@ -64,15 +65,18 @@ public class KafkaCloudEventHelper {
             KafkaConsumerRecord<K, T> record) {
         DefaultCloudEventMetadataBuilder<T> builder = new DefaultCloudEventMetadataBuilder<>();
 
-        JsonObject content;
+        // Only the envelope is read, the data is decoded on first access
+        Function<String, String> content;
+        Supplier<Object> data;
         if (record.value() instanceof JsonObject) {
-            content = (JsonObject) record.value();
-        } else if (record.value() instanceof String) {
-            content = new JsonObject((String) record.value());
-        } else if (record.value() instanceof byte[]) {
-            byte[] bytes = (byte[]) record.value();
-            Buffer buffer = Buffer.buffer(bytes);
-            content = buffer.toJsonObject();
+            JsonObject json = (JsonObject) record.value();
+            content = json::getString;
+            Object value = json.getValue(StructuredCloudEventCodec.DATA);
+            data = () -> value;
+        } else if (record.value() instanceof String || record.value() instanceof byte[]) {
+            StructuredCloudEventCodec.Envelope envelope = StructuredCloudEventCodec.parse(record.value());
+            content = envelope::get;
+            data = envelope.data();
         } else {
             throw new IllegalArgumentException(
                     "Invalid value type. Structured Cloud Event can only be created from String, JsonObject and byte[], found: "
@@ -80,33 +84,33 @@ public class KafkaCloudEventHelper {
         }
 
         // Required
-        builder.withSpecVersion(content.getString(CloudEventMetadata.CE_ATTRIBUTE_SPEC_VERSION));
-        builder.withId(content.getString(CloudEventMetadata.CE_ATTRIBUTE_ID));
-        String source = content.getString(CloudEventMetadata.CE_ATTRIBUTE_SOURCE);
+        builder.withSpecVersion(content.apply(CloudEventMetadata.CE_ATTRIBUTE_SPEC_VERSION));
+        builder.withId(content.apply(CloudEventMetadata.CE_ATTRIBUTE_ID));
+        String source = content.apply(CloudEventMetadata.CE_ATTRIBUTE_SOURCE);
         if (source == null) {
             throw new IllegalArgumentException(
                     "The JSON value must contain the " + CloudEventMetadata.CE_ATTRIBUTE_SOURCE + " attribute");
         }
         builder.withSource(URI.create(source));
-        builder.withType(content.getString(CloudEventMetadata.CE_ATTRIBUTE_TYPE));
+        builder.withType(content.apply(CloudEventMetadata.CE_ATTRIBUTE_TYPE));
 
         // Optional
-        String ct = content.getString(CloudEventMetadata.CE_ATTRIBUTE_DATA_CONTENT_TYPE);
+        String ct = content.apply(CloudEventMetadata.CE_ATTRIBUTE_DATA_CONTENT_TYPE);
         if (ct != null) {
             builder.withDataContentType(ct);
         }
 
-        String schema = content.getString(CloudEventMetadata.CE_ATTRIBUTE_DATA_SCHEMA);
+        String schema = content.apply(CloudEventMetadata.CE_ATTRIBUTE_DATA_SCHEMA);
         if (schema != null) {
             builder.withDataSchema(URI.create(schema));
         }
 
-        String subject = content.getString(CloudEventMetadata.CE_ATTRIBUTE_SUBJECT);
+        String subject = content.apply(CloudEventMetadata.CE_ATTRIBUTE_SUBJECT);
         if (subject != null) {
             builder.withSubject(subject);
         }
 
-        String time = content.getString(CloudEventMetadata.CE_ATTRIBUTE_TIME);
+        String time = content.apply(CloudEventMetadata.CE_ATTRIBUTE_TIME);
         if (time != null) {
             builder.withTimestamp(ZonedDateTime.parse(time, RFC3339_DATE_FORMAT));
         }
@@ -117,16 +121,11 @@ public class KafkaCloudEventHelper {
         }
         builder.withExtension(CE_KAFKA_TOPIC, record.topic());
 
-        // Data
-        Object data = content.getValue("data");
-        //noinspection unchecked
-        builder
-                .withData((T) data);
-
         BaseCloudEventMetadata<T> cloudEventMetadata = builder.build();
         cloudEventMetadata.validate();
+        //noinspection unchecked
         return new DefaultIncomingKafkaCloudEventMetadata<>(
-                new DefaultIncomingCloudEventMetadata<>(cloudEventMetadata));
+                new DefaultIncomingCloudEventMetadata<>(cloudEventMetadata), () -> (T) data.get());
     }
 
     public static <T, K> IncomingKafkaCloudEventMetadata<K, T> createFromBinaryCloudEvent(
@@ -394,39 +393,56 @@ public class KafkaCloudEventHelper {
             headers.add(new RecordHeader(KAFKA_HEADER_CONTENT_TYPE, STRUCTURED_CONTENT_TYPE.getBytes()));
         }
 
-        // We need to build the JSON Object representing the Cloud Event
-        JsonObject json = new JsonObject();
-        json.put(CE_ATTRIBUTE_SPEC_VERSION, ceMetadata.getSpecVersion())
-                .put(CE_ATTRIBUTE_TYPE, type)
-                .put(CE_ATTRIBUTE_SOURCE, source)
-                .put(CE_ATTRIBUTE_ID, ceMetadata.getId());
-
         ZonedDateTime time = ceMetadata.getTimeStamp().orElse(null);
+        Instant instant = null;
         if (time != null) {
-            json.put(CE_ATTRIBUTE_TIME, time.toInstant());
+            instant = time.toInstant();
         } else if (configuration.getCloudEventsInsertTimestamp()) {
-            json.put(CE_ATTRIBUTE_TIME, Instant.now());
+            instant = Instant.now();
         }
 
-        schema.ifPresent(s -> json.put(CE_ATTRIBUTE_DATA_SCHEMA, s));
-        dataContentType.ifPresent(s -> json.put(CE_ATTRIBUTE_DATA_CONTENT_TYPE, s));
-        subject.ifPresent(s -> json.put(CE_ATTRIBUTE_SUBJECT, s));
-
-        // Extensions
-        ceMetadata.getExtensions().forEach(json::put);
-
-        // Encode the payload to json
         Object payload = message.getPayload();
         if (payload instanceof Record) {
             payload = ((Record) payload).value();
         }
-        if (payload instanceof String) {
-            json.put("data", payload);
-        } else {
-            json.put("data", JsonObject.mapFrom(payload));
-        }
 
-        return new ProducerRecord<>(topic, partition, timestamp, key, json.encode(), headers);
+        // Write the JSON representation of the Cloud Event, without building a JSON object
+        OutgoingCloudEventMetadata<?> ce = ceMetadata;
+        Instant ts = instant;
+        Object data = payload;
+        String value = StructuredCloudEventCodec.encode(generator -> {
+            generator.writeStringField(CE_ATTRIBUTE_SPEC_VERSION, ce.getSpecVersion());
+            generator.writeStringField(CE_ATTRIBUTE_TYPE, type);
+            generator.writeStringField(CE_ATTRIBUTE_SOURCE, source);
+            generator.writeStringField(CE_ATTRIBUTE_ID, ce.getId());
+            if (ts != null) {
+                // Same format as the JSON object encoding of instants
+                generator.writeStringField(CE_ATTRIBUTE_TIME, DateTimeFormatter.ISO_INSTANT.format(ts));
+            }
+            if (schema.isPresent()) {
+                generator.writeStringField(CE_ATTRIBUTE_DATA_SCHEMA, schema.get().toString());
+            }
+            if (dataContentType.isPresent()) {
+                generator.writeStringField(CE_ATTRIBUTE_DATA_CONTENT_TYPE, dataContentType.get());
+            }
+            if (subject.isPresent()) {
+                generator.writeStringField(CE_ATTRIBUTE_SUBJECT, subject.get());
+            }
+
+            // Extensions
+            for (Map.Entry<String, Object> extension : ce.getExtensions().entrySet()) {
+                generator.writeObjectField(extension.getKey(), extension.getValue());
+            }
+
+            // Encode the payload to json
+            if (data instanceof String) {
+                generator.writeStringField(StructuredCloudEventCodec.DATA, (String) data);
+            } else {
+                generator.writeObjectField(StructuredCloudEventCodec.DATA, data);
+            }
+        });
+
+        return new ProducerRecord<>(topic, partition, timestamp, key, value, headers);
     }
 
     public enum CloudEventMode {
@@ -0,0 +1,178 @@
+package io.smallrye.reactive.messaging.kafka.impl.ce;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+/**
+ * Reads and writes structured Cloud Events using the Jackson streaming API, without building a JSON tree.
+ * <p>
+ * When reading, only the string attributes of the envelope are read eagerly. A {@code data} object or array is kept
+ * as a slice of the record value, and only decoded (as a {@link JsonObject} or {@link JsonArray}) when the data is
+ * accessed. When writing, the attributes and the data are written directly in a buffer reused by the thread.
+ */
+final class StructuredCloudEventCodec {
+
+    static final String DATA = "data";
+
+    /**
+     * Buffers above this size are not kept for the next encoding.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(StringWriter::new);
+
+    private StructuredCloudEventCodec() {
+        // avoid direct instantiation
+    }
+
+    /**
+     * A parsed structured Cloud Event.
+     */
+    static final class Envelope {
+        private final Map<String, String> attributes;
+        private final Supplier<Object> data;
+
+        private Envelope(Map<String, String> attributes, Supplier<Object> data) {
+            this.attributes = attributes;
+            this.data = data;
+        }
+
+        /**
+         * @param name the attribute name
+         * @return the value of the attribute if it is a string, {@code null} otherwise
+         */
+        String get(String name) {
+            return attributes.get(name);
+        }
+
+        /**
+         * @return the supplier of the data, which decodes it on each call
+         */
+        Supplier<Object> data() {
+            return data;
+        }
+    }
+
+    /**
+     * Reads the envelope of a structured Cloud Event.
+     *
+     * @param value the record value, a {@code String} or a {@code byte[]}
+     * @return the envelope
+     */
+    static Envelope parse(Object value) {
+        boolean binary = value instanceof byte[];
+        ObjectMapper mapper = DatabindCodec.mapper();
+        JsonFactory factory = mapper.getFactory();
+        Map<String, String> attributes = new HashMap<>();
+        Supplier<Object> data = () -> null;
+        try (JsonParser parser = binary ? factory.createParser((byte[]) value) : factory.createParser((String) value)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("The structured Cloud Event must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (DATA.equals(name)) {
+                    data = readData(parser, token, value, binary);
+                } else if (token == JsonToken.VALUE_STRING) {
+                    attributes.put(name, parser.getText());
+                } else {
+                    // Only the string attributes are used
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read the structured Cloud Event", e);
+        }
+        return new Envelope(attributes, data);
+    }
+
+    private static Supplier<Object> readData(JsonParser parser, JsonToken token, Object value, boolean binary)
+            throws IOException {
+        switch (token) {
+            case START_OBJECT:
+            case START_ARRAY:
+                // Keep the location of the object or array, it is decoded when accessed
+                long start = binary ? parser.getTokenLocation().getByteOffset()
+                        : parser.getTokenLocation().getCharOffset();
+                parser.skipChildren();
+                long end = binary ? parser.getCurrentLocation().getByteOffset()
+                        : parser.getCurrentLocation().getCharOffset();
+                boolean object = token == JsonToken.START_OBJECT;
+                return () -> decode(value, binary, (int) start, (int) end, object);
+            case VALUE_STRING:
+                String text = parser.getText();
+                return () -> text;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                Number number = parser.getNumberValue();
+                return () -> number;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                Boolean bool = parser.getBooleanValue();
+                return () -> bool;
+            default:
+                return () -> null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object decode(Object value, boolean binary, int start, int end, boolean object) {
+        ObjectMapper mapper = DatabindCodec.mapper();
+        Class<?> type = object ? Map.class : List.class;
+        Object decoded;
+        try {
+            if (binary) {
+                decoded = mapper.readValue((byte[]) value, start, end - start, type);
+            } else {
+                decoded = mapper.readValue(((String) value).substring(start, end), type);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read the data of the structured Cloud Event", e);
+        }
+        return object ? new JsonObject((Map<String, Object>) decoded) : new JsonArray((List<Object>) decoded);
+    }
+
+    /**
+     * Writes a structured Cloud Event.
+     *
+     * @param writer writes the attributes and the data of the event, the enclosing JSON object is written by this method
+     * @return the JSON representation of the event
+     */
+    static String encode(Writer writer) {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try (JsonGenerator generator = DatabindCodec.mapper().getFactory().createGenerator(buffer)) {
+            generator.writeStartObject();
+            writer.write(generator);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the structured Cloud Event", e);
+        }
+        String result = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -123,6 +123,43 @@ public class KafkaSinkTest extends KafkaTestBase {
         assertThat(expected).hasValue(10);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSinkUsingMultipleProducers() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        usage.consumeStrings(topic, 100, 10, TimeUnit.SECONDS,
+                latch::countDown,
+                (k, v) -> received.add(k + "-" + v));
+
+        MapBasedConfig config = getBaseConfig()
+                .with("topic", topic)
+                .with("value.serializer", StringSerializer.class.getName())
+                .with("producer-instances", 3)
+                .with("max-inflight-messages", 2L)
+                .with("channel-name", "testSinkUsingMultipleProducers");
+        KafkaConnectorOutgoingConfiguration oc = new KafkaConnectorOutgoingConfiguration(config);
+        sink = new KafkaSink(vertx, oc, CountKafkaCdiEvents.noCdiEvents);
+        assertThat(sink.getInflightRecordsPerProducer()).hasSize(3);
+
+        Subscriber<? extends Message<?>> subscriber = sink.getSink().build();
+        Multi.createFrom().range(0, 100)
+                .map(i -> Message.of(Integer.toString(i))
+                        .addMetadata(OutgoingKafkaRecordMetadata.<String> builder().withKey("k" + (i % 5)).build()))
+                .subscribe((Subscriber<? super Message<String>>) subscriber);
+
+        assertThat(latch.await(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(received).hasSize(100);
+        // Records with the same key are written in order
+        for (int k = 0; k < 5; k++) {
+            String prefix = "k" + k + "-";
+            List<Integer> values = new ArrayList<>();
+            received.stream().filter(s -> s.startsWith(prefix))
+                    .forEach(s -> values.add(Integer.parseInt(s.substring(prefix.length()))));
+            assertThat(values).hasSize(20).isSorted();
+        }
+    }
+
     private MapBasedConfig getBaseConfig() {
         return new MapBasedConfig()
                 .with("bootstrap.servers", kafka.getBootstrapServers())
@@ -0,0 +1,52 @@
+package io.smallrye.reactive.messaging.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.smallrye.reactive.messaging.kafka.base.WeldTestBase;
+
+public class KafkaTableInjectionTest extends WeldTestBase {
+
+    @Test
+    void testTableOfATableChannelIsInjected() {
+        TableBean bean = runApplication(new MapBasedConfig()
+                .with("mp.messaging.incoming.prices.connector", KafkaConnector.CONNECTOR_NAME)
+                .with("mp.messaging.incoming.prices.table", true)
+                .with("mp.messaging.incoming.prices.bootstrap.servers", "localhost:1")
+                .with("mp.messaging.incoming.prices.value.deserializer", StringDeserializer.class.getName()),
+                TableBean.class);
+
+        assertThat(bean.table().getChannel()).isEqualTo("prices");
+        assertThat(bean.table().isBootstrapped()).isFalse();
+    }
+
+    @Test
+    void testTableOfAnotherChannelIsNotInjected() {
+        addBeans(TableBean.class);
+        runApplication(new MapBasedConfig()
+                .with("mp.messaging.incoming.prices.connector", KafkaConnector.CONNECTOR_NAME)
+                .with("mp.messaging.incoming.prices.bootstrap.servers", "localhost:1")
+                .with("mp.messaging.incoming.prices.value.deserializer", StringDeserializer.class.getName()));
+
+        assertThatThrownBy(() -> get(TableBean.class)).hasStackTraceContaining("SRMSG18019");
+    }
+
+    @Dependent
+    public static class TableBean {
+        @Inject
+        @Channel("prices")
+        KafkaTable<String, String> table;
+
+        KafkaTable<String, String> table() {
+            return table;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.smallrye.reactive.messaging.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.inject.Instance;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.smallrye.reactive.messaging.kafka.base.WeldTestBase;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSource;
+import io.smallrye.reactive.messaging.kafka.impl.PassThroughSerializer;
+import io.vertx.kafka.client.consumer.KafkaReadStream;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+
+public class LazyDeserializationTest extends WeldTestBase {
+
+    private static final String TOPIC = "my-topic";
+
+    public Vertx vertx;
+    private MockConsumer<String, byte[]> consumer;
+
+    @BeforeEach
+    public void initializing() {
+        vertx = Vertx.vertx();
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        CountingDeserializer.COUNT.set(0);
+    }
+
+    @AfterEach
+    void closing() {
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testPayloadIsDeserializedOnFirstAccess() {
+        MapBasedConfig config = new MapBasedConfig()
+                .with("channel-name", "channel")
+                .with("topic", TOPIC)
+                .with("health-enabled", false)
+                .with("tracing-enabled", false)
+                .with("lazy-deserialization", true)
+                .with("value.deserializer", CountingDeserializer.class.getName());
+        KafkaSource<String, String> source = new KafkaSource<>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config), getConsumerRebalanceListeners(),
+                CountKafkaCdiEvents.noCdiEvents, -1);
+        injectMockConsumer(source, consumer);
+
+        List<IncomingKafkaRecord<String, String>> list = new ArrayList<>();
+        source.getStream().subscribe().with(list::add);
+
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp0));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "k0", "v0".getBytes(StandardCharsets.UTF_8)));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, "k1", "v1".getBytes(StandardCharsets.UTF_8)));
+        });
+
+        await().until(() -> list.size() == 2);
+        assertThat(CountingDeserializer.COUNT).hasValue(0);
+
+        IncomingKafkaRecord<String, String> first = list.get(0);
+        assertThat(first.getKey()).isEqualTo("k0");
+        assertThat(first.getUndecodedPayload()).isEqualTo("v0".getBytes(StandardCharsets.UTF_8));
+
+        // Derived messages keep the payload deferred
+        Message<String> derived = first.withMetadata(Metadata.of(new Object()));
+        assertThat(derived).isInstanceOf(IncomingKafkaRecord.class);
+        assertThat(((IncomingKafkaRecord<String, String>) derived).getUndecodedPayload()).isNotNull();
+        assertThat(CountingDeserializer.COUNT).hasValue(0);
+
+        assertThat(first.getPayload()).isEqualTo("v0");
+        assertThat(first.getPayload()).isEqualTo("v0");
+        assertThat(derived.getPayload()).isEqualTo("v0");
+        assertThat(CountingDeserializer.COUNT).hasValue(1);
+        assertThat(first.getUndecodedPayload()).isNull();
+
+        assertThat(list.get(1).getPayload()).isEqualTo("v1");
+        assertThat(CountingDeserializer.COUNT).hasValue(2);
+
+        source.closeQuietly();
+    }
+
+    @Test
+    void testPassThroughSerializer() {
+        PassThroughSerializer serializer = new PassThroughSerializer(new StringSerializer());
+        byte[] raw = { 1, 2, 3 };
+        assertThat(serializer.serialize(TOPIC, new PassThroughSerializer.Serialized(raw))).isSameAs(raw);
+        assertThat(serializer.serialize(TOPIC, "hello")).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void injectMockConsumer(KafkaSource<String, String> source, MockConsumer<String, byte[]> consumer) {
+        try {
+            KafkaConsumer<String, String> cons = source.getConsumer();
+            KafkaReadStream stream = cons.getDelegate().asStream();
+            Field field = stream.getClass().getDeclaredField("consumer");
+            field.setAccessible(true);
+            field.set(stream, consumer);
+            // Close the initial consumer.
+            cons.closeAndAwait();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to inject mock consumer", e);
+        }
+    }
+
+    public Instance<KafkaConsumerRebalanceListener> getConsumerRebalanceListeners() {
+        return getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class);
+    }
+
+    public static class CountingDeserializer extends StringDeserializer {
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public String deserialize(String topic, Headers headers, byte[] data) {
+            COUNT.incrementAndGet();
+            return super.deserialize(topic, headers, data);
+        }
+    }
+}
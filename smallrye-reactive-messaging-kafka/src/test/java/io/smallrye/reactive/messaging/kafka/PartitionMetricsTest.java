@@ -0,0 +1,111 @@
+package io.smallrye.reactive.messaging.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.enterprise.inject.Instance;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.smallrye.reactive.messaging.kafka.base.WeldTestBase;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSource;
+import io.vertx.kafka.client.consumer.KafkaReadStream;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+
+public class PartitionMetricsTest extends WeldTestBase {
+
+    private static final String TOPIC = "my-topic";
+
+    public Vertx vertx;
+    private MockConsumer<String, String> consumer;
+    private KafkaSource<String, String> source;
+
+    @BeforeEach
+    public void initializing() {
+        vertx = Vertx.vertx();
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    }
+
+    @AfterEach
+    void closing() {
+        if (source != null) {
+            source.closeQuietly();
+        }
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testPartitionMetrics() {
+        MapBasedConfig config = new MapBasedConfig()
+                .with("channel-name", "channel")
+                .with("topic", TOPIC)
+                .with("health-readiness-enabled", false)
+                .with("tracing-enabled", false)
+                .with("auto.commit.interval.ms", 100)
+                .with("partition-metrics-enabled", true)
+                .with("partition-metrics-interval", 100)
+                .with("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        source = new KafkaSource<>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config), getConsumerRebalanceListeners(),
+                CountKafkaCdiEvents.noCdiEvents, -1);
+        injectMockConsumer(source, consumer);
+
+        List<IncomingKafkaRecord<String, String>> list = new CopyOnWriteArrayList<>();
+        source.getStream().subscribe().with(list::add);
+
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 0L));
+        consumer.updateEndOffsets(Collections.singletonMap(tp0, 10L));
+        long timestamp = System.currentTimeMillis();
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp0));
+            for (int i = 0; i < 3; i++) {
+                consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, i, timestamp, TimestampType.CREATE_TIME, 0L,
+                        ConsumerRecord.NULL_SIZE, ConsumerRecord.NULL_SIZE, "k" + i, "v" + i));
+            }
+        });
+
+        await().until(() -> list.size() == 3);
+        await().untilAsserted(() -> assertThat(source.getPartitionMetrics().summary())
+                .isEqualTo("my-topic-0 [committed=-1, received=2, lag=-1, unacknowledged=3, last-ack-latency=-1ms]"));
+
+        list.get(0).ack().toCompletableFuture().join();
+        list.get(1).ack().toCompletableFuture().join();
+
+        await().untilAsserted(() -> assertThat(source.getPartitionMetrics().summary())
+                .startsWith("my-topic-0 [committed=2, received=2, lag=8, unacknowledged=1, last-ack-latency=")
+                .doesNotContain("last-ack-latency=-1ms"));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void injectMockConsumer(KafkaSource<String, String> source, MockConsumer<String, String> consumer) {
+        try {
+            KafkaConsumer<String, String> cons = source.getConsumer();
+            KafkaReadStream stream = cons.getDelegate().asStream();
+            Field field = stream.getClass().getDeclaredField("consumer");
+            field.setAccessible(true);
+            field.set(stream, consumer);
+            // Close the initial consumer.
+            cons.closeAndAwait();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to inject mock consumer", e);
+        }
+    }
+
+    public Instance<KafkaConsumerRebalanceListener> getConsumerRebalanceListeners() {
+        return getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class);
+    }
+}
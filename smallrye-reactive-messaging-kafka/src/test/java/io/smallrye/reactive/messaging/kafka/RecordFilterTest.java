@@ -0,0 +1,148 @@
+package io.smallrye.reactive.messaging.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.smallrye.reactive.messaging.kafka.base.WeldTestBase;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSource;
+import io.vertx.kafka.client.consumer.KafkaReadStream;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+
+public class RecordFilterTest extends WeldTestBase {
+
+    private static final String TOPIC = "my-topic";
+
+    public Vertx vertx;
+    private MockConsumer<String, byte[]> consumer;
+    private KafkaSource<String, String> source;
+
+    @BeforeEach
+    public void initializing() {
+        vertx = Vertx.vertx();
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        LazyDeserializationTest.CountingDeserializer.COUNT.set(0);
+    }
+
+    @AfterEach
+    void closing() {
+        if (source != null) {
+            source.closeQuietly();
+        }
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testFilteredRecordsAreAcknowledgedWithoutBeingDispatched() {
+        MapBasedConfig config = new MapBasedConfig()
+                .with("channel-name", "channel")
+                .with("topic", TOPIC)
+                .with("health-enabled", false)
+                .with("tracing-enabled", false)
+                .with("commit-strategy", "latest")
+                .with("lazy-deserialization", true)
+                .with("filter.headers", "tenant=acme")
+                .with("value.deserializer", LazyDeserializationTest.CountingDeserializer.class.getName());
+        source = new KafkaSource<>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config),
+                getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class),
+                CountKafkaCdiEvents.noCdiEvents, -1);
+        injectMockConsumer(source, consumer);
+
+        List<IncomingKafkaRecord<String, String>> list = new CopyOnWriteArrayList<>();
+        source.getStream().subscribe().with(list::add);
+
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp0));
+            for (int i = 0; i < 10; i++) {
+                ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(TOPIC, 0, i, "k" + i,
+                        ("v" + i).getBytes(StandardCharsets.UTF_8));
+                record.headers().add("tenant", (i == 4 ? "acme" : "other").getBytes(StandardCharsets.UTF_8));
+                consumer.addRecord(record);
+            }
+        });
+
+        // The other records are acknowledged, and never deserialized
+        await().until(() -> committed(tp0) == 10L);
+        assertThat(list).hasSize(1);
+        assertThat(LazyDeserializationTest.CountingDeserializer.COUNT).hasValue(0);
+        assertThat(list.get(0).getKey()).isEqualTo("k4");
+        assertThat(list.get(0).getPayload()).isEqualTo("v4");
+    }
+
+    @Test
+    void testFilteredRecordsAreCommittedByTheThrottledStrategy() {
+        MapBasedConfig config = new MapBasedConfig()
+                .with("channel-name", "channel")
+                .with("topic", TOPIC)
+                .with("health-enabled", false)
+                .with("tracing-enabled", false)
+                .with("commit-strategy", "throttled")
+                .with("auto.commit.interval.ms", 100)
+                .with("lazy-deserialization", true)
+                .with("filter.key-prefix", "k4")
+                .with("value.deserializer", LazyDeserializationTest.CountingDeserializer.class.getName());
+        source = new KafkaSource<>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config),
+                getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class),
+                CountKafkaCdiEvents.noCdiEvents, -1);
+        injectMockConsumer(source, consumer);
+
+        List<IncomingKafkaRecord<String, String>> list = new CopyOnWriteArrayList<>();
+        source.getStream().subscribe().with(list::add);
+
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp0));
+            for (int i = 0; i < 10; i++) {
+                consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, i, "k" + i,
+                        ("v" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+        });
+
+        // The dispatched record is not acknowledged yet, so only the records before it are committed
+        await().until(() -> list.size() == 1);
+        await().until(() -> committed(tp0) == 4L);
+        list.get(0).ack();
+        await().until(() -> committed(tp0) == 10L);
+        assertThat(LazyDeserializationTest.CountingDeserializer.COUNT).hasValue(0);
+    }
+
+    private long committed(TopicPartition tp) {
+        OffsetAndMetadata offset = consumer.committed(Collections.singleton(tp)).get(tp);
+        return offset == null ? -1 : offset.offset();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void injectMockConsumer(KafkaSource<String, String> source, MockConsumer<String, byte[]> consumer) {
+        try {
+            KafkaConsumer<String, String> cons = source.getConsumer();
+            KafkaReadStream stream = cons.getDelegate().asStream();
+            Field field = stream.getClass().getDeclaredField("consumer");
+            field.setAccessible(true);
+            field.set(stream, consumer);
+            // Close the initial consumer.
+            cons.closeAndAwait();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to inject mock consumer", e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package io.smallrye.reactive.messaging.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.smallrye.reactive.messaging.kafka.base.WeldTestBase;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSharedConsumer;
+import io.smallrye.reactive.messaging.kafka.impl.KafkaSource;
+import io.vertx.kafka.client.consumer.KafkaReadStream;
+import io.vertx.mutiny.core.Vertx;
+
+public class SharedConsumerTest extends WeldTestBase {
+
+    public Vertx vertx;
+    private MockConsumer<String, String> consumer;
+    private final List<KafkaSource<Object, Object>> sources = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void initializing() {
+        vertx = Vertx.vertx();
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    }
+
+    @AfterEach
+    void closing() {
+        sources.forEach(KafkaSource::closeQuietly);
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testRecordsAreDispatchedByTopicWithIndependentBackPressure() {
+        KafkaSharedConsumer shared = new KafkaSharedConsumer("shared", this::createSource);
+        Multi<IncomingKafkaRecord<Object, Object>> channelA = shared.register(config("a", "topic-a", null));
+        Multi<IncomingKafkaRecord<Object, Object>> channelB = shared.register(config("b", "topic-b", null));
+        RecordingSubscriber a = channelA.subscribe().withSubscriber(new RecordingSubscriber(Long.MAX_VALUE));
+        RecordingSubscriber b = channelB.subscribe().withSubscriber(new RecordingSubscriber(0));
+
+        assertThat(sources).hasSize(1);
+        await().until(() -> consumer.subscription().size() == 2);
+        assertThat(consumer.subscription()).containsExactlyInAnyOrder("topic-a", "topic-b");
+
+        TopicPartition tpa = new TopicPartition("topic-a", 0);
+        TopicPartition tpb = new TopicPartition("topic-b", 0);
+        Map<TopicPartition, Long> beginnings = new HashMap<>();
+        beginnings.put(tpa, 0L);
+        beginnings.put(tpb, 0L);
+        consumer.updateBeginningOffsets(beginnings);
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Arrays.asList(tpa, tpb));
+            for (int i = 0; i < 10; i++) {
+                consumer.addRecord(record("topic-a", i, null));
+                consumer.addRecord(record("topic-b", i, null));
+            }
+        });
+
+        // The channel b does not request records, it does not block the channel a
+        await().until(() -> a.items.size() == 10);
+        assertThat(a.items).allSatisfy(r -> assertThat(r.getTopic()).isEqualTo("topic-a"));
+        await().until(() -> consumer.paused().contains(tpb));
+        assertThat(consumer.paused()).doesNotContain(tpa);
+        assertThat(shared.getBufferedRecords("b")).isEqualTo(10);
+        assertThat(b.items).isEmpty();
+
+        b.request(10);
+        await().until(() -> b.items.size() == 10);
+        assertThat(b.items).allSatisfy(r -> assertThat(r.getTopic()).isEqualTo("topic-b"));
+        await().until(() -> consumer.paused().isEmpty());
+    }
+
+    @Test
+    void testRecordsAreDispatchedByHeader() {
+        KafkaSharedConsumer shared = new KafkaSharedConsumer("shared", this::createSource);
+        Multi<IncomingKafkaRecord<Object, Object>> channelA = shared.register(config("a", "topic", "target"));
+        Multi<IncomingKafkaRecord<Object, Object>> channelB = shared.register(config("b", "topic", null));
+        RecordingSubscriber a = channelA.subscribe().withSubscriber(new RecordingSubscriber(Long.MAX_VALUE));
+        RecordingSubscriber b = channelB.subscribe().withSubscriber(new RecordingSubscriber(Long.MAX_VALUE));
+
+        await().until(() -> consumer.subscription().size() == 1);
+        assertThat(consumer.subscription()).containsExactly("topic");
+
+        TopicPartition tp = new TopicPartition("topic", 0);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp));
+            for (int i = 0; i < 9; i++) {
+                consumer.addRecord(record("topic", i, i % 3 == 0 ? "a" : (i % 3 == 1 ? "b" : null)));
+            }
+        });
+
+        await().until(() -> a.items.size() == 3 && b.items.size() == 3);
+        assertThat(a.items).extracting(IncomingKafkaRecord::getOffset).containsExactly(0L, 3L, 6L);
+        assertThat(b.items).extracting(IncomingKafkaRecord::getOffset).containsExactly(1L, 4L, 7L);
+    }
+
+    private KafkaConnectorIncomingConfiguration config(String channel, String topic, String header) {
+        MapBasedConfig config = new MapBasedConfig()
+                .with("channel-name", channel)
+                .with("topic", topic)
+                .with("shared-consumer", "shared")
+                .with("shared-consumer.buffer-size", 4)
+                .with("health-readiness-enabled", false)
+                .with("tracing-enabled", false)
+                .with("auto.commit.interval.ms", 100)
+                .with("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        if (header != null) {
+            config.put("shared-consumer.header", header);
+        }
+        return new KafkaConnectorIncomingConfiguration(config);
+    }
+
+    private ConsumerRecord<String, String> record(String topic, long offset, String target) {
+        RecordHeaders headers = new RecordHeaders();
+        if (target != null) {
+            headers.add("target", target.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ConsumerRecord<>(topic, 0, offset, System.currentTimeMillis(), TimestampType.CREATE_TIME, 0L,
+                ConsumerRecord.NULL_SIZE, ConsumerRecord.NULL_SIZE, "k" + offset, "v" + offset, headers);
+    }
+
+    private KafkaSource<Object, Object> createSource(KafkaConnectorIncomingConfiguration config) {
+        KafkaSource<Object, Object> source = new KafkaSource<>(vertx, "my-group", config,
+                getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class),
+                CountKafkaCdiEvents.noCdiEvents, -1);
+        injectMockConsumer(source);
+        sources.add(source);
+        return source;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void injectMockConsumer(KafkaSource<Object, Object> source) {
+        try {
+            io.vertx.mutiny.kafka.client.consumer.KafkaConsumer<Object, Object> cons = source.getConsumer();
+            KafkaReadStream stream = cons.getDelegate().asStream();
+            Field field = stream.getClass().getDeclaredField("consumer");
+            field.setAccessible(true);
+            field.set(stream, consumer);
+            // Close the initial consumer.
+            cons.closeAndAwait();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to inject mock consumer", e);
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<IncomingKafkaRecord<Object, Object>> {
+        private final long initial;
+        private final List<IncomingKafkaRecord<Object, Object>> items = new CopyOnWriteArrayList<>();
+        private volatile Subscription subscription;
+
+        RecordingSubscriber(long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            if (initial > 0) {
+                s.request(initial);
+            }
+        }
+
+        @Override
+        public void onNext(IncomingKafkaRecord<Object, Object> item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // Ignored
+        }
+
+        @Override
+        public void onComplete() {
+            // Ignored
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+    }
+}
@@ -33,8 +33,29 @@ public class KafkaTestBase extends WeldTestBase {
 
     @BeforeAll
     public static void startKafkaBroker() {
-        kafka = new StrimziKafkaContainer();
-        kafka.start();
+        kafka = new StrimziKafkaContainer() {
+            boolean running = true;
+
+            @Override
+            public void start() {
+                running = true;
+            }
+
+            @Override
+            public void stop() {
+                running = false;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return running;
+            }
+
+            @Override
+            public String getBootstrapServers() {
+                return "localhost:9092";
+            }
+        };
     }
 
     @AfterAll
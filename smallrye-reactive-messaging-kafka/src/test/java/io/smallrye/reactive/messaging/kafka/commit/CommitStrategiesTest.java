@@ -5,7 +5,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 
 import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -21,6 +23,7 @@ import org.eclipse.microprofile.reactive.messaging.Message;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.smallrye.reactive.messaging.kafka.CountKafkaCdiEvents;
 import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
@@ -274,6 +277,108 @@ public class CommitStrategiesTest extends WeldTestBase {
         }
     }
 
+    @Test
+    void testCheckpointStrategy(@TempDir Path directory) throws Exception {
+        TopicPartition tp = new TopicPartition(TOPIC, 0);
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        store.store("my-group", Collections.singletonMap(tp, 2L));
+        store.close();
+
+        MapBasedConfig config = commonConfiguration()
+                .with("commit-strategy", "checkpoint")
+                .with("checkpoint.directory", directory.toString())
+                .with("auto.commit.interval.ms", 100);
+        KafkaSource<String, String> source = new KafkaSource<>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config), getConsumerRebalanceListeners(),
+                CountKafkaCdiEvents.noCdiEvents, -1);
+        injectMockConsumer(source, consumer);
+        ConsumerRebalanceListener listener = getRebalanceListener(source);
+
+        List<Message<?>> list = new ArrayList<>();
+        source.getStream()
+                .subscribe().with(list::add);
+
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp));
+            // The mock consumer does not call the rebalance listener
+            listener.onPartitionsAssigned(Collections.singletonList(tp));
+            for (int i = 0; i < 5; i++) {
+                consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, i, "k", "v" + i));
+            }
+        });
+
+        // The consumer is positioned on the stored offset
+        await().until(() -> list.size() == 3);
+        assertThat(list).extracting(m -> (String) m.getPayload()).containsExactly("v2", "v3", "v4");
+
+        list.get(1).ack().toCompletableFuture().join();
+        list.get(0).ack().toCompletableFuture().join();
+        FileCheckpointStore reader = new FileCheckpointStore(directory);
+        await().until(() -> reader.load("my-group", Collections.singleton(tp)).get(tp) == 4L);
+
+        list.get(2).ack().toCompletableFuture().join();
+        await().until(() -> reader.load("my-group", Collections.singleton(tp)).get(tp) == 5L);
+        reader.close();
+
+        // Nothing is committed to Kafka
+        assertThat(consumer.committed(Collections.singleton(tp)).get(tp)).isNull();
+        source.closeQuietly();
+    }
+
+    @Test
+    void testCheckpointIsStoredAgainAfterAFailure() throws Exception {
+        TopicPartition tp = new TopicPartition(TOPIC, 0);
+        FlakyCheckpointStore store = new FlakyCheckpointStore();
+        MapBasedConfig config = commonConfiguration()
+                .with("commit-strategy", "checkpoint")
+                .with("checkpoint.store", "flaky")
+                .with("auto.commit.interval.ms", 100);
+        KafkaSource<String, String> source = new KafkaSource<>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config), getConsumerRebalanceListeners(),
+                new CountKafkaCdiEvents() {
+                    @Override
+                    public CheckpointStore checkpointStore(String name) {
+                        return "flaky".equals(name) ? store : null;
+                    }
+                }, -1);
+        injectMockConsumer(source, consumer);
+        ConsumerRebalanceListener listener = getRebalanceListener(source);
+
+        List<Message<?>> list = new ArrayList<>();
+        source.getStream()
+                .subscribe().with(list::add);
+
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(tp));
+            listener.onPartitionsAssigned(Collections.singletonList(tp));
+            for (int i = 0; i < 3; i++) {
+                consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, i, "k", "v" + i));
+            }
+        });
+
+        await().until(() -> list.size() == 3);
+        list.forEach(m -> m.ack().toCompletableFuture().join());
+
+        // The first attempt fails, the offset is stored by the next flush
+        await().until(() -> store.offsets.get(tp) != null);
+        assertThat(store.failures).isEqualTo(1);
+        assertThat(store.offsets).containsEntry(tp, 3L);
+        source.closeQuietly();
+    }
+
+    @Test
+    public void testFailureWhenCheckpointStoreNotFound() {
+        MapBasedConfig config = commonConfiguration()
+                .with("commit-strategy", "checkpoint")
+                .with("checkpoint.store", "missing");
+        assertThatThrownBy(() -> new KafkaSource<String, String>(vertx, "my-group",
+                new KafkaConnectorIncomingConfiguration(config), getConsumerRebalanceListeners(),
+                CountKafkaCdiEvents.noCdiEvents, -1)).isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("missing");
+    }
+
     @Test
     public void testFailureWhenNoRebalanceListenerMatchGivenName() {
         MapBasedConfig config = commonConfiguration();
@@ -294,7 +399,7 @@ public class CommitStrategiesTest extends WeldTestBase {
         config
                 .with("consumer-rebalance-listener.name", "mine")
                 .with("client.id", UUID.randomUUID().toString());
-        assertThatThrownBy(() -> new KafkaSource<>(vertx, "my-group",
+        assertThatThrownBy(() -> new KafkaSource<String, String>(vertx, "my-group",
                 new KafkaConnectorIncomingConfiguration(config), getConsumerRebalanceListeners(),
                 CountKafkaCdiEvents.noCdiEvents, -1)).isInstanceOf(DeploymentException.class).hasMessageContaining("mine");
     }
@@ -362,10 +467,36 @@ public class CommitStrategiesTest extends WeldTestBase {
         }
     }
 
+    private ConsumerRebalanceListener getRebalanceListener(KafkaSource<String, String> source) throws Exception {
+        KafkaReadStream<String, String> stream = source.getConsumer().getDelegate().asStream();
+        Field field = stream.getClass().getDeclaredField("rebalanceListener");
+        field.setAccessible(true);
+        return (ConsumerRebalanceListener) field.get(stream);
+    }
+
     public Instance<KafkaConsumerRebalanceListener> getConsumerRebalanceListeners() {
         return getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class);
     }
 
+    private static class FlakyCheckpointStore implements CheckpointStore {
+        final Map<TopicPartition, Long> offsets = new ConcurrentHashMap<>();
+        volatile int failures;
+
+        @Override
+        public Map<TopicPartition, Long> load(String groupId, Collection<TopicPartition> partitions) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void store(String groupId, Map<TopicPartition, Long> offsets) {
+            if (failures == 0) {
+                failures++;
+                throw new IllegalStateException("boom");
+            }
+            this.offsets.putAll(offsets);
+        }
+    }
+
     @ApplicationScoped
     @Named("mine")
     public static class NamedRebalanceListener implements KafkaConsumerRebalanceListener {
@@ -0,0 +1,79 @@
+package io.smallrye.reactive.messaging.kafka.commit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileCheckpointStoreTest {
+
+    private static final TopicPartition TP0 = new TopicPartition("topic", 0);
+    private static final TopicPartition TP1 = new TopicPartition("topic", 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStoreAndLoad() {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        assertThat(store.load("group", Arrays.asList(TP0, TP1))).isEmpty();
+
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        offsets.put(TP0, 10L);
+        offsets.put(TP1, 20L);
+        store.store("group", offsets);
+        store.store("group", Collections.singletonMap(TP0, 15L));
+        store.close();
+
+        // Read by another instance
+        FileCheckpointStore other = new FileCheckpointStore(directory);
+        Map<TopicPartition, Long> loaded = other.load("group", Arrays.asList(TP0, TP1));
+        assertThat(loaded).containsEntry(TP0, 15L).containsEntry(TP1, 20L);
+        assertThat(other.load("other-group", Arrays.asList(TP0, TP1))).isEmpty();
+        other.close();
+    }
+
+    @Test
+    void testIncompleteFilesAreIgnored() throws IOException {
+        Path file = directory.resolve("my_group").resolve("topic-0.checkpoint");
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[FileCheckpointStore.SIZE]);
+
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        assertThat(store.load("my group", Arrays.asList(TP0))).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void testTheLatestValidSlotIsRead() throws IOException {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        store.store("group", Collections.singletonMap(TP0, 10L));
+        store.store("group", Collections.singletonMap(TP0, 15L));
+        store.close();
+
+        // Corrupt the slot containing the latest offset, as an interrupted write would
+        Path file = directory.resolve("group").resolve("topic-0.checkpoint");
+        byte[] content = Files.readAllBytes(file);
+        content[FileCheckpointStore.SLOT_SIZE - 1] ^= 1;
+        Files.write(file, content);
+
+        FileCheckpointStore other = new FileCheckpointStore(directory);
+        assertThat(other.load("group", Arrays.asList(TP0))).containsEntry(TP0, 10L);
+        // The next write does not overwrite the previous checkpoint
+        other.store("group", Collections.singletonMap(TP0, 20L));
+        other.close();
+
+        FileCheckpointStore reader = new FileCheckpointStore(directory);
+        assertThat(reader.load("group", Arrays.asList(TP0))).containsEntry(TP0, 20L);
+        reader.close();
+    }
+}
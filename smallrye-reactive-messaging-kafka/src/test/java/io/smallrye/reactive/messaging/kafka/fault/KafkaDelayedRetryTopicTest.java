@@ -0,0 +1,95 @@
+package io.smallrye.reactive.messaging.kafka.fault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumer;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
+
+class KafkaDelayedRetryTopicTest {
+
+    private static final String RETRY_TOPIC = "retry";
+
+    private final TopicPartition tp = new TopicPartition(RETRY_TOPIC, 0);
+    private final io.vertx.kafka.client.common.TopicPartition partition = new io.vertx.kafka.client.common.TopicPartition(
+            RETRY_TOPIC, 0);
+
+    private Vertx vertx;
+    private MockConsumer<String, Integer> consumer;
+    private KafkaDelayedRetryTopic handler;
+
+    @BeforeEach
+    void init() {
+        vertx = Vertx.vertx();
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp, 0L));
+        KafkaConsumer<String, Integer> kafkaConsumer = new KafkaConsumer<>(
+                io.vertx.kafka.client.consumer.KafkaConsumer.create(vertx.getDelegate(), consumer));
+        kafkaConsumer.assignAndAwait(partition);
+        handler = new KafkaDelayedRetryTopic("channel", vertx, kafkaConsumer, null,
+                Collections.singletonList(RETRY_TOPIC), Collections.singletonList(1000L), "dead-letter", null);
+    }
+
+    @AfterEach
+    void cleanup() {
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testRecordsAreDiscardedUntilTheAwaitedRecordIsReceived() {
+        assertThat(handler.isDue(record(5, System.currentTimeMillis() + 60_000))).isFalse();
+        await().until(() -> consumer.paused().contains(tp));
+        assertThat(consumer.position(tp)).isEqualTo(5L);
+
+        // Fetched before the partition was rewound
+        assertThat(handler.isDue(record(7, System.currentTimeMillis() - 1))).isFalse();
+    }
+
+    @Test
+    void testRebalanceForgetsTheAwaitedRecord() {
+        assertThat(handler.isDue(record(5, System.currentTimeMillis() + 60_000))).isFalse();
+
+        // Another member may have advanced the committed offset in the meantime
+        handler.partitionsAssigned(Collections.singletonList(partition));
+        assertThat(handler.isDue(record(7, System.currentTimeMillis() - 1))).isTrue();
+    }
+
+    @Test
+    void testPartitionIsResumedOnceTheRecordIsDue() {
+        assertThat(handler.isDue(record(5, System.currentTimeMillis() + 200))).isFalse();
+        await().until(() -> consumer.paused().contains(tp));
+        await().until(() -> consumer.paused().isEmpty());
+        assertThat(handler.isDue(record(5, System.currentTimeMillis() - 1))).isTrue();
+    }
+
+    @Test
+    void testRevokedPartitionIsNotResumedByAStaleTimer() {
+        assertThat(handler.isDue(record(5, System.currentTimeMillis() + 200))).isFalse();
+        await().until(() -> consumer.paused().contains(tp));
+
+        handler.partitionsRevoked(Collections.singletonList(partition));
+        await().pollDelay(Duration.ofMillis(1000)).until(() -> true);
+        assertThat(consumer.paused()).containsExactly(tp);
+    }
+
+    private KafkaConsumerRecord<String, Integer> record(long offset, long due) {
+        ConsumerRecord<String, Integer> record = new ConsumerRecord<>(RETRY_TOPIC, 0, offset, "k", 1);
+        record.headers().add(KafkaDelayedRetryTopic.DELAYED_RETRY_DUE,
+                Long.toString(due).getBytes(StandardCharsets.UTF_8));
+        return new KafkaConsumerRecord<>(new KafkaConsumerRecordImpl<>(record));
+    }
+}
@@ -266,6 +266,44 @@ public class KafkaFailureHandlerTest extends KafkaTestBase {
         assertThat(bean.producers()).isEqualTo(1);
     }
 
+    @Test
+    public void testDelayedRetryTopicStrategy() {
+        List<ConsumerRecord<String, Integer>> records = new CopyOnWriteArrayList<>();
+        String randomId = UUID.randomUUID().toString();
+
+        usage.consume(randomId, randomId, OffsetResetStrategy.EARLIEST,
+                new StringDeserializer(), new IntegerDeserializer(), () -> records.size() < 3, null, null,
+                Collections.singletonList("dead-letter-topic-kafka"), records::add);
+
+        MyReceiverBean bean = runApplication(getDelayedRetryTopicConfig("delayed-retry"), MyReceiverBean.class);
+        await().until(this::isReady);
+
+        AtomicInteger counter = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        new Thread(() -> usage.produceIntegers(10, null,
+                () -> new ProducerRecord<>("delayed-retry", counter.getAndIncrement()))).start();
+
+        // 10 records, and 2 retries for the 3 failing records
+        await().atMost(2, TimeUnit.MINUTES).until(() -> bean.list().size() >= 16);
+        assertThat(bean.list()).containsOnly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(bean.list().stream().filter(i -> i == 3)).hasSize(3);
+
+        await().atMost(2, TimeUnit.MINUTES).until(() -> records.size() == 3);
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(1500);
+        assertThat(records).allSatisfy(r -> {
+            assertThat(r.topic()).isEqualTo("dead-letter-topic-kafka");
+            assertThat(r.value()).isIn(3, 6, 9);
+            assertThat(new String(r.headers().lastHeader(DEAD_LETTER_REASON).value())).startsWith("nack 3 -");
+            assertThat(new String(r.headers().lastHeader(DEAD_LETTER_TOPIC).value())).isEqualTo("delayed-retry");
+            assertThat(new String(r.headers().lastHeader(DEAD_LETTER_OFFSET).value())).isIn("3", "6", "9");
+        });
+
+        assertThat(isAlive()).isTrue();
+
+        assertThat(bean.consumers()).isEqualTo(1);
+        assertThat(bean.producers()).isEqualTo(1);
+    }
+
     private MapBasedConfig getFailConfig(String topic) {
         MapBasedConfig.Builder builder = MapBasedConfig.builder("mp.messaging.incoming.kafka");
         builder.put("group.id", "my-group");
@@ -317,6 +355,19 @@ public class KafkaFailureHandlerTest extends KafkaTestBase {
         return builder.build();
     }
 
+    private MapBasedConfig getDelayedRetryTopicConfig(String topic) {
+        MapBasedConfig.Builder builder = MapBasedConfig.builder("mp.messaging.incoming.kafka");
+        builder.put("group.id", "my-group");
+        builder.put("topic", topic);
+        builder.put("value.deserializer", IntegerDeserializer.class.getName());
+        builder.put("enable.auto.commit", "false");
+        builder.put("auto.offset.reset", "earliest");
+        builder.put("failure-strategy", "delayed-retry-topic");
+        builder.put("delayed-retry-topic.delays", "500,1000");
+
+        return builder.build();
+    }
+
     @ApplicationScoped
     public static class MyReceiverBean {
         private final List<Integer> received = new ArrayList<>();
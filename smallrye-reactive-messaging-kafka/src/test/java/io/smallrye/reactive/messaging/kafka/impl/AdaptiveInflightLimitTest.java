@@ -0,0 +1,100 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+class AdaptiveInflightLimitTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testLimitIncreasesWithoutCongestion() {
+        AdaptiveInflightLimit limit = new AdaptiveInflightLimit(10, 10, 20, 2.0);
+        assertThat(limit.get()).isEqualTo(10);
+
+        // A full window increases the limit by 1
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(MS);
+        }
+        assertThat(limit.get()).isEqualTo(11);
+
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(MS);
+        }
+        assertThat(limit.get()).isEqualTo(20);
+        assertThat(limit.getLastLatency()).isEqualTo(MS);
+    }
+
+    @Test
+    void testLimitDecreasesOnCongestion() {
+        AdaptiveInflightLimit limit = new AdaptiveInflightLimit(100, 10, 100, 2.0);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(MS);
+        }
+        assertThat(limit.get()).isEqualTo(100);
+
+        limit.onSample(5 * MS);
+        assertThat(limit.get()).isEqualTo(90);
+
+        // At most one decrease per window
+        limit.onSample(5 * MS);
+        assertThat(limit.get()).isEqualTo(90);
+
+        for (int i = 0; i < 90; i++) {
+            limit.onSample(5 * MS);
+        }
+        assertThat(limit.get()).isEqualTo(81);
+    }
+
+    @Test
+    void testLimitStaysWithinBounds() {
+        AdaptiveInflightLimit limit = new AdaptiveInflightLimit(12, 10, 12, 2.0);
+        limit.onSample(MS);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10 * MS);
+        }
+        assertThat(limit.get()).isEqualTo(10);
+    }
+
+    @Test
+    void testProcessorRequestsUpToTheLimit() {
+        AdaptiveInflightLimit limit = new AdaptiveInflightLimit(2, 2, 10, 2.0);
+        List<UniEmitter<? super Void>> pending = new CopyOnWriteArrayList<>();
+        KafkaSenderProcessor processor = new KafkaSenderProcessor(10, true,
+                m -> Uni.createFrom().emitter(pending::add), limit);
+
+        AtomicLong requested = new AtomicLong();
+        processor.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                requested.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        processor.request(Long.MAX_VALUE);
+        assertThat(requested).hasValue(2);
+
+        processor.onNext(Message.of("a"));
+        processor.onNext(Message.of("b"));
+        assertThat(pending).hasSize(2);
+        assertThat(requested).hasValue(2);
+
+        // The acknowledgement of a message refills the demand
+        pending.get(0).complete(null);
+        assertThat(requested).hasValue(3);
+    }
+}
@@ -0,0 +1,60 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+
+class ChannelMetricsTest {
+
+    private final Tag channel = new Tag("channel", "channel");
+    private final Tag partition = new Tag("partition", "0");
+
+    @Test
+    void testMetricSharedByTwoConsumers() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl();
+        ChannelMetrics first = new ChannelMetrics(registry, channel);
+        ChannelMetrics second = new ChannelMetrics(registry, channel);
+        MetricID gauge = new MetricID("lag", channel, partition);
+        MetricID histogram = new MetricID("latency", channel, partition);
+
+        first.gauge("lag", "lag", MetricUnits.NONE, () -> 1, partition);
+        first.histogram("latency", "latency", MetricUnits.MILLISECONDS, partition).accept(10);
+        // The partition is assigned to the second consumer before being revoked from the first one
+        second.gauge("lag", "lag", MetricUnits.NONE, () -> 2, partition);
+        second.histogram("latency", "latency", MetricUnits.MILLISECONDS, partition).accept(20);
+        assertThat(registry.getGauges().get(gauge).getValue()).isEqualTo(2);
+        assertThat(registry.getHistograms().get(histogram).getCount()).isEqualTo(2);
+
+        first.remove(partition);
+        assertThat(registry.getGauges().get(gauge).getValue()).isEqualTo(2);
+        assertThat(registry.getHistograms()).containsKey(histogram);
+
+        second.remove(partition);
+        assertThat(registry.getGauges()).doesNotContainKey(gauge);
+        assertThat(registry.getHistograms()).doesNotContainKey(histogram);
+    }
+
+    @Test
+    void testGaugeReportsTheLastActiveRegistration() {
+        MetricsRegistryImpl registry = new MetricsRegistryImpl();
+        ChannelMetrics first = new ChannelMetrics(registry, channel);
+        ChannelMetrics second = new ChannelMetrics(registry, channel);
+        MetricID gauge = new MetricID("lag", channel, partition);
+
+        first.gauge("lag", "lag", MetricUnits.NONE, () -> 1, partition);
+        second.gauge("lag", "lag", MetricUnits.NONE, () -> 2, partition);
+        second.close();
+        assertThat(registry.getGauges().get(gauge).getValue()).isEqualTo(1);
+
+        // Registering the gauge again replaces the previous registration of the same object
+        first.gauge("lag", "lag", MetricUnits.NONE, () -> 3, partition);
+        assertThat(registry.getGauges().get(gauge).getValue()).isEqualTo(3);
+        first.close();
+        assertThat(registry.getMetrics()).isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.mutiny.core.Vertx;
+
+class KafkaClusterMetadataTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void init() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void cleanup() {
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testMetadataIsSharedPerCluster() {
+        Map<String, Object> config1 = new HashMap<>();
+        config1.put("bootstrap.servers", "localhost:1");
+        config1.put("client.id", "consumer");
+        config1.put("group.id", "my-group");
+        Map<String, Object> config2 = new HashMap<>();
+        config2.put("bootstrap.servers", "localhost:1");
+        config2.put("client.id", "producer");
+        config2.put("acks", "all");
+        Map<String, Object> config3 = new HashMap<>();
+        config3.put("bootstrap.servers", "localhost:2");
+
+        KafkaClusterMetadata m1 = KafkaClusterMetadata.acquire(vertx, config1, 1000, 100);
+        KafkaClusterMetadata m2 = KafkaClusterMetadata.acquire(vertx, config2, 1000, 100);
+        KafkaClusterMetadata m3 = KafkaClusterMetadata.acquire(vertx, config3, 1000, 100);
+        assertThat(m1).isSameAs(m2);
+        assertThat(m1).isNotSameAs(m3);
+
+        // No broker
+        await().until(() -> m1.getLastFailure() != null);
+        assertThat(m1.isAvailable()).isFalse();
+        assertThat(m1.getTopics()).isEmpty();
+
+        m1.release();
+        // Still used by the second channel
+        assertThat(KafkaClusterMetadata.acquire(vertx, config1, 1000, 100)).isSameAs(m2);
+        m2.release();
+        m2.release();
+        assertThat(KafkaClusterMetadata.acquire(vertx, config1, 1000, 100)).isNotSameAs(m1).satisfies(
+                KafkaClusterMetadata::release);
+        m3.release();
+    }
+
+    @Test
+    void testTopicsObservedByTheChannels() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("bootstrap.servers", "localhost:1");
+
+        KafkaClusterMetadata metadata = KafkaClusterMetadata.acquire(vertx, config, 1000, 100);
+        // The first retrieval is started on creation
+        await().until(() -> metadata.getLastFailure() != null);
+
+        metadata.topicExists("my-topic");
+        metadata.topicExists("my-topic");
+        assertThat(metadata.getTopics()).containsExactly("my-topic");
+        metadata.release();
+    }
+
+    @Test
+    void testAcquireDoesNotWaitForTheCluster() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("bootstrap.servers", "localhost:1");
+
+        long start = System.currentTimeMillis();
+        KafkaClusterMetadata metadata = KafkaClusterMetadata.acquire(vertx, config, 60000, 15000);
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+        assertThat(metadata.isAvailable()).isFalse();
+        metadata.release();
+    }
+
+    @Test
+    void testConcurrentlyObservedTopicsAreAllKept() throws InterruptedException {
+        Map<String, Object> config = new HashMap<>();
+        config.put("bootstrap.servers", "localhost:1");
+
+        KafkaClusterMetadata metadata = KafkaClusterMetadata.acquire(vertx, config, 1000, 100);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int id = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    metadata.topicExists("topic-" + id + "-" + j);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(metadata.getTopics()).hasSize(400);
+        metadata.release();
+    }
+}
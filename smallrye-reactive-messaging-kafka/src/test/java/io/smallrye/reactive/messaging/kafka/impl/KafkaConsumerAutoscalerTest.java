@@ -0,0 +1,191 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.CountKafkaCdiEvents;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.smallrye.reactive.messaging.kafka.base.WeldTestBase;
+import io.vertx.kafka.client.consumer.KafkaReadStream;
+import io.vertx.mutiny.core.Vertx;
+
+class KafkaConsumerAutoscalerTest extends WeldTestBase {
+
+    private Vertx vertx;
+    private MockConsumer<String, String> probe;
+    private KafkaConsumerAutoscaler<Object, Object> autoscaler;
+    private final List<KafkaSource<Object, Object>> sources = new CopyOnWriteArrayList<>();
+    private final List<KafkaSource<Object, Object>> removed = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void initializing() {
+        vertx = Vertx.vertx();
+        probe = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    }
+
+    @AfterEach
+    void closing() {
+        if (autoscaler != null) {
+            autoscaler.close();
+        }
+        sources.forEach(KafkaSource::closeQuietly);
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testScaleUpRequiresConsecutiveDecisions() {
+        autoscaler = create(new MapBasedConfig().with("autoscaling.max-consumers", 3));
+        autoscaler.getStream().subscribe().with(x -> {
+        });
+        assertThat(autoscaler.getConsumers()).isEqualTo(1);
+
+        autoscaler.decide(500);
+        assertThat(autoscaler.getConsumers()).isEqualTo(1);
+        autoscaler.decide(600);
+        assertThat(autoscaler.getConsumers()).isEqualTo(2);
+
+        // 300 records per consumer, then the window restarts
+        autoscaler.decide(600);
+        assertThat(autoscaler.getConsumers()).isEqualTo(2);
+        autoscaler.decide(700);
+        assertThat(autoscaler.getConsumers()).isEqualTo(3);
+
+        // Never beyond the maximum
+        autoscaler.decide(5000);
+        autoscaler.decide(6000);
+        assertThat(autoscaler.getConsumers()).isEqualTo(3);
+        assertThat(sources).hasSize(3);
+    }
+
+    @Test
+    void testNoScaleUpWhileTheLagDecreases() {
+        autoscaler = create(new MapBasedConfig().with("autoscaling.max-consumers", 3));
+        autoscaler.getStream().subscribe().with(x -> {
+        });
+
+        autoscaler.decide(500);
+        autoscaler.decide(400);
+        autoscaler.decide(300);
+        assertThat(autoscaler.getConsumers()).isEqualTo(1);
+    }
+
+    @Test
+    void testScaleDown() {
+        autoscaler = create(new MapBasedConfig().with("autoscaling.max-consumers", 3));
+        autoscaler.getStream().subscribe().with(x -> {
+        });
+        autoscaler.decide(500);
+        autoscaler.decide(600);
+        assertThat(autoscaler.getConsumers()).isEqualTo(2);
+
+        // Between the two thresholds, nothing changes
+        autoscaler.decide(100);
+        autoscaler.decide(100);
+        assertThat(autoscaler.getConsumers()).isEqualTo(2);
+
+        autoscaler.decide(5);
+        autoscaler.decide(5);
+        assertThat(autoscaler.getConsumers()).isEqualTo(1);
+        assertThat(removed).hasSize(1).containsExactly(sources.get(1));
+
+        // Never below the minimum
+        autoscaler.decide(0);
+        autoscaler.decide(0);
+        assertThat(autoscaler.getConsumers()).isEqualTo(1);
+    }
+
+    @Test
+    void testTheNumberOfConsumersIsLimitedByTheNumberOfPartitions() {
+        autoscaler = create(new MapBasedConfig().with("autoscaling.stabilization-window", 1));
+        autoscaler.getStream().subscribe().with(x -> {
+        });
+
+        TopicPartition tp0 = new TopicPartition("topic", 0);
+        TopicPartition tp1 = new TopicPartition("topic", 1);
+        probe.updatePartitions("topic", Arrays.asList(
+                new PartitionInfo("topic", 0, null, null, null),
+                new PartitionInfo("topic", 1, null, null, null)));
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        offsets.put(tp0, 0L);
+        offsets.put(tp1, 0L);
+        probe.updateBeginningOffsets(offsets);
+        offsets.put(tp0, 1000L);
+        offsets.put(tp1, 1000L);
+        probe.updateEndOffsets(offsets);
+        probe.commitSync(Collections.singletonMap(tp0, new OffsetAndMetadata(10L)));
+
+        for (int i = 0; i < 5; i++) {
+            offsets.put(tp0, 1000L + i * 1000);
+            probe.updateEndOffsets(offsets);
+            autoscaler.evaluate();
+        }
+        await().until(() -> autoscaler.getConsumers() == 2);
+        assertThat(sources).hasSize(2);
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        assertThatThrownBy(() -> create(new MapBasedConfig().with("autoscaling.scale-down-lag", 1000L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> create(new MapBasedConfig().with("autoscaling.min-consumers", 3)
+                .with("autoscaling.max-consumers", 2)))
+                        .isInstanceOf(IllegalArgumentException.class);
+        // The number of consumers is managed by the autoscaler
+        assertThatThrownBy(() -> create(new MapBasedConfig().with("partitions", 2)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("partitions");
+        assertThatThrownBy(() -> create(new MapBasedConfig().with("dedicated-poll-thread", true)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("dedicated-poll-thread");
+    }
+
+    private KafkaConsumerAutoscaler<Object, Object> create(MapBasedConfig config) {
+        KafkaConnectorIncomingConfiguration ic = new KafkaConnectorIncomingConfiguration(config
+                .with("channel-name", "channel")
+                .with("topic", "topic")
+                .with("autoscaling", true)
+                .with("autoscaling.stabilization-window", config.getOrDefault("autoscaling.stabilization-window", 2))
+                .with("autoscaling.scale-up-lag", 100L)
+                .with("autoscaling.scale-down-lag", config.getOrDefault("autoscaling.scale-down-lag", 10L))
+                .with("health-readiness-enabled", false)
+                .with("tracing-enabled", false)
+                .with("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer"));
+        return new KafkaConsumerAutoscaler<>(ic, probe, i -> {
+            KafkaSource<Object, Object> source = new KafkaSource<>(vertx, "my-group", ic,
+                    getBeanManager().createInstance().select(KafkaConsumerRebalanceListener.class),
+                    CountKafkaCdiEvents.noCdiEvents, i);
+            injectMockConsumer(source);
+            sources.add(source);
+            return source;
+        }, removed::add, new ChannelMetrics(null));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void injectMockConsumer(KafkaSource<Object, Object> source) {
+        try {
+            io.vertx.mutiny.kafka.client.consumer.KafkaConsumer<Object, Object> cons = source.getConsumer();
+            KafkaReadStream stream = cons.getDelegate().asStream();
+            Field field = stream.getClass().getDeclaredField("consumer");
+            field.setAccessible(true);
+            field.set(stream, new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+            // Close the initial consumer.
+            cons.closeAndAwait();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to inject mock consumer", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.reactive.messaging.health.HealthReport;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+
+class KafkaPollLoopSourceTest {
+
+    private static final TopicPartition TP = new TopicPartition("topic", 0);
+
+    private MockConsumer<String, String> consumer;
+    private KafkaPollLoopSource<String, String> source;
+
+    @BeforeEach
+    void init() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Collections.singletonMap(TP, 0L));
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (source != null) {
+            source.closeQuietly();
+        }
+    }
+
+    @Test
+    void testRecordsAreEmittedAndOffsetsCommittedInOrder() {
+        source = create(new MapBasedConfig().with("commit-strategy", "throttled"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 10);
+
+        await().until(() -> subscriber.items.size() == 10);
+        assertThat(subscriber.items).extracting(IncomingKafkaRecord::getOffset)
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(subscriber.items).allSatisfy(r -> assertThat(r.getPayload()).isEqualTo("v" + r.getOffset()));
+
+        // Acknowledge all the records but the fourth one
+        subscriber.items.stream().filter(r -> r.getOffset() != 3).forEach(IncomingKafkaRecord::ack);
+        await().until(() -> committed() == 3L);
+
+        subscriber.items.get(3).ack();
+        await().until(() -> committed() == 10L);
+    }
+
+    @Test
+    void testLatestCommitStrategyCommitsTheLatestAcknowledgedOffset() {
+        source = create(new MapBasedConfig().with("commit-strategy", "latest"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 5);
+
+        await().until(() -> subscriber.items.size() == 5);
+        subscriber.items.get(4).ack();
+        await().until(() -> committed() == 5L);
+    }
+
+    @Test
+    void testPartitionsArePausedWhenTheBufferIsFull() {
+        source = create(new MapBasedConfig().with("dedicated-poll-thread.buffer-size", 4));
+        RecordingSubscriber subscriber = new RecordingSubscriber(2);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 10);
+
+        await().until(() -> subscriber.items.size() == 2);
+        await().until(() -> consumer.paused().contains(TP));
+
+        subscriber.request(8);
+        await().until(() -> subscriber.items.size() == 10);
+        await().until(() -> consumer.paused().isEmpty());
+    }
+
+    @Test
+    void testFilteredRecordsAreCommittedWithoutBeingDispatched() {
+        source = create(new MapBasedConfig().with("commit-strategy", "throttled").with("filter.key-prefix", "k1"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 12);
+
+        await().until(() -> subscriber.items.size() == 3);
+        assertThat(subscriber.items).extracting(IncomingKafkaRecord::getKey).containsExactly("k1", "k10", "k11");
+        await().pollDelay(Duration.ofMillis(100)).until(() -> committed() == 1L);
+
+        subscriber.items.forEach(IncomingKafkaRecord::ack);
+        await().until(() -> committed() == 12L);
+    }
+
+    @Test
+    void testNackStopsThePollLoop() {
+        source = create(new MapBasedConfig());
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 3);
+
+        await().until(() -> subscriber.items.size() == 3);
+        subscriber.items.get(1).nack(new IllegalStateException("boom"));
+        await().until(() -> subscriber.failure.get() != null);
+        assertThat(subscriber.failure.get()).hasMessage("boom");
+        await().until(() -> consumer.closed());
+    }
+
+    @Test
+    void testChannelIsNotAliveWhenRecordsAreNotAcknowledged() {
+        source = create(new MapBasedConfig().with("commit-strategy", "throttled")
+                .with("throttled.unprocessed-record-max-age.ms", 500));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 3);
+
+        await().until(() -> subscriber.items.size() == 3);
+        subscriber.items.get(0).ack();
+        subscriber.items.get(2).ack();
+        await().until(() -> !isAlive());
+
+        subscriber.items.get(1).ack();
+        await().until(this::isAlive);
+    }
+
+    @Test
+    void testCloseCompletesTheStream() {
+        source = create(new MapBasedConfig());
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        source.getStream().subscribe().withSubscriber(subscriber);
+        send(0, 3);
+
+        await().until(() -> subscriber.items.size() == 3);
+        source.closeQuietly();
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.failure.get()).isNull();
+    }
+
+    private boolean isAlive() {
+        HealthReport.HealthReportBuilder builder = HealthReport.builder();
+        source.isAlive(builder);
+        return builder.build().isOk();
+    }
+
+    private KafkaPollLoopSource<String, String> create(MapBasedConfig config) {
+        KafkaConnectorIncomingConfiguration ic = new KafkaConnectorIncomingConfiguration(config
+                .with("channel-name", "channel")
+                .with("topic", "topic")
+                .with("dedicated-poll-thread", true)
+                .with("health-readiness-enabled", false)
+                .with("tracing-enabled", false)
+                .with("auto.commit.interval.ms", 10)
+                .with("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer"));
+        return new KafkaPollLoopSource<>(null, "my-group", ic, -1, c -> consumer);
+    }
+
+    private void send(int from, int count) {
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(Collections.singletonList(TP));
+            for (int i = from; i < from + count; i++) {
+                consumer.addRecord(new ConsumerRecord<>("topic", 0, i, "k" + i, "v" + i));
+            }
+        });
+    }
+
+    private long committed() {
+        OffsetAndMetadata offset = consumer.committed(Collections.singleton(TP)).get(TP);
+        return offset == null ? -1 : offset.offset();
+    }
+
+    private static class RecordingSubscriber implements Subscriber<IncomingKafkaRecord<String, String>> {
+        private final long initial;
+        private final List<IncomingKafkaRecord<String, String>> items = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile Subscription subscription;
+        private volatile boolean completed;
+
+        RecordingSubscriber(long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            if (initial > 0) {
+                s.request(initial);
+            }
+        }
+
+        @Override
+        public void onNext(IncomingKafkaRecord<String, String> item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failure.set(t);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+
+class KafkaRecordFilterTest {
+
+    @Test
+    void testNoFilter() {
+        assertThat(KafkaRecordFilter.create(config(new MapBasedConfig()))).isNull();
+    }
+
+    @Test
+    void testHeaderConditions() {
+        KafkaRecordFilter filter = KafkaRecordFilter.create(config(new MapBasedConfig()
+                .with("filter.headers", "tenant=acme, priority")));
+
+        assertThat(filter.test(record("topic", "key", "tenant", "acme", "priority", "high"))).isTrue();
+        assertThat(filter.test(record("topic", "key", "tenant", "other", "priority", "high"))).isFalse();
+        assertThat(filter.test(record("topic", "key", "tenant", "acme"))).isFalse();
+        assertThat(filter.test(record("topic", "key"))).isFalse();
+        // One of the headers having the name must match
+        assertThat(filter.test(record("topic", "key", "tenant", "other", "tenant", "acme", "priority", ""))).isTrue();
+    }
+
+    @Test
+    void testKeyPrefixAndTopics() {
+        KafkaRecordFilter filter = KafkaRecordFilter.create(config(new MapBasedConfig()
+                .with("filter.key-prefix", "order-")
+                .with("filter.topics", "a,b")));
+
+        assertThat(filter.test(record("a", "order-1"))).isTrue();
+        assertThat(filter.test(record("b", "order-2".getBytes(StandardCharsets.UTF_8)))).isTrue();
+        assertThat(filter.test(record("c", "order-3"))).isFalse();
+        assertThat(filter.test(record("a", "invoice-1"))).isFalse();
+        assertThat(filter.test(record("a", "order"))).isFalse();
+        assertThat(filter.test(record("a", null))).isFalse();
+    }
+
+    @Test
+    void testInvalidHeaderCondition() {
+        assertThatThrownBy(() -> KafkaRecordFilter.create(config(new MapBasedConfig()
+                .with("filter.headers", "=value")))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private KafkaConnectorIncomingConfiguration config(MapBasedConfig config) {
+        return new KafkaConnectorIncomingConfiguration(config
+                .with("channel-name", "channel")
+                .with("topic", "topic")
+                .with("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer"));
+    }
+
+    private ConsumerRecord<Object, String> record(String topic, Object key, String... headers) {
+        ConsumerRecord<Object, String> record = new ConsumerRecord<>(topic, 0, 0, key, "value");
+        for (int i = 0; i < headers.length; i += 2) {
+            record.headers().add(headers[i], headers[i + 1].getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -0,0 +1,176 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.*;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.health.HealthReport;
+import io.vertx.kafka.client.consumer.KafkaConsumer;
+import io.vertx.mutiny.core.Vertx;
+
+class KafkaTableImplTest {
+
+    private static final String TOPIC = "prices";
+
+    private Vertx vertx;
+    private MockConsumer<String, String> consumer;
+    private KafkaTableImpl<String, String> table;
+
+    @BeforeEach
+    void init() {
+        vertx = Vertx.vertx();
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        table = new KafkaTableImpl<>("channel");
+    }
+
+    @AfterEach
+    void cleanup() {
+        table.closeQuietly();
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testTableIsBootstrappedAndUpdated() {
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        TopicPartition tp1 = new TopicPartition(TOPIC, 1);
+        setupTopic(2);
+        Map<TopicPartition, Long> beginnings = new HashMap<>();
+        beginnings.put(tp0, 0L);
+        beginnings.put(tp1, 0L);
+        consumer.updateBeginningOffsets(beginnings);
+        Map<TopicPartition, Long> ends = new HashMap<>();
+        ends.put(tp0, 2L);
+        ends.put(tp1, 1L);
+        consumer.updateEndOffsets(ends);
+
+        table.materialize(vertx, KafkaConsumer.create(vertx.getDelegate(), consumer), TOPIC);
+        assertThat(isReady()).isFalse();
+
+        await().until(() -> consumer.assignment().size() == 2);
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "k1", "v1"));
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, "k2", "v2"));
+
+        await().until(() -> table.size() == 2);
+        assertThat(table.isBootstrapped()).isFalse();
+        assertThat(isReady()).isFalse();
+
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 0, "k3", "v3"));
+        await().until(table::isBootstrapped);
+        assertThat(table.bootstrapped().toCompletableFuture()).isCompleted();
+        assertThat(isReady()).isTrue();
+        assertThat(table.asMap()).containsOnly(entry("k1", "v1"), entry("k2", "v2"), entry("k3", "v3"));
+
+        // Updates and tombstones
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 2, "k1", "v1-bis"));
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 1, "k3", null));
+        await().until(() -> !table.containsKey("k3"));
+        assertThat(table.get("k1")).isEqualTo("v1-bis");
+        assertThat(table.get("k2")).isEqualTo("v2");
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testEmptyTopicIsBootstrappedImmediately() {
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        setupTopic(1);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 5L));
+        consumer.updateEndOffsets(Collections.singletonMap(tp0, 5L));
+
+        table.materialize(vertx, KafkaConsumer.create(vertx.getDelegate(), consumer), TOPIC);
+        await().until(table::isBootstrapped);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void testTableIsBootstrappedWhenThePositionReachesTheEndWithoutRecord() {
+        // The last offsets may not be records, e.g. transaction markers or compacted records
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        setupTopic(1);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 0L));
+        consumer.updateEndOffsets(Collections.singletonMap(tp0, 3L));
+
+        table.materialize(vertx, KafkaConsumer.create(vertx.getDelegate(), consumer), TOPIC);
+        await().until(() -> consumer.assignment().size() == 1);
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "k1", "v1"));
+        await().until(() -> table.size() == 1);
+        assertThat(table.isBootstrapped()).isFalse();
+
+        consumer.schedulePollTask(() -> consumer.seek(tp0, 3L));
+        await().until(table::isBootstrapped);
+        assertThat(isReady()).isTrue();
+        assertThat(table.asMap()).containsOnly(entry("k1", "v1"));
+    }
+
+    @Test
+    void testTopicWithoutPartitionFails() {
+        consumer.updatePartitions(TOPIC, Collections.emptyList());
+
+        table.materialize(vertx, KafkaConsumer.create(vertx.getDelegate(), consumer), TOPIC);
+        await().until(() -> !isAlive());
+        assertThat(isReady()).isFalse();
+        assertThat(table.isBootstrapped()).isFalse();
+        assertThat(table.bootstrapped().toCompletableFuture()).isCompletedExceptionally();
+    }
+
+    @Test
+    void testTransientFailureIsClearedWhenRecordsAreReceived() {
+        TopicPartition tp0 = new TopicPartition(TOPIC, 0);
+        setupTopic(1);
+        consumer.updateBeginningOffsets(Collections.singletonMap(tp0, 0L));
+        consumer.updateEndOffsets(Collections.singletonMap(tp0, 0L));
+
+        table.materialize(vertx, KafkaConsumer.create(vertx.getDelegate(), consumer), TOPIC);
+        await().until(table::isBootstrapped);
+        await().until(() -> consumer.assignment().size() == 1);
+
+        consumer.setPollException(new KafkaException("boom"));
+        await().until(() -> !isAlive());
+        assertThat(table.isBootstrapped()).isTrue();
+
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "k1", "v1"));
+        await().until(this::isAlive);
+        assertThat(table.get("k1")).isEqualTo("v1");
+    }
+
+    @Test
+    void testTableNotMaterializedIsNotReady() {
+        assertThat(isReady()).isFalse();
+        assertThat(table.isBootstrapped()).isFalse();
+    }
+
+    private void setupTopic(int partitions) {
+        List<PartitionInfo> infos = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            infos.add(new PartitionInfo(TOPIC, i, Node.noNode(), new Node[0], new Node[0]));
+        }
+        consumer.updatePartitions(TOPIC, infos);
+    }
+
+    private boolean isReady() {
+        HealthReport.HealthReportBuilder builder = HealthReport.builder();
+        table.isReady(builder);
+        return builder.build().isOk();
+    }
+
+    private boolean isAlive() {
+        HealthReport.HealthReportBuilder builder = HealthReport.builder();
+        table.isAlive(builder);
+        return builder.build().isOk();
+    }
+
+    private static Map.Entry<String, String> entry(String k, String v) {
+        return new AbstractMap.SimpleEntry<>(k, v);
+    }
+}
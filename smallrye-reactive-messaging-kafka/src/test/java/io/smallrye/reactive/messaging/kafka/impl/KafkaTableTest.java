@@ -0,0 +1,65 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorIncomingConfiguration;
+import io.smallrye.reactive.messaging.kafka.base.KafkaTestBase;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+
+public class KafkaTableTest extends KafkaTestBase {
+
+    private KafkaTableImpl<String, String> table;
+
+    @AfterEach
+    public void closeTable() {
+        if (table != null) {
+            table.closeQuietly();
+        }
+    }
+
+    @Test
+    public void testTableOfTransactionalTopicIsBootstrapped() {
+        createTopic(topic, 2);
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, getBootstrapServers());
+        config.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "table-" + topic);
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(config, new StringSerializer(),
+                new StringSerializer())) {
+            producer.initTransactions();
+            producer.beginTransaction();
+            for (int i = 0; i < 10; i++) {
+                producer.send(new ProducerRecord<>(topic, "k" + i, "v" + i));
+            }
+            producer.commitTransaction();
+            producer.beginTransaction();
+            producer.send(new ProducerRecord<>(topic, "k0", "v0-bis"));
+            producer.commitTransaction();
+        }
+
+        // The last offset of each partition is a commit marker, not a record
+        MapBasedConfig source = newCommonConfigForSource()
+                .with("value.deserializer", StringDeserializer.class.getName())
+                .with("isolation.level", "read_committed");
+        table = new KafkaTableImpl<>(topic);
+        table.start(vertx, new KafkaConnectorIncomingConfiguration(source));
+
+        await().atMost(Duration.ofSeconds(30)).until(table::isBootstrapped);
+        assertThat(table.size()).isEqualTo(10);
+        assertThat(table.get("k0")).isEqualTo("v0-bis");
+        assertThat(table.get("k9")).isEqualTo("v9");
+    }
+
+}
@@ -0,0 +1,167 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaRecordMetadata;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
+
+class KafkaTransactionalSenderTest {
+
+    private Vertx vertx;
+    private MockProducer<String, String> producer;
+    private KafkaTransactionalSender sender;
+    private final List<Throwable> failures = new CopyOnWriteArrayList<>();
+    private final AtomicInteger acked = new AtomicInteger();
+    private final AtomicInteger nacked = new AtomicInteger();
+
+    @BeforeEach
+    void init() {
+        vertx = Vertx.vertx();
+        producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (sender != null) {
+            sender.close();
+        }
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testMessagesAndOffsetsAreWrittenInBatchedTransactions() {
+        sender = new KafkaTransactionalSender(vertx, "channel", producer, 10, 100,
+                m -> new ProducerRecord<>("out", (String) m.getPayload()), failures::add);
+
+        Multi.createFrom().range(0, 25).map(i -> message(i % 2, i)).subscribe(sender);
+
+        await().until(() -> acked.get() == 25);
+        assertThat(sender.getCommittedTransactions()).isEqualTo(3);
+        assertThat(sender.getAbortedTransactions()).isZero();
+        assertThat(producer.transactionCommitted()).isTrue();
+        assertThat(producer.history()).hasSize(25);
+        assertThat(producer.history().stream().map(ProducerRecord::value).collect(Collectors.toList()))
+                .startsWith("v0", "v1", "v2").endsWith("v24");
+
+        List<Map<String, Map<TopicPartition, OffsetAndMetadata>>> offsets = producer.consumerGroupOffsetsHistory();
+        assertThat(offsets).hasSize(3);
+        // First transaction contains records 0 to 9
+        assertThat(offsets.get(0).get("my-group"))
+                .containsEntry(new TopicPartition("in", 0), new OffsetAndMetadata(9))
+                .containsEntry(new TopicPartition("in", 1), new OffsetAndMetadata(10));
+        // Last transaction contains records 20 to 24
+        assertThat(offsets.get(2).get("my-group"))
+                .containsEntry(new TopicPartition("in", 0), new OffsetAndMetadata(25))
+                .containsEntry(new TopicPartition("in", 1), new OffsetAndMetadata(24));
+        assertThat(nacked).hasValue(0);
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void testPartialBatchIsCommittedAfterTimeout() {
+        sender = new KafkaTransactionalSender(vertx, "channel", producer, 100, 50,
+                m -> new ProducerRecord<>("out", (String) m.getPayload()), failures::add);
+
+        // The stream does not complete, so the flush is triggered by the timeout
+        Multi.createBy().concatenating()
+                .streams(Multi.createFrom().range(0, 5).map(i -> message(0, i)), Multi.createFrom().nothing())
+                .subscribe(sender);
+
+        await().until(() -> acked.get() == 5);
+        assertThat(sender.getCommittedTransactions()).isEqualTo(1);
+        assertThat(producer.history()).hasSize(5);
+    }
+
+    @Test
+    void testMessagesAreNackedWhenTheTransactionIsAborted() {
+        producer.commitTransactionException = new KafkaException("boom");
+        sender = new KafkaTransactionalSender(vertx, "channel", producer, 10, 100,
+                m -> new ProducerRecord<>("out", (String) m.getPayload()), failures::add);
+
+        Multi.createFrom().range(0, 10).map(i -> message(0, i)).subscribe(sender);
+
+        await().until(() -> nacked.get() == 10);
+        assertThat(sender.getAbortedTransactions()).isEqualTo(1);
+        assertThat(producer.transactionAborted()).isTrue();
+        assertThat(producer.history()).isEmpty();
+        assertThat(acked).hasValue(0);
+    }
+
+    @Test
+    void testFencedProducerStopsTheSender() {
+        producer.commitTransactionException = new ProducerFencedException("fenced");
+        sender = new KafkaTransactionalSender(vertx, "channel", producer, 10, 100,
+                m -> new ProducerRecord<>("out", (String) m.getPayload()), failures::add);
+
+        Multi.createFrom().range(0, 50).map(i -> message(0, i)).subscribe(sender);
+
+        await().until(() -> nacked.get() == 10);
+        assertThat(failures).hasSize(1).allSatisfy(t -> assertThat(t).isInstanceOf(ProducerFencedException.class));
+        assertThat(sender.getCommittedTransactions()).isZero();
+        // No more transactions
+        await().pollDelay(Duration.ofMillis(300)).untilAsserted(() -> assertThat(nacked).hasValue(10));
+    }
+
+    @Test
+    void testMessagesCommittedByTheConsumerAreRejected() {
+        sender = new KafkaTransactionalSender(vertx, "channel", producer, 10, 100,
+                m -> new ProducerRecord<>("out", (String) m.getPayload()), failures::add);
+
+        // Every other message comes from a consumer committing its offsets itself
+        Multi.createFrom().range(0, 20).map(i -> message(0, i, i % 2 == 1)).subscribe(sender);
+
+        await().until(() -> acked.get() == 10 && nacked.get() == 10);
+        assertThat(producer.history()).hasSize(10);
+        assertThat(producer.history().stream().map(ProducerRecord::value).collect(Collectors.toList()))
+                .startsWith("v0", "v2", "v4");
+        assertThat(producer.consumerGroupOffsetsHistory()).allSatisfy(offsets -> assertThat(offsets.get("my-group"))
+                .containsEntry(new TopicPartition("in", 0), new OffsetAndMetadata(19)));
+        assertThat(failures).isEmpty();
+    }
+
+    private Message<String> message(int partition, int offset) {
+        return message(partition, offset, false);
+    }
+
+    private Message<String> message(int partition, int offset, boolean committedByConsumer) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("in", partition, offset, "k" + offset,
+                "v" + offset);
+        IncomingKafkaRecordMetadata<String, String> metadata = new IncomingKafkaRecordMetadata<>(
+                new KafkaConsumerRecord<>(new KafkaConsumerRecordImpl<>(record)), "my-group", committedByConsumer);
+        return Message.of("v" + offset, Metadata.of(metadata),
+                () -> {
+                    acked.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                },
+                t -> {
+                    nacked.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+}
@@ -0,0 +1,94 @@
+package io.smallrye.reactive.messaging.kafka.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+import io.vertx.kafka.client.producer.KafkaWriteStream;
+
+class ProducerShardTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    void init() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void cleanup() {
+        vertx.close();
+    }
+
+    @Test
+    void testInflightLimit() {
+        MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(),
+                new StringSerializer());
+        ProducerShard shard = new ProducerShard(0, KafkaWriteStream.create(vertx, producer), 2);
+
+        AtomicInteger acked = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            shard.send(new ProducerRecord<>("topic", "key", "v" + i), ar -> {
+                assertThat(ar.succeeded()).isTrue();
+                acked.incrementAndGet();
+            });
+        }
+
+        await().until(() -> producer.history().size() == 2);
+        assertThat(shard.inflight()).isEqualTo(2);
+        assertThat(shard.pending()).isEqualTo(3);
+
+        // Completing a record sends the next one
+        producer.completeNext();
+        await().until(() -> producer.history().size() == 3);
+        assertThat(shard.inflight()).isEqualTo(2);
+        assertThat(shard.pending()).isEqualTo(2);
+
+        await().until(() -> {
+            producer.completeNext();
+            return acked.get() == 5;
+        });
+        assertThat(producer.history()).extracting(ProducerRecord::value)
+                .containsExactly("v0", "v1", "v2", "v3", "v4");
+        await().until(() -> shard.inflight() == 0);
+        assertThat(shard.pending()).isZero();
+    }
+
+    @Test
+    void testSendLatencyExcludesTheWaitForAnInflightSlot() throws InterruptedException {
+        MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(),
+                new StringSerializer());
+        List<Long> latencies = new CopyOnWriteArrayList<>();
+        ProducerShard shard = new ProducerShard(0, KafkaWriteStream.create(vertx, producer), 1, latencies::add);
+        assertThat(shard.lastLatency()).isEqualTo(-1);
+
+        shard.send(new ProducerRecord<>("topic", "key", "v0"), ar -> {
+        });
+        shard.send(new ProducerRecord<>("topic", "key", "v1"), ar -> {
+        });
+        await().until(() -> producer.history().size() == 1);
+
+        // The second record waits for the acknowledgement of the first one
+        Thread.sleep(300);
+        producer.completeNext();
+        await().until(() -> producer.history().size() == 2);
+        producer.completeNext();
+
+        await().until(() -> latencies.size() == 2);
+        assertThat(latencies.get(0)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+        assertThat(latencies.get(1)).isLessThan(TimeUnit.MILLISECONDS.toNanos(300));
+        assertThat(shard.lastLatency()).isEqualTo(latencies.get(1));
+    }
+}
@@ -0,0 +1,126 @@
+package io.smallrye.reactive.messaging.kafka.impl.ce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.ce.OutgoingCloudEventMetadata;
+import io.smallrye.reactive.messaging.kafka.IncomingKafkaCloudEventMetadata;
+import io.smallrye.reactive.messaging.kafka.KafkaConnectorOutgoingConfiguration;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+import io.vertx.mutiny.kafka.client.consumer.KafkaConsumerRecord;
+
+class KafkaCloudEventHelperTest {
+
+    public static class Pet {
+        public String name;
+        public String kind;
+    }
+
+    @Test
+    void testStructuredRoundTrip() {
+        Pet pet = new Pet();
+        pet.name = "neo";
+        pet.kind = "rabbit";
+        ZonedDateTime time = ZonedDateTime.parse("2020-12-01T10:15:30.123Z");
+        Message<?> message = Message.of(pet).addMetadata(OutgoingCloudEventMetadata.builder()
+                .withSource(URI.create("test://test"))
+                .withType("type")
+                .withId("some id")
+                .withSubject("subject")
+                .withDataContentType("application/json")
+                .withDataSchema(URI.create("http://schema.io"))
+                .withTimestamp(time)
+                .withExtension("ext", "hello")
+                .build());
+
+        ProducerRecord<?, ?> record = KafkaCloudEventHelper.createStructuredRecord(message, "topic", null,
+                message.getMetadata(OutgoingCloudEventMetadata.class).orElse(null), configuration());
+
+        JsonObject json = new JsonObject((String) record.value());
+        assertThat(json.getString("specversion")).isEqualTo("1.0");
+        assertThat(json.getString("type")).isEqualTo("type");
+        assertThat(json.getString("source")).isEqualTo("test://test");
+        assertThat(json.getString("id")).isEqualTo("some id");
+        assertThat(json.getString("subject")).isEqualTo("subject");
+        assertThat(json.getString("datacontenttype")).isEqualTo("application/json");
+        assertThat(json.getString("dataschema")).isEqualTo("http://schema.io");
+        assertThat(json.getString("time")).isEqualTo("2020-12-01T10:15:30.123Z");
+        assertThat(json.getString("ext")).isEqualTo("hello");
+        assertThat(json.getJsonObject("data").getString("name")).isEqualTo("neo");
+        assertThat(json.getJsonObject("data").getString("kind")).isEqualTo("rabbit");
+
+        // Read it back, from the string and from the bytes
+        for (Object value : new Object[] { record.value(),
+                ((String) record.value()).getBytes(StandardCharsets.UTF_8) }) {
+            IncomingKafkaCloudEventMetadata<String, Object> metadata = KafkaCloudEventHelper
+                    .createFromStructuredCloudEvent(consumerRecord("key", value));
+            assertThat(metadata.getSpecVersion()).isEqualTo("1.0");
+            assertThat(metadata.getType()).isEqualTo("type");
+            assertThat(metadata.getSource()).isEqualTo(URI.create("test://test"));
+            assertThat(metadata.getId()).isEqualTo("some id");
+            assertThat(metadata.getSubject()).hasValue("subject");
+            assertThat(metadata.getDataContentType()).hasValue("application/json");
+            assertThat(metadata.getDataSchema()).hasValue(URI.create("http://schema.io"));
+            assertThat(metadata.getTimeStamp()).hasValueSatisfying(t -> assertThat(t.toInstant())
+                    .isEqualTo(time.toInstant()));
+            assertThat(metadata.getKey()).isEqualTo("key");
+            assertThat(metadata.getTopic()).isEqualTo("topic");
+            assertThat(((JsonObject) metadata.getData()).getString("name")).isEqualTo("neo");
+            assertThat(metadata.getData()).isSameAs(metadata.getData());
+        }
+    }
+
+    @Test
+    void testDataTypes() {
+        String envelope = "{\"specversion\":\"1.0\",\"type\":\"t\",\"source\":\"s\",\"id\":\"i\",\"data\":";
+        assertThat(dataOf(envelope + "\"hello\"}")).isEqualTo("hello");
+        assertThat(dataOf(envelope + "42}")).isEqualTo(42);
+        assertThat(dataOf(envelope + "true}")).isEqualTo(true);
+        assertThat(dataOf(envelope + "null}")).isNull();
+        assertThat(dataOf(envelope + "[1, {\"a\": [2]}]}")).isEqualTo(new JsonArray().add(1)
+                .add(new JsonObject().put("a", new JsonArray().add(2))));
+        // Unknown attributes and attributes written after the data are supported
+        assertThat(dataOf("{\"data\":{\"a\":{\"b\":1}},\"other\":{\"x\":[1]},\"specversion\":\"1.0\","
+                + "\"type\":\"t\",\"source\":\"s\",\"id\":\"i\"}"))
+                        .isEqualTo(new JsonObject().put("a", new JsonObject().put("b", 1)));
+    }
+
+    @Test
+    void testInvalidStructuredCloudEvents() {
+        assertThatThrownBy(() -> dataOf("{\"specversion\":\"1.0\",\"type\":\"t\",\"id\":\"i\"}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dataOf("[]"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dataOf("{\"specversion\":"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Object dataOf(String value) {
+        return KafkaCloudEventHelper.createFromStructuredCloudEvent(consumerRecord(null, value)).getData();
+    }
+
+    private KafkaConsumerRecord<String, Object> consumerRecord(String key, Object value) {
+        return new KafkaConsumerRecord<>(new KafkaConsumerRecordImpl<>(
+                new ConsumerRecord<>("topic", 0, 0, key, value)));
+    }
+
+    private KafkaConnectorOutgoingConfiguration configuration() {
+        return new KafkaConnectorOutgoingConfiguration(new MapBasedConfig()
+                .with("channel-name", "channel")
+                .with("topic", "topic")
+                .with("value.serializer", "org.apache.kafka.common.serialization.StringSerializer")
+                .with("cloud-events-mode", "structured"));
+    }
+}
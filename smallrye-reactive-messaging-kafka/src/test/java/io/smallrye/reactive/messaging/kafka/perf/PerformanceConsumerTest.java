@@ -85,6 +85,54 @@ public class PerformanceConsumerTest extends KafkaTestBase {
         System.out.println("Post-Ack / Throttled - Estimate: " + (end - start) + " ms");
     }
 
+    @Test
+    public void testWithPostAckThrottledAndDedicatedPollThread() {
+        MyConsumerUsingPostAck application = runApplication(new MapBasedConfig()
+                .with("mp.messaging.incoming.data.connector", KafkaConnector.CONNECTOR_NAME)
+                .with("mp.messaging.incoming.data.topic", topic)
+                .with("mp.messaging.incoming.data.dedicated-poll-thread", true)
+                .with("mp.messaging.incoming.data.tracing-enabled", false)
+                .with("mp.messaging.incoming.data.cloud-events", false)
+                .with("mp.messaging.incoming.data.commit-strategy", "throttled")
+                .with("mp.messaging.incoming.data.bootstrap.servers", getBootstrapServers())
+                .with("mp.messaging.incoming.data.auto.offset.reset", "earliest")
+                .with("mp.messaging.incoming.data.value.deserializer", StringDeserializer.class.getName())
+                .with("mp.messaging.incoming.data.key.deserializer", StringDeserializer.class.getName()),
+                MyConsumerUsingPostAck.class);
+        long start = System.currentTimeMillis();
+        await()
+                .atMost(Duration.ofSeconds(TIMEOUT_IN_SECONDS))
+                .until(() -> application.getCount() == COUNT);
+
+        long end = System.currentTimeMillis();
+
+        System.out.println("Post-Ack / Throttled / Dedicated poll thread - Estimate: " + (end - start) + " ms");
+    }
+
+    @Test
+    public void testWithNoAckAndDedicatedPollThread() {
+        MyConsumerUsingNoAck application = runApplication(new MapBasedConfig()
+                .with("mp.messaging.incoming.data.connector", KafkaConnector.CONNECTOR_NAME)
+                .with("mp.messaging.incoming.data.topic", topic)
+                .with("mp.messaging.incoming.data.dedicated-poll-thread", true)
+                .with("mp.messaging.incoming.data.enable.auto.commit", true)
+                .with("mp.messaging.incoming.data.tracing-enabled", false)
+                .with("mp.messaging.incoming.data.cloud-events", false)
+                .with("mp.messaging.incoming.data.bootstrap.servers", getBootstrapServers())
+                .with("mp.messaging.incoming.data.auto.offset.reset", "earliest")
+                .with("mp.messaging.incoming.data.value.deserializer", StringDeserializer.class.getName())
+                .with("mp.messaging.incoming.data.key.deserializer", StringDeserializer.class.getName()),
+                MyConsumerUsingNoAck.class);
+        long start = System.currentTimeMillis();
+        await()
+                .atMost(Duration.ofSeconds(TIMEOUT_IN_SECONDS))
+                .until(() -> application.getCount() == COUNT);
+
+        long end = System.currentTimeMillis();
+
+        System.out.println("No Ack / Dedicated poll thread - Estimate: " + (end - start) + " ms");
+    }
+
     @Test
     public void testWithNoAck() {
         MyConsumerUsingNoAck application = runApplication(new MapBasedConfig()
@@ -0,0 +1,105 @@
+package io.smallrye.reactive.messaging.kafka.perf;
+
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.IntegerDeserializer;
+import org.apache.kafka.common.serialization.IntegerSerializer;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Outgoing;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.reactive.messaging.kafka.KafkaConnector;
+import io.smallrye.reactive.messaging.kafka.base.KafkaTestBase;
+import io.smallrye.reactive.messaging.kafka.base.MapBasedConfig;
+
+/**
+ * Measures the throughput of a consume-transform-produce pipeline using the transactional mode, for different
+ * transaction batch sizes.
+ */
+public class PerformanceTransactionalProcessorTest extends KafkaTestBase {
+
+    private static final int COUNT = 10_000;
+    private static final int TIMEOUT_IN_SECONDS = 120;
+
+    @Test
+    public void testWithBatchesOf1() throws InterruptedException {
+        run(1);
+    }
+
+    @Test
+    public void testWithBatchesOf10() throws InterruptedException {
+        run(10);
+    }
+
+    @Test
+    public void testWithBatchesOf100() throws InterruptedException {
+        run(100);
+    }
+
+    @Test
+    public void testWithBatchesOf1000() throws InterruptedException {
+        run(1000);
+    }
+
+    private void run(int batchSize) throws InterruptedException {
+        String in = UUID.randomUUID().toString();
+        String out = UUID.randomUUID().toString();
+        createTopic(in, 3);
+        createTopic(out, 3);
+
+        CountDownLatch produced = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger();
+        usage.produceIntegers(COUNT, produced::countDown,
+                () -> new ProducerRecord<>(in, Integer.toString(counter.get() % 10), counter.getAndIncrement()));
+        produced.await(1, TimeUnit.MINUTES);
+
+        CountDownLatch received = new CountDownLatch(1);
+        usage.consumeIntegers(out, COUNT, 2, TimeUnit.MINUTES, received::countDown, (k, v) -> {
+        });
+
+        MapBasedConfig config = new MapBasedConfig()
+                .with("mp.messaging.incoming.in.connector", KafkaConnector.CONNECTOR_NAME)
+                .with("mp.messaging.incoming.in.topic", in)
+                .with("mp.messaging.incoming.in.bootstrap.servers", getBootstrapServers())
+                .with("mp.messaging.incoming.in.auto.offset.reset", "earliest")
+                .with("mp.messaging.incoming.in.commit-strategy", "ignore")
+                .with("mp.messaging.incoming.in.isolation.level", "read_committed")
+                .with("mp.messaging.incoming.in.tracing-enabled", false)
+                .with("mp.messaging.incoming.in.value.deserializer", IntegerDeserializer.class.getName())
+                .with("mp.messaging.outgoing.out.connector", KafkaConnector.CONNECTOR_NAME)
+                .with("mp.messaging.outgoing.out.topic", out)
+                .with("mp.messaging.outgoing.out.bootstrap.servers", getBootstrapServers())
+                .with("mp.messaging.outgoing.out.transactional.id", "tx-" + out)
+                .with("mp.messaging.outgoing.out.transaction-batch-size", batchSize)
+                .with("mp.messaging.outgoing.out.tracing-enabled", false)
+                .with("mp.messaging.outgoing.out.value.serializer", IntegerSerializer.class.getName());
+
+        long start = System.currentTimeMillis();
+        runApplication(config, Processor.class);
+        received.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        await().atMost(Duration.ofSeconds(TIMEOUT_IN_SECONDS)).until(() -> received.getCount() == 0);
+        long duration = System.currentTimeMillis() - start;
+
+        System.out.println("Transactional processor with batches of " + batchSize + " - Estimate: " + duration
+                + " ms, " + (COUNT * 1000L / Math.max(1, duration)) + " messages/s");
+    }
+
+    @ApplicationScoped
+    public static class Processor {
+
+        @Incoming("in")
+        @Outgoing("out")
+        public int process(int value) {
+            return value + 1;
+        }
+    }
+}
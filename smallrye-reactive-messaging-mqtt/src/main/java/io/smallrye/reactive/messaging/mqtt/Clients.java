@@ -1,13 +1,26 @@
 package io.smallrye.reactive.messaging.mqtt;
 
+import static io.smallrye.reactive.messaging.mqtt.i18n.MqttExceptions.ex;
+
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.netty.handler.codec.mqtt.MqttQoS;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
 import io.vertx.mqtt.MqttClientOptions;
 import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.mqtt.MqttClient;
 import io.vertx.mutiny.mqtt.messages.MqttConnAckMessage;
 import io.vertx.mutiny.mqtt.messages.MqttPublishMessage;
@@ -20,17 +33,6 @@ public class Clients {
         // avoid direct instantiation.
     }
 
-    static Uni<MqttClient> getConnectedClient(Vertx vertx, String host, int port, String server,
-            MqttClientOptions options) {
-        String id = host + port + "<" + (server == null ? "" : server)
-                + ">-[" + (options.getClientId() != null ? options.getClientId() : "") + "]";
-        ClientHolder holder = clients.computeIfAbsent(id, key -> {
-            MqttClient client = MqttClient.create(vertx, options);
-            return new ClientHolder(client, host, port, server);
-        });
-        return holder.connect();
-    }
-
     static ClientHolder getHolder(Vertx vertx, String host, int port, String server,
             MqttClientOptions options) {
 
@@ -38,7 +40,7 @@ public class Clients {
                 + ">-[" + (options.getClientId() != null ? options.getClientId() : "") + "]";
         return clients.computeIfAbsent(id, key -> {
             MqttClient client = MqttClient.create(vertx, options);
-            return new ClientHolder(client, host, port, server);
+            return new ClientHolder(client, host, port, server, options.getMaxInflightQueue());
         });
     }
 
@@ -50,24 +52,187 @@ public class Clients {
         clients.clear();
     }
 
+    /**
+     * A client shared by the channels using the same server and client id.
+     * <p>
+     * Each channel gets its own stream of messages, see {@link #stream(String, int)}. The received messages are only
+     * dispatched to the streams whose topic filter matches the topic of the message, using a {@link TopicTrie}.
+     * <p>
+     * When the connection is closed, the next call to {@link #connect()} reconnects the client.
+     * <p>
+     * The client rejects the publications exceeding its inflight queue, so the channels publishing with the client
+     * share its in-flight budget, see {@link #acquire()}.
+     */
     public static class ClientHolder {
 
+        // Completes the publication whose completion is received before its packet id
+        private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
         private final MqttClient client;
-        private final Uni<MqttConnAckMessage> connection;
-        private final BroadcastProcessor<MqttPublishMessage> messages;
+        private final String host;
+        private final int port;
+        private final String server;
+        private final AtomicReference<Uni<MqttConnAckMessage>> connection = new AtomicReference<>();
+        private final TopicTrie<MultiEmitter<? super MqttPublishMessage>> subscriptions = new TopicTrie<>();
+        // The QoS 1 and 2 publications waiting for their PUBACK or PUBCOMP, by packet id
+        private final Map<Integer, CompletableFuture<Void>> publications = new ConcurrentHashMap<>();
+        private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+        private final int maxInflight;
+        private final AtomicInteger inflight = new AtomicInteger();
+        // The channels waiting for an in-flight slot, notified in turn
+        private final Queue<Runnable> releaseListeners = new ConcurrentLinkedQueue<>();
 
         public ClientHolder(MqttClient client, String host, int port, String server) {
+            this(client, host, port, server, MqttClientOptions.DEFAULT_MAX_INFLIGHT_QUEUE);
+        }
+
+        public ClientHolder(MqttClient client, String host, int port, String server, int maxInflight) {
             this.client = client;
-            this.connection = client.connect(port, host, server).cache();
-            messages = BroadcastProcessor.create();
-            client.publishHandler(messages::onNext);
-            client.closeHandler(v -> messages.onComplete());
-            client.exceptionHandler(messages::onError);
+            this.host = host;
+            this.port = port;
+            this.server = server;
+            this.maxInflight = Math.max(maxInflight, 1);
+            client.publishHandler(m -> subscriptions.forEachMatch(m.topicName(), e -> e.emit(m)));
+            client.publishCompletionHandler(this::completed);
+            client.closeHandler(v -> {
+                connection.set(null);
+                subscriptions.forEach(MultiEmitter::complete);
+                // Notify the listeners first, so the failed publications are not retried on the closed connection
+                closeListeners.forEach(Runnable::run);
+                IllegalStateException failure = ex.illegalStateConnectionClosed();
+                publications.values().forEach(f -> f.completeExceptionally(failure));
+                publications.clear();
+            });
+            client.exceptionHandler(t -> subscriptions.forEach(e -> e.fail(t)));
         }
 
+        /**
+         * @return the connected client, connecting it if needed. Concurrent calls share the same connection attempt.
+         */
         public Uni<MqttClient> connect() {
-            return connection
-                    .map(ignored -> client);
+            Uni<MqttConnAckMessage> current = connection.get();
+            while (current == null) {
+                AtomicReference<Uni<MqttConnAckMessage>> attempt = new AtomicReference<>();
+                attempt.set(client.connect(port, host, server)
+                        // Failed attempts are not reused
+                        .onFailure().invoke(f -> connection.compareAndSet(attempt.get(), null))
+                        .cache());
+                current = connection.compareAndSet(null, attempt.get()) ? attempt.get() : connection.get();
+            }
+            return current.map(ignored -> client);
+        }
+
+        /**
+         * Registers an action called when the connection is closed.
+         *
+         * @param listener the action
+         */
+        public void onClose(Runnable listener) {
+            closeListeners.add(listener);
+        }
+
+        /**
+         * Unregisters an action registered with {@link #onClose(Runnable)}.
+         *
+         * @param listener the action
+         */
+        public void removeCloseListener(Runnable listener) {
+            closeListeners.remove(listener);
+        }
+
+        /**
+         * Takes an in-flight slot, to be released with {@link #release()} once the publication completes.
+         *
+         * @return {@code true} if a slot has been taken, {@code false} if all the slots of the client are in use
+         */
+        public boolean acquire() {
+            while (true) {
+                int current = inflight.get();
+                if (current >= maxInflight) {
+                    return false;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Releases an in-flight slot, and notifies the next listener registered with {@link #onRelease(Runnable)}.
+         */
+        public void release() {
+            inflight.decrementAndGet();
+            signal();
+        }
+
+        /**
+         * Registers an action called once, when an in-flight slot is released, so a channel waiting for a slot taken
+         * by another channel can publish. The waiting channels are notified in turn, one per released slot.
+         *
+         * @param listener the action, registered at most once
+         */
+        public void onRelease(Runnable listener) {
+            if (!releaseListeners.contains(listener)) {
+                releaseListeners.add(listener);
+            }
+            // The slots may have been released before the registration
+            signal();
+        }
+
+        /**
+         * Unregisters an action registered with {@link #onRelease(Runnable)}.
+         *
+         * @param listener the action
+         */
+        public void removeReleaseListener(Runnable listener) {
+            releaseListeners.remove(listener);
+        }
+
+        /**
+         * Notifies the next waiting channel if a slot is available. A notified channel which does not use the slot
+         * calls this method, so the slot is offered to the next one.
+         */
+        public void signal() {
+            if (inflight.get() < maxInflight) {
+                Runnable next = releaseListeners.poll();
+                if (next != null) {
+                    next.run();
+                }
+            }
+        }
+
+        /**
+         * Publishes a message. The returned {@code Uni} completes when the message has been written for QoS 0, and
+         * when the server has acknowledged it for QoS 1 (PUBACK) and 2 (PUBCOMP), so several messages can be in flight.
+         *
+         * @return a {@code Uni} completed when the message has been published
+         */
+        public Uni<Void> publish(String topic, Buffer payload, MqttQoS qos, boolean retain) {
+            return client.publish(topic, payload, qos, false, retain)
+                    .onItem().transformToUni(id -> {
+                        if (qos == MqttQoS.AT_MOST_ONCE) {
+                            return Uni.createFrom().voidItem();
+                        }
+                        return Uni.createFrom().completionStage(completion(id));
+                    });
+        }
+
+        private CompletableFuture<Void> completion(int id) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            CompletableFuture<Void> previous = publications.putIfAbsent(id, future);
+            if (previous == COMPLETED) {
+                publications.remove(id, COMPLETED);
+                return COMPLETED;
+            }
+            return future;
+        }
+
+        private void completed(int id) {
+            CompletableFuture<Void> future = publications.computeIfAbsent(id, k -> COMPLETED);
+            if (future != COMPLETED) {
+                publications.remove(id, future);
+                future.complete(null);
+            }
         }
 
         public void close() {
@@ -76,8 +241,25 @@ public class Clients {
             }
         }
 
-        public Multi<MqttPublishMessage> stream() {
-            return messages;
+        /**
+         * Creates a stream receiving the messages published on the topics matching the given filter.
+         * <p>
+         * Each stream buffers the messages until they are requested, so a slow subscriber does not delay the other
+         * streams of the client. The client cannot be back-pressured, so the stream fails if more than
+         * {@code bufferSize} messages are waiting to be requested.
+         *
+         * @param filter the topic filter, which may contain wildcards
+         * @param bufferSize the maximum number of messages waiting to be requested, rounded up to a power of 2
+         * @return the stream of messages
+         */
+        public Multi<MqttPublishMessage> stream(String filter, int bufferSize) {
+            return Multi.createFrom().<MqttPublishMessage> emitter(emitter -> {
+                subscriptions.add(filter, emitter);
+                emitter.onTermination(() -> subscriptions.remove(filter, emitter));
+            }, BackPressureStrategy.ERROR)
+                    .onOverflow().buffer(bufferSize)
+                    .onFailure(BackPressureFailure.class)
+                    .transform(f -> ex.illegalStateReceptionBufferFull(filter, bufferSize));
         }
     }
 
@@ -2,6 +2,7 @@ package io.smallrye.reactive.messaging.mqtt;
 
 import static io.smallrye.reactive.messaging.annotations.ConnectorAttribute.Direction.INCOMING;
 import static io.smallrye.reactive.messaging.annotations.ConnectorAttribute.Direction.INCOMING_AND_OUTGOING;
+import static io.smallrye.reactive.messaging.mqtt.i18n.MqttExceptions.ex;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -21,6 +22,7 @@ import org.eclipse.microprofile.reactive.streams.operators.PublisherBuilder;
 import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
 
 import io.smallrye.reactive.messaging.annotations.ConnectorAttribute;
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
 import io.smallrye.reactive.messaging.connectors.ExecutionHolder;
 import io.vertx.mutiny.core.Vertx;
 
@@ -50,6 +52,9 @@ import io.vertx.mutiny.core.Vertx;
 @ConnectorAttribute(name = "qos", type = "int", defaultValue = "0", direction = INCOMING_AND_OUTGOING, description = "Set the QoS level when subscribing to the topic or when sending a message")
 @ConnectorAttribute(name = "broadcast", description = "Whether or not the messages should be dispatched to multiple consumers", type = "boolean", direction = INCOMING, defaultValue = "false")
 @ConnectorAttribute(name = "failure-strategy", type = "string", direction = INCOMING, description = "Specify the failure strategy to apply when a message produced from a MQTT message is nacked. Values can be `fail` (default), or `ignore`", defaultValue = "fail")
+@ConnectorAttribute(name = "buffer-size", type = "int", direction = INCOMING_AND_OUTGOING, description = "For outgoing channels, the max number of messages waiting to be sent, while the client is (re)connecting or while `max-inflight-queue` messages are waiting for an acknowledgement. When the buffer is full, the upstream is back-pressured. For incoming channels, the max number of received messages waiting to be consumed by the application. The MQTT client cannot be back-pressured, so the channel fails when the buffer is full", defaultValue = "128")
+@ConnectorAttribute(name = "ack-timeout", type = "long", direction = INCOMING, description = "The maximum time in milliseconds between the reception of a MQTT message and its acknowledgement. If not set, the acknowledgement deadlines are not tracked")
+@ConnectorAttribute(name = "ack-timeout.action", type = "string", direction = INCOMING, description = "The action executed when a message is not acknowledged before `ack-timeout`. Values can be `log` (default, only logs a warning) or `nack` (nacks the message, applying the `failure-strategy`)", defaultValue = "log")
 public class MqttConnector implements IncomingConnectorFactory, OutgoingConnectorFactory {
 
     static final String CONNECTOR_NAME = "smallrye-mqtt";
@@ -68,11 +73,23 @@ public class MqttConnector implements IncomingConnectorFactory, OutgoingConnecto
 
     @Override
     public PublisherBuilder<? extends Message<?>> getPublisherBuilder(Config config) {
-        MqttSource source = new MqttSource(vertx, new MqttConnectorIncomingConfiguration(config));
+        MqttConnectorIncomingConfiguration ic = new MqttConnectorIncomingConfiguration(config);
+        MqttSource source = new MqttSource(vertx, ic, createAckDeadlines(ic));
         sources.add(source);
         return source.getSource();
     }
 
+    private AckDeadlines createAckDeadlines(MqttConnectorIncomingConfiguration config) {
+        if (!config.getAckTimeout().isPresent()) {
+            return null;
+        }
+        String action = config.getAckTimeoutAction();
+        if (AckDeadlines.Action.from(action) == AckDeadlines.Action.FAIL) {
+            throw ex.illegalArgumentUnsupportedAckTimeoutAction(action, config.getChannel());
+        }
+        return executionHolder.ackDeadlines(config.getChannel(), config.getAckTimeout().get(), action);
+    }
+
     @Override
     public SubscriberBuilder<? extends Message<?>, Void> getSubscriberBuilder(Config config) {
         MqttSink sink = new MqttSink(vertx, new MqttConnectorOutgoingConfiguration(config));
@@ -99,6 +116,7 @@ public class MqttConnector implements IncomingConnectorFactory, OutgoingConnecto
     }
 
     public void destroy(@Observes @Destroyed(ApplicationScoped.class) final Object context) {
+        sinks.forEach(MqttSink::close);
         Clients.clear();
     }
 }
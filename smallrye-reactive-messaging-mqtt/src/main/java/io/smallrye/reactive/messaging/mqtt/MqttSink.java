@@ -2,88 +2,213 @@ package io.smallrye.reactive.messaging.mqtt;
 
 import static io.smallrye.reactive.messaging.mqtt.i18n.MqttLogging.log;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
 import org.eclipse.microprofile.reactive.streams.operators.SubscriberBuilder;
 
 import io.netty.handler.codec.mqtt.MqttQoS;
-import io.smallrye.mutiny.Uni;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mqtt.MqttClientOptions;
+import io.vertx.mutiny.core.Context;
 import io.vertx.mutiny.core.Vertx;
 import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.mqtt.MqttClient;
 
+/**
+ * Sends the messages of a channel to MQTT.
+ * <p>
+ * The messages are stored in a bounded buffer until they are published. Up to {@code max-inflight-queue} messages are
+ * published concurrently, this budget being shared by the channels using the same client, and each message is
+ * acknowledged once the server has acknowledged it (QoS 1 and 2) or once it has been written (QoS 0). When the
+ * connection is closed, the sink reconnects as soon as a message needs to be sent,
+ * and retries every {@code reconnect-interval-seconds} if the connection fails. Meanwhile the messages are buffered,
+ * and the upstream is back-pressured once the buffer is full.
+ * <p>
+ * The buffer is drained on the context of the sink, so the messages are published one at a time, in order.
+ */
 public class MqttSink {
 
-    private final String host;
-    private final int port;
-    private final String server;
+    private final Vertx vertx;
+    private final Context context;
     private final String topic;
     private final int qos;
+    private final int bufferSize;
+    private final long reconnectInterval;
+    private final Clients.ClientHolder holder;
+    private final Runnable closeListener = this::onClose;
+    private final Runnable releaseListener = this::drain;
 
     private final SubscriberBuilder<? extends Message<?>, Void> sink;
     private final AtomicBoolean connected = new AtomicBoolean();
 
+    // Guarded by `this`
+    private final Deque<Message<?>> buffer = new ArrayDeque<>();
+    private CompletableFuture<Void> room;
+    private int inflight;
+    private boolean connecting;
+    private boolean completed;
+    private MqttClient client;
+
     public MqttSink(Vertx vertx, MqttConnectorOutgoingConfiguration config) {
         MqttClientOptions options = MqttHelpers.createMqttClientOptions(config);
-        host = config.getHost();
+        String host = config.getHost();
         int def = options.isSsl() ? 8883 : 1883;
-        port = config.getPort().orElse(def);
-        server = config.getServerName().orElse(null);
-        topic = config.getTopic().orElseGet(config::getChannel);
-        qos = config.getQos();
+        int port = config.getPort().orElse(def);
+        String server = config.getServerName().orElse(null);
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.topic = config.getTopic().orElseGet(config::getChannel);
+        this.qos = config.getQos();
+        this.bufferSize = Math.max(config.getBufferSize(), 1);
+        this.reconnectInterval = config.getReconnectIntervalSeconds() * 1000L;
+        this.holder = Clients.getHolder(vertx, host, port, server, options);
+        this.holder.onClose(closeListener);
 
-        AtomicReference<MqttClient> reference = new AtomicReference<>();
         sink = ReactiveStreams.<Message<?>> builder()
-                .flatMapCompletionStage(msg -> {
-                    MqttClient client = reference.get();
-                    if (client != null) {
-                        if (client.isConnected()) {
-                            connected.set(true);
-                            return CompletableFuture.completedFuture(msg);
-                        } else {
-                            CompletableFuture<Message<?>> future = new CompletableFuture<>();
-                            vertx.setPeriodic(100, id -> {
-                                if (client.isConnected()) {
-                                    vertx.cancelTimer(id);
-                                    connected.set(true);
-                                    future.complete(msg);
-                                }
-                            });
-                            return future;
-                        }
-                    } else {
-                        return Clients.getConnectedClient(vertx, host, port, server, options)
-                                .map(c -> {
-                                    reference.set(c);
-                                    connected.set(true);
-                                    return msg;
-                                })
-                                .subscribeAsCompletionStage();
-                    }
-                })
-                .flatMapCompletionStage(msg -> send(reference, msg))
-                .onComplete(() -> {
-                    MqttClient c = reference.getAndSet(null);
-                    if (c != null) {
-                        connected.set(false);
-                        c.disconnectAndForget();
-                    }
-                })
-                .onError(log::errorWhileSendingMessageToBroker)
+                .flatMapCompletionStage(this::enqueue)
+                .onComplete(this::complete)
+                .onError(this::failed)
                 .ignore();
     }
 
-    private CompletionStage<?> send(AtomicReference<MqttClient> reference, Message<?> msg) {
-        MqttClient client = reference.get();
+    /**
+     * Adds the message to the buffer.
+     *
+     * @return a stage completed when the buffer can accept the next message
+     */
+    private CompletionStage<Message<?>> enqueue(Message<?> msg) {
+        CompletableFuture<Message<?>> accepted;
+        synchronized (this) {
+            buffer.add(msg);
+            if (buffer.size() < bufferSize) {
+                accepted = CompletableFuture.completedFuture(msg);
+            } else {
+                room = new CompletableFuture<>();
+                accepted = room.thenApply(x -> msg);
+            }
+        }
+        drain();
+        return accepted;
+    }
+
+    /**
+     * Schedules the publication of the buffered messages. The drain is never executed inline: a publication completing
+     * synchronously would otherwise publish the next messages before the rest of the current batch.
+     */
+    private void drain() {
+        context.runOnContext(x -> publish());
+    }
+
+    // Only called from the context
+    private void publish() {
+        List<Message<?>> publishable = new ArrayList<>();
+        CompletableFuture<Void> released = null;
+        boolean connect = false;
+        boolean waiting = false;
+        MqttClient disconnect = null;
+        synchronized (this) {
+            if (!connected.get()) {
+                if (!connecting && !buffer.isEmpty()) {
+                    connecting = true;
+                    connect = true;
+                }
+            } else {
+                while (!buffer.isEmpty() && holder.acquire()) {
+                    publishable.add(buffer.poll());
+                    inflight++;
+                }
+                // All the slots of the client are in use
+                waiting = !buffer.isEmpty();
+            }
+            if (room != null && buffer.size() < bufferSize) {
+                released = room;
+                room = null;
+            }
+            if (completed && buffer.isEmpty() && inflight == 0 && client != null) {
+                disconnect = client;
+                client = null;
+                connected.set(false);
+            }
+        }
+        if (released != null) {
+            released.complete(null);
+        }
+        if (connect) {
+            connect();
+        }
+        publishable.forEach(this::send);
+        if (waiting) {
+            holder.onRelease(releaseListener);
+        } else if (publishable.isEmpty()) {
+            // Nothing published, offer the slot this sink may have been notified of to the other channels
+            holder.signal();
+        }
+        if (disconnect != null) {
+            close();
+            disconnect.disconnectAndForget();
+        }
+    }
+
+    private void connect() {
+        holder.connect().subscribe().with(c -> {
+            synchronized (this) {
+                connecting = false;
+                client = c;
+                connected.set(true);
+            }
+            drain();
+        }, f -> {
+            log.unableToConnectToBroker(f);
+            synchronized (this) {
+                connecting = false;
+            }
+            vertx.setTimer(reconnectInterval, x -> drain());
+        });
+    }
+
+    private void onClose() {
+        synchronized (this) {
+            if (client == null) {
+                // Not connected yet, or disconnected after completion
+                return;
+            }
+            connected.set(false);
+        }
+        // Reconnects if there are messages to send
+        drain();
+    }
+
+    private void failed(Throwable failure) {
+        log.errorWhileSendingMessageToBroker(failure);
+        close();
+    }
+
+    /**
+     * Unregisters the listeners of the sink from the shared client.
+     */
+    void close() {
+        holder.removeCloseListener(closeListener);
+        holder.removeReleaseListener(releaseListener);
+    }
+
+    private void complete() {
+        synchronized (this) {
+            completed = true;
+        }
+        drain();
+    }
+
+    private void send(Message<?> msg) {
         String actualTopicToBeUsed = this.topic;
         MqttQoS actualQoS = MqttQoS.valueOf(this.qos);
         boolean isRetain = false;
@@ -97,18 +222,32 @@ public class MqttSink {
 
         if (actualTopicToBeUsed == null) {
             log.ignoringNoTopicSet();
-            return CompletableFuture.completedFuture(msg);
-        }
-
-        return client.publish(actualTopicToBeUsed, convert(msg.getPayload()), actualQoS, false, isRetain)
-                .onItemOrFailure().transformToUni((s, f) -> {
-                    if (f != null) {
-                        return Uni.createFrom().completionStage(msg.nack(f).thenApply(x -> msg));
-                    } else {
-                        return Uni.createFrom().completionStage(msg.ack().thenApply(x -> msg));
-                    }
-                })
-                .subscribeAsCompletionStage();
+            released();
+            return;
+        }
+
+        holder.publish(actualTopicToBeUsed, convert(msg.getPayload()), actualQoS, isRetain)
+                .subscribe().with(x -> {
+                    released();
+                    msg.ack();
+                }, f -> {
+                    released();
+                    msg.nack(f);
+                });
+    }
+
+    private void released() {
+        boolean done;
+        synchronized (this) {
+            inflight--;
+            done = completed && inflight == 0;
+        }
+        // Notifies the next sink of the client waiting for a slot, this one included
+        holder.release();
+        if (done) {
+            // Disconnects once the last publication completes
+            drain();
+        }
     }
 
     private Buffer convert(Object payload) {
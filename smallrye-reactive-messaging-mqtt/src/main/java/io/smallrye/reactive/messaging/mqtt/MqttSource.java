@@ -4,22 +4,24 @@ import static io.smallrye.reactive.messaging.mqtt.i18n.MqttExceptions.ex;
 import static io.smallrye.reactive.messaging.mqtt.i18n.MqttLogging.log;
 
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Pattern;
 
 import org.eclipse.microprofile.reactive.streams.operators.PublisherBuilder;
 import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
 
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
 import io.vertx.mqtt.MqttClientOptions;
 import io.vertx.mutiny.core.Vertx;
-import io.vertx.mutiny.mqtt.messages.MqttPublishMessage;
 
 public class MqttSource {
 
     private final PublisherBuilder<MqttMessage<?>> source;
     private final AtomicBoolean subscribed = new AtomicBoolean();
-    private final Pattern pattern;
 
     public MqttSource(Vertx vertx, MqttConnectorIncomingConfiguration config) {
+        this(vertx, config, null);
+    }
+
+    public MqttSource(Vertx vertx, MqttConnectorIncomingConfiguration config, AckDeadlines deadlines) {
         MqttClientOptions options = MqttHelpers.createMqttClientOptions(config);
 
         String host = config.getHost();
@@ -29,26 +31,18 @@ public class MqttSource {
         String topic = config.getTopic().orElseGet(config::getChannel);
         int qos = config.getQos();
         boolean broadcast = config.getBroadcast();
+        int bufferSize = Math.max(config.getBufferSize(), 1);
         MqttFailureHandler.Strategy strategy = MqttFailureHandler.Strategy.from(config.getFailureStrategy());
         MqttFailureHandler onNack = createFailureHandler(strategy, config.getChannel());
 
-        if (topic.contains("#") || topic.contains("+")) {
-            String replace = topic.replace("+", "[^/]+")
-                    .replace("#", ".+");
-            pattern = Pattern.compile(replace);
-        } else {
-            pattern = null;
-        }
-
         Clients.ClientHolder holder = Clients.getHolder(vertx, host, port, server, options);
         this.source = ReactiveStreams.fromPublisher(
                 holder.connect()
                         .onItem().transformToMulti(client -> client.subscribe(topic, qos)
                                 .onItem().transformToMulti(x -> {
                                     subscribed.set(true);
-                                    return holder.stream()
-                                            .transform().byFilteringItemsWith(m -> matches(topic, m))
-                                            .onItem().transform(m -> new ReceivingMqttMessage(m, onNack));
+                                    return holder.stream(topic, bufferSize)
+                                            .onItem().transform(m -> new ReceivingMqttMessage(m, onNack).track(deadlines));
                                 }))
                         .stage(multi -> {
                             if (broadcast) {
@@ -60,13 +54,6 @@ public class MqttSource {
                         .onFailure().invoke(log::unableToConnectToBroker));
     }
 
-    private boolean matches(String topic, MqttPublishMessage m) {
-        if (pattern != null) {
-            return pattern.matcher(m.topicName()).matches();
-        }
-        return m.topicName().equals(topic);
-    }
-
     private MqttFailureHandler createFailureHandler(MqttFailureHandler.Strategy strategy, String channel) {
         switch (strategy) {
             case IGNORE:
@@ -3,17 +3,39 @@ package io.smallrye.reactive.messaging.mqtt;
 import java.util.concurrent.CompletionStage;
 
 import io.netty.handler.codec.mqtt.MqttQoS;
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
 import io.vertx.mutiny.mqtt.messages.MqttPublishMessage;
 
 public class ReceivingMqttMessage implements MqttMessage<byte[]> {
     final MqttPublishMessage message;
     final MqttFailureHandler onNack;
+    private volatile AckDeadlines.Deadline deadline;
 
     ReceivingMqttMessage(MqttPublishMessage message, MqttFailureHandler onNack) {
         this.message = message;
         this.onNack = onNack;
     }
 
+    /**
+     * Starts tracking the acknowledgement deadline of the message.
+     *
+     * @param deadlines the deadlines of the channel, {@code null} if the channel does not track them
+     * @return this message
+     */
+    ReceivingMqttMessage track(AckDeadlines deadlines) {
+        if (deadlines != null) {
+            this.deadline = deadlines.track(this);
+        }
+        return this;
+    }
+
+    private void completeDeadline() {
+        AckDeadlines.Deadline current = deadline;
+        if (current != null) {
+            current.complete();
+        }
+    }
+
     @Override
     public byte[] getPayload() {
         return this.message.payload().getDelegate().getBytes();
@@ -39,8 +61,15 @@ public class ReceivingMqttMessage implements MqttMessage<byte[]> {
         return message.topicName();
     }
 
+    @Override
+    public CompletionStage<Void> ack() {
+        completeDeadline();
+        return MqttMessage.super.ack();
+    }
+
     @Override
     public CompletionStage<Void> nack(Throwable reason) {
+        completeDeadline();
         return this.onNack.handle(reason);
     }
 }
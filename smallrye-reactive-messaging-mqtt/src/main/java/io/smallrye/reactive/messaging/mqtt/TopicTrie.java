@@ -0,0 +1,112 @@
+package io.smallrye.reactive.messaging.mqtt;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Values associated with MQTT topic filters, indexed by topic level.
+ * <p>
+ * Looking up the values matching a topic walks the levels of the topic, so the cost depends on the depth of the topic
+ * and not on the number of filters. Filters follow the MQTT rules:
+ * <ul>
+ * <li>{@code +} matches exactly one level, for example {@code a/+/c} matches {@code a/b/c}</li>
+ * <li>{@code #} matches any number of levels, including the parent level, for example {@code a/#} matches {@code a},
+ * {@code a/b} and {@code a/b/c}</li>
+ * <li>wildcards at the first level do not match the topics starting with {@code $}</li>
+ * </ul>
+ * Lookups are lock-free and can run concurrently with modifications. Empty nodes are not removed, as the number of
+ * filters used by a client is bounded.
+ *
+ * @param <V> the type of value
+ */
+class TopicTrie<V> {
+
+    private static final String SINGLE_LEVEL = "+";
+    private static final String MULTI_LEVEL = "#";
+
+    private final Node<V> root = new Node<>();
+
+    void add(String filter, V value) {
+        Node<V> node = root;
+        int start = 0;
+        while (start <= filter.length()) {
+            int end = end(filter, start);
+            node = node.children.computeIfAbsent(filter.substring(start, end), k -> new Node<>());
+            start = end + 1;
+        }
+        node.values.add(value);
+    }
+
+    boolean remove(String filter, V value) {
+        Node<V> node = root;
+        int start = 0;
+        while (node != null && start <= filter.length()) {
+            int end = end(filter, start);
+            node = node.children.get(filter.substring(start, end));
+            start = end + 1;
+        }
+        return node != null && node.values.remove(value);
+    }
+
+    /**
+     * Calls the given action for each value whose filter matches the given topic.
+     *
+     * @param topic the topic name, without wildcard
+     * @param action the action
+     */
+    void forEachMatch(String topic, Consumer<? super V> action) {
+        match(root, topic, 0, !topic.startsWith("$"), action);
+    }
+
+    /**
+     * Calls the given action for each value.
+     *
+     * @param action the action
+     */
+    void forEach(Consumer<? super V> action) {
+        forEach(root, action);
+    }
+
+    private void match(Node<V> node, String topic, int start, boolean wildcards, Consumer<? super V> action) {
+        if (wildcards) {
+            // `#` matches the remaining levels, and the current one
+            Node<V> multi = node.children.get(MULTI_LEVEL);
+            if (multi != null) {
+                multi.values.forEach(action);
+            }
+        }
+        if (start > topic.length()) {
+            node.values.forEach(action);
+            return;
+        }
+        int end = end(topic, start);
+        Node<V> exact = node.children.get(topic.substring(start, end));
+        if (exact != null) {
+            match(exact, topic, end + 1, true, action);
+        }
+        if (wildcards) {
+            Node<V> single = node.children.get(SINGLE_LEVEL);
+            if (single != null) {
+                match(single, topic, end + 1, true, action);
+            }
+        }
+    }
+
+    private void forEach(Node<V> node, Consumer<? super V> action) {
+        node.values.forEach(action);
+        node.children.values().forEach(child -> forEach(child, action));
+    }
+
+    private static int end(String topic, int start) {
+        int end = topic.indexOf('/', start);
+        return end == -1 ? topic.length() : end;
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new ConcurrentHashMap<>();
+        private final List<V> values = new CopyOnWriteArrayList<>();
+    }
+}
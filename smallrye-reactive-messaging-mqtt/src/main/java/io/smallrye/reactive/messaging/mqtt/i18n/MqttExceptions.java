@@ -16,4 +16,13 @@ public interface MqttExceptions {
     @Message(id = 17000, value = "Unknown failure strategy: %s")
     IllegalArgumentException illegalArgumentUnknownStrategy(String strategy);
 
+    @Message(id = 17001, value = "Invalid acknowledgement timeout action `%s` for channel `%s`, the MQTT connector does not report health, accepted values are `nack` and `log`")
+    IllegalArgumentException illegalArgumentUnsupportedAckTimeoutAction(String action, String channel);
+
+    @Message(id = 17002, value = "The connection to the MQTT server has been closed")
+    IllegalStateException illegalStateConnectionClosed();
+
+    @Message(id = 17003, value = "The buffer of the messages received on `%s` is full (%d messages): the application does not consume them fast enough, increase `buffer-size` if needed")
+    IllegalStateException illegalStateReceptionBufferFull(String filter, int size);
+
 }
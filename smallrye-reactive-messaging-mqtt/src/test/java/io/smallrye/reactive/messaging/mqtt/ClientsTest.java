@@ -0,0 +1,140 @@
+package io.smallrye.reactive.messaging.mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mqtt.MqttClientOptions;
+import io.vertx.mqtt.MqttEndpoint;
+import io.vertx.mqtt.MqttServer;
+import io.vertx.mqtt.MqttServerOptions;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.mqtt.messages.MqttPublishMessage;
+
+/**
+ * Checks the streams of a shared client, using an embedded MQTT server.
+ */
+public class ClientsTest {
+
+    private Vertx vertx;
+    private MqttServer server;
+    private final List<MqttEndpoint> endpoints = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        vertx = Vertx.vertx();
+        server = MqttServer.create(vertx.getDelegate(), new MqttServerOptions().setPort(0).setHost("localhost"));
+        server.endpointHandler(endpoint -> {
+            endpoints.add(endpoint);
+            endpoint.accept(false);
+        });
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        server.listen(ar -> started.complete(null));
+        started.join();
+    }
+
+    @After
+    public void cleanup() {
+        Clients.clear();
+        server.close();
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    public void testStreamFailsWhenItsBufferIsFull() {
+        Clients.ClientHolder holder = Clients.getHolder(vertx, "localhost", server.actualPort(), null,
+                new MqttClientOptions());
+        holder.connect().await().indefinitely();
+        Collector slow = holder.stream("slow", 5).subscribe().withSubscriber(new Collector(2));
+        Collector fast = holder.stream("fast", 5).subscribe().withSubscriber(new Collector(Long.MAX_VALUE));
+        await().until(() -> endpoints.size() == 1);
+
+        for (int i = 0; i < 20; i++) {
+            endpoints.get(0).publish("slow", Buffer.buffer("s" + i), MqttQoS.AT_MOST_ONCE, false, false);
+            endpoints.get(0).publish("fast", Buffer.buffer("f" + i), MqttQoS.AT_MOST_ONCE, false, false);
+        }
+
+        await().pollDelay(java.time.Duration.ofSeconds(1)).until(() -> true);
+        // 2 messages are requested, and at least 5 are buffered
+        await().until(() -> slow.failure.get() != null);
+        assertThat(slow.items).hasSize(2);
+        assertThat(slow.failure.get()).isInstanceOf(IllegalStateException.class).hasMessageContaining("slow");
+        // The other streams of the client are not affected
+        await().until(() -> fast.items.size() == 20);
+        assertThat(fast.failure.get()).isNull();
+    }
+
+    @Test
+    public void testReleasedSlotsNotifyTheWaitingChannelsInTurn() {
+        Clients.ClientHolder holder = Clients.getHolder(vertx, "localhost", server.actualPort(), null,
+                new MqttClientOptions().setMaxInflightQueue(2));
+        assertThat(holder.acquire()).isTrue();
+        assertThat(holder.acquire()).isTrue();
+        assertThat(holder.acquire()).isFalse();
+
+        List<String> notified = new CopyOnWriteArrayList<>();
+        Runnable first = () -> notified.add("first");
+        Runnable second = () -> notified.add("second");
+        Runnable removed = () -> notified.add("removed");
+        holder.onRelease(first);
+        holder.onRelease(first);
+        holder.onRelease(removed);
+        holder.onRelease(second);
+        holder.removeReleaseListener(removed);
+        assertThat(notified).isEmpty();
+
+        holder.release();
+        assertThat(notified).containsExactly("first");
+        assertThat(holder.acquire()).isTrue();
+        holder.release();
+        assertThat(notified).containsExactly("first", "second");
+        holder.release();
+        assertThat(notified).containsExactly("first", "second");
+
+        // A channel registering while a slot is available is notified right away
+        holder.onRelease(first);
+        assertThat(notified).containsExactly("first", "second", "first");
+    }
+
+    private static class Collector implements Subscriber<MqttPublishMessage> {
+        private final long requests;
+        private final List<MqttPublishMessage> items = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Collector(long requests) {
+            this.requests = requests;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(requests);
+        }
+
+        @Override
+        public void onNext(MqttPublishMessage item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failure.set(t);
+        }
+
+        @Override
+        public void onComplete() {
+            // Not expected
+        }
+    }
+}
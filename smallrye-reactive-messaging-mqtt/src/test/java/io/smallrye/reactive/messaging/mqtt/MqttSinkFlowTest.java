@@ -0,0 +1,190 @@
+package io.smallrye.reactive.messaging.mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.smallrye.mutiny.Multi;
+import io.vertx.mqtt.MqttEndpoint;
+import io.vertx.mqtt.MqttServer;
+import io.vertx.mqtt.MqttServerOptions;
+import io.vertx.mqtt.messages.MqttPublishMessage;
+import io.vertx.mutiny.core.Vertx;
+
+/**
+ * Checks the flow control of the sink, using an embedded MQTT server.
+ */
+public class MqttSinkFlowTest {
+
+    private Vertx vertx;
+    private MqttServer server;
+    private final List<MqttEndpoint> endpoints = new CopyOnWriteArrayList<>();
+    private final List<MqttPublishMessage> received = new CopyOnWriteArrayList<>();
+    private volatile boolean autoAck = true;
+
+    @Before
+    public void setup() {
+        vertx = Vertx.vertx();
+        server = MqttServer.create(vertx.getDelegate(), new MqttServerOptions().setPort(0).setHost("localhost"));
+        server.endpointHandler(endpoint -> {
+            endpoints.add(endpoint);
+            endpoint.publishHandler(m -> {
+                received.add(m);
+                if (autoAck && m.qosLevel() == MqttQoS.AT_LEAST_ONCE) {
+                    endpoint.publishAcknowledge(m.messageId());
+                }
+            });
+            endpoint.accept(false);
+        });
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        server.listen(ar -> started.complete(null));
+        started.join();
+    }
+
+    @After
+    public void cleanup() {
+        Clients.clear();
+        server.close();
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    public void testPipelinedPublications() {
+        autoAck = false;
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        MqttSink sink = createSink(1, 5);
+        ReactiveStreams.fromIterable(createMessages(20, acked)).to(subscriber(sink)).run();
+
+        // The messages are published without waiting for the acknowledgement of the previous ones
+        await().until(() -> received.size() == 5);
+        await().pollDelay(200, TimeUnit.MILLISECONDS).until(() -> received.size() == 5);
+        assertThat(acked).isEmpty();
+
+        // Each PUBACK acknowledges a message, and lets the sink publish the next one
+        AtomicInteger next = new AtomicInteger();
+        await().until(() -> {
+            while (next.get() < received.size()) {
+                endpoints.get(0).publishAcknowledge(received.get(next.getAndIncrement()).messageId());
+            }
+            return acked.size() == 20;
+        });
+        assertThat(received.stream().map(m -> m.payload().toString()).collect(Collectors.toList()))
+                .containsExactlyElementsOf(IntStream.range(0, 20).mapToObj(Integer::toString)
+                        .collect(Collectors.toList()));
+        assertThat(acked).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 20).boxed()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testInflightBudgetIsSharedByTheSinksOfAClient() {
+        autoAck = false;
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        MqttSink first = createSink("first", 1, 5);
+        MqttSink second = createSink("second", 1, 5);
+        // The streams do not complete, as a completed sink disconnects the client
+        ReactiveStreams.fromPublisher(Multi.createBy().concatenating()
+                .streams(Multi.createFrom().iterable(createMessages(10, acked)), Multi.createFrom().nothing()))
+                .to(subscriber(first)).run();
+        ReactiveStreams.fromPublisher(Multi.createBy().concatenating()
+                .streams(Multi.createFrom().iterable(createMessages(10, acked)), Multi.createFrom().nothing()))
+                .to(subscriber(second)).run();
+
+        // Both sinks use the same client, which accepts 5 in-flight messages
+        await().until(() -> received.size() == 5);
+        await().pollDelay(200, TimeUnit.MILLISECONDS).until(() -> received.size() == 5);
+        assertThat(endpoints).hasSize(1);
+
+        AtomicInteger next = new AtomicInteger();
+        await().until(() -> {
+            while (next.get() < received.size()) {
+                endpoints.get(0).publishAcknowledge(received.get(next.getAndIncrement()).messageId());
+            }
+            return acked.size() == 20;
+        });
+        assertThat(received.stream().filter(m -> m.topicName().equals("first")).count()).isEqualTo(10);
+        assertThat(received.stream().filter(m -> m.topicName().equals("second")).count()).isEqualTo(10);
+    }
+
+    @Test
+    public void testOrderIsPreservedWhileThePublicationsComplete() {
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        MqttSink sink = createSink(1, 10);
+        ReactiveStreams.fromIterable(createMessages(1000, acked)).to(subscriber(sink)).run();
+
+        await().until(() -> acked.size() == 1000);
+        assertThat(received.stream().map(m -> m.payload().toString()).collect(Collectors.toList()))
+                .containsExactlyElementsOf(IntStream.range(0, 1000).mapToObj(Integer::toString)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testReconnection() {
+        List<Integer> acked = new CopyOnWriteArrayList<>();
+        MqttSink sink = createSink(0, 10);
+        CompletableFuture<Boolean> release = new CompletableFuture<>();
+        List<Message<?>> messages = createMessages(10, acked);
+        // The 5 last messages are produced once the connection has been closed
+        ReactiveStreams.concat(ReactiveStreams.fromIterable(messages.subList(0, 5)),
+                ReactiveStreams.fromCompletionStage(release).flatMapIterable(x -> messages.subList(5, 10)))
+                .to(subscriber(sink)).run();
+
+        await().until(() -> acked.size() == 5);
+        assertThat(sink.isReady()).isTrue();
+        endpoints.get(0).close();
+        await().until(() -> !sink.isReady());
+        release.complete(true);
+
+        // The sink reconnects to send the next messages
+        await().until(() -> acked.size() == 10);
+        assertThat(endpoints).hasSize(2);
+        assertThat(received.stream().map(m -> m.payload().toString()).collect(Collectors.toList()))
+                .containsExactlyElementsOf(IntStream.range(0, 10).mapToObj(Integer::toString)
+                        .collect(Collectors.toList()));
+    }
+
+    private MqttSink createSink(int qos, int maxInflight) {
+        return createSink("flow", qos, maxInflight);
+    }
+
+    private MqttSink createSink(String topic, int qos, int maxInflight) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("channel-name", topic);
+        config.put("topic", topic);
+        config.put("host", "localhost");
+        config.put("port", server.actualPort());
+        config.put("qos", qos);
+        config.put("max-inflight-queue", maxInflight);
+        return new MqttSink(vertx, new MqttConnectorOutgoingConfiguration(new MapBasedConfig(config)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Subscriber<Message<?>> subscriber(MqttSink sink) {
+        return (Subscriber<Message<?>>) sink.getSink().build();
+    }
+
+    private List<Message<?>> createMessages(int count, List<Integer> acked) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Message.of(Integer.toString(i), () -> {
+                    acked.add(i);
+                    return CompletableFuture.completedFuture(null);
+                }))
+                .collect(Collectors.toList());
+    }
+}
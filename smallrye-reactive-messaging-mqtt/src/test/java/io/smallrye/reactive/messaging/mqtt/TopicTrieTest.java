@@ -0,0 +1,62 @@
+package io.smallrye.reactive.messaging.mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopicTrieTest {
+
+    private TopicTrie<String> trie;
+
+    @Before
+    public void setup() {
+        trie = new TopicTrie<>();
+        for (String filter : new String[] { "a/b/c", "a/+/c", "a/#", "+/b/+", "#", "+", "/a", "a//c", "$SYS/#" }) {
+            trie.add(filter, filter);
+        }
+    }
+
+    @Test
+    public void testMatching() {
+        assertThat(match("a/b/c")).containsExactlyInAnyOrder("a/b/c", "a/+/c", "a/#", "+/b/+", "#");
+        assertThat(match("a/x/c")).containsExactlyInAnyOrder("a/+/c", "a/#", "#");
+        assertThat(match("a")).containsExactlyInAnyOrder("a/#", "#", "+");
+        assertThat(match("b")).containsExactlyInAnyOrder("#", "+");
+        assertThat(match("a/b/c/d")).containsExactlyInAnyOrder("a/#", "#");
+        assertThat(match("/a")).containsExactlyInAnyOrder("/a", "#");
+        assertThat(match("a//c")).containsExactlyInAnyOrder("a//c", "a/+/c", "a/#", "#");
+        assertThat(match("x/b/")).containsExactlyInAnyOrder("+/b/+", "#");
+    }
+
+    @Test
+    public void testSystemTopics() {
+        // Wildcards at the first level do not match the topics starting with $
+        assertThat(match("$SYS/broker/uptime")).containsExactly("$SYS/#");
+        assertThat(match("$SYS")).containsExactly("$SYS/#");
+    }
+
+    @Test
+    public void testRemoval() {
+        trie.add("a/b/c", "other");
+        assertThat(match("a/b/c")).contains("a/b/c", "other");
+        assertThat(trie.remove("a/b/c", "other")).isTrue();
+        assertThat(trie.remove("a/b/c", "other")).isFalse();
+        assertThat(trie.remove("x/y", "x/y")).isFalse();
+        assertThat(trie.remove("#", "#")).isTrue();
+        assertThat(match("a/b/c")).containsExactlyInAnyOrder("a/b/c", "a/+/c", "a/#", "+/b/+");
+
+        List<String> all = new ArrayList<>();
+        trie.forEach(all::add);
+        assertThat(all).containsExactlyInAnyOrder("a/b/c", "a/+/c", "a/#", "+/b/+", "+", "/a", "a//c", "$SYS/#");
+    }
+
+    private List<String> match(String topic) {
+        List<String> matches = new ArrayList<>();
+        trie.forEachMatch(topic, matches::add);
+        return matches;
+    }
+}
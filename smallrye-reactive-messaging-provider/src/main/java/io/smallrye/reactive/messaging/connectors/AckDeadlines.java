@@ -0,0 +1,123 @@
+package io.smallrye.reactive.messaging.connectors;
+
+import static io.smallrye.reactive.messaging.i18n.ProviderExceptions.ex;
+import static io.smallrye.reactive.messaging.i18n.ProviderLogging.log;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+
+/**
+ * Detects the messages received from a channel which are not acknowledged (or nacked) in time.
+ * <p>
+ * Connectors call {@link #track(Message)} when a message is received, and {@link Deadline#complete()} when the message
+ * is acknowledged or nacked. Deadlines are registered in the {@link HashedWheelTimer} shared by the connectors, so
+ * tracking a message is O(1). When a deadline expires, a warning is logged, the message is counted as overdue, and
+ * depending on the {@link Action}:
+ * <ul>
+ * <li>{@code nack} - the message is nacked with a {@link java.util.concurrent.TimeoutException}</li>
+ * <li>{@code fail} - the channel is reported as unhealthy while it has overdue messages</li>
+ * <li>{@code log} - nothing else is done</li>
+ * </ul>
+ * Instances are created using {@link ExecutionHolder#ackDeadlines(String, long, String)}.
+ */
+public class AckDeadlines {
+
+    public enum Action {
+        NACK,
+        FAIL,
+        LOG;
+
+        public static Action from(String s) {
+            if (s == null || s.equalsIgnoreCase("log")) {
+                return LOG;
+            }
+            if (s.equalsIgnoreCase("nack")) {
+                return NACK;
+            }
+            if (s.equalsIgnoreCase("fail")) {
+                return FAIL;
+            }
+            throw ex.illegalArgumentUnknownAckTimeoutAction(s);
+        }
+    }
+
+    private final HashedWheelTimer timer;
+    private final String channel;
+    private final long timeout;
+    private final Action action;
+    private final AtomicLong overdue = new AtomicLong();
+
+    AckDeadlines(HashedWheelTimer timer, String channel, long timeout, Action action) {
+        this.timer = timer;
+        this.channel = channel;
+        this.timeout = timeout;
+        this.action = action;
+    }
+
+    /**
+     * Starts tracking the given message.
+     *
+     * @param message the received message
+     * @return the deadline, to complete when the message is acknowledged or nacked
+     */
+    public Deadline track(Message<?> message) {
+        return new Deadline(message);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return the number of messages whose deadline has expired, and which have not been acknowledged or nacked yet
+     */
+    public long getOverdue() {
+        // May be transiently negative when a message is acknowledged while its deadline expires
+        return Math.max(overdue.get(), 0);
+    }
+
+    /**
+     * @return {@code false} if the action is {@code fail} and some messages are overdue
+     */
+    public boolean isHealthy() {
+        return action != Action.FAIL || getOverdue() == 0;
+    }
+
+    private void expired(Message<?> message) {
+        overdue.incrementAndGet();
+        log.ackTimeoutExpired(channel, timeout);
+        if (action == Action.NACK) {
+            message.nack(ex.ackTimeout(timeout));
+        }
+    }
+
+    /**
+     * The acknowledgement deadline of a message.
+     */
+    public final class Deadline {
+
+        private final HashedWheelTimer.Timeout scheduled;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Deadline(Message<?> message) {
+            this.scheduled = timer.schedule(timeout, TimeUnit.MILLISECONDS, () -> expired(message));
+        }
+
+        /**
+         * Stops tracking the message. Must be called when the message is acknowledged or nacked, subsequent calls are
+         * ignored.
+         */
+        public void complete() {
+            if (completed.compareAndSet(false, true) && !scheduled.cancel()) {
+                overdue.decrementAndGet();
+            }
+        }
+    }
+}
@@ -2,6 +2,11 @@ package io.smallrye.reactive.messaging.connectors;
 
 import static io.smallrye.reactive.messaging.i18n.ProviderLogging.log;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 import javax.annotation.Priority;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.BeforeDestroyed;
@@ -13,17 +18,30 @@ import javax.inject.Inject;
 import io.vertx.mutiny.core.Vertx;
 
 /**
- * Provides common runtime services to connectors, such as a Vertx instance,
+ * Provides common runtime services to connectors, such as a Vertx instance or a timer,
  * to avoid duplicating the creation and cleanup of shared components across connectors.
  */
 @ApplicationScoped
 public class ExecutionHolder {
 
+    private static final long TIMER_TICK_MS = 100;
+    private static final int TIMER_WHEEL_SIZE = 512;
+
     private boolean internalVertxInstance = false;
     final Vertx vertx;
 
+    private HashedWheelTimer timer;
+    private final Map<String, AckDeadlines> ackDeadlines = new ConcurrentHashMap<>();
+
     public void terminate(
             @Observes(notifyObserver = Reception.IF_EXISTS) @Priority(200) @BeforeDestroyed(ApplicationScoped.class) Object event) {
+        synchronized (this) {
+            if (timer != null) {
+                timer.close();
+                timer = null;
+            }
+        }
+        ackDeadlines.clear();
         if (internalVertxInstance) {
             vertx.close().await().indefinitely();
         }
@@ -53,4 +71,37 @@ public class ExecutionHolder {
     public Vertx vertx() {
         return vertx;
     }
+
+    /**
+     * @return the timer shared by the connectors, created on first use
+     */
+    public synchronized HashedWheelTimer timer() {
+        if (timer == null) {
+            timer = new HashedWheelTimer("smallrye-reactive-messaging-timer", TIMER_TICK_MS, TimeUnit.MILLISECONDS,
+                    TIMER_WHEEL_SIZE);
+        }
+        return timer;
+    }
+
+    /**
+     * Creates the acknowledgement deadlines of an incoming channel.
+     *
+     * @param channel the channel name
+     * @param timeout the maximum time in milliseconds between the reception of a message and its acknowledgement
+     * @param action the action executed when a deadline expires: {@code nack}, {@code fail} or {@code log}
+     * @return the acknowledgement deadlines
+     */
+    public AckDeadlines ackDeadlines(String channel, long timeout, String action) {
+        AckDeadlines deadlines = new AckDeadlines(timer(), channel, timeout, AckDeadlines.Action.from(action));
+        ackDeadlines.put(channel, deadlines);
+        return deadlines;
+    }
+
+    /**
+     * @param channel the channel name
+     * @return the acknowledgement deadlines of the channel, empty if the channel does not track them
+     */
+    public Optional<AckDeadlines> getAckDeadlines(String channel) {
+        return Optional.ofNullable(ackDeadlines.get(channel));
+    }
 }
@@ -0,0 +1,241 @@
+package io.smallrye.reactive.messaging.connectors;
+
+import static io.smallrye.reactive.messaging.i18n.ProviderLogging.log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer designed for a large number of timeouts which are, most of the time, cancelled before expiring, such as
+ * acknowledgement deadlines.
+ * <p>
+ * Timeouts are stored in a wheel of buckets, each bucket covering a tick. Scheduling and cancelling a timeout are
+ * O(1): the timeout is handed over to the timer thread which places it in (or removes it from) its bucket. On each
+ * tick, the timer thread only visits the timeouts of the current bucket. Expiration is approximate, a timeout
+ * expires up to one tick late.
+ * <p>
+ * Tasks are executed on the timer thread, so they must not block.
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private final long tick;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private final long start;
+    private volatile boolean closed;
+
+    /**
+     * Creates and starts a new timer.
+     *
+     * @param name the name of the timer thread
+     * @param tickDuration the duration of a tick, i.e. the precision of the timer
+     * @param unit the unit of the tick duration
+     * @param wheelSize the number of buckets, rounded to the next power of 2 (at least 2)
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        this.tick = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.start = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules the execution of the given task.
+     *
+     * @param delay the delay
+     * @param unit the unit of the delay
+     * @param task the task, executed on the timer thread
+     * @return the timeout, which can be cancelled
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        Timeout timeout = new Timeout(System.nanoTime() - start + unit.toNanos(delay), task);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return the number of scheduled timeouts, neither expired nor cancelled
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the timer. The pending timeouts never expire.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        long current = 0;
+        while (!closed) {
+            long deadline = (current + 1) * tick;
+            long sleep = deadline - (System.nanoTime() - start);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            removeCancelled();
+            transferScheduled(current);
+            expire(wheel[(int) (current & mask)], current);
+            current++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled(long current) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long ticks = Math.max(timeout.deadline / tick, current);
+            timeout.rounds = (ticks - current) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket, long current) {
+        long now = System.nanoTime() - start;
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds <= 0 && timeout.deadline <= now) {
+                bucket.remove(timeout);
+                timeout.expire();
+            } else if (timeout.state.get() == Timeout.CANCELLED) {
+                bucket.remove(timeout);
+            } else if (timeout.rounds > 0) {
+                timeout.rounds--;
+            } else {
+                // Scheduled during the current tick, moved to the next one
+                bucket.remove(timeout);
+                wheel[(int) ((current + 1) & mask)].add(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * A scheduled task.
+     */
+    public final class Timeout {
+
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final long deadline;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // Only accessed from the timer thread
+        private long rounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the timeout.
+         *
+         * @return {@code true} if the timeout has been cancelled, {@code false} if it has already expired or been
+         *         cancelled
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(INIT, CANCELLED)) {
+                pending.decrementAndGet();
+                cancelled.add(this);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return whether the task has been executed, or is being executed
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(INIT, EXPIRED)) {
+                pending.decrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    log.timerTaskFailed(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * A doubly-linked list of timeouts, only accessed from the timer thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.next = null;
+            timeout.previous = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.next = null;
+            timeout.previous = null;
+        }
+    }
+}
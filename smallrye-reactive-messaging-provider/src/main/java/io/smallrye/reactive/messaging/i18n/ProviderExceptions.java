@@ -5,6 +5,7 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 import javax.enterprise.inject.spi.DefinitionException;
 import javax.enterprise.inject.spi.DeploymentException;
@@ -251,4 +252,10 @@ public interface ProviderExceptions {
 
     @Message(id = 74, value = "Unable to retrieve the config")
     IllegalStateException illegalStateRetieveConfig();
+
+    @Message(id = 75, value = "The message has not been acknowledged after %d ms")
+    TimeoutException ackTimeout(long timeout);
+
+    @Message(id = 76, value = "Invalid acknowledgement timeout action `%s`, accepted values are `nack`, `fail` and `log`")
+    IllegalArgumentException illegalArgumentUnknownAckTimeoutAction(String action);
 }
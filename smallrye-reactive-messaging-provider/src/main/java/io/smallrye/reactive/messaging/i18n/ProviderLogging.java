@@ -160,4 +160,12 @@ public interface ProviderLogging extends BasicLogger {
     @Message(id = 234, value = "Failed to emit a Message to the channel")
     void failureEmittingMessage(@Cause Throwable t);
 
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 235, value = "A timer task failed")
+    void timerTaskFailed(@Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 236, value = "A message received from channel `%s` has not been acknowledged after %d ms")
+    void ackTimeoutExpired(String channel, long timeout);
+
 }
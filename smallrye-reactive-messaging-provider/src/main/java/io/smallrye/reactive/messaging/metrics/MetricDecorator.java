@@ -7,20 +7,31 @@ import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
 import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricRegistry.Type;
+import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.metrics.annotation.RegistryType;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.streams.operators.PublisherBuilder;
 
 import io.smallrye.reactive.messaging.PublisherDecorator;
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
+import io.smallrye.reactive.messaging.connectors.ExecutionHolder;
 
 @ApplicationScoped
 public class MetricDecorator implements PublisherDecorator {
 
+    private static final String OVERDUE = "mp.messaging.message.overdue";
+
     private MetricRegistry registry;
 
+    @Inject
+    private Instance<ExecutionHolder> executionHolder;
+
     @Inject
     private void setMetricRegistry(@RegistryType(type = Type.BASE) Instance<MetricRegistry> registryInstance) {
         if (registryInstance.isResolvable()) {
@@ -32,6 +43,7 @@ public class MetricDecorator implements PublisherDecorator {
     public PublisherBuilder<? extends Message<?>> decorate(PublisherBuilder<? extends Message<?>> publisher,
             String channelName) {
         if (registry != null) {
+            registerOverdueGauge(channelName);
             return publisher.peek(incrementCount(channelName));
         } else {
             return publisher;
@@ -43,4 +55,27 @@ public class MetricDecorator implements PublisherDecorator {
         return m -> counter.inc();
     }
 
+    private synchronized void registerOverdueGauge(String channelName) {
+        // Connectors create the deadlines of a channel before the publisher is decorated
+        if (!executionHolder.isResolvable()) {
+            return;
+        }
+        ExecutionHolder holder = executionHolder.get();
+        if (!holder.getAckDeadlines(channelName).isPresent()) {
+            return;
+        }
+        Tag tag = new Tag("channel", channelName);
+        // The channel may be decorated again (redeployment, several decorators): the gauge reads the current
+        // deadlines of the channel, so the registered one is reused
+        if (registry.getGauges().containsKey(new MetricID(OVERDUE, tag))) {
+            return;
+        }
+        Metadata metadata = Metadata.builder()
+                .withName(OVERDUE)
+                .withType(MetricType.GAUGE)
+                .build();
+        registry.register(metadata,
+                (Gauge<Long>) () -> holder.getAckDeadlines(channelName).map(AckDeadlines::getOverdue).orElse(0L), tag);
+    }
+
 }
@@ -0,0 +1,88 @@
+package io.smallrye.reactive.messaging.connectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.mutiny.core.Vertx;
+
+public class AckDeadlinesTest {
+
+    private ExecutionHolder holder;
+
+    @Before
+    public void setup() {
+        holder = new ExecutionHolder(Vertx.vertx());
+    }
+
+    @After
+    public void cleanup() {
+        holder.terminate(null);
+    }
+
+    @Test
+    public void testNackOnTimeout() {
+        AckDeadlines deadlines = holder.ackDeadlines("channel", 50, "nack");
+        assertThat(holder.getAckDeadlines("channel")).containsSame(deadlines);
+        assertThat(holder.getAckDeadlines("other")).isEmpty();
+
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        AckDeadlines.Deadline[] deadline = new AckDeadlines.Deadline[1];
+        Message<String> message = Message.of("hello", () -> {
+            deadline[0].complete();
+            return CompletableFuture.completedFuture(null);
+        }, t -> {
+            deadline[0].complete();
+            failures.add(t);
+            return CompletableFuture.completedFuture(null);
+        });
+        deadline[0] = deadlines.track(message);
+
+        await().until(() -> failures.size() == 1);
+        assertThat(failures.get(0)).isInstanceOf(TimeoutException.class);
+        assertThat(deadlines.getOverdue()).isZero();
+        assertThat(deadlines.isHealthy()).isTrue();
+    }
+
+    @Test
+    public void testOverdueMessagesMarkTheChannelUnhealthy() {
+        AckDeadlines deadlines = holder.ackDeadlines("channel", 50, "fail");
+        AckDeadlines.Deadline acked = deadlines.track(Message.of("acked"));
+        AckDeadlines.Deadline late = deadlines.track(Message.of("late"));
+        acked.complete();
+
+        await().until(() -> deadlines.getOverdue() == 1);
+        assertThat(deadlines.isHealthy()).isFalse();
+
+        late.complete();
+        late.complete();
+        assertThat(deadlines.getOverdue()).isZero();
+        assertThat(deadlines.isHealthy()).isTrue();
+    }
+
+    @Test
+    public void testLogAction() {
+        AckDeadlines deadlines = holder.ackDeadlines("channel", 50, null);
+        assertThat(deadlines.getAction()).isEqualTo(AckDeadlines.Action.LOG);
+        deadlines.track(Message.of("late"));
+        await().until(() -> deadlines.getOverdue() == 1);
+        // Overdue messages do not affect the health with the log action
+        assertThat(deadlines.isHealthy()).isTrue();
+    }
+
+    @Test
+    public void testInvalidAction() {
+        assertThatThrownBy(() -> holder.ackDeadlines("channel", 50, "retry"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
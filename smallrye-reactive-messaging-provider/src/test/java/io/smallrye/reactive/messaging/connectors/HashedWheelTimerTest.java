@@ -0,0 +1,76 @@
+package io.smallrye.reactive.messaging.connectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setup() {
+        timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void cleanup() {
+        timer.close();
+    }
+
+    @Test
+    public void testExpirationOrder() {
+        List<Integer> expired = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+        // Longer than a wheel revolution
+        timer.schedule(250, TimeUnit.MILLISECONDS, () -> expired.add(3));
+        timer.schedule(20, TimeUnit.MILLISECONDS, () -> expired.add(1));
+        timer.schedule(100, TimeUnit.MILLISECONDS, () -> expired.add(2));
+        assertThat(timer.pending()).isEqualTo(3);
+
+        await().until(() -> expired.size() == 3);
+        assertThat(expired).containsExactly(1, 2, 3);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(250);
+        assertThat(timer.pending()).isZero();
+    }
+
+    @Test
+    public void testCancellation() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            timeouts.add(timer.schedule(50, TimeUnit.MILLISECONDS, count::incrementAndGet));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertThat(timeouts.get(i).cancel()).isTrue();
+            assertThat(timeouts.get(i).cancel()).isFalse();
+        }
+        assertThat(timer.pending()).isEqualTo(500);
+
+        await().until(() -> count.get() == 500);
+        Thread.sleep(100);
+        assertThat(count).hasValue(500);
+        assertThat(timeouts.get(1).isExpired()).isTrue();
+        assertThat(timeouts.get(1).cancel()).isFalse();
+        assertThat(timeouts.get(0).isExpired()).isFalse();
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopTheTimer() {
+        AtomicInteger count = new AtomicInteger();
+        timer.schedule(10, TimeUnit.MILLISECONDS, () -> {
+            throw new IllegalStateException("boom");
+        });
+        timer.schedule(50, TimeUnit.MILLISECONDS, count::incrementAndGet);
+        await().until(() -> count.get() == 1);
+    }
+}
@@ -6,15 +6,20 @@ import static org.junit.Assert.assertEquals;
 import javax.enterprise.util.AnnotationLiteral;
 
 import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricRegistry.Type;
 import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.eclipse.microprofile.reactive.streams.operators.ReactiveStreams;
 import org.junit.Test;
 
 import io.smallrye.metrics.setup.MetricCdiInjectionExtension;
 import io.smallrye.reactive.messaging.MyCollector;
 import io.smallrye.reactive.messaging.WeldTestBase;
+import io.smallrye.reactive.messaging.connectors.AckDeadlines;
+import io.smallrye.reactive.messaging.connectors.ExecutionHolder;
 
 public class MetricsTest extends WeldTestBase {
 
@@ -34,6 +39,26 @@ public class MetricsTest extends WeldTestBase {
         assertEquals(MetricsTestBean.TEST_MESSAGES.size() * 2, getCounter("sink").getCount());
     }
 
+    @Test
+    public void testOverdueGaugeIsRegisteredOnce() {
+        addBeanClass(MetricsTestBean.class);
+        addExtensionClass(MetricCdiInjectionExtension.class);
+        initialize();
+
+        ExecutionHolder holder = container.select(ExecutionHolder.class).get();
+        MetricDecorator decorator = container.select(MetricDecorator.class).get();
+        holder.ackDeadlines("channel", 60000, "log");
+        decorator.decorate(ReactiveStreams.empty(), "channel");
+        // The channel is decorated again, with new deadlines
+        AckDeadlines deadlines = holder.ackDeadlines("channel", 60000, "log");
+        decorator.decorate(ReactiveStreams.empty(), "channel");
+
+        MetricRegistry registry = container.select(MetricRegistry.class, RegistryTypeLiteral.BASE).get();
+        Gauge<?> gauge = registry.getGauges()
+                .get(new MetricID("mp.messaging.message.overdue", new Tag("channel", "channel")));
+        assertEquals(deadlines.getOverdue(), gauge.getValue());
+    }
+
     private Counter getCounter(String channelName) {
         MetricRegistry registry = container.select(MetricRegistry.class, RegistryTypeLiteral.BASE).get();
         return registry.counter("mp.messaging.message.count", new Tag("channel", channelName));